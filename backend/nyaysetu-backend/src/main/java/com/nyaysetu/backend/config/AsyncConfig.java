@@ -0,0 +1,94 @@
+package com.nyaysetu.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * One bounded executor per background workload, so a burst in one of them cannot
+ * starve the others. Services pick theirs with {@code @Async("<name>")}; anything left
+ * on plain {@code @Async} runs on the default executor. Pool and queue sizes are reported
+ * under the {@code executor.*} metrics, tagged with the bean name.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Default for plain {@code @Async} and async MVC requests. Declared here because the
+     * named executors below would otherwise make Spring Boot back off from its own.
+     */
+    @Bean(name = {"taskExecutor", "applicationTaskExecutor"})
+    public ThreadPoolTaskExecutor taskExecutor(@Value("${async.default.core-size:4}") int coreSize,
+                                               @Value("${async.default.max-size:8}") int maxSize,
+                                               @Value("${async.default.queue-capacity:200}") int queueCapacity) {
+        return executor("async-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Outgoing mail. A full queue slows the requesting thread down rather than
+     * dropping a password-reset or verification email.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${async.mail.core-size:2}") int coreSize,
+                                               @Value("${async.mail.max-size:4}") int maxSize,
+                                               @Value("${async.mail.queue-capacity:500}") int queueCapacity) {
+        return executor("mail-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /** Audit log appends; like mail, never dropped — callers absorb the overflow. */
+    @Bean
+    public ThreadPoolTaskExecutor auditExecutor(@Value("${async.audit.core-size:2}") int coreSize,
+                                                @Value("${async.audit.max-size:4}") int maxSize,
+                                                @Value("${async.audit.queue-capacity:2000}") int queueCapacity) {
+        return executor("audit-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Forensics video analysis. Each job streams from the Python orchestrator for minutes,
+     * so a full queue rejects the job instead of holding a request thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor forensicsExecutor(@Value("${async.forensics.core-size:2}") int coreSize,
+                                                    @Value("${async.forensics.max-size:2}") int maxSize,
+                                                    @Value("${async.forensics.queue-capacity:20}") int queueCapacity) {
+        return executor("forensics-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Document analysis workers. The queue lives in the analysis_job table; the dispatcher
+     * only hands over as many jobs as there are idle workers, so no in-memory queue is needed.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analysisExecutor(@Value("${analysis.job.concurrency:2}") int concurrency) {
+        return executor("analysis-", concurrency, concurrency, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Per-chunk calls of a long document's map-reduce analysis. Groq admission is governed
+     * by the shared request budget; this only bounds the threads waiting on it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analysisChunkExecutor(@Value("${analysis.mapreduce.parallelism:4}") int parallelism,
+                                                        @Value("${analysis.mapreduce.queue-capacity:1000}") int queueCapacity) {
+        return executor("analysis-chunk-", parallelism, parallelism, queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int coreSize, int maxSize,
+                                                   int queueCapacity, RejectedExecutionHandler rejectionPolicy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(rejectionPolicy);
+        // Let queued mail and audit entries drain on shutdown instead of being discarded
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
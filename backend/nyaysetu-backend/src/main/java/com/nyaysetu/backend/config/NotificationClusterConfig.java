@@ -0,0 +1,41 @@
+package com.nyaysetu.backend.config;
+
+import com.nyaysetu.backend.notification.delivery.AmqpNotificationFanout;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Broker topology for cluster-wide notification delivery: one durable topic exchange,
+ * and per node an exclusive auto-delete queue that RabbitAdmin redeclares on reconnect.
+ * The node queue is bound to broadcasts here; per-user bindings follow the users
+ * connected to the node (see {@link AmqpNotificationFanout}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "notification.cluster.enabled", havingValue = "true")
+public class NotificationClusterConfig {
+
+    @Bean
+    public TopicExchange notificationExchange(
+            @Value("${notification.cluster.exchange:nyaysetu.notifications}") String name) {
+        return new TopicExchange(name, true, false);
+    }
+
+    @Bean
+    public Queue notificationNodeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("notifications.node."));
+    }
+
+    @Bean
+    public Binding notificationBroadcastBinding(Queue notificationNodeQueue, TopicExchange notificationExchange) {
+        return BindingBuilder.bind(notificationNodeQueue).to(notificationExchange)
+                .with(AmqpNotificationFanout.BROADCAST_ROUTING_KEY);
+    }
+}
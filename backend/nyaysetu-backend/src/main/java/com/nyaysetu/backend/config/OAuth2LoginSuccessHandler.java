@@ -19,7 +19,6 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 @Component
@@ -60,8 +59,7 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
         String role = dbUser.getRole().name(); // e.g. "LITIGANT"
 
         // Build extra claims map including the role so the JWT carries authority info.
-        Map<String, Object> extraClaims = new HashMap<>();
-        extraClaims.put("role", role);
+        Map<String, Object> extraClaims = JwtService.identityClaims(dbUser);
 
         // Build a UserDetails with the correct GrantedAuthority so any downstream
         // role-extraction from the JWT works correctly.
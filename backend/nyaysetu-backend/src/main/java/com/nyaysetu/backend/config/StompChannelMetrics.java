@@ -0,0 +1,51 @@
+package com.nyaysetu.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backpressure metrics for the STOMP channels: backlog and busy threads of the inbound and
+ * outbound executors, and messages the outbound channel refused because its queue was full.
+ * Registered as an interceptor on the client outbound channel.
+ */
+@Component
+public class StompChannelMetrics implements ChannelInterceptor {
+
+    private final Counter rejected;
+
+    public StompChannelMetrics(MeterRegistry meterRegistry,
+                               @Lazy @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inbound,
+                               @Lazy @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outbound) {
+        registerExecutor(meterRegistry, "inbound", inbound);
+        registerExecutor(meterRegistry, "outbound", outbound);
+        this.rejected = Counter.builder("stomp.outbound.rejected")
+                .description("Messages to clients dropped because the outbound channel was saturated")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (ex != null) {
+            rejected.increment();
+        }
+    }
+
+    private static void registerExecutor(MeterRegistry meterRegistry, String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("stomp.channel.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Messages waiting for a channel thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("stomp.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Channel threads busy sending or handling messages")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.nyaysetu.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.util.UUID;
+
+/**
+ * Joins the in-process STOMP brokers of all nodes over the AMQP broker.
+ *
+ * Registered on the client inbound and broker channels, it publishes every /topic message
+ * that originates on this node (client SEND frames and SimpMessagingTemplate sends) to a
+ * fanout exchange. Each node consumes its own queue and hands messages from other nodes to
+ * its local broker, which delivers them to its subscribers. The local broker delivers this
+ * node's own messages directly, so they are not routed back through the exchange.
+ */
+@Slf4j
+@Component
+@Lazy(false) // The node queue consumer has to run before clients subscribe
+@ConditionalOnProperty(name = "websocket.stomp.broker-mode", havingValue = "amqp")
+public class StompClusterBridge implements ChannelInterceptor {
+
+    /** Marks messages received from another node so they are not published again */
+    static final String CLUSTER_ORIGIN_HEADER = "clusterOrigin";
+    static final String DESTINATION_HEADER = "stompDestination";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageChannel brokerChannel;
+    private final FanoutExchange exchange;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter published;
+    private final Counter failed;
+    private final Counter received;
+
+    public StompClusterBridge(RabbitTemplate rabbitTemplate,
+                              @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                              @Qualifier("stompExchange") FanoutExchange exchange,
+                              MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.brokerChannel = brokerChannel;
+        this.exchange = exchange;
+
+        this.published = Counter.builder("stomp.cluster.published")
+                .description("Topic messages sent to the other nodes").register(meterRegistry);
+        this.failed = Counter.builder("stomp.cluster.failed")
+                .description("Topic messages that reached local subscribers only").register(meterRegistry);
+        this.received = Counter.builder("stomp.cluster.received")
+                .description("Topic messages received from other nodes").register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (!SimpMessageType.MESSAGE.equals(SimpMessageHeaderAccessor.getMessageType(headers))
+                || destination == null || !destination.startsWith("/topic/")
+                || headers.containsKey(CLUSTER_ORIGIN_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        MessageProperties properties = new MessageProperties();
+        properties.setAppId(nodeId);
+        properties.setHeader(DESTINATION_HEADER, destination);
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            properties.setContentType(contentType.toString());
+        }
+        try {
+            rabbitTemplate.send(exchange.getName(), "", new org.springframework.amqp.core.Message(payload, properties));
+            published.increment();
+        } catch (AmqpException e) {
+            failed.increment();
+            log.warn("Could not publish {} to other nodes: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    @RabbitListener(queues = "#{stompNodeQueue.name}")
+    public void onClusterMessage(org.springframework.amqp.core.Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (nodeId.equals(properties.getAppId())) {
+            return;
+        }
+        Object destination = properties.getHeaders().get(DESTINATION_HEADER);
+        if (!(destination instanceof String topic)) {
+            log.warn("Discarding cluster STOMP message without a destination");
+            return;
+        }
+        received.increment();
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(topic);
+        if (properties.getContentType() != null) {
+            accessor.setContentType(MimeType.valueOf(properties.getContentType()));
+        }
+        accessor.setHeader(CLUSTER_ORIGIN_HEADER, properties.getAppId());
+        brokerChannel.send(MessageBuilder.createMessage(message.getBody(), accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.nyaysetu.backend.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Broker topology for {@code websocket.stomp.broker-mode=amqp}: a durable fanout exchange and,
+ * per node, an exclusive auto-delete queue bound to it (see {@link StompClusterBridge}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "websocket.stomp.broker-mode", havingValue = "amqp")
+public class StompClusterConfig {
+
+    @Bean
+    public FanoutExchange stompExchange(
+            @Value("${websocket.stomp.cluster.exchange:nyaysetu.stomp}") String name) {
+        return new FanoutExchange(name, true, false);
+    }
+
+    @Bean
+    public Queue stompNodeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("stomp.node."));
+    }
+
+    @Bean
+    public Binding stompNodeBinding(Queue stompNodeQueue, FanoutExchange stompExchange) {
+        return BindingBuilder.bind(stompNodeQueue).to(stompExchange);
+    }
+}
@@ -1,23 +1,100 @@
 package com.nyaysetu.backend.config;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP endpoint and broker for case, judge and courtroom topics.
+ *
+ * {@code websocket.stomp.broker-mode} selects the broker:
+ * <ul>
+ *   <li>{@code simple} - the in-process broker; subscribers connected to other nodes miss messages</li>
+ *   <li>{@code amqp} - the in-process broker on every node, joined over RabbitMQ by {@link StompClusterBridge}</li>
+ *   <li>{@code relay} - an external STOMP broker handles /topic and /queue for all nodes</li>
+ * </ul>
+ */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
-@RequiredArgsConstructor
 public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketSecurityInterceptor webSocketSecurityInterceptor;
+    private final StompChannelMetrics stompChannelMetrics;
+    private final ObjectProvider<StompClusterBridge> stompClusterBridge;
+
+    @Value("${websocket.stomp.broker-mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.stomp.subscription-cache-limit:16384}")
+    private int subscriptionCacheLimit;
+
+    @Value("${websocket.stomp.outbound.threads:16}")
+    private int outboundThreads;
+
+    @Value("${websocket.stomp.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.stomp.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.stomp.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.stomp.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.stomp.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.stomp.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.stomp.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.stomp.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    public StompWebSocketConfig(WebSocketSecurityInterceptor webSocketSecurityInterceptor,
+                                StompChannelMetrics stompChannelMetrics,
+                                ObjectProvider<StompClusterBridge> stompClusterBridge) {
+        this.webSocketSecurityInterceptor = webSocketSecurityInterceptor;
+        this.stompChannelMetrics = stompChannelMetrics;
+        this.stompClusterBridge = stompClusterBridge;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("STOMP broker relay to {}:{}", relayHost, relayPort);
+        } else {
+            // Selector headers are not used by any client; skipping them keeps delivery a lookup
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setSelectorHeaderName(null);
+            // Resolved destination -> subscriptions, one entry per case/courtroom topic in use
+            config.setCacheLimit(subscriptionCacheLimit);
+            // SimpMessagingTemplate sends go through the broker channel, not the client inbound channel
+            stompClusterBridge.ifAvailable(config.configureBrokerChannel()::interceptors);
+            log.info("STOMP in-process broker, mode {}", brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -30,8 +107,26 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that cannot keep up is disconnected instead of buffering without bound
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(webSocketSecurityInterceptor);
+        // After the security check, so rejected SEND frames never leave this node
+        stompClusterBridge.ifAvailable(registration::interceptors);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(stompChannelMetrics);
     }
-}
\ No newline at end of file
+}
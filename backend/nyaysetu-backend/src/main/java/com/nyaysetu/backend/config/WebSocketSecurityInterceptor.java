@@ -18,20 +18,24 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketSecurityInterceptor implements ChannelInterceptor {
 
+    /** Session attribute holding the rooms this STOMP session has already been authorized for */
+    static final String AUTHORIZED_ROOMS_ATTRIBUTE = "authorizedRooms";
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
     private final UserRepository userRepository;
     private final HearingRepository hearingRepository;
     private final HearingParticipantRepository hearingParticipantRepository;
@@ -46,23 +50,20 @@ public class WebSocketSecurityInterceptor implements ChannelInterceptor {
         StompCommand command = accessor.getCommand();
         if (StompCommand.CONNECT.equals(command)) {
             String authHeader = accessor.getFirstNativeHeader("Authorization");
-            log.debug("STOMP CONNECT header received: {}", authHeader);
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String jwt = authHeader.substring(7);
                 try {
-                    String username = jwtService.extractUsername(jwt);
-                    if (username != null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        if (jwtService.isTokenValid(jwt, userDetails)) {
-                            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
-                            accessor.setUser(authentication);
-                            log.info("STOMP connection authenticated for user: {}", username);
-                        } else {
-                            log.warn("STOMP connection failed: Invalid JWT token");
-                            throw new MessageDeliveryException("Invalid JWT token");
-                        }
-                    }
+                    JwtService.AccessClaims claims = resolveIdentity(jwtService.parseAccessClaims(jwt));
+                    UserDetails principal = org.springframework.security.core.userdetails.User
+                            .withUsername(claims.email())
+                            .password("")
+                            .authorities("ROLE_" + claims.role().name())
+                            .build();
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities());
+                    authentication.setDetails(claims);
+                    accessor.setUser(authentication);
+                    log.info("STOMP connection authenticated for user: {}", claims.email());
                 } catch (Exception e) {
                     log.error("STOMP connection error: {}", e.getMessage());
                     throw new MessageDeliveryException("Authentication failed: " + e.getMessage());
@@ -84,33 +85,14 @@ public class WebSocketSecurityInterceptor implements ChannelInterceptor {
                     }
 
                     String roomId = destination.substring(destination.lastIndexOf('/') + 1);
-                    String username = principal.getName();
-                    log.info("Checking {} authorization for user {} to room {}", command, username, roomId);
-
-                    // Fetch user from DB to verify role
-                    User user = userRepository.findByEmail(username)
-                            .orElseThrow(() -> new MessageDeliveryException("User not found: " + username));
-
-                    Role userRole = user.getRole();
-                    // Judge, lawyer, admins can access any courtroom/hearing signaling topic
-                    if (userRole == Role.JUDGE || userRole == Role.LAWYER || userRole == Role.ADMIN 
-                            || userRole == Role.SUPER_JUDGE || userRole == Role.TECH_ADMIN) {
-                        log.info("User {} with role {} authorized for destination {}", username, userRole, destination);
-                    } else {
-                        // For other roles (like LITIGANT), they must be assigned/invited to this specific hearing room
-                        Optional<Hearing> hearingOpt = findHearingByIdOrVideoRoomId(roomId);
-                        if (hearingOpt.isEmpty()) {
-                            log.warn("STOMP {} rejected: Hearing room {} not found", command, roomId);
-                            throw new MessageDeliveryException("Access denied: Hearing room not found");
-                        }
-
-                        Hearing hearing = hearingOpt.get();
-                        boolean isParticipant = hearingParticipantRepository.existsByHearingIdAndUserId(hearing.getId(), user.getId());
-                        if (!isParticipant) {
-                            log.warn("STOMP {} rejected: User {} is not assigned/invited to hearing {}", command, username, hearing.getId());
-                            throw new MessageDeliveryException("Access denied: Not a participant in this hearing");
-                        }
-                        log.info("User {} (LITIGANT) authorized for destination {}", username, destination);
+                    Set<String> authorizedRooms = authorizedRooms(accessor);
+                    if (authorizedRooms != null && authorizedRooms.contains(roomId)) {
+                        return message;
+                    }
+
+                    authorizeRoom(command, principal, roomId, destination);
+                    if (authorizedRooms != null) {
+                        authorizedRooms.add(roomId);
                     }
                 }
             }
@@ -119,6 +101,73 @@ public class WebSocketSecurityInterceptor implements ChannelInterceptor {
         return message;
     }
 
+    private void authorizeRoom(StompCommand command, Principal principal, String roomId, String destination) {
+        String username = principal.getName();
+        JwtService.AccessClaims claims = claimsOf(principal);
+        log.debug("Checking {} authorization for user {} to room {}", command, username, roomId);
+
+        Role userRole = claims.role();
+        // Judge, lawyer, admins can access any courtroom/hearing signaling topic
+        if (userRole == Role.JUDGE || userRole == Role.LAWYER || userRole == Role.ADMIN
+                || userRole == Role.SUPER_JUDGE || userRole == Role.TECH_ADMIN) {
+            log.info("User {} with role {} authorized for destination {}", username, userRole, destination);
+            return;
+        }
+
+        // For other roles (like LITIGANT), they must be assigned/invited to this specific hearing room
+        Optional<Hearing> hearingOpt = findHearingByIdOrVideoRoomId(roomId);
+        if (hearingOpt.isEmpty()) {
+            log.warn("STOMP {} rejected: Hearing room {} not found", command, roomId);
+            throw new MessageDeliveryException("Access denied: Hearing room not found");
+        }
+
+        Hearing hearing = hearingOpt.get();
+        boolean isParticipant = hearingParticipantRepository.existsByHearingIdAndUserId(hearing.getId(), claims.userId());
+        if (!isParticipant) {
+            log.warn("STOMP {} rejected: User {} is not assigned/invited to hearing {}", command, username, hearing.getId());
+            throw new MessageDeliveryException("Access denied: Not a participant in this hearing");
+        }
+        log.info("User {} (LITIGANT) authorized for destination {}", username, destination);
+    }
+
+    /**
+     * Identity established at CONNECT; principals set some other way are looked up by name
+     */
+    private JwtService.AccessClaims claimsOf(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getDetails() instanceof JwtService.AccessClaims claims
+                && claims.hasIdentity()) {
+            return claims;
+        }
+        String username = principal.getName();
+        User user = userRepository.findByEmail(username)
+                .orElseThrow(() -> new MessageDeliveryException("User not found: " + username));
+        return new JwtService.AccessClaims(username, user.getId(), user.getRole(), null);
+    }
+
+    /**
+     * Tokens issued before identity claims existed need one lookup, done here at CONNECT
+     * rather than on every subscribe
+     */
+    private JwtService.AccessClaims resolveIdentity(JwtService.AccessClaims claims) {
+        if (claims.hasIdentity()) {
+            return claims;
+        }
+        User user = userRepository.findByEmail(claims.email())
+                .orElseThrow(() -> new MessageDeliveryException("User not found: " + claims.email()));
+        return new JwtService.AccessClaims(claims.email(), user.getId(), user.getRole(), claims.expiresAt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> authorizedRooms(StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (Set<String>) attributes.computeIfAbsent(AUTHORIZED_ROOMS_ATTRIBUTE,
+                key -> ConcurrentHashMap.newKeySet());
+    }
+
     private Optional<Hearing> findHearingByIdOrVideoRoomId(String roomId) {
         try {
             // First check if it's a valid UUID
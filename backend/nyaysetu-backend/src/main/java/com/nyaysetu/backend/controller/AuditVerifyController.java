@@ -1,17 +1,22 @@
 package com.nyaysetu.backend.controller;
 
 import com.nyaysetu.backend.service.AuditChainService;
+import com.nyaysetu.backend.service.AuditMerkleRootService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Admin-only endpoint to verify audit log chain integrity.
@@ -24,18 +29,55 @@ import java.util.Map;
 public class AuditVerifyController {
 
     private final AuditChainService auditChainService;
+    private final AuditMerkleRootService auditMerkleRootService;
 
     /**
      * GET /api/admin/audit/verify
      *
-     * Walks the full audit log chain and reports broken links.
+     * Walks the audit log chain and reports broken links.
+     * With ?incremental=true only entries after the latest signed checkpoint are checked.
+     * Read-only: checkpoints are written on append, or backfilled by POST /checkpoints.
      * Returns 200 OK  with status=INTACT when all hashes verify.
      * Returns 409 CONFLICT with status=TAMPERED and broken link details when tampering is detected.
      */
     @GetMapping("/verify")
-    public ResponseEntity<Map<String, Object>> verifyChain() {
-        List<Map<String, Object>> brokenLinks = auditChainService.verifyChain();
+    public ResponseEntity<Map<String, Object>> verifyChain(
+            @RequestParam(defaultValue = "false") boolean incremental) {
+        return toResponse(auditChainService.verifyChain(incremental));
+    }
+
+    /**
+     * POST /api/admin/audit/checkpoints
+     *
+     * Fully verifies every chain and, when all are intact, signs the checkpoints missing at
+     * interval boundaries. Responds like /verify; nothing is written when tampering is found.
+     */
+    @PostMapping("/checkpoints")
+    public ResponseEntity<Map<String, Object>> signMissingCheckpoints() {
+        return toResponse(auditChainService.verifyAndSignMissingCheckpoints());
+    }
+
+    /**
+     * GET /api/admin/audit/verify/case/{caseId}
+     *
+     * Verifies only the given case's chain; cost is proportional to that case's history.
+     */
+    @GetMapping("/verify/case/{caseId}")
+    public ResponseEntity<Map<String, Object>> verifyCaseChain(@PathVariable UUID caseId) {
+        return toResponse(auditChainService.verifyCaseChain(caseId));
+    }
+
+    /**
+     * GET /api/admin/audit/merkle/proof/{caseId}
+     *
+     * Returns the sibling path proving the case's chain head is committed by the latest global root.
+     */
+    @GetMapping("/merkle/proof/{caseId}")
+    public ResponseEntity<Map<String, Object>> getCaseInclusionProof(@PathVariable UUID caseId) {
+        return ResponseEntity.ok(auditMerkleRootService.getCaseInclusionProof(caseId));
+    }
 
+    private ResponseEntity<Map<String, Object>> toResponse(List<Map<String, Object>> brokenLinks) {
         Map<String, Object> body = new HashMap<>();
         if (brokenLinks.isEmpty()) {
             body.put("status", "INTACT");
@@ -47,4 +89,4 @@ public class AuditVerifyController {
         body.put("brokenLinks", brokenLinks);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
-}
\ No newline at end of file
+}
@@ -61,8 +61,8 @@ public class AuthController {
             );
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(req.getEmail());
-            String token = jwtService.generateToken(new HashMap<>(), userDetails);
             var user = authService.findByEmail(req.getEmail());
+            String token = jwtService.generateToken(JwtService.identityClaims(user), userDetails);
 
             return ResponseEntity.ok(Map.of(
                     "token", token,
@@ -108,10 +108,9 @@ public class AuthController {
             );
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(req.getEmail());
-            String token = jwtService.generateToken(new HashMap<>(), userDetails);
-            String refreshToken = jwtService.generateRefreshToken(userDetails);
-
             var user = authService.findByEmail(req.getEmail());
+            String token = jwtService.generateToken(JwtService.identityClaims(user), userDetails);
+            String refreshToken = jwtService.generateRefreshToken(userDetails);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -148,7 +147,8 @@ public class AuthController {
                 return ResponseEntity.status(401).body(Map.of("message", "Refresh token expired or invalid. Please login again."));
             }
 
-            String newAccessToken = jwtService.generateToken(new HashMap<>(), userDetails);
+            String newAccessToken = jwtService.generateToken(
+                    JwtService.identityClaims(authService.findByEmail(username)), userDetails);
 
             return ResponseEntity.ok(Map.of(
                     "accessToken", newAccessToken,
@@ -260,7 +260,7 @@ public class AuthController {
             User user = faceRecognitionService.verifyFace(req.getEmail(), req.getFaceDescriptor());
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-            String token = jwtService.generateToken(new HashMap<>(), userDetails);
+            String token = jwtService.generateToken(JwtService.identityClaims(user), userDetails);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -29,6 +29,7 @@ public class BlockchainEvidenceController {
     private final com.nyaysetu.backend.service.CertificateService certificateService;
     private final UserRepository userRepository;
     private final com.nyaysetu.backend.service.CaseAccessService caseAccessService;
+    private final com.nyaysetu.backend.service.FileDownloadService fileDownloadService;
 
     /**
      * Upload evidence with blockchain hash
@@ -122,6 +123,24 @@ public class BlockchainEvidenceController {
         }
     }
 
+    /**
+     * Merkle inclusion proof for a single evidence item, verifiable offline in O(log n) hashes
+     */
+    @GetMapping("/{evidenceId}/proof")
+    public ResponseEntity<?> getInclusionProof(@PathVariable UUID evidenceId) {
+        try {
+            Map<String, Object> proof = evidenceService.getInclusionProof(evidenceId);
+            User currentUser = getCurrentUser();
+            if (currentUser != null) {
+                caseAccessService.requireCaseAccess((UUID) proof.get("caseId"), currentUser);
+            }
+            return ResponseEntity.ok(proof);
+        } catch (Exception e) {
+            log.error("Failed to build inclusion proof for evidence {}", evidenceId, e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Verify entire evidence chain for a case
      */
@@ -168,6 +187,45 @@ public class BlockchainEvidenceController {
         }
     }
 
+    /**
+     * Stream the evidence file with Range/If-Range support and its SHA-256 as ETag,
+     * so video and audio exhibits can be scrubbed without a full download
+     */
+    @GetMapping("/{evidenceId}/download")
+    public ResponseEntity<?> downloadEvidence(
+            @PathVariable UUID evidenceId,
+            @RequestParam(value = "inline", defaultValue = "true") boolean inline,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) {
+        try {
+            EvidenceRecord evidence = evidenceService.getEvidenceById(evidenceId);
+            User currentUser = getCurrentUser();
+            if (currentUser != null) {
+                caseAccessService.requireCaseAccess(evidence.getCaseEntity().getId(), currentUser);
+            }
+
+            // Exhibits in object storage are fetched by the client directly through a short-lived presigned URL
+            java.util.Optional<java.net.URI> direct = evidenceService.getEvidenceDownloadUrl(evidence, inline);
+            if (direct.isPresent()) {
+                return ResponseEntity.status(302).location(direct.get()).build();
+            }
+            java.io.File file = evidenceService.getEvidenceFile(evidence);
+
+            fileDownloadService.serve(request, response, file, evidence.getFileHash(),
+                    evidence.getContentType(), evidence.getFileName(), inline);
+            // The body has been written (or handed to the container's sendfile)
+            return null;
+        } catch (com.nyaysetu.backend.exception.NotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to download evidence {}", evidenceId, e);
+            if (response.isCommitted()) {
+                return null;
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Download Section 63(4) Certificate
      */
@@ -10,7 +10,6 @@ import com.nyaysetu.backend.service.DocumentManagementService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -37,6 +36,7 @@ public class DocumentManagementController {
     private final com.nyaysetu.backend.service.CaseAccessService caseAccessService;
     private final com.nyaysetu.backend.service.DocumentAnalysisService documentAnalysisService;
     private final com.nyaysetu.backend.service.CertificateService certificateService;
+    private final com.nyaysetu.backend.service.FileDownloadService fileDownloadService;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadDocument(
@@ -72,7 +72,7 @@ public class DocumentManagementController {
             
             // Auto-trigger AI verification
             try {
-                documentManagementService.triggerAnalysis(document.getId());
+                documentManagementService.triggerAnalysis(document.getId(), false);
             } catch (Exception e) {
                 // Log but don't fail upload if analysis fails
                 log.warn("AI analysis trigger failed: {}", e.getMessage());
@@ -111,10 +111,12 @@ public class DocumentManagementController {
             User user = authService.findByEmail(authentication.getName());
             documentManagementService.ensureDocumentAccess(id, user.getId(), user.getRole().name());
 
-            // Trigger async analysis
-            documentManagementService.triggerAnalysis(id);
+            // Queue analysis; a judge's request runs ahead of the upload backlog
+            boolean judgeRequested = user.getRole() == com.nyaysetu.backend.entity.Role.JUDGE
+                    || user.getRole() == com.nyaysetu.backend.entity.Role.SUPER_JUDGE;
+            documentManagementService.triggerAnalysis(id, judgeRequested);
             return ResponseEntity.ok(Map.of(
-                "message", "Analysis started",
+                "message", "Analysis queued",
                 "documentId", id.toString()
             ));
         } catch (Exception e) {
@@ -227,26 +229,47 @@ public class DocumentManagementController {
         return ResponseEntity.ok(document);
     }
 
+    /**
+     * Streams the document with Range/If-Range support and the stored SHA-256 as ETag,
+     * so unchanged documents revalidate with 304 and large files can be fetched in parts.
+     */
     @GetMapping("/{id}/download")
     public ResponseEntity<?> downloadDocument(
             @PathVariable UUID id,
-            Authentication authentication) {
+            @RequestParam(value = "inline", defaultValue = "false") boolean inline,
+            Authentication authentication,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) {
         try {
             User user = authService.findByEmail(authentication.getName());
             DocumentDto metadata = documentManagementService.getDocumentById(id, user);
-            Resource resource = documentManagementService.downloadDocument(id);
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(metadata.getContentType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + metadata.getFileName() + "\"")
-                    .body(resource);
+            // Files in object storage are fetched by the client directly through a short-lived presigned URL
+            java.util.Optional<java.net.URI> direct = documentManagementService.getDocumentDownloadUrl(id, inline);
+            if (direct.isPresent()) {
+                return ResponseEntity.status(302).location(direct.get()).build();
+            }
+            java.io.File file = documentManagementService.getDocumentFile(id);
+
+            fileDownloadService.serve(request, response, file, metadata.getFileHash(),
+                    metadata.getContentType(), metadata.getFileName(), inline);
+            // The body has been written (or handed to the container's sendfile)
+            return null;
         } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                log.warn("Download of document {} aborted: {}", id, e.getMessage());
+                return null;
+            }
             String msg = e.getMessage();
-            if (msg.contains("not found")) {
+            if (msg != null && msg.contains("not found")) {
                 return ResponseEntity.status(404).body(Map.of("error", msg));
             }
             return ResponseEntity.status(500).body(Map.of("error", "Download failed: " + msg));
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                log.warn("Download of document {} aborted: {}", id, e.getMessage());
+                return null;
+            }
             return ResponseEntity.status(500).body(Map.of("error", "Unexpected error: " + e.getMessage()));
         }
     }
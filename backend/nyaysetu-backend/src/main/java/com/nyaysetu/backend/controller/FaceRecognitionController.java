@@ -55,7 +55,7 @@ public class FaceRecognitionController {
             
             // Generate token upon successful face verification
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-            String token = jwtService.generateToken(new HashMap<>(), userDetails);
+            String token = jwtService.generateToken(JwtService.identityClaims(user), userDetails);
             
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -0,0 +1,140 @@
+package com.nyaysetu.backend.controller;
+
+import com.nyaysetu.backend.dto.CreateUploadSessionRequest;
+import com.nyaysetu.backend.dto.DocumentDto;
+import com.nyaysetu.backend.dto.UploadDocumentRequest;
+import com.nyaysetu.backend.entity.EvidenceRecord;
+import com.nyaysetu.backend.entity.UploadSession;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.service.AuthService;
+import com.nyaysetu.backend.service.BlockchainEvidenceService;
+import com.nyaysetu.backend.service.CaseAccessService;
+import com.nyaysetu.backend.service.DocumentManagementService;
+import com.nyaysetu.backend.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumable chunked uploads: create a session, PUT raw chunks with an Upload-Offset
+ * header, then complete the session as evidence or a document. After a dropped
+ * connection the client asks GET /uploads/{id} for the offset to resume from.
+ */
+@Slf4j
+@Tag(name = "Resumable Uploads", description = "Chunked, resumable uploads for large evidence and documents")
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+    private final BlockchainEvidenceService evidenceService;
+    private final DocumentManagementService documentManagementService;
+    private final CaseAccessService caseAccessService;
+    private final AuthService authService;
+
+    @Value("${upload.chunk.max-size:16777216}")
+    private long maxChunkSize;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSession(
+            @Valid @RequestBody CreateUploadSessionRequest request,
+            Authentication authentication) {
+        User user = authService.findByEmail(authentication.getName());
+        UploadSession session = uploadSessionService.createSession(
+                request.getFileName(), request.getContentType(), request.getSize(), user);
+        return ResponseEntity.status(201).body(toResponse(session));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getSession(@PathVariable UUID id, Authentication authentication) {
+        User user = authService.findByEmail(authentication.getName());
+        return ResponseEntity.ok(toResponse(uploadSessionService.getSession(id, user)));
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable UUID id,
+            @RequestHeader("Upload-Offset") long offset,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        User user = authService.findByEmail(authentication.getName());
+        UploadSession session = uploadSessionService.writeChunk(id, offset, request.getInputStream(), user);
+        return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(session.getReceivedBytes()))
+                .body(toResponse(session));
+    }
+
+    @PostMapping("/{id}/evidence")
+    public ResponseEntity<Map<String, Object>> completeAsEvidence(
+            @PathVariable UUID id,
+            @RequestParam("caseId") UUID caseId,
+            @RequestParam("title") String title,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "evidenceType", defaultValue = "DOCUMENT") String evidenceType,
+            Authentication authentication,
+            HttpServletRequest request) {
+        User user = authService.findByEmail(authentication.getName());
+        caseAccessService.requireCaseAccess(caseId, user);
+
+        String fileName = uploadSessionService.getSession(id, user).getFileName();
+        EvidenceRecord evidence = uploadSessionService.complete(id, user, stored -> evidenceService.uploadEvidence(
+                caseId, stored, fileName, title, description, evidenceType, user, request.getRemoteAddr()));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", evidence.getId());
+        response.put("title", evidence.getTitle());
+        response.put("fileHash", evidence.getFileHash());
+        response.put("blockHash", evidence.getBlockHash());
+        response.put("blockIndex", evidence.getBlockIndex());
+        response.put("verificationStatus", evidence.getVerificationStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{id}/document")
+    public ResponseEntity<DocumentDto> completeAsDocument(
+            @PathVariable UUID id,
+            @RequestParam(value = "category", defaultValue = "OTHER") String category,
+            @RequestParam(value = "description", required = false, defaultValue = "") String description,
+            @RequestParam(value = "caseId", required = false) UUID caseId,
+            Authentication authentication,
+            HttpServletRequest request) {
+        User user = authService.findByEmail(authentication.getName());
+        if (caseId != null) {
+            caseAccessService.requireCaseAccess(caseId, user);
+        }
+
+        UploadDocumentRequest uploadRequest = new UploadDocumentRequest();
+        uploadRequest.setCategory(category);
+        uploadRequest.setDescription(description);
+        uploadRequest.setCaseId(caseId);
+
+        String fileName = uploadSessionService.getSession(id, user).getFileName();
+        return ResponseEntity.ok(uploadSessionService.complete(id, user, stored -> documentManagementService
+                .uploadDocument(stored, fileName, uploadRequest, user, request.getRemoteAddr())));
+    }
+
+    private Map<String, Object> toResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("fileName", session.getFileName());
+        response.put("size", session.getTotalSize());
+        response.put("offset", session.getReceivedBytes());
+        response.put("chunkSize", maxChunkSize);
+        response.put("status", session.getStatus());
+        response.put("expiresAt", session.getExpiresAt());
+        return response;
+    }
+}
@@ -0,0 +1,19 @@
+package com.nyaysetu.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarkNotificationsReadRequest {
+
+    @NotEmpty(message = "Notification IDs are required")
+    @Size(max = 500, message = "At most 500 notifications per request")
+    private List<Long> ids;
+}
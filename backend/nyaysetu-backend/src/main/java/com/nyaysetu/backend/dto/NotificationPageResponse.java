@@ -0,0 +1,17 @@
+package com.nyaysetu.backend.dto;
+
+import com.nyaysetu.backend.notification.entity.Notification;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationPageResponse {
+    private List<Notification> items;
+    private Long nextCursor; // pass as ?before= for the next page; null on the last page
+    private long unreadCount;
+}
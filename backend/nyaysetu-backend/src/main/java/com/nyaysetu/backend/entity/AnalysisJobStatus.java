@@ -0,0 +1,8 @@
+package com.nyaysetu.backend.entity;
+
+public enum AnalysisJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,56 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Signed snapshot of the audit chain at a fixed sequence number.
+ *
+ * A checkpoint pins the entryHash at its sequence with an HMAC, so the chain
+ * can be verified as independent segments between checkpoints and an
+ * incremental verification only has to walk entries after the latest one.
+ */
+@Entity
+@Table(name = "audit_chain_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_audit_checkpoint_chain_seq",
+                columnNames = {"chain_id", "sequence_no"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditChainCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "chain_id", length = 64, nullable = false)
+    private String chainId;
+
+    /** Sequence number of the audit entry this checkpoint pins. */
+    @Column(name = "sequence_no", nullable = false)
+    private Long sequenceNo;
+
+    /** entryHash of the audit entry at sequenceNo. */
+    @Column(name = "entry_hash", length = 64, nullable = false)
+    private String entryHash;
+
+    /** HMAC-SHA256 over chainId|sequenceNo|entryHash. */
+    @Column(name = "signature", length = 64, nullable = false)
+    private String signature;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row pointer to the tip of an audit hash chain.
+ *
+ * Appenders lock this row (SELECT ... FOR UPDATE) before chaining a batch,
+ * which serializes writers across every backend node without a JVM monitor,
+ * and hands back the last sequence number and hash in the same round trip.
+ */
+@Entity
+@Table(name = "audit_chain_head")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditChainHead {
+
+    /** Identifier of the chain this head belongs to; the global chain uses {@code "global"}. */
+    @Id
+    @Column(name = "chain_id", length = 64)
+    private String chainId;
+
+    /** Sequence number of the last committed entry; 0 when the chain is empty. */
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    /** entryHash of the last committed entry; the genesis hash when the chain is empty. */
+    @Column(name = "last_hash", length = 64, nullable = false)
+    private String lastHash;
+}
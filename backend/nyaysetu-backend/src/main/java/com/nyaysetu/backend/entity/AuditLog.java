@@ -5,6 +5,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +16,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(name = "audit_log",
+        uniqueConstraints = @UniqueConstraint(name = "uk_audit_log_chain_sequence",
+                columnNames = {"chain_id", "sequence_no"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +36,14 @@ public class AuditLog {
     private String description;   // details
     private LocalDateTime timestamp;
 
+    /** Chain this entry belongs to: the caseId for case actions, "global" otherwise. */
+    @Column(name = "chain_id", length = 64)
+    private String chainId;
+
+    /** Position in its chain, assigned under the chain-head lock; defines verification order. */
+    @Column(name = "sequence_no")
+    private Long sequenceNo;
+
     /** SHA-256 hash of the preceding entry; genesis entries store 64 zero chars. */
     @Column(length = 64)
     private String previousHash;
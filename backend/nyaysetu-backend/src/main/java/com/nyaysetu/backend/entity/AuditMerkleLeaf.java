@@ -0,0 +1,50 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Snapshot of one chain head as committed by an AuditMerkleRoot.
+ * leafHash = sha256(chainId | lastSequence | lastHash).
+ */
+@Entity
+@Table(name = "audit_merkle_leaf")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditMerkleLeaf {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "root_id", nullable = false)
+    private UUID rootId;
+
+    /** Position of this leaf in the root's tree; leaves are ordered by chainId. */
+    @Column(name = "leaf_index", nullable = false)
+    private Integer leafIndex;
+
+    @Column(name = "chain_id", length = 64, nullable = false)
+    private String chainId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "last_hash", length = 64, nullable = false)
+    private String lastHash;
+
+    @Column(name = "leaf_hash", length = 64, nullable = false)
+    private String leafHash;
+}
@@ -0,0 +1,44 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Periodic commitment to the state of every audit chain.
+ *
+ * The root is a Merkle root over one leaf per chain head (see AuditMerkleLeaf),
+ * so a single hash fixes the history of every case at computedAt and any one
+ * case can be proven against it with a logarithmic sibling path.
+ */
+@Entity
+@Table(name = "audit_merkle_root")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditMerkleRoot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "root_hash", length = 64, nullable = false)
+    private String rootHash;
+
+    @Column(name = "leaf_count", nullable = false)
+    private Integer leafCount;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
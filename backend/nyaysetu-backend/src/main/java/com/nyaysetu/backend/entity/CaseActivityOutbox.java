@@ -0,0 +1,64 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * CaseActivityOutbox - A CaseActivityEvent waiting to be projected.
+ *
+ * Written in the same transaction as the action it records, so committed activity is
+ * never lost, and deleted by CaseActivityProjector in the transaction that writes its
+ * timeline row and audit chain entry.
+ */
+@Entity
+@Table(name = "case_activity_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CaseActivityOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private UUID caseId;
+
+    @Column(length = 500)
+    private String event;
+
+    @Column(length = 100)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private Long actorUserId;
+
+    @Column(length = 50)
+    private String actorRole;
+
+    private String actorName;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private boolean timeline;
+
+    @Column(nullable = false)
+    private boolean audited;
+
+    /**
+     * Failed projection attempts; rows that reach case-activity.max-attempts are left for an operator
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+}
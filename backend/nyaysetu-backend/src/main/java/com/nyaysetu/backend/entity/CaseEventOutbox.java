@@ -0,0 +1,56 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * CaseEventOutbox - A WebSocket message for a case event, waiting to be relayed.
+ *
+ * Written in the same transaction as the CaseEvent, so only committed events are
+ * broadcast, and deleted by CaseEventOutboxRelay once sent. The id is sent along as
+ * the message id subscribers de-duplicate on. Ids of one case are allocated in commit
+ * order, see {@link com.nyaysetu.backend.repository.CaseEventOutboxRepository#lockCase}.
+ */
+@Entity
+@Table(name = "case_event_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CaseEventOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID caseId;
+
+    /**
+     * STOMP destination, e.g. /topic/case/{caseId}/events
+     */
+    @Column(nullable = false)
+    private String destination;
+
+    /**
+     * Message body, already serialized to JSON
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Failed sends; rows that reach case-event.outbox.max-attempts are left for an operator
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+}
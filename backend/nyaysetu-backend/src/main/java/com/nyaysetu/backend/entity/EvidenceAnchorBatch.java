@@ -0,0 +1,47 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One external anchoring round: a super-Merkle root over every case root that
+ * changed during the batch window, timestamped with a single TSA call.
+ */
+@Entity
+@Table(name = "evidence_anchor_batch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EvidenceAnchorBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "super_root", length = 64, nullable = false)
+    private String superRoot;
+
+    @Column(name = "leaf_count", nullable = false)
+    private Integer leafCount;
+
+    @Column(name = "anchor_proof", columnDefinition = "TEXT", nullable = false)
+    private String anchorProof;
+
+    @Column(name = "anchor_service", length = 100)
+    private String anchorService;
+
+    @Column(name = "anchored_at", nullable = false)
+    private LocalDateTime anchoredAt;
+}
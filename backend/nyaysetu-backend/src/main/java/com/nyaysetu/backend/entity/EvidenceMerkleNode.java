@@ -0,0 +1,50 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One node of a case's persisted evidence Merkle tree.
+ *
+ * Level 0 holds the evidence block hashes in blockIndex order; node (level, i)
+ * is the parent of (level - 1, 2i) and (level - 1, 2i + 1). Only the rightmost
+ * node of each level changes when evidence is appended, so an upload touches
+ * O(log n) nodes and a proof reads O(log n) siblings.
+ */
+@Entity
+@Table(name = "evidence_merkle_node")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EvidenceMerkleNode {
+
+    /** Deterministic key {@code caseId:level:nodeIndex}, so a whole path can be loaded with one findAllById. */
+    @Id
+    @Column(length = 80)
+    private String id;
+
+    @Column(name = "case_id", nullable = false)
+    private UUID caseId;
+
+    @Column(name = "level", nullable = false)
+    private Integer level;
+
+    @Column(name = "node_index", nullable = false)
+    private Long nodeIndex;
+
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    public static String idOf(UUID caseId, int level, long nodeIndex) {
+        return caseId + ":" + level + ":" + nodeIndex;
+    }
+}
@@ -0,0 +1,71 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Merkle root of a case's evidence at one version, where the version is the
+ * number of evidence records it covers. Written once per upload; never updated
+ * except to attach its external anchor, which the batch scheduler does by
+ * placing the root in an {@link EvidenceAnchorBatch} and storing its path.
+ */
+@Entity
+@Table(name = "evidence_merkle_root",
+        uniqueConstraints = @UniqueConstraint(name = "uk_evidence_merkle_root_case_version",
+                columnNames = {"case_id", "leaf_count"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EvidenceMerkleRoot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "case_id", nullable = false)
+    private UUID caseId;
+
+    /** Number of leaves covered — doubles as the case's evidence tree version. */
+    @Column(name = "leaf_count", nullable = false)
+    private Long leafCount;
+
+    @Column(name = "root_hash", length = 64, nullable = false)
+    private String rootHash;
+
+    @Column(name = "external_anchor_proof", columnDefinition = "TEXT")
+    private String externalAnchorProof;
+
+    @Column(name = "anchored_at")
+    private LocalDateTime anchoredAt;
+
+    /** Anchor batch this root was timestamped in; null while pending or for roots anchored one by one. */
+    @Column(name = "batch_id")
+    private UUID batchId;
+
+    @Column(name = "batch_leaf_index")
+    private Integer batchLeafIndex;
+
+    /** Path from this root's batch leaf to the batch super-root, in {@link com.nyaysetu.backend.service.MerkleTree#encodePath} form. */
+    @Column(name = "batch_path", columnDefinition = "TEXT")
+    private String batchPath;
+
+    /** When a node claimed this root for a batch; other nodes skip it until the claim expires. */
+    @Column(name = "anchor_claimed_at")
+    private LocalDateTime anchorClaimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,50 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A file added to an FIR under investigation. It has no case yet, so it cannot be an
+ * EvidenceRecord; this row holds the content-store reference on the file instead.
+ */
+@Entity
+@Table(name = "fir_evidence")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FirEvidence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fir_id", nullable = false)
+    private Long firId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private String filePath;
+
+    @Column(nullable = false, length = 64)
+    private String fileHash;
+
+    private String fileType;
+
+    private Long fileSize;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by")
+    private User uploadedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime uploadedAt;
+}
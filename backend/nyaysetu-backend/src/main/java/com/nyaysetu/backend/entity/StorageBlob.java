@@ -0,0 +1,55 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored file in the content-addressable store, keyed by the SHA-256 of its bytes.
+ *
+ * Documents, evidence records and FIRs that upload identical content share one blob;
+ * refCount tracks how many of them still point at it, and the blob is garbage
+ * collected once it has been unreferenced for the configured grace period.
+ */
+@Entity
+@Table(name = "storage_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageBlob {
+
+    /** refCount of a blob that garbage collection has started deleting; its file may already be gone. */
+    public static final int TOMBSTONE = -1;
+
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    /** Path relative to the upload root, e.g. {@code cas/ab/cd/abcd…}. */
+    @Column(name = "path", nullable = false)
+    private String path;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** When refCount last dropped; GC only considers blobs released longer than the grace period ago. */
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+}
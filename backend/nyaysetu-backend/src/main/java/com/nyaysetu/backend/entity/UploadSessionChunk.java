@@ -0,0 +1,51 @@
+package com.nyaysetu.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One committed chunk of a resumable upload, stored as its own object in blob storage.
+ * Completion reads the chunks back in offset order to assemble the file.
+ */
+@Entity
+@Table(name = "upload_session_chunk",
+        uniqueConstraints = @UniqueConstraint(name = "uk_upload_session_chunk_offset",
+                columnNames = {"session_id", "chunk_offset"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private UUID sessionId;
+
+    @Column(name = "chunk_offset", nullable = false)
+    private Long chunkOffset;
+
+    @Column(name = "length", nullable = false)
+    private Long length;
+
+    /** Blob storage key of the chunk's bytes. */
+    @Column(name = "blob_key", nullable = false)
+    private String blobKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
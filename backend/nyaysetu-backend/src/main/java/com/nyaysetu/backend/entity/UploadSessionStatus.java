@@ -0,0 +1,6 @@
+package com.nyaysetu.backend.entity;
+
+public enum UploadSessionStatus {
+    OPEN,
+    COMPLETED
+}
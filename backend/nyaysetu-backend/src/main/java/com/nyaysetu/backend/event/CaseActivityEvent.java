@@ -0,0 +1,39 @@
+package com.nyaysetu.backend.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Something happened on a case. Emitted once per action; CaseActivityProjector derives the
+ * timeline row and, when {@code audited}, the audit chain entry from it. Publish it inside the
+ * transaction that does the work, so it is recorded if and only if that commits.
+ *
+ * @param event       short timeline label, e.g. "DRAFT_APPROVED" or "Evidence uploaded: x.pdf"
+ * @param eventType   machine-readable type, also the audit action; null for plain timeline notes
+ * @param actorUserId user who acted, if known; system actions have none
+ */
+public record CaseActivityEvent(
+        UUID caseId,
+        String event,
+        String eventType,
+        String description,
+        Long actorUserId,
+        String actorRole,
+        String actorName,
+        LocalDateTime timestamp,
+        boolean timeline,
+        boolean audited
+) {
+
+    /** A timeline entry only, as CaseTimelineService has always written. */
+    public static CaseActivityEvent timelineEntry(UUID caseId, String event, String eventType, String description) {
+        return new CaseActivityEvent(caseId, event, eventType, description, null, null, null,
+                LocalDateTime.now(), true, false);
+    }
+
+    /** An audit chain entry only. */
+    public static CaseActivityEvent auditEntry(UUID caseId, Long userId, String role, String action, String description) {
+        return new CaseActivityEvent(caseId, action, action, description, userId, role, null,
+                LocalDateTime.now(), false, true);
+    }
+}
@@ -0,0 +1,19 @@
+package com.nyaysetu.backend.exception;
+
+/**
+ * A chunk was sent for an offset other than the one the upload session expects;
+ * the client should resume from {@link #getExpectedOffset()}.
+ */
+public class UploadOffsetConflictException extends RuntimeException {
+
+    private final long expectedOffset;
+
+    public UploadOffsetConflictException(long expectedOffset, long actualOffset) {
+        super("Upload expects offset " + expectedOffset + " but chunk was sent for " + actualOffset);
+        this.expectedOffset = expectedOffset;
+    }
+
+    public long getExpectedOffset() {
+        return expectedOffset;
+    }
+}
@@ -6,11 +6,12 @@ import com.nyaysetu.backend.forensics.dto.ForensicsRequest;
 import com.nyaysetu.backend.forensics.entity.AccidentCase;
 import com.nyaysetu.backend.forensics.repository.AccidentCaseRepository;
 import com.nyaysetu.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -29,13 +30,13 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ForensicsService {
 
     private final AccidentCaseRepository repository;
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final TaskExecutor forensicsExecutor;
     
     // Configured for local FastAPI Orchestrator
     private final WebClient webClient = WebClient.builder()
@@ -48,6 +49,16 @@ public class ForensicsService {
     // Mock MinIO / Local Storage approach
     private final String UPLOAD_DIR = "uploads/forensics/";
 
+    public ForensicsService(AccidentCaseRepository repository,
+                            UserRepository userRepository,
+                            ObjectMapper objectMapper,
+                            @Qualifier("forensicsExecutor") TaskExecutor forensicsExecutor) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.forensicsExecutor = forensicsExecutor;
+    }
+
     public UUID initializeAnalysis(List<MultipartFile> videos, String description, String username) {
         User user = userRepository.findByEmail(username).orElseThrow(() -> new RuntimeException("User not found: " + username));
         
@@ -83,13 +94,21 @@ public class ForensicsService {
         Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
         activeStreams.put(accidentCase.getId(), sink);
         
-        // Async processing
-        triggerPythonAnalysis(accidentCase.getId(), savedPaths, description);
+        // Background processing on the bounded forensics pool; a self-invoked @Async method would run inline
+        UUID jobId = accidentCase.getId();
+        try {
+            forensicsExecutor.execute(() -> triggerPythonAnalysis(jobId, savedPaths, description));
+        } catch (TaskRejectedException e) {
+            log.warn("Forensics queue full, rejecting job {}", jobId);
+            accidentCase.setStatus(AccidentCase.Status.FAILED);
+            repository.save(accidentCase);
+            activeStreams.remove(jobId);
+            throw new IllegalStateException("Forensics analysis is at capacity, please try again shortly");
+        }
         
         return accidentCase.getId();
     }
 
-    @Async
     protected void triggerPythonAnalysis(UUID jobId, List<String> videoPaths, String description) {
         log.info("Starting background analysis for job {}", jobId);
         
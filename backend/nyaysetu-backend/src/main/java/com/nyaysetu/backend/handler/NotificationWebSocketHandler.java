@@ -3,13 +3,19 @@ package com.nyaysetu.backend.handler;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.notification.delivery.NotificationFanout;
+import com.nyaysetu.backend.notification.entity.Notification;
+import com.nyaysetu.backend.notification.event.UserPresenceChangedEvent;
+import com.nyaysetu.backend.notification.service.NotificationService;
 import com.nyaysetu.backend.repository.UserRepository;
 import com.nyaysetu.backend.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -30,8 +36,15 @@ public class NotificationWebSocketHandler extends TextWebSocketHandler {
             new CloseStatus(1008, "Authentication required");
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
     private final UserRepository userRepository;
+    private final SessionOutboundQueues outboundQueues;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationService notificationService;
+    // Resolved on use: the fanout delivers through this handler
+    private final ObjectProvider<NotificationFanout> notificationFanout;
+
+    @Value("${websocket.replay.max-notifications:100}")
+    private int replayLimit = 100;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -46,6 +59,7 @@ public class NotificationWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         log.info("WebSocket opened: {}", session.getId());
+        outboundQueues.register(session);
 
         ScheduledFuture<?> timeout = authTimeoutExecutor.schedule(() -> {
             if (session.isOpen() && !userIdBySessionId.containsKey(session.getId())) {
@@ -91,36 +105,47 @@ public class NotificationWebSocketHandler extends TextWebSocketHandler {
         String token = payload.path("token").asText("");
 
         if (token.isBlank()) {
-            sendJson(session, Map.of("type", "AUTH_ERROR", "message", "Missing token"));
+            sendJsonNow(session, Map.of("type", "AUTH_ERROR", "message", "Missing token"));
             session.close(AUTH_REQUIRED);
             return;
         }
 
         try {
-            String email = jwtService.extractUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-            if (!jwtService.isTokenValid(token, userDetails)) {
-                sendJson(session, Map.of("type", "AUTH_ERROR", "message", "Invalid token"));
+            Long userId;
+            try {
+                userId = resolveUserId(jwtService.parseAccessClaims(token));
+            } catch (JwtException e) {
+                sendJsonNow(session, Map.of("type", "AUTH_ERROR", "message", "Invalid token"));
                 session.close(AUTH_REQUIRED);
                 return;
             }
 
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
-
             cancelAuthTimeout(session);
 
+            userIdBySessionId.put(session.getId(), userId);
+
             // 🔥 ADD SESSION TO LIST (MULTI-SESSION)
-            sessionsByUserId
-                    .computeIfAbsent(user.getId(), k -> new CopyOnWriteArrayList<>())
-                    .add(session);
+            // Under the map's lock for this user, so a close of their last session can neither
+            // discard this one nor publish offline after this online
+            sessionsByUserId.compute(userId, (id, sessions) -> {
+                List<WebSocketSession> userSessions = sessions != null ? sessions : new CopyOnWriteArrayList<>();
+                userSessions.add(session);
+                if (userSessions.size() == 1) {
+                    eventPublisher.publishEvent(new UserPresenceChangedEvent(userId, true));
+                }
+                return userSessions;
+            });
 
-            userIdBySessionId.put(session.getId(), user.getId());
+            // Live messages must reach this node before the replay query, or those created in between are missed
+            notificationFanout.ifAvailable(fanout -> fanout.awaitRoutes(userId));
 
             sendJson(session, Map.of("type", "AUTH_SUCCESS"));
 
-            sendNotification(user.getId(), Map.of(
+            if (payload.hasNonNull("lastNotificationId")) {
+                replayMissed(session, userId, payload.path("lastNotificationId").asLong(0));
+            }
+
+            sendNotification(userId, Map.of(
                     "id", System.currentTimeMillis(),
                     "title", "Connected",
                     "message", "Real-time notifications enabled",
@@ -128,31 +153,80 @@ public class NotificationWebSocketHandler extends TextWebSocketHandler {
                     "read", false
             ));
 
-            log.info("User {} authenticated with session {}", user.getId(), session.getId());
+            log.info("User {} authenticated with session {}", userId, session.getId());
 
         } catch (Exception e) {
             log.warn("Authentication failed: {}", e.getMessage());
-            sendJson(session, Map.of("type", "AUTH_ERROR", "message", "Authentication failed"));
+            sendJsonNow(session, Map.of("type", "AUTH_ERROR", "message", "Authentication failed"));
             session.close(AUTH_REQUIRED);
         }
     }
 
+    /**
+     * The user id signed into the token. Only tokens issued before it was a claim need
+     * the database; they expire within the access token lifetime.
+     */
+    private Long resolveUserId(JwtService.AccessClaims claims) {
+        if (claims.userId() != null) {
+            return claims.userId();
+        }
+        return userRepository.findByEmail(claims.email())
+                .map(User::getId)
+                .orElseThrow(() -> new IllegalStateException("User not found"));
+    }
+
+    /**
+     * Send a reconnecting client what it missed after lastNotificationId, oldest first.
+     * Notifications created meanwhile may also arrive live, so clients de-duplicate by id.
+     * A gap longer than the replay limit ends with REPLAY_TRUNCATED, telling the client to
+     * reload its list instead.
+     */
+    private void replayMissed(WebSocketSession session, Long userId, long lastNotificationId) {
+        if (replayLimit <= 0) return;
+
+        List<Notification> missed;
+        try {
+            missed = notificationService.findSince(userId, lastNotificationId, replayLimit + 1);
+        } catch (RuntimeException e) {
+            log.warn("Notification replay failed for user {}: {}", userId, e.getMessage());
+            return;
+        }
+
+        int count = Math.min(missed.size(), replayLimit);
+        for (int i = 0; i < count; i++) {
+            TextMessage message = encode("NOTIFICATION", NotificationService.toLivePayload(missed.get(i)));
+            if (message != null) {
+                outboundQueues.send(session, message, null);
+            }
+        }
+
+        if (missed.size() > replayLimit) {
+            TextMessage truncated = encode("REPLAY_TRUNCATED", Map.of(
+                    "lastReplayedId", missed.get(count - 1).getId()
+            ));
+            if (truncated != null) {
+                outboundQueues.send(session, truncated, null);
+            }
+        }
+        log.debug("Replayed {} notifications to session {} after id {}", count, session.getId(), lastNotificationId);
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         cancelAuthTimeout(session);
+        outboundQueues.unregister(session);
 
         Long userId = userIdBySessionId.remove(session.getId());
 
         if (userId != null) {
-            List<WebSocketSession> sessions = sessionsByUserId.get(userId);
-
-            if (sessions != null) {
+            sessionsByUserId.computeIfPresent(userId, (id, sessions) -> {
                 sessions.remove(session);
-
-                if (sessions.isEmpty()) {
-                    sessionsByUserId.remove(userId);
+                if (!sessions.isEmpty()) {
+                    return sessions;
                 }
-            }
+                eventPublisher.publishEvent(new UserPresenceChangedEvent(userId, false));
+                return null;
+            });
 
             log.info("Session {} closed for user {}", session.getId(), userId);
         }
@@ -167,44 +241,90 @@ public class NotificationWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    /**
+     * Whether the user has a session on this node
+     */
+    public boolean hasSessions(Long userId) {
+        List<WebSocketSession> sessions = sessionsByUserId.get(userId);
+        return sessions != null && !sessions.isEmpty();
+    }
+
+    /**
+     * Users with at least one session on this node
+     */
+    public Set<Long> connectedUserIds() {
+        return Collections.unmodifiableSet(sessionsByUserId.keySet());
+    }
+
     // 🔥 UPDATED: SEND TO ALL SESSIONS
     public void sendNotification(Long userId, Map<String, Object> notification) {
+        sendToUser(userId, "NOTIFICATION", notification);
+    }
+
+    /**
+     * Send a typed message to every open session of a user, e.g. DOCUMENT_ANALYSIS progress
+     */
+    public void sendToUser(Long userId, String type, Map<String, Object> payload) {
+        sendToUser(userId, type, payload, null);
+    }
+
+    /**
+     * Like {@link #sendToUser(Long, String, Map)}, but under the COALESCE overflow policy a
+     * message still queued with the same key is replaced rather than delivered as well
+     */
+    public void sendToUser(Long userId, String type, Map<String, Object> payload, String coalesceKey) {
         List<WebSocketSession> sessions = sessionsByUserId.get(userId);
 
         if (sessions == null) return;
 
+        TextMessage message = encode(type, payload);
+        if (message == null) return;
+
         for (WebSocketSession session : sessions) {
             if (session.isOpen()) {
-                try {
-                    sendJson(session, Map.of(
-                            "type", "NOTIFICATION",
-                            "payload", notification
-                    ));
-                } catch (IOException e) {
-                    log.error("Failed to send notification to user {}: {}", userId, e.getMessage());
-                }
+                outboundQueues.send(session, message, coalesceKey);
             }
         }
     }
 
     public void broadcastNotification(Map<String, Object> notification) {
-        sessionsByUserId.forEach((userId, sessions) -> {
+        if (sessionsByUserId.isEmpty()) return;
+
+        // Encoded once; the same immutable frame is queued for every session
+        TextMessage message = encode("NOTIFICATION", notification);
+        if (message == null) return;
+
+        int queued = 0;
+        for (List<WebSocketSession> sessions : sessionsByUserId.values()) {
             for (WebSocketSession session : sessions) {
-                if (session.isOpen()) {
-                    try {
-                        sendJson(session, Map.of(
-                                "type", "NOTIFICATION",
-                                "payload", notification
-                        ));
-                    } catch (IOException e) {
-                        log.error("Broadcast failed for user {}: {}", userId, e.getMessage());
-                    }
+                if (session.isOpen() && outboundQueues.send(session, message, null)) {
+                    queued++;
                 }
             }
-        });
+        }
+        log.debug("Broadcast queued for {} sessions ({} chars)", queued, message.getPayloadLength());
     }
 
+    /** The {"type","payload"} envelope as a frame, or null when the payload can't be serialized */
+    private TextMessage encode(String type, Map<String, Object> payload) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(Map.of(
+                    "type", type,
+                    "payload", payload
+            )));
+        } catch (IOException e) {
+            log.error("Failed to serialize {} message: {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    // Queued: returns at once and never interleaves with other frames to the session
     private void sendJson(WebSocketSession session, Map<String, Object> payload) throws IOException {
+        outboundQueues.send(session, new TextMessage(objectMapper.writeValueAsString(payload)), null);
+    }
+
+    // Written before the session is closed; nothing else sends to an unauthenticated session
+    private void sendJsonNow(WebSocketSession session, Map<String, Object> payload) throws IOException {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
     }
 
@@ -0,0 +1,368 @@
+package com.nyaysetu.backend.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded outbound queue per WebSocket session, drained off the caller's thread.
+ *
+ * Senders only enqueue, so a request or after-commit thread never blocks on a slow
+ * client, and each session has at most one drain task, so frames to one session never
+ * interleave. On a JSR-356 session a frame is written asynchronously and the drain continues
+ * from its completion callback, so a slow client holds no pool thread at all; other
+ * sessions are sent a batch at a time before the drain yields its thread. A frame still
+ * unwritten after the send time limit disconnects the session. When a queue is full the
+ * configured {@link OverflowPolicy} applies.
+ *
+ * Queue depth and lag are published as aggregates over all sessions, so the number of
+ * series does not grow with the number of connections.
+ */
+@Slf4j
+@Component
+public class SessionOutboundQueues {
+
+    public enum OverflowPolicy {
+        /** Discard the oldest queued message. */
+        DROP_OLDEST,
+        /** Replace a queued message with the same coalesce key; otherwise discard the oldest. */
+        COALESCE,
+        /** Close the session; the client reconnects and resynchronises. */
+        DISCONNECT
+    }
+
+    private record Outbound(TextMessage message, String coalesceKey, long enqueuedNanos) {
+    }
+
+    private static final class Outbox {
+        final WebSocketSession session;
+        final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+        boolean draining;
+        boolean closed;
+        volatile long sendStartedNanos;
+
+        Outbox(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final Executor drainExecutor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitNanos;
+    private final int batchSize;
+
+    private final Counter dropped;
+    private final Counter coalesced;
+    private final Counter disconnected;
+    private final Timer deliveryLag;
+
+    @Autowired
+    public SessionOutboundQueues(MeterRegistry meterRegistry,
+                                 @Value("${websocket.outbound.queue-capacity:256}") int capacity,
+                                 @Value("${websocket.outbound.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                                 @Value("${websocket.outbound.drain-threads:8}") int drainThreads,
+                                 @Value("${websocket.outbound.send-time-limit-ms:10000}") long sendTimeLimitMs,
+                                 @Value("${websocket.outbound.batch-size:32}") int batchSize) {
+        this(Executors.newFixedThreadPool(Math.max(1, drainThreads), runnable -> {
+            Thread thread = new Thread(runnable, "ws-outbound");
+            thread.setDaemon(true);
+            return thread;
+        }), meterRegistry, capacity, overflowPolicy, sendTimeLimitMs, batchSize);
+    }
+
+    SessionOutboundQueues(Executor drainExecutor, MeterRegistry meterRegistry, int capacity,
+                          OverflowPolicy overflowPolicy, long sendTimeLimitMs, int batchSize) {
+        this.drainExecutor = drainExecutor;
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.batchSize = Math.max(1, batchSize);
+
+        this.dropped = Counter.builder("websocket.outbound.dropped")
+                .description("Messages discarded from full session queues").register(meterRegistry);
+        this.coalesced = Counter.builder("websocket.outbound.coalesced")
+                .description("Queued messages replaced by a newer one with the same key").register(meterRegistry);
+        this.disconnected = Counter.builder("websocket.outbound.disconnected")
+                .description("Sessions closed for overflowing or stalling their queue").register(meterRegistry);
+        this.deliveryLag = Timer.builder("websocket.outbound.delivery")
+                .description("Time from enqueue until the frame was written").register(meterRegistry);
+        Gauge.builder("websocket.outbound.sessions", outboxes, Map::size)
+                .description("Sessions with an outbound queue").register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.size", this, SessionOutboundQueues::totalQueued)
+                .description("Messages waiting across all session queues").register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.max", this, SessionOutboundQueues::deepestQueue)
+                .description("Depth of the fullest session queue").register(meterRegistry);
+        Gauge.builder("websocket.outbound.lag", this, SessionOutboundQueues::oldestAgeMillis)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest undelivered message in any session queue").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (drainExecutor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /** Starts queueing for a session. */
+    public void register(WebSocketSession session) {
+        outboxes.computeIfAbsent(session.getId(), id -> new Outbox(session));
+    }
+
+    /** Drops a session's queue, e.g. once the connection has closed. */
+    public void unregister(WebSocketSession session) {
+        Outbox outbox = outboxes.remove(session.getId());
+        if (outbox == null) {
+            return;
+        }
+        synchronized (outbox) {
+            outbox.closed = true;
+            outbox.queue.clear();
+        }
+    }
+
+    /**
+     * Queues a message for the session and returns immediately.
+     *
+     * @param coalesceKey identifies messages that supersede each other, e.g. progress of one
+     *                    document; null when every message must be delivered
+     * @return false when the session is unknown, closed, or was disconnected for overflowing
+     */
+    public boolean send(WebSocketSession session, TextMessage message, String coalesceKey) {
+        Outbox outbox = outboxes.get(session.getId());
+        if (outbox == null) {
+            return false;
+        }
+        Outbound outbound = new Outbound(message, coalesceKey, System.nanoTime());
+        boolean startDrain;
+        boolean overflowed = false;
+        synchronized (outbox) {
+            if (outbox.closed) {
+                return false;
+            }
+            if (overflowPolicy == OverflowPolicy.COALESCE && coalesceKey != null && replace(outbox, outbound)) {
+                coalesced.increment();
+                return true;
+            }
+            if (outbox.queue.size() >= capacity) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    outbox.closed = true;
+                    outbox.queue.clear();
+                    overflowed = true;
+                } else {
+                    outbox.queue.pollFirst();
+                    dropped.increment();
+                }
+            }
+            if (!overflowed) {
+                outbox.queue.addLast(outbound);
+            }
+            startDrain = !overflowed && !outbox.draining;
+            if (startDrain) {
+                outbox.draining = true;
+            }
+        }
+        if (overflowed) {
+            log.warn("Outbound queue of session {} overflowed, disconnecting", session.getId());
+            disconnect(outbox);
+            return false;
+        }
+        if (startDrain) {
+            scheduleDrain(outbox);
+        }
+        return true;
+    }
+
+    /** Messages waiting for the session, or 0 when it has no queue. */
+    public int queued(WebSocketSession session) {
+        return (int) queueSize(outboxes.get(session.getId()));
+    }
+
+    /** Disconnects sessions whose current frame has been in flight for longer than the send time limit. */
+    @Scheduled(fixedDelayString = "${websocket.outbound.stall-check-interval-ms:2000}")
+    public void disconnectStalledSessions() {
+        long now = System.nanoTime();
+        for (Outbox outbox : outboxes.values()) {
+            long started = outbox.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeLimitNanos) {
+                log.warn("Send to session {} blocked for over {} ms, disconnecting", outbox.session.getId(),
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeLimitNanos));
+                synchronized (outbox) {
+                    outbox.closed = true;
+                    outbox.queue.clear();
+                }
+                // The stalled frame is written off; the next pass must not count this session again
+                outbox.sendStartedNanos = 0;
+                disconnect(outbox);
+            }
+        }
+    }
+
+    private void drain(Outbox outbox) {
+        int sent = 0;
+        while (true) {
+            Outbound next;
+            synchronized (outbox) {
+                next = outbox.closed ? null : outbox.queue.pollFirst();
+                if (next == null) {
+                    outbox.draining = false;
+                    return;
+                }
+            }
+            if (!outbox.session.isOpen()) {
+                abandon(outbox);
+                return;
+            }
+            Session nativeSession = outbox.session instanceof NativeWebSocketSession ws
+                    ? ws.getNativeSession(Session.class) : null;
+            outbox.sendStartedNanos = System.nanoTime();
+            if (nativeSession != null) {
+                sendAsync(outbox, nativeSession, next);
+                return;
+            }
+            try {
+                outbox.session.sendMessage(next.message());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Send to session {} failed: {}", outbox.session.getId(), e.getMessage());
+                abandon(outbox);
+                return;
+            } finally {
+                outbox.sendStartedNanos = 0;
+            }
+            deliveryLag.record(System.nanoTime() - next.enqueuedNanos(), TimeUnit.NANOSECONDS);
+
+            // Hand the thread to other sessions after a batch; this session's turn comes round again
+            if (++sent >= batchSize) {
+                scheduleDrain(outbox);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes one frame without blocking the drain thread. The container completes it on its
+     * own thread, and the next frame is scheduled from there, keeping one frame in flight per
+     * session.
+     */
+    private void sendAsync(Outbox outbox, Session nativeSession, Outbound next) {
+        try {
+            nativeSession.getAsyncRemote().sendText(next.message().getPayload(), result -> {
+                outbox.sendStartedNanos = 0;
+                if (!result.isOK()) {
+                    log.warn("Send to session {} failed: {}", outbox.session.getId(),
+                            result.getException() == null ? null : result.getException().getMessage());
+                    abandon(outbox);
+                    return;
+                }
+                deliveryLag.record(System.nanoTime() - next.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                scheduleDrain(outbox);
+            });
+        } catch (RuntimeException e) {
+            outbox.sendStartedNanos = 0;
+            log.warn("Send to session {} failed: {}", outbox.session.getId(), e.getMessage());
+            abandon(outbox);
+        }
+    }
+
+    private void scheduleDrain(Outbox outbox) {
+        try {
+            drainExecutor.execute(() -> drain(outbox));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; nothing will drain this queue again
+            abandon(outbox);
+        }
+    }
+
+    private static void abandon(Outbox outbox) {
+        synchronized (outbox) {
+            outbox.queue.clear();
+            outbox.draining = false;
+        }
+    }
+
+    private static boolean replace(Outbox outbox, Outbound outbound) {
+        for (Iterator<Outbound> it = outbox.queue.descendingIterator(); it.hasNext(); ) {
+            if (outbound.coalesceKey().equals(it.next().coalesceKey())) {
+                it.remove();
+                outbox.queue.addLast(outbound);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Closes the session and drops its queue, so neither later sends nor stall checks see it again. */
+    private void disconnect(Outbox outbox) {
+        outboxes.remove(outbox.session.getId(), outbox);
+        disconnected.increment();
+        try {
+            outbox.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Closing session {} failed: {}", outbox.session.getId(), e.getMessage());
+        }
+    }
+
+    private static double queueSize(Outbox outbox) {
+        if (outbox == null) {
+            return 0;
+        }
+        synchronized (outbox) {
+            return outbox.queue.size();
+        }
+    }
+
+    private double totalQueued() {
+        double total = 0;
+        for (Outbox outbox : outboxes.values()) {
+            total += queueSize(outbox);
+        }
+        return total;
+    }
+
+    private double deepestQueue() {
+        double deepest = 0;
+        for (Outbox outbox : outboxes.values()) {
+            deepest = Math.max(deepest, queueSize(outbox));
+        }
+        return deepest;
+    }
+
+    private double oldestAgeMillis() {
+        long now = System.nanoTime();
+        long oldestNanos = 0;
+        for (Outbox outbox : outboxes.values()) {
+            synchronized (outbox) {
+                Outbound oldest = outbox.queue.peekFirst();
+                if (oldest != null) {
+                    oldestNanos = Math.max(oldestNanos, now - oldest.enqueuedNanos());
+                }
+            }
+        }
+        return oldestNanos / 1_000_000.0;
+    }
+}
@@ -1,12 +1,20 @@
 package com.nyaysetu.backend.notification.controller;
 
+import com.nyaysetu.backend.dto.MarkNotificationsReadRequest;
+import com.nyaysetu.backend.dto.NotificationPageResponse;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.exception.AccessDeniedException;
 import com.nyaysetu.backend.notification.entity.Notification;
 import com.nyaysetu.backend.notification.service.NotificationService;
+import com.nyaysetu.backend.service.AuthService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/notifications")
@@ -14,6 +22,7 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final AuthService authService;
 
     @PostMapping("/send")
     public ResponseEntity<?> send(@RequestBody Notification notification) {
@@ -22,13 +31,53 @@ public class NotificationController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Notification>> forUser(@PathVariable Long userId) {
+    public ResponseEntity<List<Notification>> forUser(@PathVariable Long userId, Authentication authentication) {
+        requireSelf(userId, authentication);
         return ResponseEntity.ok(notificationService.findForUser(userId));
     }
 
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<NotificationPageResponse> inbox(@PathVariable Long userId,
+                                                          @RequestParam(required = false) Long before,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          Authentication authentication) {
+        requireSelf(userId, authentication);
+        return ResponseEntity.ok(notificationService.inbox(userId, before, size));
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> unreadCount(@PathVariable Long userId, Authentication authentication) {
+        requireSelf(userId, authentication);
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.unreadCount(userId)));
+    }
+
+    @PostMapping("/user/{userId}/read")
+    public ResponseEntity<Map<String, Integer>> markRead(@PathVariable Long userId,
+                                                         @Valid @RequestBody MarkNotificationsReadRequest request,
+                                                         Authentication authentication) {
+        requireSelf(userId, authentication);
+        return ResponseEntity.ok(Map.of("updated", notificationService.markRead(userId, request.getIds())));
+    }
+
+    @PostMapping("/user/{userId}/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllRead(@PathVariable Long userId,
+                                                            @RequestParam(required = false) Long upTo,
+                                                            Authentication authentication) {
+        requireSelf(userId, authentication);
+        return ResponseEntity.ok(Map.of("updated", notificationService.markAllRead(userId, upTo)));
+    }
+
     @PostMapping("/{id}/read")
     public ResponseEntity<?> markRead(@PathVariable Long id) {
         notificationService.markRead(id);
         return ResponseEntity.ok().build();
     }
+
+    /** A user's notifications are theirs alone; the path id must be the caller's. */
+    private void requireSelf(Long userId, Authentication authentication) {
+        User user = authService.findByEmail(authentication.getName());
+        if (!user.getId().equals(userId)) {
+            throw new AccessDeniedException("Notifications belong to another user");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.handler.NotificationWebSocketHandler;
+import com.nyaysetu.backend.notification.event.UserPresenceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.AbstractConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.amqp.autoconfigure.CachingConnectionFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cluster-wide delivery through the AMQP broker.
+ *
+ * Messages go to a topic exchange with routing key {@code user.<id>} (or {@code broadcast});
+ * every node consumes its own queue, bound only to the users whose sessions live on that
+ * node, so a node receives what it can deliver and nothing else. The publishing node
+ * receives its own users' messages the same way. A newly authenticated session waits until
+ * its user's binding is declared (see {@link #awaitRoutes}), so nothing published after the
+ * replay of missed notifications is unroutable.
+ *
+ * Publishing is batched off the caller's thread: up to {@code batch-size} messages, or
+ * whatever arrived within {@code max-delay-ms}, are sent on one channel and confirmed with
+ * a single wait for publisher confirms. Confirms are enabled on a connection factory of
+ * this class's own, so other templates on the shared factory keep plain publishing. When a
+ * batch is not confirmed, only the messages never handed to the broker are delivered to
+ * this node's sessions; the rest may already have been routed, here as well, and clients
+ * recover any that were lost through the replay on reconnect.
+ */
+@Slf4j
+@Component
+@Lazy(false) // The node queue consumer has to run before anyone asks for a notification
+@ConditionalOnProperty(name = "notification.cluster.enabled", havingValue = "true")
+public class AmqpNotificationFanout implements NotificationFanout {
+
+    public static final String BROADCAST_ROUTING_KEY = "broadcast";
+    private static final String USER_ROUTING_PREFIX = "user.";
+
+    /** Wire format between nodes; userId is null for broadcasts. */
+    record ClusterMessage(Long userId, String type, Map<String, Object> payload, String coalesceKey) {
+    }
+
+    private record Outgoing(String routingKey, Message message) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitAdmin rabbitAdmin;
+    private final NotificationWebSocketHandler webSocketHandler;
+    private final ObjectMapper objectMapper;
+    private final TopicExchange exchange;
+    private final Queue nodeQueue;
+
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long confirmTimeoutMs;
+    private final BlockingQueue<Outgoing> pending;
+
+    private final Counter published;
+    private final Counter failed;
+    private final Counter received;
+    private final Timer batchConfirm;
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> daemon(r, "notification-publisher"));
+    // One thread, so binding changes for a user apply in the order they happened
+    private final ExecutorService bindings = Executors.newSingleThreadExecutor(r -> daemon(r, "notification-bindings"));
+    private volatile boolean running = true;
+
+    @Autowired
+    public AmqpNotificationFanout(ConnectionFactory connectionFactory,
+                                  CachingConnectionFactoryConfigurer connectionFactoryConfigurer,
+                                  RabbitAdmin rabbitAdmin,
+                                  NotificationWebSocketHandler webSocketHandler,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("notificationExchange") TopicExchange exchange,
+                                  @Qualifier("notificationNodeQueue") Queue nodeQueue,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.cluster.batch-size:100}") int batchSize,
+                                  @Value("${notification.cluster.max-delay-ms:20}") long maxDelayMs,
+                                  @Value("${notification.cluster.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                                  @Value("${notification.cluster.buffer-capacity:10000}") int bufferCapacity) {
+        this(new RabbitTemplate(confirmingConnectionFactory(connectionFactory, connectionFactoryConfigurer)),
+                connectionFactory, rabbitAdmin, webSocketHandler, objectMapper, exchange, nodeQueue, meterRegistry,
+                batchSize, maxDelayMs, confirmTimeoutMs, bufferCapacity);
+    }
+
+    AmqpNotificationFanout(RabbitTemplate rabbitTemplate, ConnectionFactory connectionFactory,
+                           RabbitAdmin rabbitAdmin, NotificationWebSocketHandler webSocketHandler,
+                           ObjectMapper objectMapper, TopicExchange exchange, Queue nodeQueue,
+                           MeterRegistry meterRegistry, int batchSize, long maxDelayMs,
+                           long confirmTimeoutMs, int bufferCapacity) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitAdmin = rabbitAdmin;
+        this.webSocketHandler = webSocketHandler;
+        this.objectMapper = objectMapper;
+        this.exchange = exchange;
+        this.nodeQueue = nodeQueue;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, bufferCapacity));
+
+        this.published = Counter.builder("notification.fanout.published")
+                .description("Messages confirmed by the broker").register(meterRegistry);
+        this.failed = Counter.builder("notification.fanout.failed")
+                .description("Messages the broker did not confirm").register(meterRegistry);
+        this.received = Counter.builder("notification.fanout.received")
+                .description("Messages consumed from this node's queue").register(meterRegistry);
+        this.batchConfirm = Timer.builder("notification.fanout.batch")
+                .description("Publishing and confirming one batch").register(meterRegistry);
+
+        // The node queue, consumed over the shared connection, is redeclared on reconnect without the per-user bindings
+        connectionFactory.addConnectionListener(connection -> bindings.execute(this::rebindAll));
+        publisher.execute(this::publishLoop);
+    }
+
+    /**
+     * A connection factory configured from spring.rabbitmq.* like the shared one, but with
+     * simple publisher confirms, which the shared factory leaves off.
+     */
+    private static CachingConnectionFactory confirmingConnectionFactory(ConnectionFactory shared,
+                                                                        CachingConnectionFactoryConfigurer configurer) {
+        if (!(shared instanceof AbstractConnectionFactory base)) {
+            throw new IllegalStateException("Unsupported RabbitMQ connection factory " + shared.getClass().getName());
+        }
+        CachingConnectionFactory confirming = new CachingConnectionFactory(base.getRabbitConnectionFactory());
+        configurer.configure(confirming);
+        confirming.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
+        return confirming;
+    }
+
+    @Override
+    public void sendToUser(Long userId, String type, Map<String, Object> payload, String coalesceKey) {
+        enqueue(USER_ROUTING_PREFIX + userId, new ClusterMessage(userId, type, payload, coalesceKey));
+    }
+
+    @Override
+    public void broadcastNotification(Map<String, Object> notification) {
+        enqueue(BROADCAST_ROUTING_KEY, new ClusterMessage(null, "NOTIFICATION", notification, null));
+    }
+
+    @RabbitListener(queues = "#{notificationNodeQueue.name}")
+    public void onClusterMessage(Message message) {
+        received.increment();
+        try {
+            deliverLocally(objectMapper.readValue(message.getBody(), ClusterMessage.class));
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cluster notification: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onPresenceChanged(UserPresenceChangedEvent event) {
+        bindings.execute(() -> reconcileBinding(event.userId()));
+    }
+
+    /**
+     * Waits on the bindings thread behind any binding change already queued for the user,
+     * re-declaring theirs if an earlier attempt failed. Gives up after the confirm timeout;
+     * the connection listener restores bindings once the broker is back.
+     */
+    @Override
+    public void awaitRoutes(Long userId) {
+        try {
+            bindings.submit(() -> reconcileBinding(userId)).get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("Notification binding for user {} not in place yet: {}", userId, e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        publisher.shutdown();
+        publisher.awaitTermination(confirmTimeoutMs + 1000, TimeUnit.MILLISECONDS);
+        bindings.shutdownNow();
+        if (rabbitTemplate.getConnectionFactory() instanceof CachingConnectionFactory confirming) {
+            confirming.destroy();
+        }
+    }
+
+    private void enqueue(String routingKey, ClusterMessage clusterMessage) {
+        Message message;
+        try {
+            MessageProperties properties = new MessageProperties();
+            properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            message = new Message(objectMapper.writeValueAsBytes(clusterMessage), properties);
+        } catch (IOException e) {
+            log.error("Failed to serialize {} message: {}", clusterMessage.type(), e.getMessage());
+            return;
+        }
+        Outgoing outgoing = new Outgoing(routingKey, message);
+        if (!pending.offer(outgoing)) {
+            // Buffer full: the publisher is behind, so the caller publishes and waits itself
+            flush(List.of(outgoing));
+        }
+    }
+
+    private void publishLoop() {
+        List<Outgoing> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                Outgoing first = pending.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    pending.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Outgoing next = pending.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Notification publisher failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Outgoing> batch) {
+        long start = System.nanoTime();
+        AtomicInteger handedOver = new AtomicInteger();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (Outgoing outgoing : batch) {
+                    operations.send(exchange.getName(), outgoing.routingKey(), outgoing.message());
+                    handedOver.incrementAndGet();
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+            published.increment(batch.size());
+        } catch (AmqpException e) {
+            failed.increment(batch.size());
+            // A message the broker received may have been routed, to this node too, even without a confirm
+            List<Outgoing> unsent = batch.subList(handedOver.get(), batch.size());
+            log.warn("Broker did not confirm {} notifications, delivering the {} never sent on this node only: {}",
+                    batch.size(), unsent.size(), e.getMessage());
+            for (Outgoing outgoing : unsent) {
+                try {
+                    deliverLocally(objectMapper.readValue(outgoing.message().getBody(), ClusterMessage.class));
+                } catch (IOException ignored) {
+                    // Serialized by enqueue a moment ago
+                }
+            }
+        } finally {
+            batchConfirm.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void deliverLocally(ClusterMessage message) {
+        if (message.userId() == null) {
+            webSocketHandler.broadcastNotification(message.payload());
+        } else {
+            webSocketHandler.sendToUser(message.userId(), message.type(), message.payload(), message.coalesceKey());
+        }
+    }
+
+    /** Binds the user's routing key while they have sessions on this node, unbinds it otherwise. */
+    private void reconcileBinding(Long userId) {
+        Binding binding = userBinding(userId);
+        try {
+            if (webSocketHandler.hasSessions(userId)) {
+                rabbitAdmin.declareBinding(binding);
+            } else {
+                rabbitAdmin.removeBinding(binding);
+            }
+        } catch (AmqpException e) {
+            // Retried for every connected user when the connection comes back
+            log.warn("Could not update notification binding for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void rebindAll() {
+        try {
+            rabbitAdmin.declareQueue(nodeQueue);
+            for (Long userId : webSocketHandler.connectedUserIds()) {
+                rabbitAdmin.declareBinding(userBinding(userId));
+            }
+        } catch (AmqpException e) {
+            log.warn("Could not restore notification bindings: {}", e.getMessage());
+        }
+    }
+
+    private Binding userBinding(Long userId) {
+        return new Binding(nodeQueue.getName(), Binding.DestinationType.QUEUE, exchange.getName(),
+                USER_ROUTING_PREFIX + userId, null);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
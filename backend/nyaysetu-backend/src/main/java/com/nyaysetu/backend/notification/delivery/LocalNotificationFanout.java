@@ -0,0 +1,29 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import com.nyaysetu.backend.handler.NotificationWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Single-node delivery straight to this node's sessions. The default.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.cluster.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalNotificationFanout implements NotificationFanout {
+
+    private final NotificationWebSocketHandler webSocketHandler;
+
+    @Override
+    public void sendToUser(Long userId, String type, Map<String, Object> payload, String coalesceKey) {
+        webSocketHandler.sendToUser(userId, type, payload, coalesceKey);
+    }
+
+    @Override
+    public void broadcastNotification(Map<String, Object> notification) {
+        webSocketHandler.broadcastNotification(notification);
+    }
+}
@@ -0,0 +1,104 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges bursts of notifications to the same user into one frame.
+ *
+ * The first notification for a user opens a window of {@code notification.coalesce.window-ms};
+ * everything that arrives for that user meanwhile is sent with it when the window closes,
+ * as a single NOTIFICATION, or as one NOTIFICATION_BATCH when there are several. A batch
+ * that reaches {@code max-batch} is sent at once.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    private final NotificationFanout notificationFanout;
+    private final long windowMs;
+    private final int maxBatch;
+
+    private final Map<Long, List<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationCoalescer(NotificationFanout notificationFanout,
+                                 @Value("${notification.coalesce.window-ms:250}") long windowMs,
+                                 @Value("${notification.coalesce.max-batch:50}") int maxBatch) {
+        this.notificationFanout = notificationFanout;
+        this.windowMs = windowMs;
+        this.maxBatch = Math.max(1, maxBatch);
+    }
+
+    public void add(Long userId, Map<String, Object> notification) {
+        if (windowMs <= 0) {
+            send(userId, List.of(notification));
+            return;
+        }
+
+        boolean[] opened = new boolean[1];
+        List<List<Map<String, Object>>> full = new ArrayList<>(1);
+        pending.compute(userId, (id, batch) -> {
+            if (batch == null) {
+                batch = new ArrayList<>();
+                opened[0] = true;
+            }
+            batch.add(notification);
+            if (batch.size() >= maxBatch) {
+                full.add(batch);
+                return null;
+            }
+            return batch;
+        });
+
+        if (!full.isEmpty()) {
+            send(userId, full.get(0));
+        } else if (opened[0]) {
+            scheduler.schedule(() -> flush(userId), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Sends what is buffered for the user now. */
+    void flush(Long userId) {
+        List<Map<String, Object>> batch = pending.remove(userId);
+        if (batch != null) {
+            send(userId, batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List.copyOf(pending.keySet()).forEach(this::flush);
+    }
+
+    private void send(Long userId, List<Map<String, Object>> batch) {
+        try {
+            if (batch.size() == 1) {
+                notificationFanout.sendNotification(userId, batch.get(0));
+            } else {
+                notificationFanout.sendToUser(userId, "NOTIFICATION_BATCH", Map.of(
+                        "count", batch.size(),
+                        "notifications", batch
+                ), null);
+            }
+        } catch (RuntimeException e) {
+            // Live delivery is best effort; the notifications are saved and replayed on reconnect
+            log.warn("Failed to deliver {} notifications to user {}: {}", batch.size(), userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import java.util.Map;
+
+/**
+ * Delivers live messages to a user's WebSocket sessions wherever they are connected:
+ * on this node only ({@link LocalNotificationFanout}) or on every node of the cluster
+ * through the AMQP broker ({@link AmqpNotificationFanout}), selected with
+ * {@code notification.cluster.enabled}.
+ */
+public interface NotificationFanout {
+
+    default void sendNotification(Long userId, Map<String, Object> notification) {
+        sendToUser(userId, "NOTIFICATION", notification, null);
+    }
+
+    /**
+     * @param coalesceKey messages with the same key supersede each other in a slow
+     *                    session's queue; null when every message must be delivered
+     */
+    void sendToUser(Long userId, String type, Map<String, Object> payload, String coalesceKey);
+
+    void broadcastNotification(Map<String, Object> notification);
+
+    /**
+     * Returns once messages sent to the user from any node reach this node's sessions, so
+     * a replay of missed notifications that runs afterwards leaves no gap. Called after a
+     * session authenticates; delivery on a single node needs no setup.
+     */
+    default void awaitRoutes(Long userId) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.nyaysetu.backend.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Unread notifications of one user, kept in step with the notification table by
+ * NotificationService so the badge count is a primary-key read.
+ */
+@Entity
+@Table(name = "notification_unread_count")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationUnreadCount {
+
+    @Id
+    private Long userId;
+
+    private long unread;
+}
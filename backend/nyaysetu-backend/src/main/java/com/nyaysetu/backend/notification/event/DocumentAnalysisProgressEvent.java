@@ -0,0 +1,16 @@
+package com.nyaysetu.backend.notification.event;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Progress of a long document's map-reduce analysis. {@code result} holds the facts
+ * extracted from the sections finished so far, or the merged analysis once complete.
+ */
+public record DocumentAnalysisProgressEvent(UUID documentId,
+                                            Long userId,
+                                            String status,
+                                            int completedChunks,
+                                            int totalChunks,
+                                            Map<String, Object> result) {
+}
@@ -0,0 +1,39 @@
+package com.nyaysetu.backend.notification.event;
+
+import com.nyaysetu.backend.notification.delivery.NotificationFanout;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentAnalysisProgressListener {
+
+    private final NotificationFanout notificationFanout;
+
+    @EventListener
+    public void handleProgress(DocumentAnalysisProgressEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("documentId", event.documentId().toString());
+        payload.put("status", event.status());
+        payload.put("completedChunks", event.completedChunks());
+        payload.put("totalChunks", event.totalChunks());
+        if (event.result() != null) {
+            payload.put("result", event.result());
+        }
+
+        // A slow client only needs the latest progress of each document
+        notificationFanout.sendToUser(event.userId(), "DOCUMENT_ANALYSIS", payload,
+                "DOCUMENT_ANALYSIS:" + event.documentId());
+        log.debug("Analysis progress {}/{} sent for document {}", event.completedChunks(),
+                event.totalChunks(), event.documentId());
+    }
+}
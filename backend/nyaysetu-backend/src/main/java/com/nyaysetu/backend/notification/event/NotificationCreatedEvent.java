@@ -1,5 +1,10 @@
 package com.nyaysetu.backend.notification.event;
 
+import java.util.Map;
 
-public record NotificationCreatedEvent(Long notificationId) {
+/**
+ * A notification was saved. Carries the live payload built from the saved entity, so
+ * after-commit delivery does not read the row back.
+ */
+public record NotificationCreatedEvent(Long notificationId, Long userId, Map<String, Object> payload) {
 }
@@ -0,0 +1,7 @@
+package com.nyaysetu.backend.notification.event;
+
+/**
+ * A user's first WebSocket session on this node opened (online) or the last one closed.
+ */
+public record UserPresenceChangedEvent(Long userId, boolean online) {
+}
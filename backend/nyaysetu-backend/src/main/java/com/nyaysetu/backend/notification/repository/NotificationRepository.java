@@ -1,10 +1,39 @@
 package com.nyaysetu.backend.notification.repository;
 
 import com.nyaysetu.backend.notification.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
-}
\ No newline at end of file
+
+    // Keyset range on (user_id, id): the notifications a reconnecting client missed, oldest first
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable page);
+
+    // Inbox pages, newest first, on the same index: the first page, then everything older than a cursor
+    List<Notification> findByUserIdOrderByIdDesc(Long userId, Pageable page);
+
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long beforeId, Pageable page);
+
+    @Query("SELECT n.userId FROM Notification n WHERE n.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /** @return how many of the notifications were unread until now */
+    @Modifying
+    @Query("UPDATE Notification n SET n.readFlag = true "
+            + "WHERE n.userId = :userId AND n.id IN :ids AND n.readFlag = false")
+    int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /** Marks everything up to and including upToId read, leaving anything the client has not seen yet. */
+    @Modifying
+    @Query("UPDATE Notification n SET n.readFlag = true "
+            + "WHERE n.userId = :userId AND n.id <= :upToId AND n.readFlag = false")
+    int markAllRead(@Param("userId") Long userId, @Param("upToId") Long upToId);
+}
@@ -0,0 +1,19 @@
+package com.nyaysetu.backend.notification.repository;
+
+import com.nyaysetu.backend.notification.entity.NotificationUnreadCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationUnreadCountRepository extends JpaRepository<NotificationUnreadCount, Long> {
+
+    /** Adds delta (negative when notifications are read) to the user's count, creating the row if needed. */
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_count (user_id, unread) VALUES (:userId, GREATEST(:delta, 0)) "
+            + "ON CONFLICT (user_id) DO UPDATE "
+            + "SET unread = GREATEST(notification_unread_count.unread + :delta, 0)", nativeQuery = true)
+    void add(@Param("userId") Long userId, @Param("delta") long delta);
+}
@@ -1,27 +1,41 @@
 package com.nyaysetu.backend.notification.service;
 
+import com.nyaysetu.backend.dto.NotificationPageResponse;
 import com.nyaysetu.backend.notification.entity.Notification;
+import com.nyaysetu.backend.notification.entity.NotificationUnreadCount;
 import com.nyaysetu.backend.notification.event.NotificationCreatedEvent;
 import com.nyaysetu.backend.notification.repository.NotificationRepository;
+import com.nyaysetu.backend.notification.repository.NotificationUnreadCountRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationRepository repository;
+    private final NotificationUnreadCountRepository unreadCountRepository;
     private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Notification save(Notification notification) {
         Notification saved = repository.save(notification);
-        eventPublisher.publishEvent(new NotificationCreatedEvent(saved.getId()));
+        if (saved.getUserId() != null && !Boolean.TRUE.equals(saved.getReadFlag())) {
+            unreadCountRepository.add(saved.getUserId(), 1);
+        }
+        eventPublisher.publishEvent(new NotificationCreatedEvent(saved.getId(), saved.getUserId(),
+                toLivePayload(saved)));
         return saved;
     }
 
@@ -29,12 +43,91 @@ public class NotificationService {
         return repository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    /**
+     * One inbox page, newest first. before is the previous page's nextCursor, or null for
+     * the first page; each page is an index range scan however long the history is
+     */
+    @Transactional(readOnly = true)
+    public NotificationPageResponse inbox(Long userId, Long before, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Notification> items = before == null
+                ? repository.findByUserIdOrderByIdDesc(userId, page)
+                : repository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, page);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        return NotificationPageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(pageSize - 1).getId() : null)
+                .unreadCount(unreadCount(userId))
+                .build();
+    }
+
+    public long unreadCount(Long userId) {
+        return unreadCountRepository.findById(userId)
+                .map(NotificationUnreadCount::getUnread)
+                .orElse(0L);
+    }
+
+    /**
+     * Marks the user's notifications read in one UPDATE
+     *
+     * @return how many were unread
+     */
+    @Transactional
+    public int markRead(Long userId, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        int updated = repository.markRead(userId, ids);
+        if (updated > 0) {
+            unreadCountRepository.add(userId, -updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Marks everything up to upToId read in one UPDATE; null marks all
+     *
+     * @return how many were unread
+     */
+    @Transactional
+    public int markAllRead(Long userId, Long upToId) {
+        int updated = repository.markAllRead(userId, upToId != null ? upToId : Long.MAX_VALUE);
+        if (updated > 0) {
+            unreadCountRepository.add(userId, -updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Up to limit notifications created after afterId, oldest first; one index range scan
+     */
+    @Transactional(readOnly = true)
+    public List<Notification> findSince(Long userId, long afterId, int limit) {
+        return repository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * The payload of a NOTIFICATION WebSocket message
+     */
+    public static Map<String, Object> toLivePayload(Notification notification) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", notification.getId());
+        payload.put("title", notification.getTitle());
+        payload.put("message", notification.getMessage());
+        payload.put("timestamp", notification.getCreatedAt() != null
+                ? notification.getCreatedAt().toString()
+                : Instant.now().toString());
+        payload.put("read", Boolean.TRUE.equals(notification.getReadFlag()));
+        return payload;
+    }
+
     @Transactional
     public void markRead(Long id) {
-        Optional<Notification> o = repository.findById(id);
-        o.ifPresent(n -> {
-            n.setReadFlag(true);
-            repository.save(n);
-        });
+        repository.findUserIdById(id).ifPresent(userId -> markRead(userId, List.of(id)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.AnalysisJob;
+import com.nyaysetu.backend.entity.AnalysisJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, UUID> {
+
+    /**
+     * Next due jobs, highest priority first. Rows locked by another node's claim are
+     * skipped, so several instances can dispatch from the same table.
+     */
+    @Query(value = "SELECT * FROM analysis_job WHERE status = 'QUEUED' AND next_attempt_at <= :now "
+            + "ORDER BY priority DESC, created_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AnalysisJob> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Queues a job unless the document already has one queued or running. The unique index
+     * on pending jobs turns a concurrent duplicate into a no-op rather than an aborted transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO analysis_job (id, document_id, priority, status, attempts, next_attempt_at, "
+            + "created_at, version) VALUES (:id, :documentId, :priority, 'QUEUED', 0, :now, :now, 0) "
+            + "ON CONFLICT (document_id) WHERE status IN ('QUEUED', 'RUNNING') DO NOTHING", nativeQuery = true)
+    int insertIfNotPending(@Param("id") UUID id, @Param("documentId") UUID documentId,
+                           @Param("priority") int priority, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.priority = :priority WHERE j.id = :id AND j.priority < :priority")
+    int raisePriority(@Param("id") UUID id, @Param("priority") int priority);
+
+    /** Marks jobs as still being worked on by this node. */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.heartbeatAt = :now WHERE j.id IN :ids "
+            + "AND j.status = com.nyaysetu.backend.entity.AnalysisJobStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    Optional<AnalysisJob> findFirstByDocumentIdAndStatusIn(UUID documentId, Collection<AnalysisJobStatus> statuses);
+
+    long countByStatus(AnalysisJobStatus status);
+
+    /**
+     * Requeue attempts whose worker died with the node, e.g. across a restart. The version is
+     * bumped so a worker that was only slow cannot later overwrite the requeued job.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = com.nyaysetu.backend.entity.AnalysisJobStatus.QUEUED, "
+            + "j.startedAt = NULL, j.heartbeatAt = NULL, j.version = j.version + 1 "
+            + "WHERE j.status = com.nyaysetu.backend.entity.AnalysisJobStatus.RUNNING AND j.heartbeatAt < :cutoff")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,15 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.AuditChainCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AuditChainCheckpointRepository extends JpaRepository<AuditChainCheckpoint, UUID> {
+
+    /** All checkpoints of a chain in order — one per segment boundary, so the list stays small. */
+    List<AuditChainCheckpoint> findByChainIdOrderBySequenceNoAsc(String chainId);
+}
@@ -0,0 +1,33 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.AuditChainHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuditChainHeadRepository extends JpaRepository<AuditChainHead, String> {
+
+    /**
+     * Reads the chain head under a row lock held until the surrounding transaction commits.
+     * This is the cross-node guard that keeps sequence numbers and previousHash links gap-free.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM AuditChainHead h WHERE h.chainId = :chainId")
+    Optional<AuditChainHead> findForUpdate(@Param("chainId") String chainId);
+
+    /**
+     * Creates an empty head for a new chain. A no-op when another node created it first, so
+     * callers follow it with {@link #findForUpdate} and chain onto whichever row won.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO audit_chain_head (chain_id, last_sequence, last_hash) "
+            + "VALUES (:chainId, 0, :genesisHash) ON CONFLICT (chain_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("chainId") String chainId, @Param("genesisHash") String genesisHash);
+}
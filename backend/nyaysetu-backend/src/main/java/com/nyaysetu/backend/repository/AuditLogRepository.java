@@ -1,6 +1,7 @@
 package com.nyaysetu.backend.repository;
 
 import com.nyaysetu.backend.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -9,8 +10,9 @@ import java.util.UUID;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
     List<AuditLog> findByCaseIdOrderByTimestampAsc(UUID caseId);
-    /** Returns the most recently persisted entry — used to retrieve its hash for chaining. */
-    Optional<AuditLog> findTopByOrderByTimestampDesc();
-    /** Returns all entries in insertion order — used by the chain verification walk. */
-    List<AuditLog> findAllByOrderByTimestampAsc();
+    /** Keyset page of a chain's entries in (after, upTo] — used by the streamed, segmented verification walk. */
+    List<AuditLog> findByChainIdAndSequenceNoGreaterThanAndSequenceNoLessThanEqualOrderBySequenceNoAsc(
+            String chainId, Long after, Long upTo, Pageable pageable);
+    /** Returns the entry at a segment boundary — its stored hash anchors the next segment. */
+    Optional<AuditLog> findByChainIdAndSequenceNo(String chainId, Long sequenceNo);
 }
\ No newline at end of file
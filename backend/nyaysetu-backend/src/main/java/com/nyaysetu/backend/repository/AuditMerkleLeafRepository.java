@@ -0,0 +1,26 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.AuditMerkleLeaf;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AuditMerkleLeafRepository extends JpaRepository<AuditMerkleLeaf, UUID> {
+
+    List<AuditMerkleLeaf> findByRootIdOrderByLeafIndexAsc(UUID rootId);
+
+    Optional<AuditMerkleLeaf> findByRootIdAndChainId(UUID rootId, String chainId);
+
+    /** Drops leaf snapshots of roots outside the retention window; the root hashes themselves are kept. */
+    @Modifying
+    @Query("DELETE FROM AuditMerkleLeaf l WHERE l.rootId NOT IN :keepRootIds")
+    int deleteByRootIdNotIn(@Param("keepRootIds") Collection<UUID> keepRootIds);
+}
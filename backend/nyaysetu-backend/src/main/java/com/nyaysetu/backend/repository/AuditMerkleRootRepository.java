@@ -0,0 +1,27 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.AuditMerkleRoot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AuditMerkleRootRepository extends JpaRepository<AuditMerkleRoot, UUID> {
+
+    Optional<AuditMerkleRoot> findTopByOrderByComputedAtDesc();
+
+    /** Newest roots first — used to decide which roots keep their leaf snapshots. */
+    List<AuditMerkleRoot> findByOrderByComputedAtDesc(Pageable pageable);
+
+    /**
+     * Transaction-scoped lock that lets one node at a time commit a root, so no two nodes commit the same heads
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryCommitLock(@Param("key") long key);
+}
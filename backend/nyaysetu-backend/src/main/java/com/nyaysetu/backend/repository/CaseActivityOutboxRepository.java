@@ -0,0 +1,36 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.CaseActivityOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for case activity waiting to be projected.
+ */
+@Repository
+public interface CaseActivityOutboxRepository extends JpaRepository<CaseActivityOutbox, Long> {
+
+    /**
+     * Oldest unprojected rows still worth retrying, locked; rows another node holds are skipped
+     */
+    @Query(value = "SELECT * FROM case_activity_outbox WHERE attempts < :maxAttempts "
+            + "ORDER BY id ASC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CaseActivityOutbox> claimBatch(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM case_activity_outbox WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CaseActivityOutbox> claim(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM CaseActivityOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE CaseActivityOutbox o SET o.attempts = o.attempts + 1, o.lastError = :error WHERE o.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+}
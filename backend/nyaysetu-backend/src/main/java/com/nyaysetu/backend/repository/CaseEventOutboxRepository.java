@@ -0,0 +1,47 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.CaseEventOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for case event messages waiting to be relayed.
+ */
+@Repository
+public interface CaseEventOutboxRepository extends JpaRepository<CaseEventOutbox, Long> {
+
+    /**
+     * Pending messages still worth retrying, in id order; for any one case that is commit order
+     */
+    List<CaseEventOutbox> findByAttemptsLessThanOrderByIdAsc(int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CaseEventOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE CaseEventOutbox o SET o.attempts = o.attempts + 1, o.lastError = :error WHERE o.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Transaction-scoped lock on one case's outbox, taken before its rows are inserted. A second
+     * transaction for the case waits for the first to commit, so its rows get higher ids.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(CAST(:namespace AS INT), hashtext(CAST(:caseId AS TEXT)))",
+            nativeQuery = true)
+    Integer lockCase(@Param("namespace") int namespace, @Param("caseId") UUID caseId);
+
+    /**
+     * Transaction-scoped lock that lets one node at a time relay, so no two nodes send the same rows
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+}
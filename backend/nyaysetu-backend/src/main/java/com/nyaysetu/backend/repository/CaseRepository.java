@@ -7,7 +7,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -75,4 +77,9 @@ public interface CaseRepository extends JpaRepository<CaseEntity, UUID> {
     List<CaseEntity> findByAppealStatus(String appealStatus);
 
     List<CaseEntity> findByIsAppealTrueAndClient(User client);
+
+    // Bumps updatedAt without loading and re-saving the whole case
+    @Modifying
+    @Query("UPDATE CaseEntity c SET c.updatedAt = :updatedAt WHERE c.id = :caseId")
+    int touchUpdatedAt(@Param("caseId") UUID caseId, @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
@@ -13,4 +13,7 @@ public interface DocumentAnalysisRepository extends JpaRepository<DocumentAnalys
     Optional<DocumentAnalysis> findByDocumentId(UUID documentId);
     
     boolean existsByDocumentId(UUID documentId);
+
+    /** A successful analysis of any document with identical content. */
+    Optional<DocumentAnalysis> findFirstByDocumentFileHashAndAnalysisSuccessTrue(String fileHash);
 }
@@ -0,0 +1,11 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.EvidenceAnchorBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface EvidenceAnchorBatchRepository extends JpaRepository<EvidenceAnchorBatch, UUID> {
+}
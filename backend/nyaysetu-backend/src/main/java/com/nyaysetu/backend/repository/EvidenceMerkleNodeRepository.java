@@ -0,0 +1,9 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.EvidenceMerkleNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EvidenceMerkleNodeRepository extends JpaRepository<EvidenceMerkleNode, String> {
+}
@@ -0,0 +1,39 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.EvidenceMerkleRoot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EvidenceMerkleRootRepository extends JpaRepository<EvidenceMerkleRoot, UUID> {
+
+    /** Latest version of a case's evidence tree. */
+    Optional<EvidenceMerkleRoot> findTopByCaseIdOrderByLeafCountDesc(UUID caseId);
+
+    Optional<EvidenceMerkleRoot> findByCaseIdAndLeafCount(UUID caseId, Long leafCount);
+
+    /**
+     * Roots waiting for the next anchor batch, oldest first, that no other node holds a live
+     * claim on. Rows another node is claiming right now are skipped rather than waited for.
+     */
+    @Query(value = "SELECT * FROM evidence_merkle_root WHERE anchored_at IS NULL "
+            + "AND (anchor_claimed_at IS NULL OR anchor_claimed_at < :claimExpiredBefore) "
+            + "ORDER BY created_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EvidenceMerkleRoot> claimPending(@Param("claimExpiredBefore") LocalDateTime claimExpiredBefore,
+                                          @Param("limit") int limit);
+
+    /** Gives roots back to the next window, e.g. after the timestamp authority failed. */
+    @Modifying
+    @Query("UPDATE EvidenceMerkleRoot r SET r.anchorClaimedAt = NULL "
+            + "WHERE r.id IN :ids AND r.anchorClaimedAt = :claimedAt AND r.anchoredAt IS NULL")
+    int releaseClaims(@Param("ids") Collection<UUID> ids, @Param("claimedAt") LocalDateTime claimedAt);
+}
@@ -2,8 +2,13 @@ package com.nyaysetu.backend.repository;
 
 import com.nyaysetu.backend.entity.EvidenceRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +21,21 @@ public interface EvidenceRecordRepository extends JpaRepository<EvidenceRecord,
      */
     List<EvidenceRecord> findByCaseEntityIdOrderByBlockIndexAsc(UUID caseId);
 
+    /**
+     * Block hashes of a case in chain order — the leaves of its evidence Merkle tree
+     */
+    @Query("SELECT e.blockHash FROM EvidenceRecord e WHERE e.caseEntity.id = :caseId ORDER BY e.blockIndex ASC")
+    List<String> findBlockHashesByCaseId(@Param("caseId") UUID caseId);
+
+    /**
+     * Attach a batch anchor to the records that introduced the given case roots
+     */
+    @Modifying
+    @Query("UPDATE EvidenceRecord e SET e.externalAnchorProof = :proof, e.anchoredAt = :anchoredAt, "
+            + "e.anchorService = :anchorService WHERE e.merkleRoot IN :roots AND e.anchoredAt IS NULL")
+    int markAnchored(@Param("roots") Collection<String> roots, @Param("proof") String proof,
+                     @Param("anchoredAt") LocalDateTime anchoredAt, @Param("anchorService") String anchorService);
+
     /**
      * Find the latest block in the chain for a case
      */
@@ -0,0 +1,13 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.FirEvidence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FirEvidenceRepository extends JpaRepository<FirEvidence, Long> {
+
+    List<FirEvidence> findByFirIdOrderByUploadedAtAsc(Long firId);
+}
@@ -0,0 +1,45 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.StorageBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, String> {
+
+    /** Locks the blob row so registering a reference and garbage collection cannot interleave. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StorageBlob b WHERE b.sha256 = :sha256")
+    Optional<StorageBlob> findForUpdate(@Param("sha256") String sha256);
+
+    /** Takes a reference; a tombstoned blob is being deleted and is never revived here. */
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + 1, b.releasedAt = NULL "
+            + "WHERE b.sha256 = :sha256 AND b.refCount >= 0")
+    int incrementRefCount(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount - 1, b.releasedAt = :releasedAt "
+            + "WHERE b.sha256 = :sha256 AND b.refCount > 0")
+    int decrementRefCount(@Param("sha256") String sha256, @Param("releasedAt") LocalDateTime releasedAt);
+
+    /** Restarts the grace period of unreferenced blobs that are still being uploaded. */
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.releasedAt = :now WHERE b.sha256 IN :sha256s AND b.refCount = 0")
+    int touchUnreferenced(@Param("sha256s") Collection<String> sha256s, @Param("now") LocalDateTime now);
+
+    /** Unreferenced blobs released before the cutoff — garbage collection candidates. */
+    List<StorageBlob> findByRefCountLessThanEqualAndReleasedAtBefore(Integer refCount, LocalDateTime cutoff,
+                                                                     Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.nyaysetu.backend.repository;
+
+import com.nyaysetu.backend.entity.UploadSessionChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionChunkRepository extends JpaRepository<UploadSessionChunk, Long> {
+
+    List<UploadSessionChunk> findBySessionIdOrderByChunkOffsetAsc(UUID sessionId);
+
+    List<UploadSessionChunk> findBySessionIdIn(Collection<UUID> sessionIds);
+
+    @Modifying
+    @Query("DELETE FROM UploadSessionChunk c WHERE c.sessionId IN :sessionIds")
+    int deleteBySessionIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
+}
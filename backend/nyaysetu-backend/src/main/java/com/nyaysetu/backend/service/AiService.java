@@ -27,9 +27,10 @@ public class AiService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final PiiSanitizer piiSanitizer;
+    private final GroqRequestBudget groqRequestBudget;
 
     private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
-    private static final String FALLBACK_MESSAGE = "AI service is temporarily experiencing high congestion. Please try again shortly.";
+    static final String FALLBACK_MESSAGE = "AI service is temporarily experiencing high congestion. Please try again shortly.";
 
     public String summarize(String text) {
         try {
@@ -76,7 +77,8 @@ public class AiService {
 
             HttpEntity<String> request = new HttpEntity<>(objectMapper.writeValueAsString(requestBody), headers);
             
-            ResponseEntity<String> response = restTemplate.postForEntity(GROQ_API_URL, request, String.class);
+            ResponseEntity<String> response = groqRequestBudget.call(
+                    () -> restTemplate.postForEntity(GROQ_API_URL, request, String.class));
             
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 JsonNode jsonResponse = objectMapper.readTree(response.getBody());
@@ -119,6 +121,73 @@ public class AiService {
         return chat(prompt);
     }
 
+    /**
+     * Map step of a long document's analysis: the facts found in one section, as JSON.
+     * Sections are analysed independently and merged afterwards, so the prompt asks
+     * only for what can be read off the section itself.
+     */
+    public String extractDocumentFacts(String sectionText, String fileName, int part, int parts) {
+        log.info("Extracting facts from part {}/{} of {}", part, parts, fileName);
+
+        String prompt = "You are an expert Indian legal analyst. Below is part " + part + " of " + parts +
+                " of a longer document. Extract only what this part states.\n\n" +
+                "Document Name: " + fileName + "\n" +
+                "Document Part:\n" + sectionText + "\n\n" +
+                "Please respond with ONLY a JSON object containing:\n" +
+                "{\n" +
+                "  \"summary\": \"two or three sentences on what this part covers\",\n" +
+                "  \"legalPoints\": [\"key point 1\"], // MUST be a JSON array, empty if none\n" +
+                "  \"relevantLaws\": [\"IPC Section X\"], // MUST be a JSON array, empty if none\n" +
+                "  \"importantDates\": [\"2023-10-12: Filing date\"], // MUST be a JSON array, empty if none\n" +
+                "  \"partiesInvolved\": [\"Name (role)\"] // MUST be a JSON array, empty if none\n" +
+                "}\n\n" +
+                "Respond with valid JSON only. Do not add markdown backticks outside the JSON.";
+
+        return chat(prompt);
+    }
+
+    /**
+     * Reduce step of a long document's analysis: the document-level judgements, from the
+     * summaries of its sections in order. Unlike {@link #analyzeDocument} the input is not
+     * cut, so the caller keeps it within the model's context.
+     */
+    public String assessDocument(String sectionSummaries, String fileName, int parts) {
+        log.info("Assessing {} from {} section summaries", fileName, parts);
+
+        String prompt = "You are an expert Indian legal analyst. Below are summaries of the " + parts +
+                " parts of a document, in order. Assess the document as a whole.\n\n" +
+                "Document Name: " + fileName + "\n" +
+                "Section Summaries:\n" + sectionSummaries + "\n\n" +
+                "Please respond with ONLY a JSON object containing:\n" +
+                "{\n" +
+                "  \"summary\": \"concise legal summary of the whole document\",\n" +
+                "  \"caseLawSuggestions\": [\"Case X vs Case Y (2010)\"], // MUST be a JSON array\n" +
+                "  \"suggestedCategory\": \"CIVIL/CRIMINAL/FAMILY/etc\",\n" +
+                "  \"riskAssessment\": \"Low/Medium/High with brief reasoning\",\n" +
+                "  \"score\": 0, // Integer between 0-100 representing document completeness/quality\n" +
+                "  \"complianceStatus\": \"Compliant/Non-Compliant/Review Needed\"\n" +
+                "}\n\n" +
+                "Respond with valid JSON only. Do not add markdown backticks outside the JSON.";
+
+        return chat(prompt);
+    }
+
+    /**
+     * Intermediate reduce step for documents with too many sections for one prompt:
+     * a single plain-text summary of several consecutive section summaries.
+     */
+    public String condenseSummaries(String sectionSummaries, String fileName) {
+        String prompt = "You are an expert Indian legal analyst. Below are summaries of consecutive parts of " +
+                fileName + ". Combine them into one summary of at most five sentences, keeping parties, " +
+                "charges, laws and dates.\n\n" + sectionSummaries + "\n\nRespond with the summary text only.";
+        return chat(prompt);
+    }
+
+    /** True for the canned reply {@link #chat} gives when Groq failed or the request budget ran out. */
+    public static boolean isFallback(String response) {
+        return FALLBACK_MESSAGE.equals(response);
+    }
+
     private String getFallbackResponse(String message) {
         // Keyword-based intelligent responses for Indian legal system
         String lowerMessage = message.toLowerCase();
@@ -0,0 +1,298 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AnalysisJob;
+import com.nyaysetu.backend.entity.AnalysisJobStatus;
+import com.nyaysetu.backend.entity.DocumentEntity;
+import com.nyaysetu.backend.entity.VisibilityLevel;
+import com.nyaysetu.backend.repository.AnalysisJobRepository;
+import com.nyaysetu.backend.repository.DocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent, prioritised queue for document AI analysis.
+ *
+ * Uploads and analysis requests only insert an analysis_job row. A dispatcher claims due
+ * jobs, highest priority first, as workers on the dedicated analysis executor become idle,
+ * so a bulk upload waits in the table instead of occupying threads shared with mail and
+ * audit logging. Failed attempts are retried with exponential backoff. The node running a
+ * job refreshes its heartbeat, and jobs whose heartbeat stops, e.g. after a restart, are
+ * requeued once the stale timeout passes; the version column keeps a worker that was only
+ * slow from overwriting the requeued attempt.
+ */
+@Service
+@Lazy(false) // Queued jobs must resume after a restart, not on the first document request
+@Slf4j
+public class AnalysisJobService {
+
+    /** Added for a judge's explicit request. */
+    static final int PRIORITY_JUDGE_REQUESTED = 20;
+    /** Added for sealed documents, which only the judge can see and is usually waiting on. */
+    static final int PRIORITY_SEALED = 10;
+
+    private static final EnumSet<AnalysisJobStatus> PENDING =
+            EnumSet.of(AnalysisJobStatus.QUEUED, AnalysisJobStatus.RUNNING);
+
+    private final AnalysisJobRepository jobRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentAnalysisService documentAnalysisService;
+    private final ContentStoreService contentStoreService;
+    private final TaskExecutor analysisExecutor;
+    private final TransactionTemplate claimTransaction;
+    private final int concurrency;
+
+    /** Jobs handed to the executor and not yet finished on this node; their heartbeats are kept fresh. */
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter succeeded;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer queueWait;
+
+    @Value("${analysis.job.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    /** Delay before the first retry; doubled for each further attempt. */
+    @Value("${analysis.job.retry-backoff-ms:30000}")
+    private long retryBackoffMs = 30000;
+
+    @Value("${analysis.job.stale-after-minutes:15}")
+    private long staleAfterMinutes = 15;
+
+    public AnalysisJobService(AnalysisJobRepository jobRepository,
+                              DocumentRepository documentRepository,
+                              DocumentAnalysisService documentAnalysisService,
+                              ContentStoreService contentStoreService,
+                              @Qualifier("analysisExecutor") TaskExecutor analysisExecutor,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${analysis.job.concurrency:2}") int concurrency) {
+        this.jobRepository = jobRepository;
+        this.documentRepository = documentRepository;
+        this.documentAnalysisService = documentAnalysisService;
+        this.contentStoreService = contentStoreService;
+        this.analysisExecutor = analysisExecutor;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.concurrency = Math.max(1, concurrency);
+
+        Gauge.builder("analysis.jobs", jobRepository, r -> r.countByStatus(AnalysisJobStatus.QUEUED))
+                .tag("status", "queued").description("Analysis jobs waiting for a worker").register(meterRegistry);
+        Gauge.builder("analysis.jobs", jobRepository, r -> r.countByStatus(AnalysisJobStatus.RUNNING))
+                .tag("status", "running").description("Analysis jobs being worked on").register(meterRegistry);
+        Gauge.builder("analysis.jobs.in-flight", inFlight, Set::size)
+                .description("Analysis jobs running on this node").register(meterRegistry);
+        this.succeeded = Counter.builder("analysis.jobs.completed").tag("outcome", "succeeded")
+                .register(meterRegistry);
+        this.retried = Counter.builder("analysis.jobs.completed").tag("outcome", "retried")
+                .register(meterRegistry);
+        this.failed = Counter.builder("analysis.jobs.completed").tag("outcome", "failed")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("analysis.jobs.queue-wait")
+                .description("Time from enqueue to the first attempt").register(meterRegistry);
+    }
+
+    /**
+     * Queue analysis of a document. A document already waiting keeps its place, moving
+     * up if this request carries a higher priority.
+     */
+    public AnalysisJob enqueue(DocumentEntity document, boolean judgeRequested) {
+        int priority = priorityOf(document, judgeRequested);
+        return claimTransaction.execute(status -> {
+            for (int attempt = 0; ; attempt++) {
+                UUID id = UUID.randomUUID();
+                if (jobRepository.insertIfNotPending(id, document.getId(), priority, LocalDateTime.now()) == 1) {
+                    log.info("Queued analysis job {} for document {} at priority {}", id, document.getId(), priority);
+                    return jobRepository.findById(id).orElseThrow();
+                }
+                Optional<AnalysisJob> pending = jobRepository.findFirstByDocumentIdAndStatusIn(document.getId(), PENDING);
+                if (pending.isPresent()) {
+                    AnalysisJob job = pending.get();
+                    if (job.getPriority() < priority && jobRepository.raisePriority(job.getId(), priority) > 0) {
+                        job.setPriority(priority);
+                    }
+                    return job;
+                }
+                if (attempt > 0) {
+                    throw new IllegalStateException("Could not queue analysis of document " + document.getId());
+                }
+                // The pending job finished between the insert and the lookup; queue a new one
+            }
+        });
+    }
+
+    static int priorityOf(DocumentEntity document, boolean judgeRequested) {
+        int priority = 0;
+        if (judgeRequested) {
+            priority += PRIORITY_JUDGE_REQUESTED;
+        }
+        if (document.getVisibilityLevel() == VisibilityLevel.SEALED) {
+            priority += PRIORITY_SEALED;
+        }
+        return priority;
+    }
+
+    /**
+     * Claims as many due jobs as there are idle workers and starts them.
+     *
+     * @return number of jobs started
+     */
+    @Scheduled(fixedDelayString = "${analysis.job.poll-interval-ms:2000}",
+            initialDelayString = "${analysis.job.poll-interval-ms:2000}")
+    public int dispatch() {
+        int idle = concurrency - inFlight.size();
+        if (idle <= 0) {
+            return 0;
+        }
+        List<AnalysisJob> claimed = claimTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<AnalysisJob> due = jobRepository.claimDue(now, idle);
+            for (AnalysisJob job : due) {
+                job.setStatus(AnalysisJobStatus.RUNNING);
+                job.setAttempts(job.getAttempts() + 1);
+                job.setStartedAt(now);
+                job.setHeartbeatAt(now);
+            }
+            return jobRepository.saveAll(due);
+        });
+
+        int started = 0;
+        for (AnalysisJob job : claimed) {
+            if (job.getAttempts() > maxAttempts) {
+                // Requeued after its worker was lost on the last attempt
+                finishFailed(job, documentRepository.findById(job.getDocumentId()).orElse(null),
+                        "Analysis worker lost on final attempt");
+                continue;
+            }
+            if (job.getAttempts() == 1) {
+                queueWait.record(Duration.between(job.getCreatedAt(), job.getStartedAt()));
+            }
+            inFlight.add(job.getId());
+            try {
+                analysisExecutor.execute(() -> run(job));
+                started++;
+            } catch (TaskRejectedException e) {
+                inFlight.remove(job.getId());
+                job.setStatus(AnalysisJobStatus.QUEUED);
+                job.setAttempts(job.getAttempts() - 1);
+                job.setStartedAt(null);
+                job.setHeartbeatAt(null);
+                saveIfStillOwned(job);
+            }
+        }
+        return started;
+    }
+
+    /** Keeps the jobs running on this node from being requeued as stale. */
+    @Scheduled(fixedDelayString = "${analysis.job.heartbeat-interval-ms:30000}",
+            initialDelayString = "${analysis.job.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        List<UUID> running = List.copyOf(inFlight);
+        claimTransaction.executeWithoutResult(status -> jobRepository.heartbeat(running, LocalDateTime.now()));
+    }
+
+    /** Requeues RUNNING jobs whose heartbeat is older than the stale timeout. */
+    @Scheduled(fixedDelayString = "${analysis.job.stale-check-interval-ms:60000}",
+            initialDelayString = "${analysis.job.stale-check-interval-ms:60000}")
+    public int requeueStaleJobs() {
+        Integer requeued = claimTransaction.execute(status ->
+                jobRepository.requeueStale(LocalDateTime.now().minusMinutes(staleAfterMinutes)));
+        if (requeued != null && requeued > 0) {
+            log.warn("Requeued {} analysis jobs whose worker stopped responding", requeued);
+        }
+        return requeued == null ? 0 : requeued;
+    }
+
+    private void run(AnalysisJob job) {
+        DocumentEntity document = null;
+        try {
+            document = documentRepository.findById(job.getDocumentId()).orElse(null);
+            if (document == null) {
+                finishFailed(job, null, "Document no longer exists");
+                return;
+            }
+            documentAnalysisService.analyzeDocument(document,
+                    contentStoreService.getStoredFile(document.getFileUrl()));
+
+            job.setStatus(AnalysisJobStatus.SUCCEEDED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setLastError(null);
+            if (saveIfStillOwned(job)) {
+                succeeded.increment();
+            }
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (job.getAttempts() >= maxAttempts) {
+                log.error("Analysis job {} for document {} failed after {} attempts", job.getId(),
+                        job.getDocumentId(), job.getAttempts(), e);
+                finishFailed(job, document, error);
+            } else {
+                long backoff = retryBackoffMs << (job.getAttempts() - 1);
+                log.warn("Analysis job {} attempt {} failed, retrying in {} ms: {}", job.getId(),
+                        job.getAttempts(), backoff, error);
+                job.setStatus(AnalysisJobStatus.QUEUED);
+                job.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+                job.setStartedAt(null);
+                job.setHeartbeatAt(null);
+                job.setLastError(truncate(error));
+                if (saveIfStillOwned(job)) {
+                    retried.increment();
+                }
+            }
+        } finally {
+            inFlight.remove(job.getId());
+        }
+    }
+
+    private void finishFailed(AnalysisJob job, DocumentEntity document, String error) {
+        job.setStatus(AnalysisJobStatus.FAILED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setLastError(truncate(error));
+        if (!saveIfStillOwned(job)) {
+            return;
+        }
+        failed.increment();
+        if (document != null) {
+            documentAnalysisService.recordFailure(document, error);
+        }
+    }
+
+    /** False when the job was requeued as stale meanwhile; the newer attempt owns the row then. */
+    private boolean saveIfStillOwned(AnalysisJob job) {
+        try {
+            jobRepository.save(job);
+            return true;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.warn("Analysis job {} was requeued while this worker ran; discarding its outcome", job.getId());
+            return false;
+        }
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
@@ -1,18 +1,46 @@
 package com.nyaysetu.backend.service;
 
+import com.nyaysetu.backend.entity.AuditChainCheckpoint;
+import com.nyaysetu.backend.entity.AuditChainHead;
 import com.nyaysetu.backend.entity.AuditLog;
+import com.nyaysetu.backend.repository.AuditChainCheckpointRepository;
+import com.nyaysetu.backend.repository.AuditChainHeadRepository;
 import com.nyaysetu.backend.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Enforces Merkle-style SHA-256 hash chaining on the audit log.
@@ -22,62 +50,512 @@ import java.util.Map;
  *
  * This means any deletion or modification of a row breaks every hash
  * that follows it, making tampering immediately detectable via /verify.
+ *
+ * Entries are chained per case: an entry with a caseId joins that case's
+ * chain, anything else joins the "global" chain. Each chain has its own
+ * head row and its own append queue, so appends for different cases never
+ * contend. Within a chain appends are group-committed: callers enqueue
+ * their entry and whichever thread becomes the batch leader drains the
+ * queue, locks the chain head row, hashes the whole batch in order and
+ * writes it in one transaction. The head row lock (not a JVM monitor)
+ * keeps each chain correct when more than one backend instance is writing.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class AuditChainService {
 
     /** Sentinel used as previousHash for the first entry in the chain. */
     static final String GENESIS_HASH = "0".repeat(64);
 
+    /** Chain id for entries that are not tied to a case. */
+    static final String GLOBAL_CHAIN_ID = "global";
+
     private final AuditLogRepository repository;
+    private final AuditChainHeadRepository headRepository;
+    private final AuditChainCheckpointRepository checkpointRepository;
+    private final TransactionTemplate batchTransaction;
+
+    /** One append queue per chain with appends in flight; appends to different chains flush independently. */
+    private final Map<String, ChainQueue> queues = new ConcurrentHashMap<>();
+
+    /** Shared by every verification run, so concurrent /verify calls cannot multiply threads. */
+    private volatile ExecutorService verifyPool;
+
+    @Value("${audit.chain.max-batch-size:256}")
+    private int maxBatchSize = 256;
+
+    /** A signed checkpoint is written every this many entries; also the parallel verification segment size. */
+    @Value("${audit.chain.checkpoint-interval:10000}")
+    private long checkpointInterval = 10_000;
+
+    @Value("${audit.chain.verify-page-size:1000}")
+    private int verifyPageSize = 1000;
+
+    @Value("${audit.chain.verify-parallelism:4}")
+    private int verifyParallelism = 4;
+
+    /** Checkpoint HMAC key; kept apart from jwt.secret so rotating JWT keys leaves checkpoints valid. */
+    @Value("${audit.chain.checkpoint-secret:}")
+    private String checkpointSecret;
+
+    @Value("${jwt.secret:}")
+    private String jwtSecret;
+
+    public AuditChainService(AuditLogRepository repository,
+                             AuditChainHeadRepository headRepository,
+                             AuditChainCheckpointRepository checkpointRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.headRepository = headRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        // Each batch commits on its own so one caller's rollback never discards another caller's entry.
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void validateCheckpointSecret() {
+        if (checkpointSecret == null || checkpointSecret.isBlank()) {
+            throw new IllegalStateException("audit.chain.checkpoint-secret must be set");
+        }
+        if (checkpointSecret.equals(jwtSecret)) {
+            throw new IllegalStateException("audit.chain.checkpoint-secret must not reuse jwt.secret");
+        }
+    }
+
+    /** The chain an entry belongs to: its case, or the global chain for non-case actions. */
+    static String chainIdFor(UUID caseId) {
+        return caseId == null ? GLOBAL_CHAIN_ID : caseId.toString();
+    }
 
     /**
-     * Appends a new entry to the chain.
-     * Synchronized to prevent concurrent threads racing on previousHash reads.
+     * Appends a new entry to its chain and returns it once its batch has committed.
+     * Concurrent callers on the same chain are coalesced into a single head lock and multi-row insert.
      */
-    @Transactional
-    public synchronized AuditLog appendEntry(AuditLog log) {
-        String previousHash = repository.findTopByOrderByTimestampDesc()
-                .map(AuditLog::getEntryHash)
-                .orElse(GENESIS_HASH);
+    public AuditLog appendEntry(AuditLog log) {
+        String chainId = chainIdFor(log.getCaseId());
+        log.setChainId(chainId);
+        ChainQueue queue = queues.computeIfAbsent(chainId, ChainQueue::new);
+        PendingEntry entry = new PendingEntry(log);
+        queue.pending.add(entry);
+        flushUntilDone(queue, entry);
 
-        log.setPreviousHash(previousHash);
-        log.setEntryHash(computeHash(log, previousHash));
-        return repository.save(log);
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Appends several entries in the caller's transaction, in list order within each chain,
+     * so they commit or roll back with the caller's other writes. They bypass the append
+     * queues, whose batches commit on their own; the chain heads are locked in chain id
+     * order, so two such callers cannot deadlock.
+     */
+    public List<AuditLog> appendInTransaction(List<AuditLog> logs) {
+        Map<String, List<PendingEntry>> byChain = new TreeMap<>();
+        for (AuditLog log : logs) {
+            String chainId = chainIdFor(log.getCaseId());
+            log.setChainId(chainId);
+            byChain.computeIfAbsent(chainId, id -> new ArrayList<>()).add(new PendingEntry(log));
+        }
+
+        List<AuditLog> saved = new ArrayList<>(logs.size());
+        byChain.forEach((chainId, entries) -> saved.addAll(writeBatch(chainId, entries)));
+        return saved;
     }
 
     /**
-     * Walks every entry in insertion order and returns all broken links.
+     * Leads flushes of the chain's queue until {@code entry} has been written. A queue left empty is
+     * dropped from the map so idle chains do not accumulate; a caller still holding the dropped queue
+     * flushes its own entry, and the head row lock keeps the two queues of one chain in order.
+     */
+    private void flushUntilDone(ChainQueue queue, PendingEntry entry) {
+        queue.flushLock.lock();
+        try {
+            while (!entry.result.isDone()) {
+                flushPending(queue);
+            }
+            if (queue.pending.isEmpty()) {
+                queues.remove(queue.chainId, queue);
+            }
+        } finally {
+            queue.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Verifies every chain and returns all broken links.
      * A broken link means either:
-     *   - the stored entryHash does not match the recomputed hash, or
-     *   - the stored previousHash does not equal the preceding entry's entryHash.
+     *   - the stored entryHash does not match the recomputed hash,
+     *   - the stored previousHash does not equal the preceding entry's entryHash, or
+     *   - a checkpoint's signature or pinned hash does not match the chain, or
+     *   - the chain's last entry does not match its head (e.g. a truncated tail).
+     *
+     * Each chain is split into segments at every checkpoint and every
+     * checkpointInterval entries; segments are read in keyset pages and
+     * verified in parallel. Verification only reads; see
+     * {@link #verifyAndSignMissingCheckpoints()} for backfilling checkpoints.
      */
     public List<Map<String, Object>> verifyChain() {
-        List<AuditLog> entries = repository.findAllByOrderByTimestampAsc();
+        return verifyChain(false);
+    }
+
+    /**
+     * @param incremental when true, each chain is only walked after its latest checkpoint with a
+     *                    valid signature; chains without one are verified in full
+     */
+    public List<Map<String, Object>> verifyChain(boolean incremental) {
+        List<ChainPlan> plans = new ArrayList<>();
+        List<Map<String, Object>> broken = planAllChains(incremental, plans);
+        return runPlans(plans, broken);
+    }
+
+    /**
+     * Fully verifies every chain and, only if all of them are intact, signs and stores the
+     * checkpoints missing at interval boundaries (entries chained before checkpointing existed).
+     * New appends are checkpointed as they are written.
+     *
+     * @return broken links, empty when the chains verified and the checkpoints were written
+     */
+    public List<Map<String, Object>> verifyAndSignMissingCheckpoints() {
+        List<ChainPlan> plans = new ArrayList<>();
+        List<Map<String, Object>> broken = runPlans(plans, planAllChains(false, plans));
+        if (broken.isEmpty()) {
+            signMissingCheckpoints(plans);
+        }
+        return broken;
+    }
+
+    /** Adds one plan per chain to {@code plans} and returns the checkpoint problems found while planning. */
+    private List<Map<String, Object>> planAllChains(boolean incremental, List<ChainPlan> plans) {
+        Map<String, List<AuditChainCheckpoint>> checkpointsByChain = new HashMap<>();
+        for (AuditChainCheckpoint checkpoint : checkpointRepository.findAll()) {
+            checkpointsByChain.computeIfAbsent(checkpoint.getChainId(), k -> new ArrayList<>()).add(checkpoint);
+        }
+
         List<Map<String, Object>> broken = new ArrayList<>();
-        String expectedPreviousHash = GENESIS_HASH;
-
-        for (AuditLog entry : entries) {
-            boolean linkMismatch = !expectedPreviousHash.equals(entry.getPreviousHash());
-            boolean hashMismatch = !computeHash(entry, entry.getPreviousHash()).equals(entry.getEntryHash());
-
-            if (linkMismatch || hashMismatch) {
-                Map<String, Object> record = new HashMap<>();
-                record.put("id", entry.getId().toString());
-                record.put("timestamp", entry.getTimestamp() == null ? null : entry.getTimestamp().toString());
-                record.put("reason", linkMismatch
-                        ? "Chain broken: previousHash does not match predecessor entryHash"
-                        : "Entry hash mismatch: data may have been modified");
-                broken.add(record);
+        for (AuditChainHead head : headRepository.findAll()) {
+            plans.add(planChain(head, checkpointsByChain.getOrDefault(head.getChainId(), List.of()),
+                    incremental, broken));
+        }
+        return broken;
+    }
+
+    /**
+     * Verifies a single case's chain — cost is proportional to that case's history only.
+     * Entries written before per-case chaining live on the global chain and are not covered here.
+     */
+    public List<Map<String, Object>> verifyCaseChain(UUID caseId) {
+        String chainId = chainIdFor(caseId);
+        List<Map<String, Object>> broken = new ArrayList<>();
+        List<ChainPlan> plans = new ArrayList<>();
+        headRepository.findById(chainId).ifPresent(head -> plans.add(planChain(head,
+                checkpointRepository.findByChainIdOrderBySequenceNoAsc(chainId), false, broken)));
+        return runPlans(plans, broken);
+    }
+
+    private List<Map<String, Object>> runPlans(List<ChainPlan> plans, List<Map<String, Object>> broken) {
+        List<Callable<List<Map<String, Object>>>> segments = new ArrayList<>();
+        plans.forEach(plan -> segments.addAll(plan.segments));
+        broken.addAll(runSegments(segments));
+        return broken;
+    }
+
+    /**
+     * Splits one chain into verification segments. Invalid checkpoint signatures are
+     * reported straight into {@code broken}.
+     */
+    private ChainPlan planChain(AuditChainHead head, List<AuditChainCheckpoint> chainCheckpoints,
+                                boolean incremental, List<Map<String, Object>> broken) {
+        String chainId = head.getChainId();
+        long headSequence = head.getLastSequence();
+        ChainPlan plan = new ChainPlan(chainId);
+
+        TreeMap<Long, AuditChainCheckpoint> checkpoints = new TreeMap<>();
+        for (AuditChainCheckpoint checkpoint : chainCheckpoints) {
+            checkpoints.put(checkpoint.getSequenceNo(), checkpoint);
+        }
+
+        if (incremental && !checkpoints.isEmpty() && isSignatureValid(checkpoints.lastEntry().getValue())) {
+            AuditChainCheckpoint latest = checkpoints.lastEntry().getValue();
+            long after = latest.getSequenceNo();
+            String startHash = latest.getEntryHash();
+            plan.segments.add(() -> verifySegment(chainId, after, headSequence, startHash,
+                    head.getLastHash(), "chain head"));
+            return plan;
+        }
+
+        for (AuditChainCheckpoint checkpoint : checkpoints.values()) {
+            if (!isSignatureValid(checkpoint)) {
+                broken.add(brokenCheckpoint(checkpoint, "Checkpoint signature invalid: checkpoint may have been forged"));
             }
+        }
 
-            expectedPreviousHash = entry.getEntryHash();
+        TreeSet<Long> boundaries = new TreeSet<>(checkpoints.keySet());
+        for (long b = checkpointInterval; b < headSequence; b += checkpointInterval) {
+            boundaries.add(b);
         }
+        boundaries.add(headSequence);
+        boundaries.removeIf(b -> b <= 0 || b > headSequence);
+
+        long segmentStart = 0;
+        for (long segmentEnd : boundaries) {
+            long after = segmentStart;
+            String startHash = after == 0 ? GENESIS_HASH : boundaryHash(chainId, after, checkpoints);
+            AuditChainCheckpoint endCheckpoint = checkpoints.get(segmentEnd);
+            String endHash;
+            String pinnedBy;
+            if (endCheckpoint != null) {
+                endHash = endCheckpoint.getEntryHash();
+                pinnedBy = "signed checkpoint";
+            } else if (segmentEnd == headSequence) {
+                // The last segment must end exactly at the head, or entries were cut off the tail
+                endHash = head.getLastHash();
+                pinnedBy = "chain head";
+            } else {
+                endHash = null;
+                pinnedBy = null;
+            }
+            plan.segments.add(() -> verifySegment(chainId, after, segmentEnd, startHash, endHash, pinnedBy));
+            segmentStart = segmentEnd;
+        }
+        plan.boundaries.addAll(boundaries);
+        plan.checkpointed.addAll(checkpoints.keySet());
+        return plan;
+    }
+
+    /**
+     * Walks a chain's entries in (after, upTo] page by page, so memory stays bounded by verifyPageSize.
+     *
+     * @param startHash expected previousHash of the first entry
+     * @param endHash   hash pinned at upTo by a checkpoint or the chain head, or null when the segment ends unpinned
+     * @param pinnedBy  what pinned endHash, for the report
+     */
+    private List<Map<String, Object>> verifySegment(String chainId, long after, long upTo,
+                                                    String startHash, String endHash, String pinnedBy) {
+        List<Map<String, Object>> broken = new ArrayList<>();
+        String expectedPreviousHash = startHash;
+        AuditLog last = null;
+        long cursor = after;
 
+        while (cursor < upTo) {
+            List<AuditLog> page = repository
+                    .findByChainIdAndSequenceNoGreaterThanAndSequenceNoLessThanEqualOrderBySequenceNoAsc(
+                            chainId, cursor, upTo, PageRequest.of(0, verifyPageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (AuditLog entry : page) {
+                boolean linkMismatch = !Objects.equals(expectedPreviousHash, entry.getPreviousHash());
+                boolean hashMismatch = !computeHash(entry, entry.getPreviousHash()).equals(entry.getEntryHash());
+
+                if (linkMismatch || hashMismatch) {
+                    Map<String, Object> record = new HashMap<>();
+                    record.put("id", entry.getId().toString());
+                    record.put("chainId", chainId);
+                    record.put("timestamp", entry.getTimestamp() == null ? null : entry.getTimestamp().toString());
+                    record.put("reason", linkMismatch
+                            ? "Chain broken: previousHash does not match predecessor entryHash"
+                            : "Entry hash mismatch: data may have been modified");
+                    broken.add(record);
+                }
+
+                expectedPreviousHash = entry.getEntryHash();
+                last = entry;
+            }
+            cursor = last.getSequenceNo();
+        }
+
+        if (endHash != null && (last == null || last.getSequenceNo() != upTo || !endHash.equals(last.getEntryHash()))) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", last == null ? null : last.getId().toString());
+            record.put("chainId", chainId);
+            record.put("timestamp", last == null || last.getTimestamp() == null ? null : last.getTimestamp().toString());
+            record.put("reason", "Checkpoint mismatch: chain at sequence " + upTo + " differs from " + pinnedBy);
+            broken.add(record);
+        }
         return broken;
     }
 
+    private List<Map<String, Object>> runSegments(List<Callable<List<Map<String, Object>>>> segments) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Map<String, Object>> broken = new ArrayList<>();
+            for (Future<List<Map<String, Object>>> result : verifyPool().invokeAll(segments)) {
+                broken.addAll(result.get());
+            }
+            return broken;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Audit chain verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit chain segment verification failed", e.getCause());
+        }
+    }
+
+    /** Created on first use because verifyParallelism is injected after construction. */
+    private ExecutorService verifyPool() {
+        ExecutorService pool = verifyPool;
+        if (pool == null) {
+            synchronized (this) {
+                if (verifyPool == null) {
+                    verifyPool = Executors.newFixedThreadPool(Math.max(1, verifyParallelism), runnable -> {
+                        Thread thread = new Thread(runnable, "audit-chain-verify");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                pool = verifyPool;
+            }
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService pool = verifyPool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Signed hash at a boundary if checkpointed, otherwise the stored hash (verified by the preceding segment). */
+    private String boundaryHash(String chainId, long sequence, Map<Long, AuditChainCheckpoint> checkpoints) {
+        AuditChainCheckpoint checkpoint = checkpoints.get(sequence);
+        if (checkpoint != null) {
+            return checkpoint.getEntryHash();
+        }
+        return repository.findByChainIdAndSequenceNo(chainId, sequence).map(AuditLog::getEntryHash).orElse(null);
+    }
+
+    private void signMissingCheckpoints(List<ChainPlan> plans) {
+        List<AuditChainCheckpoint> created = new ArrayList<>();
+        for (ChainPlan plan : plans) {
+            for (long boundary : plan.boundaries) {
+                if (boundary % checkpointInterval != 0 || plan.checkpointed.contains(boundary)) {
+                    continue;
+                }
+                repository.findByChainIdAndSequenceNo(plan.chainId, boundary)
+                        .ifPresent(entry -> created.add(newCheckpoint(plan.chainId, boundary, entry.getEntryHash())));
+            }
+        }
+        if (!created.isEmpty()) {
+            checkpointRepository.saveAll(created);
+            log.info("Signed {} missing audit chain checkpoints after successful verification", created.size());
+        }
+    }
+
+    private AuditChainCheckpoint newCheckpoint(String chainId, long sequence, String entryHash) {
+        return AuditChainCheckpoint.builder()
+                .chainId(chainId)
+                .sequenceNo(sequence)
+                .entryHash(entryHash)
+                .signature(signCheckpoint(chainId, sequence, entryHash))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private Map<String, Object> brokenCheckpoint(AuditChainCheckpoint checkpoint, String reason) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", checkpoint.getId() == null ? null : checkpoint.getId().toString());
+        record.put("chainId", checkpoint.getChainId());
+        record.put("timestamp", checkpoint.getCreatedAt() == null ? null : checkpoint.getCreatedAt().toString());
+        record.put("reason", reason);
+        return record;
+    }
+
+    boolean isSignatureValid(AuditChainCheckpoint checkpoint) {
+        String expected = signCheckpoint(checkpoint.getChainId(), checkpoint.getSequenceNo(), checkpoint.getEntryHash());
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                safe(checkpoint.getSignature()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** HMAC-SHA256 over chainId|sequenceNo|entryHash, hex encoded. */
+    String signCheckpoint(String chainId, long sequence, String entryHash) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(checkpointSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return toHex(mac.doFinal((chainId + "|" + sequence + "|" + safe(entryHash)).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 not available on this JVM", e);
+        }
+    }
+
+    /**
+     * Drains up to maxBatchSize queued entries of one chain and commits them as one chained batch.
+     * Must be called while holding that chain's flushLock.
+     */
+    private void flushPending(ChainQueue queue) {
+        List<PendingEntry> batch = new ArrayList<>();
+        PendingEntry next;
+        while (batch.size() < maxBatchSize && (next = queue.pending.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<AuditLog> saved = batchTransaction.execute(status -> writeBatch(queue.chainId, batch));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to commit audit chain batch of {} entries on chain {}", batch.size(), queue.chainId, e);
+            batch.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Locks the chain head, links every entry onto it in queue order and persists the batch.
+     * With JDBC batching enabled the saveAll becomes a single multi-row insert.
+     * Every checkpointInterval-th entry also gets a signed checkpoint in the same transaction.
+     */
+    private List<AuditLog> writeBatch(String chainId, List<PendingEntry> batch) {
+        AuditChainHead head = headRepository.findForUpdate(chainId).orElse(null);
+        if (head == null) {
+            // First append on this chain: create the head row (or lose the race to another node),
+            // then lock it, so two writers can never both start the chain from genesis
+            headRepository.insertIfAbsent(chainId, GENESIS_HASH);
+            head = headRepository.findForUpdate(chainId)
+                    .orElseThrow(() -> new IllegalStateException("Audit chain head missing for chain " + chainId));
+        }
+
+        long sequence = head.getLastSequence();
+        String previousHash = head.getLastHash();
+        List<AuditLog> logs = new ArrayList<>(batch.size());
+        List<AuditChainCheckpoint> checkpoints = new ArrayList<>();
+
+        for (PendingEntry p : batch) {
+            AuditLog entry = p.log;
+            entry.setSequenceNo(++sequence);
+            entry.setPreviousHash(previousHash);
+            entry.setEntryHash(computeHash(entry, previousHash));
+            previousHash = entry.getEntryHash();
+            logs.add(entry);
+            if (sequence % checkpointInterval == 0) {
+                checkpoints.add(newCheckpoint(chainId, sequence, entry.getEntryHash()));
+            }
+        }
+
+        List<AuditLog> saved = repository.saveAll(logs);
+        if (!checkpoints.isEmpty()) {
+            checkpointRepository.saveAll(checkpoints);
+        }
+
+        head.setLastSequence(sequence);
+        head.setLastHash(previousHash);
+        headRepository.save(head);
+        return saved;
+    }
+
     /**
      * Computes SHA-256 over: action|userId|description|timestamp|previousHash
      * Nulls are treated as empty string to ensure determinism.
@@ -90,18 +568,54 @@ public class AuditChainService {
                 + safe(previousHash);
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] bytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder(64);
-            for (byte b : bytes) {
-                hex.append(String.format("%02x", b));
-            }
-            return hex.toString();
+            return toHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("SHA-256 not available on this JVM", e);
         }
     }
 
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
     private String safe(String value) {
         return value == null ? "" : value;
     }
-}
\ No newline at end of file
+
+    /** An entry waiting for a batch leader to chain and commit it. */
+    private static final class PendingEntry {
+        private final AuditLog log;
+        private final CompletableFuture<AuditLog> result = new CompletableFuture<>();
+
+        private PendingEntry(AuditLog log) {
+            this.log = log;
+        }
+    }
+
+    /** Append queue of one chain; its flushLock is held only by that chain's current batch leader. */
+    private static final class ChainQueue {
+        private final String chainId;
+        private final ConcurrentLinkedQueue<PendingEntry> pending = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+
+        private ChainQueue(String chainId) {
+            this.chainId = chainId;
+        }
+    }
+
+    /** Verification work for one chain plus what is needed to back-fill its checkpoints afterwards. */
+    private static final class ChainPlan {
+        private final String chainId;
+        private final List<Callable<List<Map<String, Object>>>> segments = new ArrayList<>();
+        private final TreeSet<Long> boundaries = new TreeSet<>();
+        private final TreeSet<Long> checkpointed = new TreeSet<>();
+
+        private ChainPlan(String chainId) {
+            this.chainId = chainId;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AuditChainHead;
+import com.nyaysetu.backend.entity.AuditMerkleLeaf;
+import com.nyaysetu.backend.entity.AuditMerkleRoot;
+import com.nyaysetu.backend.exception.NotFoundException;
+import com.nyaysetu.backend.repository.AuditChainHeadRepository;
+import com.nyaysetu.backend.repository.AuditMerkleLeafRepository;
+import com.nyaysetu.backend.repository.AuditMerkleRootRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Periodically commits the state of every audit chain into one global Merkle root.
+ *
+ * Leaves are the chain heads ordered by chainId, each hashed as
+ * sha256(0x00 || chainId|lastSequence|lastHash) in a {@link DomainSeparatedMerkleTree}.
+ * The leaf snapshot of recent roots is kept so a case's head can be proven against a
+ * root with a sibling path of log2(#chains) hashes — small enough to ship inside a
+ * court export.
+ *
+ * Every node runs the schedule; a cluster-wide advisory lock lets one of them commit
+ * at a time, so the same heads are never committed twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditMerkleRootService {
+
+    /** Advisory lock key for committing roots; any constant unique to this purpose */
+    static final long COMMIT_LOCK_KEY = 0x4E59_4155_4D52_4F4FL;
+
+    /** Describes the tree so proofs can be checked offline without reading this code. */
+    static final String HASH_SCHEME = "sha256; leaf = H(0x00 || data), node = H(0x01 || left || right), odd node promoted";
+
+    private final AuditChainHeadRepository headRepository;
+    private final AuditMerkleRootRepository rootRepository;
+    private final AuditMerkleLeafRepository leafRepository;
+
+    /** Number of most recent roots whose leaf snapshots are retained for proofs. */
+    @Value("${audit.merkle.leaf-retention:24}")
+    private int leafRetention;
+
+    /**
+     * Computes a new global root when any chain head has moved since the last one.
+     * Runs on a fixed delay; also callable on demand before an export.
+     */
+    @Scheduled(fixedDelayString = "${audit.merkle.root-interval-ms:900000}",
+            initialDelayString = "${audit.merkle.root-interval-ms:900000}")
+    @Transactional
+    public AuditMerkleRoot commitGlobalRoot() {
+        if (!rootRepository.tryCommitLock(COMMIT_LOCK_KEY)) {
+            // Another node is committing a root over the same heads
+            return rootRepository.findTopByOrderByComputedAtDesc().orElse(null);
+        }
+        List<AuditChainHead> heads = headRepository.findAll(Sort.by("chainId"));
+        if (heads.isEmpty()) {
+            return null;
+        }
+
+        List<String> leafHashes = new ArrayList<>(heads.size());
+        for (AuditChainHead head : heads) {
+            leafHashes.add(leafHash(head.getChainId(), head.getLastSequence(), head.getLastHash()));
+        }
+        String rootHash = DomainSeparatedMerkleTree.root(leafHashes);
+
+        Optional<AuditMerkleRoot> latest = rootRepository.findTopByOrderByComputedAtDesc();
+        if (latest.isPresent() && latest.get().getRootHash().equals(rootHash)) {
+            return latest.get();
+        }
+
+        AuditMerkleRoot root = rootRepository.save(AuditMerkleRoot.builder()
+                .rootHash(rootHash)
+                .leafCount(heads.size())
+                .computedAt(LocalDateTime.now())
+                .build());
+
+        List<AuditMerkleLeaf> leaves = new ArrayList<>(heads.size());
+        for (int i = 0; i < heads.size(); i++) {
+            AuditChainHead head = heads.get(i);
+            leaves.add(AuditMerkleLeaf.builder()
+                    .rootId(root.getId())
+                    .leafIndex(i)
+                    .chainId(head.getChainId())
+                    .lastSequence(head.getLastSequence())
+                    .lastHash(head.getLastHash())
+                    .leafHash(leafHashes.get(i))
+                    .build());
+        }
+        leafRepository.saveAll(leaves);
+
+        List<UUID> keep = rootRepository.findByOrderByComputedAtDesc(PageRequest.of(0, Math.max(1, leafRetention)))
+                .stream().map(AuditMerkleRoot::getId).toList();
+        leafRepository.deleteByRootIdNotIn(keep);
+
+        log.info("Committed global audit Merkle root {}... over {} chains", rootHash.substring(0, 16), heads.size());
+        return root;
+    }
+
+    /**
+     * Inclusion proof of a case's chain head in the latest global root.
+     * Verify offline with {@link DomainSeparatedMerkleTree#verify} after recomputing the leaf hash.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCaseInclusionProof(UUID caseId) {
+        String chainId = AuditChainService.chainIdFor(caseId);
+        AuditMerkleRoot root = rootRepository.findTopByOrderByComputedAtDesc()
+                .orElseThrow(() -> new NotFoundException("No audit Merkle root has been committed yet"));
+        AuditMerkleLeaf leaf = leafRepository.findByRootIdAndChainId(root.getId(), chainId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Case " + caseId + " has no audit chain in the latest Merkle root"));
+
+        List<String> leafHashes = leafRepository.findByRootIdOrderByLeafIndexAsc(root.getId())
+                .stream().map(AuditMerkleLeaf::getLeafHash).toList();
+
+        List<Map<String, Object>> path = new ArrayList<>();
+        for (MerkleTree.ProofStep step : DomainSeparatedMerkleTree.proof(leafHashes, leaf.getLeafIndex())) {
+            Map<String, Object> node = new HashMap<>();
+            node.put("hash", step.hash());
+            node.put("position", step.left() ? "LEFT" : "RIGHT");
+            path.add(node);
+        }
+
+        Map<String, Object> proof = new HashMap<>();
+        proof.put("caseId", caseId);
+        proof.put("chainId", chainId);
+        proof.put("lastSequence", leaf.getLastSequence());
+        proof.put("lastHash", leaf.getLastHash());
+        proof.put("leafIndex", leaf.getLeafIndex());
+        proof.put("leafHash", leaf.getLeafHash());
+        proof.put("path", path);
+        proof.put("hashScheme", HASH_SCHEME);
+        proof.put("rootId", root.getId());
+        proof.put("rootHash", root.getRootHash());
+        proof.put("computedAt", root.getComputedAt());
+        return proof;
+    }
+
+    static String leafHash(String chainId, long lastSequence, String lastHash) {
+        return DomainSeparatedMerkleTree.leafHash(chainId + "|" + lastSequence + "|" + lastHash);
+    }
+}
@@ -2,8 +2,10 @@ package com.nyaysetu.backend.service;
 
 import com.nyaysetu.backend.dto.CreateAuditLogRequest;
 import com.nyaysetu.backend.entity.AuditLog;
+import com.nyaysetu.backend.event.CaseActivityEvent;
 import com.nyaysetu.backend.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Async;
 
@@ -16,8 +18,9 @@ import java.util.UUID;
 public class AuditService {
     private final AuditLogRepository repository;
     private final AuditChainService auditChainService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Async
+    @Async("auditExecutor")
     public AuditLog log(CreateAuditLogRequest request) {
         AuditLog log = new AuditLog();
         log.setAction(request.getAction());
@@ -27,17 +30,11 @@ public class AuditService {
         return auditChainService.appendEntry(log);
     }
 
-    @Async
+    /**
+     * Appended to the case's chain by CaseActivityProjector, after the caller's transaction commits.
+     */
     public void logCaseAction(UUID caseId, Long userId, String role, String action, String description) {
-        AuditLog log = AuditLog.builder()
-                .caseId(caseId)
-                .userId(userId)
-                .role(role)
-                .action(action)
-                .description(description)
-                .timestamp(LocalDateTime.now())
-                .build();
-        auditChainService.appendEntry(log);
+        eventPublisher.publishEvent(CaseActivityEvent.auditEntry(caseId, userId, role, action, description));
     }
 
     public List<AuditLog> getCaseLogs(UUID caseId) {
@@ -0,0 +1,45 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.DocumentStorageType;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * Backend that content-addressed blobs live in once they leave the local staging area:
+ * the node's own disk ({@link LocalBlobStorage}) or an S3-compatible object store
+ * ({@link S3BlobStorage}), selected with {@code file.storage.backend}.
+ *
+ * Keys are {@link FileStorageService#casPath} paths, or chunk keys of resumable uploads in
+ * progress; staging paths are always local.
+ */
+public interface BlobStorage {
+
+    /** Storage type recorded on documents whose file lives in this backend. */
+    DocumentStorageType type();
+
+    /** Moves a fully written, hashed staging file into the store under key. The staging file is consumed. */
+    void put(String stagingPath, String key, String contentType);
+
+    boolean exists(String key);
+
+    /** Streams a blob's content; the caller closes the stream. */
+    InputStream open(String key);
+
+    /** Removes a blob; a blob that is already gone is not an error. */
+    void delete(String key);
+
+    /**
+     * Local file with the blob's content, for PDF analysis and other code that needs
+     * random access. Remote backends fetch it into a node-local cache first.
+     */
+    File localFile(String key);
+
+    /**
+     * Short-lived URL the client can download the blob from directly, bypassing the JVM.
+     * Empty when the backend can only be served through the application.
+     */
+    Optional<URI> presignedDownloadUrl(String key, String fileName, String contentType, boolean inline);
+}
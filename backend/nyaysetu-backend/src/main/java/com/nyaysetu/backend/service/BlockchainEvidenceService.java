@@ -1,14 +1,15 @@
 package com.nyaysetu.backend.service;
 
 import com.nyaysetu.backend.entity.*;
+import com.nyaysetu.backend.exception.NotFoundException;
 import com.nyaysetu.backend.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -23,28 +24,56 @@ public class BlockchainEvidenceService {
     private final EvidenceRecordRepository evidenceRepository;
     private final CaseRepository caseRepository;
     private final BlockchainService blockchainService;
-    private final FileStorageService fileStorageService;
+    private final ContentStoreService contentStoreService;
     private final EvidenceAnchoringService anchoringService;
+    private final EvidenceMerkleTreeService merkleTreeService;
+    private final EvidenceMerkleRootRepository merkleRootRepository;
+    private final EvidenceAnchorBatchRepository anchorBatchRepository;
+
+    private static final String ANCHORED = "ANCHORED";
+    private static final String PENDING = "PENDING";
+    private static final String INVALID = "INVALID";
+    private static final String MISSING = "MISSING";
 
     /**
-     * Upload new evidence with blockchain security
+     * Upload new evidence with blockchain security. The file is stored before any
+     * transaction opens; the record is written in the transaction that references it.
      */
-    @Transactional
     public EvidenceRecord uploadEvidence(UUID caseId, MultipartFile file, 
                                           String title, String description,
                                           String evidenceType, User uploadedBy, String uploadIp) {
         log.info("Uploading blockchain-secured evidence '{}' for case {}", title, caseId);
 
-        // Find case
+        // Fail fast, before the upload, for an unknown case
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found: " + caseId);
+        }
+
+        // Store file by content, hashing it in the same pass; identical exhibits share one blob
+        return contentStoreService.store(file, stored -> uploadEvidence(caseId, stored, file.getOriginalFilename(),
+                title, description, evidenceType, uploadedBy, uploadIp));
+    }
+
+    /**
+     * Record evidence for a file already placed in the content store, e.g. one assembled
+     * from a resumable chunked upload. The caller takes the blob reference in this transaction.
+     */
+    @Transactional
+    public EvidenceRecord uploadEvidence(UUID caseId, StoredFile stored, String fileName,
+                                          String title, String description,
+                                          String evidenceType, User uploadedBy, String uploadIp) {
+        log.info("Recording blockchain-secured evidence '{}' for case {}", title, caseId);
+
         CaseEntity caseEntity = caseRepository.findById(caseId)
                 .orElseThrow(() -> new RuntimeException("Case not found: " + caseId));
+        return recordEvidence(caseEntity, stored, fileName, title, description, evidenceType, uploadedBy, uploadIp);
+    }
 
-        // Store file
-        String storedPath = fileStorageService.storeFile(file, "EVIDENCE");
-        File storedFile = fileStorageService.getFile(storedPath);
-
-        // Calculate file hash
-        String fileHash = blockchainService.calculateFileHash(storedFile);
+    private EvidenceRecord recordEvidence(CaseEntity caseEntity, StoredFile stored, String fileName,
+                                          String title, String description,
+                                          String evidenceType, User uploadedBy, String uploadIp) {
+        UUID caseId = caseEntity.getId();
+        String fileHash = stored.sha256();
         log.info("Calculated file hash: {}...", fileHash.substring(0, 16));
 
         // Get previous block in chain
@@ -73,43 +102,23 @@ public class BlockchainEvidenceService {
                 .verificationStatus("VERIFIED")
                 .uploadedBy(uploadedBy)
                 .uploadedByRole(uploadedBy.getRole().name())
-                .fileName(file.getOriginalFilename())
-                .fileSize(file.getSize())
-                .contentType(file.getContentType())
+                .fileName(fileName)
+                .fileSize(stored.size())
+                .contentType(stored.contentType())
                 .createdAt(timestamp)
                 .uploadIp(uploadIp != null ? uploadIp : "UNKNOWN")
                 .build();
 
-        // Compute Merkle root from all block hashes (existing + new)
-        List<EvidenceRecord> existingEvidence = evidenceRepository
-                .findByCaseEntityIdOrderByBlockIndexAsc(caseId);
-        List<String> allBlockHashes = new java.util.ArrayList<>(
-                existingEvidence.stream().map(EvidenceRecord::getBlockHash).toList());
-        allBlockHashes.add(blockHash);
-        String merkleRoot = anchoringService.calculateMerkleRoot(allBlockHashes);
-
-        // Anchor the Merkle root to an external timestamp service
-        String anchorProof = anchoringService.anchorMerkleRoot(merkleRoot);
+        // Extend the case's persisted Merkle tree with the new block: O(log n) node updates
+        EvidenceMerkleRoot treeRoot = merkleTreeService.appendLeaf(caseId, blockIndex, blockHash);
+        String merkleRoot = treeRoot.getRootHash();
 
-        // Apply anchoring data to the new record
+        // Only the new record carries this version's root; EvidenceAnchorBatchService anchors it
+        // together with every other root changed in the current window
         record.setMerkleRoot(merkleRoot);
-        record.setExternalAnchorProof(anchorProof);
-        record.setAnchoredAt(java.time.LocalDateTime.now());
-        record.setAnchorService(EvidenceAnchoringService.class.getSimpleName());
 
         EvidenceRecord saved = evidenceRepository.save(record);
 
-        // Update all existing records with the new Merkle root
-        for (EvidenceRecord ev : existingEvidence) {
-            ev.setMerkleRoot(merkleRoot);
-            ev.setExternalAnchorProof(anchorProof);
-            ev.setAnchoredAt(java.time.LocalDateTime.now());
-            ev.setAnchorService(EvidenceAnchoringService.class.getSimpleName());
-        }
-        if (!existingEvidence.isEmpty()) {
-            evidenceRepository.saveAll(existingEvidence);
-        }
-
         log.info("Evidence uploaded with block hash: {}..., index: {}, Merkle root: {}...",
                  blockHash.substring(0, 16), blockIndex, merkleRoot.substring(0, 16));
 
@@ -146,15 +155,14 @@ public class BlockchainEvidenceService {
         result.put("isValid", blockValid);
         result.put("status", blockValid ? "VERIFIED" : "TAMPERED");
 
-        // Verify external anchor
-        boolean anchorValid = false;
-        if (record.getMerkleRoot() != null && record.getExternalAnchorProof() != null) {
-            anchorValid = anchoringService.verifyAnchor(
-                    record.getMerkleRoot(), record.getExternalAnchorProof());
-        }
+        // Verify external anchor; a root still waiting for its batch is not evidence of tampering
+        String anchorStatus = anchorStatus(record.getCaseEntity().getId(), record.getMerkleRoot(),
+                record.getBlockIndex() + 1L, record.getExternalAnchorProof());
+        boolean anchorValid = ANCHORED.equals(anchorStatus);
         result.put("anchorValid", anchorValid);
+        result.put("anchorStatus", anchorStatus);
 
-        boolean overallValid = blockValid && anchorValid;
+        boolean overallValid = blockValid && (anchorValid || PENDING.equals(anchorStatus));
         result.put("isValid", overallValid);
         result.put("status", overallValid ? "VERIFIED" : "TAMPERED");
 
@@ -220,18 +228,19 @@ public class BlockchainEvidenceService {
         String merkleRoot = anchoringService.calculateMerkleRoot(
                 chain.stream().map(EvidenceRecord::getBlockHash).toList());
         EvidenceRecord lastRecord = chain.get(chain.size() - 1);
-        boolean anchorValid = false;
-        if (lastRecord.getExternalAnchorProof() != null) {
-            anchorValid = anchoringService.verifyAnchor(merkleRoot, lastRecord.getExternalAnchorProof());
-        }
+        String anchorStatus = anchorStatus(caseId, merkleRoot, chain.size(), lastRecord.getExternalAnchorProof());
+        boolean anchorValid = ANCHORED.equals(anchorStatus);
+        boolean anchorPending = PENDING.equals(anchorStatus);
         result.put("anchorValid", anchorValid);
+        result.put("anchorStatus", anchorStatus);
         result.put("merkleRoot", merkleRoot);
 
-        boolean overallValid = chainValid && anchorValid;
+        boolean overallValid = chainValid && (anchorValid || anchorPending);
         result.put("isValid", overallValid);
-        result.put("message", overallValid ? "Chain integrity verified with external anchor ✓"
-                : "Chain integrity compromised!");
-        if (!anchorValid) {
+        result.put("message", !overallValid ? "Chain integrity compromised!"
+                : anchorPending ? "Chain integrity verified; external anchor pending in the next batch"
+                : "Chain integrity verified with external anchor ✓");
+        if (!anchorValid && !anchorPending) {
             result.put("anchorWarning", "External anchor proof is missing or invalid — "
                     + "evidence may not meet BSA 63(4) requirements");
         }
@@ -239,6 +248,124 @@ public class BlockchainEvidenceService {
         return result;
     }
 
+    /**
+     * Inclusion proof of one evidence record in its case's latest anchored Merkle root.
+     *
+     * The proof is the sibling path from the record's block hash to the root, so an auditor
+     * recomputes log2(n) hashes with {@link MerkleTree#verify} instead of the whole chain.
+     * Cases whose tree was never persisted fall back to building the path in memory.
+     *
+     * Appends overwrite the rightmost nodes in place, so the root and the nodes are read in
+     * one REPEATABLE_READ snapshot; otherwise an append in between yields a path from a newer
+     * tree than the returned root.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Object> getInclusionProof(UUID evidenceId) {
+        EvidenceRecord record = getEvidenceById(evidenceId);
+        UUID caseId = record.getCaseEntity().getId();
+        long leafIndex = record.getBlockIndex();
+
+        String rootHash;
+        long leafCount;
+        String anchorProof;
+        LocalDateTime anchoredAt;
+        List<MerkleTree.ProofStep> path;
+        EvidenceMerkleRoot root = null;
+
+        Optional<EvidenceMerkleRoot> treeRoot = merkleRootRepository.findTopByCaseIdOrderByLeafCountDesc(caseId);
+        if (treeRoot.isPresent() && treeRoot.get().getLeafCount() > leafIndex) {
+            root = treeRoot.get();
+            rootHash = root.getRootHash();
+            leafCount = root.getLeafCount();
+            anchorProof = root.getExternalAnchorProof();
+            anchoredAt = root.getAnchoredAt();
+            path = merkleTreeService.proof(caseId, leafIndex, leafCount);
+        } else {
+            List<String> leaves = evidenceRepository.findBlockHashesByCaseId(caseId);
+            EvidenceRecord last = evidenceRepository.findTopByCaseEntityIdOrderByBlockIndexDesc(caseId)
+                    .orElse(record);
+            rootHash = MerkleTree.root(leaves);
+            leafCount = leaves.size();
+            anchorProof = last.getExternalAnchorProof();
+            anchoredAt = last.getAnchoredAt();
+            path = MerkleTree.proof(leaves, (int) leafIndex);
+        }
+
+        boolean inclusionValid = MerkleTree.verify(record.getBlockHash(), path, rootHash);
+        String anchorStatus = anchorStatus(caseId, rootHash, leafCount, anchorProof);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("evidenceId", evidenceId);
+        result.put("caseId", caseId);
+        result.put("leafIndex", leafIndex);
+        result.put("leafHash", record.getBlockHash());
+        result.put("fileHash", record.getFileHash());
+        result.put("path", toPathNodes(path));
+        result.put("merkleRoot", rootHash);
+        result.put("leafCount", leafCount);
+        result.put("externalAnchorProof", anchorProof);
+        result.put("anchoredAt", anchoredAt);
+        if (root != null && root.getBatchId() != null) {
+            Optional<EvidenceAnchorBatch> batch = anchorBatchRepository.findById(root.getBatchId());
+            result.put("batchId", root.getBatchId());
+            result.put("batchLeaf", EvidenceAnchorBatchService.batchLeaf(root));
+            result.put("batchPath", toPathNodes(MerkleTree.decodePath(root.getBatchPath())));
+            result.put("superRoot", batch.map(EvidenceAnchorBatch::getSuperRoot).orElse(null));
+        }
+        result.put("inclusionValid", inclusionValid);
+        result.put("anchorValid", ANCHORED.equals(anchorStatus));
+        result.put("anchorStatus", anchorStatus);
+        result.put("algorithm", "parent = SHA-256(SHA-256(leftHex + rightHex)); "
+                + "LEFT siblings go before the running hash, RIGHT siblings after; "
+                + "batchLeaf = SHA-256(caseId|leafCount|merkleRoot) folds over batchPath to superRoot");
+        return result;
+    }
+
+    /**
+     * Anchor state of a case root at a given version: ANCHORED when its batch path reaches a
+     * timestamped super-root (or, for roots anchored before batching, its own proof verifies),
+     * PENDING while it waits for the next batch, otherwise INVALID or MISSING.
+     */
+    private String anchorStatus(UUID caseId, String rootHash, long leafCount, String recordProof) {
+        if (rootHash == null) {
+            return MISSING;
+        }
+        Optional<EvidenceMerkleRoot> stored = merkleRootRepository.findByCaseIdAndLeafCount(caseId, leafCount);
+        if (stored.isPresent()) {
+            EvidenceMerkleRoot root = stored.get();
+            if (!rootHash.equals(root.getRootHash())) {
+                return INVALID;
+            }
+            if (root.getBatchId() != null) {
+                boolean valid = anchorBatchRepository.findById(root.getBatchId())
+                        .filter(batch -> MerkleTree.verify(EvidenceAnchorBatchService.batchLeaf(root),
+                                MerkleTree.decodePath(root.getBatchPath()), batch.getSuperRoot()))
+                        .filter(batch -> anchoringService.verifyAnchor(batch.getSuperRoot(), batch.getAnchorProof()))
+                        .isPresent();
+                return valid ? ANCHORED : INVALID;
+            }
+            if (root.getAnchoredAt() == null) {
+                return PENDING;
+            }
+            return anchoringService.verifyAnchor(rootHash, root.getExternalAnchorProof()) ? ANCHORED : INVALID;
+        }
+        if (recordProof == null) {
+            return MISSING;
+        }
+        return anchoringService.verifyAnchor(rootHash, recordProof) ? ANCHORED : INVALID;
+    }
+
+    private List<Map<String, Object>> toPathNodes(List<MerkleTree.ProofStep> path) {
+        List<Map<String, Object>> nodes = new ArrayList<>(path.size());
+        for (MerkleTree.ProofStep step : path) {
+            Map<String, Object> node = new HashMap<>();
+            node.put("hash", step.hash());
+            node.put("position", step.left() ? "LEFT" : "RIGHT");
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
     /**
      * Get evidence by ID
      */
@@ -247,6 +374,33 @@ public class BlockchainEvidenceService {
                 .orElseThrow(() -> new RuntimeException("Evidence not found: " + evidenceId));
     }
 
+    /**
+     * Stored file behind an evidence record. Evidence is kept in the content-addressable
+     * store under its file hash; exhibits uploaded before that have no retrievable file.
+     */
+    public java.io.File getEvidenceFile(EvidenceRecord record) {
+        String blobPath = FileStorageService.casPath(record.getFileHash());
+        if (!contentStoreService.exists(blobPath)) {
+            throw new NotFoundException("Stored file not found for evidence " + record.getId());
+        }
+        return contentStoreService.getFile(blobPath);
+    }
+
+    /**
+     * Presigned direct-download URL for an evidence file when blobs live in object storage,
+     * so large exhibits are served by the store rather than through the application
+     */
+    public Optional<java.net.URI> getEvidenceDownloadUrl(EvidenceRecord record, boolean inline) {
+        if (contentStoreService.storageType() != DocumentStorageType.S3) {
+            return Optional.empty();
+        }
+        String blobPath = FileStorageService.casPath(record.getFileHash());
+        if (!contentStoreService.exists(blobPath)) {
+            throw new NotFoundException("Stored file not found for evidence " + record.getId());
+        }
+        return contentStoreService.downloadUrl(blobPath, record.getFileName(), record.getContentType(), inline);
+    }
+
     /**
      * Get evidence count for a case
      */
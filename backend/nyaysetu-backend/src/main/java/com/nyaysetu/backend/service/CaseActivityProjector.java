@@ -0,0 +1,252 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AuditLog;
+import com.nyaysetu.backend.entity.CaseActivityOutbox;
+import com.nyaysetu.backend.entity.CaseTimeline;
+import com.nyaysetu.backend.event.CaseActivityEvent;
+import com.nyaysetu.backend.repository.CaseActivityOutboxRepository;
+import com.nyaysetu.backend.repository.CaseTimelineRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Derives case_timeline rows and audit chain entries from CaseActivityEvents.
+ *
+ * An event is written to case_activity_outbox in the transaction that publishes it, so
+ * committed activity survives a crash. A commit wakes the projector and a periodic sweep
+ * catches up after a restart. Each batch is claimed with SKIP LOCKED, and its timeline
+ * rows, its audit entries and the delete of its outbox rows commit together, so every
+ * event is projected exactly once.
+ *
+ * A batch that fails is retried row by row, so one bad row cannot hold back the others.
+ * A failing row records its error and is retried by later sweeps until it reaches
+ * {@code case-activity.max-attempts}; it then stays in the outbox for an operator.
+ */
+@Slf4j
+@Component
+@Lazy(false) // The sweep has to run without anyone asking for the bean
+public class CaseActivityProjector {
+
+    private final CaseActivityOutboxRepository outboxRepository;
+    private final CaseTimelineRepository timelineRepository;
+    private final AuditChainService auditChainService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate separateTransaction;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicBoolean projectionPending = new AtomicBoolean();
+    private final Counter projected;
+    private final Counter failed;
+
+    @Autowired
+    public CaseActivityProjector(CaseActivityOutboxRepository outboxRepository,
+                                 CaseTimelineRepository timelineRepository,
+                                 AuditChainService auditChainService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${case-activity.batch-size:200}") int batchSize,
+                                 @Value("${case-activity.max-attempts:10}") int maxAttempts) {
+        this(outboxRepository, timelineRepository, auditChainService, transactionManager, meterRegistry,
+                batchSize, maxAttempts, Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "case-activity-projector");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    CaseActivityProjector(CaseActivityOutboxRepository outboxRepository,
+                          CaseTimelineRepository timelineRepository,
+                          AuditChainService auditChainService,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          int batchSize,
+                          int maxAttempts,
+                          Executor executor) {
+        this.outboxRepository = outboxRepository;
+        this.timelineRepository = timelineRepository;
+        this.auditChainService = auditChainService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.projected = Counter.builder("case_activity.projected")
+                .description("Case activity events written to the timeline and audit chain").register(meterRegistry);
+        this.failed = Counter.builder("case_activity.failed")
+                .description("Failed attempts to project a case activity event").register(meterRegistry);
+    }
+
+    /**
+     * Runs in the publisher's transaction, so the outbox row commits or rolls back with the
+     * activity it records.
+     */
+    @EventListener
+    public void onActivity(CaseActivityEvent event) {
+        CaseActivityOutbox row = toOutbox(event);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // A read-only transaction cannot take the insert, and has nothing to commit it with
+            separateTransaction.executeWithoutResult(status -> outboxRepository.save(row));
+        } else {
+            outboxRepository.save(row);
+        }
+        projectAfterCommit();
+    }
+
+    @Scheduled(fixedDelayString = "${case-activity.sweep-interval-ms:5000}",
+            initialDelayString = "${case-activity.sweep-interval-ms:5000}")
+    public void sweep() {
+        requestProjection();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    private void projectAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestProjection();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestProjection();
+            }
+        });
+    }
+
+    /** Commits within one projection run are picked up together. */
+    private void requestProjection() {
+        if (projectionPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                projectionPending.set(false);
+                projectAll();
+            });
+        }
+    }
+
+    void projectAll() {
+        int claimed;
+        do {
+            claimed = projectBatch();
+        } while (claimed >= batchSize);
+    }
+
+    /** @return rows projected, or 0 after a failure so the rest waits for the next sweep */
+    private int projectBatch() {
+        List<Long> ids = new ArrayList<>();
+        try {
+            Integer count = transactionTemplate.execute(status -> {
+                List<CaseActivityOutbox> rows = outboxRepository.claimBatch(maxAttempts, batchSize);
+                rows.forEach(row -> ids.add(row.getId()));
+                return project(rows);
+            });
+            int projectedRows = count == null ? 0 : count;
+            projected.increment(projectedRows);
+            return projectedRows;
+        } catch (RuntimeException e) {
+            log.warn("Case activity batch of {} failed, retrying row by row: {}", ids.size(), e.getMessage());
+            ids.forEach(this::projectOne);
+            return 0;
+        }
+    }
+
+    private void projectOne(Long id) {
+        try {
+            Integer count = transactionTemplate.execute(status -> project(outboxRepository.claim(id)));
+            projected.increment(count == null ? 0 : count);
+        } catch (RuntimeException e) {
+            failed.increment();
+            try {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.recordFailure(id, e.toString()));
+            } catch (RuntimeException recordError) {
+                // Likely the same outage; the row is retried without the attempt counted
+                log.warn("Could not record case activity failure for outbox row {}: {}", id, recordError.getMessage());
+                return;
+            }
+            log.error("Failed to project case activity outbox row {}: {}", id, e.getMessage(), e);
+        }
+    }
+
+    /** Writes the rows' timeline and audit entries and deletes them, in the caller's transaction. */
+    private int project(List<CaseActivityOutbox> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<CaseTimeline> timeline = new ArrayList<>();
+        List<AuditLog> audit = new ArrayList<>();
+        for (CaseActivityOutbox row : rows) {
+            if (row.isTimeline()) {
+                timeline.add(CaseTimeline.builder()
+                        .legalCaseId(row.getCaseId())
+                        .event(row.getEvent())
+                        .eventType(row.getEventType())
+                        .description(row.getDescription())
+                        .performedBy(row.getActorName())
+                        .timestamp(row.getOccurredAt())
+                        .build());
+            }
+            if (row.isAudited()) {
+                audit.add(AuditLog.builder()
+                        .caseId(row.getCaseId())
+                        .userId(row.getActorUserId())
+                        .role(row.getActorRole())
+                        .action(row.getEventType())
+                        .description(row.getDescription())
+                        .timestamp(row.getOccurredAt())
+                        .build());
+            }
+        }
+
+        if (!timeline.isEmpty()) {
+            timelineRepository.saveAll(timeline);
+        }
+        if (!audit.isEmpty()) {
+            auditChainService.appendInTransaction(audit);
+        }
+        outboxRepository.deleteByIdIn(rows.stream().map(CaseActivityOutbox::getId).toList());
+        return rows.size();
+    }
+
+    private static CaseActivityOutbox toOutbox(CaseActivityEvent event) {
+        return CaseActivityOutbox.builder()
+                .caseId(event.caseId())
+                .event(event.event())
+                .eventType(event.eventType())
+                .description(event.description())
+                .actorUserId(event.actorUserId())
+                .actorRole(event.actorRole())
+                .actorName(event.actorName())
+                .occurredAt(event.timestamp())
+                .timeline(event.timeline())
+                .audited(event.audited())
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.CaseEventOutbox;
+import com.nyaysetu.backend.repository.CaseEventOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays case event messages from the outbox to the STOMP broker.
+ *
+ * A commit that wrote outbox rows wakes the relay; a periodic sweep picks up anything
+ * left behind by a node that stopped before relaying. Each batch is read, sent and
+ * deleted in one transaction holding a cluster-wide advisory lock, so two nodes never
+ * relay the same rows.
+ *
+ * Delivery is at least once: messages are sent before the delete commits, and if that
+ * commit fails they are sent again by the next run. A message whose send fails keeps its
+ * row and is retried, up to {@code case-event.outbox.max-attempts}; it then stays in the
+ * outbox with its last error for an operator. Every message carries its outbox row id in
+ * the {@value #MESSAGE_ID_HEADER} header for subscribers to drop repeats.
+ *
+ * Messages of one case are sent in commit order. Writers take a per-case lock before
+ * inserting (see {@link CaseEventOutboxRepository#lockCase}), so a case's ids follow its
+ * commits, and the relay sends in id order. After a failed send the rest of that case's
+ * batch waits for the retry. Only a message given up after the last attempt is skipped.
+ * Messages of different cases have no order relative to each other.
+ */
+@Slf4j
+@Component
+@Lazy(false) // The sweep has to run without anyone asking for the bean
+public class CaseEventOutboxRelay {
+
+    /** Advisory lock key for the relay; any constant unique to this purpose */
+    static final long RELAY_LOCK_KEY = 0x4E59_4F55_5442_4F58L;
+
+    /** First key of the two-key advisory locks that order each case's outbox writes */
+    static final int CASE_LOCK_NAMESPACE = 0x4E59_4345;
+
+    /** STOMP header holding the outbox row id, unique per message and repeated on redelivery */
+    public static final String MESSAGE_ID_HEADER = "outbox-message-id";
+
+    private final CaseEventOutboxRepository outboxRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicBoolean relayPending = new AtomicBoolean();
+    private final Counter relayed;
+
+    @Autowired
+    public CaseEventOutboxRelay(CaseEventOutboxRepository outboxRepository,
+                                SimpMessagingTemplate messagingTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${case-event.outbox.batch-size:200}") int batchSize,
+                                @Value("${case-event.outbox.max-attempts:10}") int maxAttempts) {
+        this(outboxRepository, messagingTemplate, transactionManager, meterRegistry, batchSize, maxAttempts,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "case-event-outbox");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    CaseEventOutboxRelay(CaseEventOutboxRepository outboxRepository,
+                         SimpMessagingTemplate messagingTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         int batchSize,
+                         int maxAttempts,
+                         Executor executor) {
+        this.outboxRepository = outboxRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.relayed = Counter.builder("case_event.outbox.relayed")
+                .description("Case event messages sent to the STOMP broker").register(meterRegistry);
+    }
+
+    /**
+     * Relays once the current transaction commits; nothing is sent if it rolls back.
+     */
+    public void relayAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestRelay();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestRelay();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${case-event.outbox.sweep-interval-ms:5000}")
+    public void sweep() {
+        requestRelay();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    /** Commits within one relay run are picked up together. */
+    private void requestRelay() {
+        if (relayPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                relayPending.set(false);
+                relayAll();
+            });
+        }
+    }
+
+    void relayAll() {
+        try {
+            int read;
+            do {
+                read = relayBatch();
+            } while (read >= batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Case event outbox relay failed, retrying on the next sweep: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sends one batch and deletes the rows that were sent; failed rows are kept for the next run.
+     *
+     * @return rows read, or 0 when the batch was empty or another node is relaying
+     */
+    private int relayBatch() {
+        Integer read = transactionTemplate.execute(status -> {
+            if (!outboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+                // Another node is relaying; it reads this node's rows too
+                return 0;
+            }
+            List<CaseEventOutbox> batch =
+                    outboxRepository.findByAttemptsLessThanOrderByIdAsc(maxAttempts, PageRequest.of(0, batchSize));
+            List<Long> sent = new ArrayList<>(batch.size());
+            Set<UUID> blockedCases = new HashSet<>();
+            for (CaseEventOutbox message : batch) {
+                if (blockedCases.contains(message.getCaseId())) {
+                    continue;
+                }
+                try {
+                    send(message);
+                    sent.add(message.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to broadcast case event {} to {}, retrying on the next run: {}",
+                            message.getId(), message.getDestination(), e.getMessage());
+                    outboxRepository.recordFailure(message.getId(), e.toString());
+                    // Later messages of the case must not overtake this one
+                    blockedCases.add(message.getCaseId());
+                }
+            }
+            if (!sent.isEmpty()) {
+                outboxRepository.deleteByIdIn(sent);
+            }
+            return blockedCases.isEmpty() ? batch.size() : 0;
+        });
+        return read == null ? 0 : read;
+    }
+
+    private void send(CaseEventOutbox message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setNativeHeader(MESSAGE_ID_HEADER, String.valueOf(message.getId()));
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(message.getDestination(), MessageBuilder.createMessage(
+                message.getPayload().getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders()));
+        relayed.increment();
+    }
+}
@@ -2,15 +2,22 @@ package com.nyaysetu.backend.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nyaysetu.backend.entity.CaseEvent;
+import com.nyaysetu.backend.entity.CaseEventOutbox;
 import com.nyaysetu.backend.entity.CaseStatus;
+import com.nyaysetu.backend.event.CaseActivityEvent;
+import com.nyaysetu.backend.repository.CaseEventOutboxRepository;
 import com.nyaysetu.backend.repository.CaseEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -25,7 +32,10 @@ import java.util.UUID;
 public class CaseEventService {
 
     private final CaseEventRepository caseEventRepository;
+    private final CaseEventOutboxRepository caseEventOutboxRepository;
+    private final CaseEventOutboxRelay caseEventOutboxRelay;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
 
     // Event Types
@@ -92,8 +102,9 @@ public class CaseEventService {
 
         event = caseEventRepository.save(event);
 
-        // Broadcast to relevant WebSocket channels
+        // Broadcast to relevant WebSocket channels once committed
         broadcastEvent(event);
+        recordActivity(event);
 
         log.info("Logged case event: {} for case {} by {} ({})", 
                 eventType, caseId, actorName, actorRole);
@@ -179,6 +190,7 @@ public class CaseEventService {
 
         event = caseEventRepository.save(event);
         broadcastEvent(event);
+        recordActivity(event);
 
         return event;
     }
@@ -205,57 +217,100 @@ public class CaseEventService {
     }
 
     /**
-     * Broadcast event to relevant WebSocket channels.
+     * Queue the event's WebSocket messages in the outbox, in this transaction.
+     * CaseEventOutboxRelay sends them after commit, so rolled-back events are never seen.
      */
     private void broadcastEvent(CaseEvent event) {
+        List<CaseEventOutbox> messages = new ArrayList<>(2);
         try {
             // Broadcast to case-specific channel
-            messagingTemplate.convertAndSend(
-                    "/topic/case/" + event.getCaseId() + "/events",
-                    event
-            );
+            messages.add(outboxMessage(event, "/topic/case/" + event.getCaseId() + "/events", event));
 
             // Broadcast status changes to status channel
             if (EVENT_STATUS_CHANGE.equals(event.getEventType())) {
-                messagingTemplate.convertAndSend(
-                        "/topic/case/" + event.getCaseId() + "/status",
-                        (Object) Map.of(
-                                "caseId", event.getCaseId(),
-                                "previousStatus", event.getPreviousStatus(),
-                                "newStatus", event.getNewStatus(),
-                                "timestamp", event.getTimestamp()
-                        )
-                );
+                messages.add(outboxMessage(event, "/topic/case/" + event.getCaseId() + "/status", Map.of(
+                        "caseId", event.getCaseId(),
+                        "previousStatus", event.getPreviousStatus(),
+                        "newStatus", event.getNewStatus(),
+                        "timestamp", event.getTimestamp()
+                )));
             }
 
             // Broadcast stage changes for real-time stepper updates
             if (EVENT_STAGE_CHANGE.equals(event.getEventType())) {
-                messagingTemplate.convertAndSend(
-                        "/topic/case/" + event.getCaseId() + "/stage",
-                        (Object) Map.of(
-                                "caseId", event.getCaseId(),
-                                "previousStage", event.getPreviousStage(),
-                                "newStage", event.getNewStage(),
-                                "timestamp", event.getTimestamp()
-                        )
-                );
+                messages.add(outboxMessage(event, "/topic/case/" + event.getCaseId() + "/stage", Map.of(
+                        "caseId", event.getCaseId(),
+                        "previousStage", event.getPreviousStage(),
+                        "newStage", event.getNewStage(),
+                        "timestamp", event.getTimestamp()
+                )));
             }
 
             // Broadcast police submissions to judge pool
             if (EVENT_POLICE_SUBMIT.equals(event.getEventType())) {
-                messagingTemplate.convertAndSend(
-                        "/topic/judge/unassigned",
-                        (Object) Map.of(
-                                "caseId", event.getCaseId(),
-                                "summary", event.getSummary(),
-                                "timestamp", event.getTimestamp()
-                        )
-                );
+                messages.add(outboxMessage(event, "/topic/judge/unassigned", Map.of(
+                        "caseId", event.getCaseId(),
+                        "summary", event.getSummary(),
+                        "timestamp", event.getTimestamp()
+                )));
             }
 
         } catch (Exception e) {
             log.error("Failed to broadcast event", e);
         }
+
+        if (!messages.isEmpty()) {
+            // Rows of one case get ids in commit order, which is the order the relay sends them in
+            caseEventOutboxRepository.lockCase(CaseEventOutboxRelay.CASE_LOCK_NAMESPACE, event.getCaseId());
+            caseEventOutboxRepository.saveAll(messages);
+            caseEventOutboxRelay.relayAfterCommit();
+        }
+    }
+
+    /**
+     * The timeline row and audit chain entry are derived from the event once this transaction commits.
+     */
+    private void recordActivity(CaseEvent event) {
+        eventPublisher.publishEvent(new CaseActivityEvent(
+                event.getCaseId(),
+                event.getEventType(),
+                event.getEventType(),
+                event.getSummary(),
+                parseUserId(event.getActorId()),
+                event.getActorRole(),
+                event.getActorName(),
+                event.getTimestamp(),
+                true,
+                true
+        ));
+    }
+
+    /** Actor ids are user ids, or names such as "SYSTEM" for automated actions. */
+    private static Long parseUserId(String actorId) {
+        if (actorId == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(actorId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serialized with the broker's own converter, so clients receive the same JSON as before.
+     */
+    private CaseEventOutbox outboxMessage(CaseEvent event, String destination, Object payload) {
+        Message<?> message = messagingTemplate.getMessageConverter().toMessage(payload, null);
+        if (message == null || !(message.getPayload() instanceof byte[] body)) {
+            throw new IllegalStateException("No JSON converter for " + payload.getClass().getSimpleName());
+        }
+        return CaseEventOutbox.builder()
+                .caseId(event.getCaseId())
+                .destination(destination)
+                .payload(new String(body, StandardCharsets.UTF_8))
+                .createdAt(LocalDateTime.now())
+                .build();
     }
 
     private String serializeEventData(Map<String, Object> eventData) {
@@ -1,8 +1,10 @@
 package com.nyaysetu.backend.service;
 
 import com.nyaysetu.backend.entity.CaseTimeline;
+import com.nyaysetu.backend.event.CaseActivityEvent;
 import com.nyaysetu.backend.repository.CaseTimelineRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -14,23 +16,18 @@ import java.util.UUID;
 public class CaseTimelineService {
 
     private final CaseTimelineRepository repo;
-    
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Timeline rows are written by CaseActivityProjector after the caller's transaction
+     * commits, batched with other cases' entries.
+     */
     public void addEvent(UUID caseId, String event) {
-        repo.save(CaseTimeline.builder()
-                .legalCaseId(caseId)
-                .event(event)
-                .timestamp(LocalDateTime.now())
-                .build());
+        eventPublisher.publishEvent(CaseActivityEvent.timelineEntry(caseId, event, null, null));
     }
 
     public void addEvent(UUID caseId, String type, String description) {
-        repo.save(CaseTimeline.builder()
-                .legalCaseId(caseId)
-                .event(type)
-                .eventType(type)
-                .description(description)
-                .timestamp(LocalDateTime.now())
-                .build());
+        eventPublisher.publishEvent(CaseActivityEvent.timelineEntry(caseId, type, type, description));
     }
 
     public void logAppealFiled(UUID caseId) {
@@ -0,0 +1,307 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.DocumentStorageType;
+import com.nyaysetu.backend.entity.StorageBlob;
+import com.nyaysetu.backend.repository.StorageBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Content-addressable, deduplicating store for case files.
+ *
+ * An upload is hashed while it is staged, then moved to {@link FileStorageService#casPath}
+ * of its SHA-256 before the caller's transaction opens. If that content is already stored
+ * the staged copy is discarded and the existing blob gains a reference, so the same FIR or CCTV clip uploaded by police, lawyer
+ * and litigant occupies disk once. Blobs whose reference count has been zero for the grace
+ * period are removed by {@link #collectGarbage()}.
+ *
+ * Staging is always on local disk; the blobs themselves live in the configured
+ * {@link BlobStorage}, the node's disk or an S3-compatible object store.
+ */
+@Service
+@Slf4j
+public class ContentStoreService {
+
+    private final FileStorageService fileStorageService;
+    private final BlobStorage blobStorage;
+    private final StorageBlobRepository blobRepository;
+    private final TransactionTemplate blobTransaction;
+    private final TransactionTemplate referenceTransaction;
+
+    /** Blobs being uploaded from this node, with the number of uploads of each in flight. */
+    private final Map<String, Integer> uploading = new ConcurrentHashMap<>();
+
+    /** Unreferenced blobs are kept this long so a release followed by a re-upload does not churn the disk. */
+    @Value("${file.cas.gc-grace-minutes:60}")
+    private long gcGraceMinutes = 60;
+
+    @Value("${file.cas.gc-batch-size:500}")
+    private int gcBatchSize = 500;
+
+    public ContentStoreService(FileStorageService fileStorageService,
+                               BlobStorage blobStorage,
+                               StorageBlobRepository blobRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.fileStorageService = fileStorageService;
+        this.blobStorage = blobStorage;
+        this.blobRepository = blobRepository;
+        this.blobTransaction = new TransactionTemplate(transactionManager);
+        // The blob row lock is held only while the row is reserved, never across an upload or the caller's transaction
+        this.blobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.referenceTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stores an upload by content and records the entity that holds it.
+     *
+     * The file is uploaded first, with no transaction open; then one short transaction takes
+     * the blob reference and runs {@code record}, so the reference commits or rolls back
+     * together with the entity that holds it. The returned path is shared by every holder of
+     * the same content.
+     */
+    public <T> T store(MultipartFile file, Function<StoredFile, T> record) {
+        StoredFile blob = upload(file);
+        return referenceTransaction.execute(status -> {
+            reference(blob);
+            return record.apply(blob);
+        });
+    }
+
+    /** Hashes and uploads a multipart file; see {@link #upload(StoredFile)}. */
+    public StoredFile upload(MultipartFile file) {
+        requireNoTransaction();
+        return upload(fileStorageService.storeFileWithHash(file, FileStorageService.CAS_STAGING));
+    }
+
+    /**
+     * Moves an already hashed file from the staging area into blob storage without taking a
+     * reference. Must be called before the caller opens its transaction: the upload can take
+     * minutes and would otherwise hold the caller's connection and row locks throughout.
+     *
+     * The blob row is reserved in its own short transaction and kept out of garbage collection
+     * by {@link #heartbeatUploads()} while the file goes up, so an upload that outlasts the
+     * grace period is not collected under it. The caller then takes its reference with
+     * {@link #reference(StoredFile)}; a blob whose reference never commits stays at zero
+     * references and is collected after the grace period.
+     */
+    public StoredFile upload(StoredFile staged) {
+        requireNoTransaction();
+        String sha256 = staged.sha256();
+        uploading.merge(sha256, 1, Integer::sum);
+        try {
+            String blobPath;
+            try {
+                blobPath = blobTransaction.execute(status -> reserve(staged));
+            } catch (DataIntegrityViolationException concurrentInsert) {
+                // Another upload of the same content created the row first; reserve that one instead
+                blobPath = blobTransaction.execute(status -> reserve(staged));
+            }
+
+            // The key is content-addressed, so concurrent uploads of the same bytes write the same object
+            if (blobStorage.exists(blobPath)) {
+                fileStorageService.deleteFile(staged.path());
+                log.info("Deduplicated upload against blob {}...", sha256.substring(0, 16));
+            } else {
+                blobStorage.put(staged.path(), blobPath, staged.contentType());
+            }
+
+            String path = blobPath;
+            blobTransaction.executeWithoutResult(status -> confirm(sha256, path));
+            return new StoredFile(blobPath, sha256, staged.size(), staged.contentType());
+        } finally {
+            uploading.computeIfPresent(sha256, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Takes one reference on an uploaded blob, in the caller's transaction so it commits or
+     * rolls back together with the entity that holds it.
+     */
+    @Transactional
+    public void reference(StoredFile blob) {
+        if (blobRepository.incrementRefCount(blob.sha256()) == 0) {
+            throw new IllegalStateException("Blob " + blob.sha256() + " was collected before it could be referenced");
+        }
+    }
+
+    /**
+     * Drops one reference, in the caller's transaction so it commits together with the
+     * removal of the entity that held it. The file itself is left to garbage collection.
+     */
+    @Transactional
+    public void release(String sha256) {
+        if (sha256 == null) {
+            return;
+        }
+        if (blobRepository.decrementRefCount(sha256, LocalDateTime.now()) == 0) {
+            log.warn("Released blob {}... that was not referenced", sha256.substring(0, Math.min(16, sha256.length())));
+        }
+    }
+
+    /** Where blobs are kept, recorded as the storage type of documents that reference them. */
+    public DocumentStorageType storageType() {
+        return blobStorage.type();
+    }
+
+    /** Local file with a blob's content, fetched from the object store first when blobs are remote. */
+    public File getFile(String blobPath) {
+        return blobStorage.localFile(blobPath);
+    }
+
+    /** File behind a stored path: a content-store blob, or a legacy per-upload file on local disk. */
+    public File getStoredFile(String storedPath) {
+        if (isBlobPath(storedPath)) {
+            return getFile(storedPath);
+        }
+        return fileStorageService.getFile(storedPath);
+    }
+
+    public boolean exists(String blobPath) {
+        return blobStorage.exists(blobPath);
+    }
+
+    /**
+     * Presigned URL the client can fetch a blob from directly, when the backend offers one;
+     * otherwise empty and the file is streamed through {@link FileDownloadService}.
+     */
+    public Optional<URI> downloadUrl(String blobPath, String fileName, String contentType, boolean inline) {
+        return blobStorage.presignedDownloadUrl(blobPath, fileName, contentType, inline);
+    }
+
+    /** True when a storage path points into the content-addressable store rather than a legacy per-upload file. */
+    public static boolean isBlobPath(String path) {
+        return path != null && path.startsWith("cas/");
+    }
+
+    /** Keeps blobs still being uploaded from this node out of garbage collection. */
+    @Scheduled(fixedDelayString = "${file.cas.upload-heartbeat-ms:300000}",
+            initialDelayString = "${file.cas.upload-heartbeat-ms:300000}")
+    public void heartbeatUploads() {
+        if (uploading.isEmpty()) {
+            return;
+        }
+        List<String> inFlight = List.copyOf(uploading.keySet());
+        blobTransaction.executeWithoutResult(status -> blobRepository.touchUnreferenced(inFlight, LocalDateTime.now()));
+    }
+
+    /**
+     * Deletes blobs that have had no references for longer than the grace period.
+     *
+     * A blob is first tombstoned in a committed transaction, then its file and row are removed
+     * together under the row lock. A crash in between leaves a tombstone, never a live-looking
+     * row without a file: the next run finishes the deletion, and an upload of the same content
+     * revives the row and writes the file again. Each step re-checks the row under its lock, so
+     * a concurrent upload either revives the blob first or recreates it after it is gone.
+     */
+    @Scheduled(fixedDelayString = "${file.cas.gc-interval-ms:3600000}",
+            initialDelayString = "${file.cas.gc-interval-ms:3600000}")
+    public int collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(gcGraceMinutes);
+        List<StorageBlob> candidates = blobRepository.findByRefCountLessThanEqualAndReleasedAtBefore(
+                0, cutoff, PageRequest.of(0, Math.max(1, gcBatchSize)));
+
+        int removed = 0;
+        for (StorageBlob candidate : candidates) {
+            Boolean tombstoned = blobTransaction.execute(status -> {
+                Optional<StorageBlob> locked = blobRepository.findForUpdate(candidate.getSha256());
+                if (locked.isEmpty() || locked.get().getRefCount() > 0
+                        || locked.get().getReleasedAt() == null || !locked.get().getReleasedAt().isBefore(cutoff)) {
+                    return false;
+                }
+                locked.get().setRefCount(StorageBlob.TOMBSTONE);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(tombstoned)) {
+                continue;
+            }
+            Boolean deleted = blobTransaction.execute(status -> {
+                Optional<StorageBlob> locked = blobRepository.findForUpdate(candidate.getSha256());
+                if (locked.isEmpty() || locked.get().getRefCount() != StorageBlob.TOMBSTONE) {
+                    return false;
+                }
+                blobStorage.delete(locked.get().getPath());
+                // Derived text goes with the content it was extracted from
+                fileStorageService.deleteFile(DocumentTextService.cachePath(locked.get().getSha256()));
+                fileStorageService.deleteFile(DocumentTextService.pagesCachePath(locked.get().getSha256()));
+                blobRepository.delete(locked.get());
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Content store GC removed {} unreferenced blobs", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Makes sure the blob row exists, without taking a reference or touching storage. A row
+     * with no references gets a fresh release time, so garbage collection leaves it and its
+     * file alone while the upload heartbeats keep it fresh.
+     */
+    private String reserve(StoredFile staged) {
+        Optional<StorageBlob> existing = blobRepository.findForUpdate(staged.sha256());
+        if (existing.isPresent()) {
+            StorageBlob blob = existing.get();
+            if (blob.getRefCount() <= 0) {
+                // Unreferenced or tombstoned by an interrupted collection: its file may be gone
+                blob.setRefCount(0);
+                blob.setReleasedAt(LocalDateTime.now());
+            }
+            return blob.getPath();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return blobRepository.saveAndFlush(StorageBlob.builder()
+                .sha256(staged.sha256())
+                .path(FileStorageService.casPath(staged.sha256()))
+                .size(staged.size())
+                .contentType(staged.contentType())
+                .refCount(0)
+                .createdAt(now)
+                .releasedAt(now)
+                .build()).getPath();
+    }
+
+    /**
+     * Checks, under the row lock, that the blob survived its upload and restarts its grace
+     * period, which leaves the caller that long to commit its reference. Fails only when
+     * the heartbeats stopped reaching the database and collection removed the blob anyway.
+     */
+    private void confirm(String sha256, String blobPath) {
+        Optional<StorageBlob> locked = blobRepository.findForUpdate(sha256);
+        if (locked.isEmpty() || locked.get().getRefCount() < 0 || !blobStorage.exists(blobPath)) {
+            throw new IllegalStateException("Blob " + sha256 + " was collected while it was being uploaded");
+        }
+        if (locked.get().getRefCount() == 0) {
+            locked.get().setReleasedAt(LocalDateTime.now());
+        }
+    }
+
+    private static void requireNoTransaction() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Blob uploads must not run inside a database transaction");
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.nyaysetu.backend.entity.DocumentEntity;
 import com.nyaysetu.backend.repository.DocumentAnalysisRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -21,6 +20,8 @@ import java.util.UUID;
 public class DocumentAnalysisService {
     
     private final PdfTextExtractorService pdfExtractor;
+    private final DocumentTextService documentTextService;
+    private final DocumentChunkAnalysisService documentChunkAnalysisService;
     private final AiService aiService;
     private final DocumentAnalysisRepository analysisRepository;
     private final Gson gson = new Gson();
@@ -28,13 +29,18 @@ public class DocumentAnalysisService {
 
     @org.springframework.beans.factory.annotation.Value("${lawgpt.service.url:http://localhost:8001}")
     private String lawgptUrl;
+
+    /** Extracted text is cut at this length; a text that reaches it is analysed chunk by chunk. */
+    @org.springframework.beans.factory.annotation.Value("${pdf.extract.max-chars:30000}")
+    private int maxChars = 30000;
     
     /**
-     * Analyze document asynchronously
+     * Analyze a document. Called by {@link AnalysisJobService} workers; a thrown exception
+     * means the attempt may succeed on retry, while documents that can never be analysed
+     * get a failed analysis record straight away.
      */
-    @Async
-    public void analyzeDocumentAsync(DocumentEntity document, File file) {
-        log.info("Starting async analysis for document: {}", document.getId());
+    public void analyzeDocument(DocumentEntity document, File file) throws Exception {
+        log.info("Starting analysis for document: {}", document.getId());
         
         // Skip if analysis already exists
         if (analysisRepository.existsByDocumentId(document.getId())) {
@@ -42,58 +48,65 @@ public class DocumentAnalysisService {
             return;
         }
         
-        try {
-            // Check if PDF
-            if (!pdfExtractor.isPdf(document.getFileName())) {
-                log.warn("Document {} is not a PDF, skipping analysis", document.getId());
-                saveFailedAnalysis(document, "Only PDF files can be analyzed");
-                return;
-            }
-            
-            // Extract text
-            String text = pdfExtractor.extractText(file);
-            
-            if (text.trim().isEmpty()) {
-                log.warn("No text extracted from PDF: {}", document.getId());
-                saveFailedAnalysis(document, "No text content found in PDF");
+        // Identical content was already analysed for another upload: reuse it instead of re-running AI
+        if (document.getFileHash() != null) {
+            java.util.Optional<DocumentAnalysis> existing =
+                    analysisRepository.findFirstByDocumentFileHashAndAnalysisSuccessTrue(document.getFileHash());
+            if (existing.isPresent()) {
+                log.info("Reusing analysis of identical content for document {}", document.getId());
+                analysisRepository.save(copyAnalysis(existing.get(), document));
                 return;
             }
+        }
+
+        // Check if PDF
+        if (!pdfExtractor.isPdf(document.getFileName())) {
+            log.warn("Document {} is not a PDF, skipping analysis", document.getId());
+            recordFailure(document, "Only PDF files can be analyzed");
+            return;
+        }
+        
+        // Extract text (cached by content hash, so re-analysis does not re-parse the PDF)
+        String text = documentTextService.getText(document.getFileHash(), file, "application/pdf").orElse("");
+        
+        if (text.trim().isEmpty()) {
+            log.warn("No text extracted from PDF: {}", document.getId());
+            recordFailure(document, "No text content found in PDF");
+            return;
+        }
+        
+        // Get AI analysis; long documents are mapped section by section instead of truncated
+        String aiResponse = text.length() >= maxChars
+                ? documentChunkAnalysisService.analyze(document, file)
+                : aiService.analyzeDocument(text, document.getFileName());
+        
+        // Get Case summary from lawgpt-service
+        String summaryResponse = "{}";
+        try {
+            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
+            headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
             
-            // Get AI analysis
-            String aiResponse = aiService.analyzeDocument(text, document.getFileName());
+            JsonObject requestBody = new JsonObject();
+            requestBody.addProperty("text", text);
+            requestBody.addProperty("language", "en");
             
-            // Get Case summary from lawgpt-service
-            String summaryResponse = "{}";
-            try {
-                org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("text", text);
-                requestBody.addProperty("language", "en");
-                
-                org.springframework.http.HttpEntity<String> entity = new org.springframework.http.HttpEntity<>(requestBody.toString(), headers);
-                org.springframework.http.ResponseEntity<String> response = restTemplate.postForEntity(
-                    lawgptUrl + "/summarize",
-                    entity,
-                    String.class
-                );
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    summaryResponse = response.getBody();
-                }
-            } catch (Exception e) {
-                log.warn("Failed to get case summary from lawgpt-service: {}", e.getMessage());
+            org.springframework.http.HttpEntity<String> entity = new org.springframework.http.HttpEntity<>(requestBody.toString(), headers);
+            org.springframework.http.ResponseEntity<String> response = restTemplate.postForEntity(
+                lawgptUrl + "/summarize",
+                entity,
+                String.class
+            );
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                summaryResponse = response.getBody();
             }
-            
-            // Parse and save
-            DocumentAnalysis analysis = parseAndSaveAnalysis(document, aiResponse, summaryResponse);
-            
-            log.info("Document {} analyzed successfully", document.getId());
-            
         } catch (Exception e) {
-            log.error("Analysis failed for document {}", document.getId(), e);
-            saveFailedAnalysis(document, e.getMessage());
+            log.warn("Failed to get case summary from lawgpt-service: {}", e.getMessage());
         }
+        
+        // Parse and save
+        parseAndSaveAnalysis(document, aiResponse, summaryResponse);
+        
+        log.info("Document {} analyzed successfully", document.getId());
     }
     
     /**
@@ -174,10 +187,29 @@ public class DocumentAnalysisService {
         }
     }
     
+    private DocumentAnalysis copyAnalysis(DocumentAnalysis source, DocumentEntity doc) {
+        return DocumentAnalysis.builder()
+            .document(doc)
+            .summary(source.getSummary())
+            .legalPoints(source.getLegalPoints())
+            .relevantLaws(source.getRelevantLaws())
+            .importantDates(source.getImportantDates())
+            .partiesInvolved(source.getPartiesInvolved())
+            .caseLawSuggestions(source.getCaseLawSuggestions())
+            .suggestedCategory(source.getSuggestedCategory())
+            .riskAssessment(source.getRiskAssessment())
+            .score(source.getScore())
+            .complianceStatus(source.getComplianceStatus())
+            .fullAnalysisJson(source.getFullAnalysisJson())
+            .analyzedAt(LocalDateTime.now())
+            .analysisSuccess(true)
+            .build();
+    }
+
     /**
-     * Save failed analysis record
+     * Save failed analysis record, e.g. once an analysis job has used up its retries
      */
-    private void saveFailedAnalysis(DocumentEntity doc, String errorMsg) {
+    public void recordFailure(DocumentEntity doc, String errorMsg) {
         // Skip if analysis already exists
         if (analysisRepository.existsByDocumentId(doc.getId())) {
             log.info("Analysis already exists for document {}, skipping failed save", doc.getId());
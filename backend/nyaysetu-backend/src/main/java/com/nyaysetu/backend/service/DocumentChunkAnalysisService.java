@@ -0,0 +1,311 @@
+package com.nyaysetu.backend.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.nyaysetu.backend.entity.DocumentEntity;
+import com.nyaysetu.backend.notification.event.DocumentAnalysisProgressEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Map-reduce analysis for documents too long for a single prompt.
+ *
+ * The full text is read page by page through the {@link DocumentTextService} cache and cut into section-aware chunks by
+ * {@link LegalTextChunker}. Each chunk's legal points, laws, dates and parties are
+ * extracted in parallel (map), with Groq calls admitted by the shared
+ * {@link GroqRequestBudget}, and each finished chunk is pushed to the uploader as a
+ * DOCUMENT_ANALYSIS progress message. The per-chunk facts are then merged and
+ * de-duplicated (reduce), and one final call over the chunk summaries supplies the
+ * document-level summary, category, risk and score. When the summaries are too long
+ * for one prompt, neighbouring ones are first condensed in batches.
+ *
+ * A result built from too few chunks is not saved: the analysis is cached per content
+ * hash and reused for identical uploads, so it fails instead and the job is retried.
+ */
+@Service
+@Slf4j
+public class DocumentChunkAnalysisService {
+
+    /** List fields collected per chunk and merged across the document. */
+    static final List<String> MERGED_FIELDS =
+            List.of("legalPoints", "relevantLaws", "importantDates", "partiesInvolved");
+
+    private final DocumentTextService documentTextService;
+    private final AiService aiService;
+    private final TaskExecutor chunkExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Gson gson = new Gson();
+
+    @Value("${analysis.mapreduce.chunk-chars:8000}")
+    private int chunkChars = 8000;
+
+    /** Longest document text analysed; roughly 500 pages of dense typescript. */
+    @Value("${analysis.mapreduce.max-document-chars:1500000}")
+    private long maxDocumentChars = 1_500_000;
+
+    /** Share of chunks that must be analysed for the result to stand in for the whole document. */
+    @Value("${analysis.mapreduce.min-analysed-ratio:0.8}")
+    private double minAnalysedRatio = 0.8;
+
+    @Value("${analysis.mapreduce.max-items-per-field:100}")
+    private int maxItemsPerField = 100;
+
+    /** Longest outline of section summaries sent in one reduce prompt. */
+    @Value("${analysis.mapreduce.reduce-max-chars:24000}")
+    private int reduceMaxChars = 24000;
+
+    /** Summary of consecutive pages, as fed to the reduce step. */
+    private record Section(int firstPage, int lastPage, String summary) {
+        @Override
+        public String toString() {
+            return "Pages " + firstPage + "-" + lastPage + ": " + summary;
+        }
+    }
+
+    public DocumentChunkAnalysisService(DocumentTextService documentTextService,
+                                        AiService aiService,
+                                        @Qualifier("analysisChunkExecutor") TaskExecutor chunkExecutor,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.documentTextService = documentTextService;
+        this.aiService = aiService;
+        this.chunkExecutor = chunkExecutor;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Analyse a long PDF chunk by chunk.
+     *
+     * @return analysis JSON in the same shape as {@link AiService#analyzeDocument}
+     * @throws IllegalStateException when fewer than analysis.mapreduce.min-analysed-ratio of
+     *         the chunks could be analysed, so the job is retried
+     */
+    public String analyze(DocumentEntity document, File file) throws IOException {
+        List<String> pages = documentTextService.getPages(document.getFileHash(), file, maxDocumentChars);
+        List<LegalTextChunker.Chunk> chunks = LegalTextChunker.chunk(pages, chunkChars);
+        int total = chunks.size();
+        log.info("Analysing document {} in {} chunks over {} pages", document.getId(), total, pages.size());
+        publish(document, "STARTED", 0, total, null);
+
+        // Map: chunks run in parallel; each result is streamed to the client as it lands
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<JsonObject>> mapped = new ArrayList<>(total);
+        for (LegalTextChunker.Chunk chunk : chunks) {
+            mapped.add(CompletableFuture.supplyAsync(() -> mapChunk(document, chunk, total), chunkExecutor)
+                    .whenComplete((facts, error) -> {
+                        int done = completed.incrementAndGet();
+                        publish(document, "PARTIAL", done, total, facts != null ? toMap(facts) : null);
+                    }));
+        }
+
+        List<JsonObject> results = new ArrayList<>(total);
+        for (CompletableFuture<JsonObject> future : mapped) {
+            JsonObject facts = future.join();
+            if (facts != null) {
+                results.add(facts);
+            }
+        }
+        if (results.isEmpty() || results.size() < Math.ceil(total * minAnalysedRatio)) {
+            publish(document, "FAILED", completed.get(), total, null);
+            throw new IllegalStateException("Only " + results.size() + " of the " + total
+                    + " sections could be analysed");
+        }
+
+        // Reduce: merge the lists, then ask for the document-level judgements over the chunk summaries
+        JsonObject analysis = overallAssessment(document, results);
+        for (String field : MERGED_FIELDS) {
+            analysis.add(field, merge(results, field, maxItemsPerField));
+        }
+        JsonObject coverage = new JsonObject();
+        coverage.addProperty("chunks", total);
+        coverage.addProperty("analysedChunks", results.size());
+        coverage.addProperty("pages", pages.size());
+        analysis.add("coverage", coverage);
+
+        publish(document, "COMPLETE", completed.get(), total, toMap(analysis));
+        log.info("Document {} analysed from {}/{} chunks", document.getId(), results.size(), total);
+        return gson.toJson(analysis);
+    }
+
+    /** Facts of one chunk with its page span, or null when the model gave no usable answer. */
+    private JsonObject mapChunk(DocumentEntity document, LegalTextChunker.Chunk chunk, int total) {
+        try {
+            String response = aiService.extractDocumentFacts(chunk.text(), document.getFileName(), chunk.index(), total);
+            if (AiService.isFallback(response)) {
+                log.warn("AI service unavailable for chunk {}/{} of document {}", chunk.index(), total, document.getId());
+                return null;
+            }
+            JsonObject facts = parseJson(response);
+            if (facts == null) {
+                log.warn("No usable analysis for chunk {}/{} of document {}", chunk.index(), total, document.getId());
+                return null;
+            }
+            facts.addProperty("chunk", chunk.index());
+            facts.addProperty("firstPage", chunk.firstPage());
+            facts.addProperty("lastPage", chunk.lastPage());
+            return facts;
+        } catch (RuntimeException e) {
+            log.warn("Chunk {}/{} of document {} failed: {}", chunk.index(), total, document.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** Summary, category, risk, score and compliance from one call over the per-chunk summaries. */
+    private JsonObject overallAssessment(DocumentEntity document, List<JsonObject> results) {
+        List<Section> sections = new ArrayList<>(results.size());
+        for (JsonObject facts : results) {
+            sections.add(new Section(facts.get("firstPage").getAsInt(), facts.get("lastPage").getAsInt(),
+                    string(facts, "summary")));
+        }
+        // Reduce hierarchically until the outline fits one prompt, stopping if a round no longer shortens it
+        int length = outlineLength(sections);
+        while (length > reduceMaxChars && sections.size() > 1) {
+            sections = condense(document, sections);
+            int condensed = outlineLength(sections);
+            if (condensed >= length) {
+                break;
+            }
+            length = condensed;
+        }
+        String outline = outline(sections);
+
+        String response = aiService.assessDocument(outline, document.getFileName(), results.size());
+        JsonObject analysis = null;
+        if (AiService.isFallback(response)) {
+            log.warn("AI service unavailable for the overall assessment of document {}", document.getId());
+        } else {
+            analysis = parseJson(response);
+        }
+        if (analysis == null) {
+            analysis = new JsonObject();
+            analysis.addProperty("summary", outline.length() > 2000 ? outline.substring(0, 2000) : outline);
+        }
+        return analysis;
+    }
+
+    /** Merges runs of neighbouring sections that together fit one prompt into a single section each. */
+    private List<Section> condense(DocumentEntity document, List<Section> sections) {
+        List<Section> condensed = new ArrayList<>();
+        List<Section> batch = new ArrayList<>();
+        int batchLength = 0;
+        for (Section section : sections) {
+            int sectionLength = section.toString().length() + 1;
+            if (!batch.isEmpty() && batchLength + sectionLength > reduceMaxChars) {
+                condensed.add(condenseBatch(document, batch));
+                batch = new ArrayList<>();
+                batchLength = 0;
+            }
+            batch.add(section);
+            batchLength += sectionLength;
+        }
+        condensed.add(condenseBatch(document, batch));
+        return condensed;
+    }
+
+    private Section condenseBatch(DocumentEntity document, List<Section> batch) {
+        String summary = batch.size() > 1 ? aiService.condenseSummaries(outline(batch), document.getFileName()) : null;
+        if (summary == null || summary.isBlank() || AiService.isFallback(summary)) {
+            // No model answer, or one oversized section: keep the start of the text rather than drop the pages
+            String joined = batch.stream().map(Section::summary).collect(Collectors.joining(" "));
+            int keep = Math.max(1, reduceMaxChars / 4);
+            summary = joined.length() > keep ? joined.substring(0, keep) : joined;
+        }
+        return new Section(batch.get(0).firstPage(), batch.get(batch.size() - 1).lastPage(), summary.trim());
+    }
+
+    private static String outline(List<Section> sections) {
+        StringBuilder outline = new StringBuilder();
+        sections.forEach(section -> outline.append(section).append('\n'));
+        return outline.toString();
+    }
+
+    private static int outlineLength(List<Section> sections) {
+        return sections.stream().mapToInt(section -> section.toString().length() + 1).sum();
+    }
+
+    /**
+     * Union of a list field across chunks in document order, dropping entries that differ
+     * only in case, spacing or punctuation.
+     */
+    static JsonArray merge(List<JsonObject> results, String field, int maxItems) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (JsonObject facts : results) {
+            JsonElement values = facts.get(field);
+            if (values == null || !values.isJsonArray()) {
+                continue;
+            }
+            for (JsonElement value : values.getAsJsonArray()) {
+                if (value.isJsonNull() || !value.isJsonPrimitive()) {
+                    continue;
+                }
+                String item = value.getAsString().trim();
+                String key = item.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+                if (!key.isEmpty() && unique.size() < maxItems) {
+                    unique.putIfAbsent(key, item);
+                }
+            }
+        }
+        JsonArray merged = new JsonArray();
+        unique.values().forEach(merged::add);
+        return merged;
+    }
+
+    private JsonObject parseJson(String response) {
+        if (response == null) {
+            return null;
+        }
+        String json = response.trim();
+        if (json.startsWith("```json")) {
+            json = json.substring(7);
+        }
+        if (json.startsWith("```")) {
+            json = json.substring(3);
+        }
+        if (json.endsWith("```")) {
+            json = json.substring(0, json.length() - 3);
+        }
+        try {
+            JsonElement parsed = gson.fromJson(json.trim(), JsonElement.class);
+            return parsed != null && parsed.isJsonObject() ? parsed.getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String string(JsonObject facts, String key) {
+        JsonElement value = facts.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : "";
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toMap(JsonObject json) {
+        return gson.fromJson(json, Map.class);
+    }
+
+    private void publish(DocumentEntity document, String status, int completed, int total,
+                         Map<String, Object> result) {
+        try {
+            eventPublisher.publishEvent(new DocumentAnalysisProgressEvent(document.getId(),
+                    document.getUploadedBy(), status, completed, total, result));
+        } catch (RuntimeException e) {
+            // Progress is best effort; the saved analysis is the record
+            log.debug("Could not publish analysis progress for {}: {}", document.getId(), e.getMessage());
+        }
+    }
+}
@@ -13,12 +13,12 @@ import com.nyaysetu.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -30,38 +30,45 @@ public class DocumentManagementService {
     private final CaseRepository caseRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
-    private final DocumentAnalysisService documentAnalysisService;
+    private final AnalysisJobService analysisJobService;
     private final BlockchainService blockchainService;
+    private final ContentStoreService contentStoreService;
 
-    @Transactional
+    /**
+     * Store the file, then create its document in the same short transaction that takes the
+     * blob reference; the upload itself runs before that transaction opens
+     */
     public DocumentDto uploadDocument(MultipartFile file, UploadDocumentRequest request, User uploader, String uploadIp) {
-        // Store file
+        return contentStoreService.store(file,
+                stored -> uploadDocument(stored, file.getOriginalFilename(), request, uploader, uploadIp));
+    }
+
+    /**
+     * Create a document for a file already placed in the content store, e.g. one assembled
+     * from a resumable chunked upload. The caller takes the blob reference in this transaction.
+     */
+    @Transactional
+    public DocumentDto uploadDocument(StoredFile stored, String fileName, UploadDocumentRequest request,
+                                      User uploader, String uploadIp) {
         String category = request.getCategory() != null ? request.getCategory() : "OTHER";
-        String filePath = fileStorageService.storeFile(file, category);
+        String filePath = stored.path();
 
-        // Calculate SHA-256 hash for data integrity (Section 63(4) compliance)
-        String fileHash = null;
-        try {
-            java.io.File physicalFile = fileStorageService.getFile(filePath);
-            fileHash = blockchainService.calculateFileHash(physicalFile);
-            org.slf4j.LoggerFactory.getLogger(DocumentManagementService.class)
-                .info("Document SHA-256 hash calculated: {}", fileHash);
-        } catch (Exception e) {
-            org.slf4j.LoggerFactory.getLogger(DocumentManagementService.class)
-                .warn("Failed to calculate file hash: {}", e.getMessage());
-        }
+        // SHA-256 for data integrity (Section 63(4) compliance), computed while the file was written
+        String fileHash = stored.sha256();
+        org.slf4j.LoggerFactory.getLogger(DocumentManagementService.class)
+            .info("Document SHA-256 hash calculated: {}", fileHash);
 
         // Create document entity
         DocumentEntity document = DocumentEntity.builder()
-                .fileName(file.getOriginalFilename())
+                .fileName(fileName)
                 .fileUrl(filePath)
-                .contentType(file.getContentType())
-                .size(file.getSize())
+                .contentType(stored.contentType())
+                .size(stored.size())
                 .category(category)
                 .description(request.getDescription())
                 .uploadedBy(uploader.getId())
                 .caseId(request.getCaseId())
-                .storageType(DocumentStorageType.LOCAL)
+                .storageType(contentStoreService.storageType())
                 .fileHash(fileHash)
                 .uploadIp(uploadIp)
                 .isVerified(fileHash != null)
@@ -139,10 +146,27 @@ public class DocumentManagementService {
         return convertToDto(document);
     }
 
-    public Resource downloadDocument(UUID id) {
+    /**
+     * Stored file behind a document, for streaming downloads
+     */
+    public java.io.File getDocumentFile(UUID id) {
         DocumentEntity document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
-        return fileStorageService.loadFileAsResource(document.getFileUrl());
+        return storedFile(document);
+    }
+
+    /**
+     * Presigned direct-download URL when the document's blob lives in object storage;
+     * empty for local files, which are streamed by the application
+     */
+    public Optional<java.net.URI> getDocumentDownloadUrl(UUID id, boolean inline) {
+        DocumentEntity document = documentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Document not found"));
+        if (document.getStorageType() != DocumentStorageType.S3) {
+            return Optional.empty();
+        }
+        return contentStoreService.downloadUrl(document.getFileUrl(), document.getFileName(),
+                document.getContentType(), inline);
     }
 
     @Transactional
@@ -155,25 +179,24 @@ public class DocumentManagementService {
             throw new RuntimeException("Unauthorized to delete this document");
         }
 
-        // Delete file from storage
-        fileStorageService.deleteFile(document.getFileUrl());
+        // Drop this document's reference on its blob; legacy per-upload files are deleted directly
+        if (ContentStoreService.isBlobPath(document.getFileUrl())) {
+            contentStoreService.release(document.getFileHash());
+        } else {
+            fileStorageService.deleteFile(document.getFileUrl());
+        }
 
         // Delete from database
         documentRepository.delete(document);
     }
 
     /**
-     * Trigger AI analysis for a document
+     * Queue AI analysis for a document; judge requests and sealed documents are analysed first
      */
-    public void triggerAnalysis(UUID documentId) {
+    public void triggerAnalysis(UUID documentId, boolean judgeRequested) {
         DocumentEntity document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
-                
-        // Get the actual file from storage
-        java.io.File file = fileStorageService.getFile(document.getFileUrl());
-        
-        // Trigger async analysis
-        documentAnalysisService.analyzeDocumentAsync(document, file);
+        analysisJobService.enqueue(document, judgeRequested);
     }
 
     /**
@@ -209,7 +232,7 @@ public class DocumentManagementService {
         if (document.getFileHash() == null) return false;
         
         try {
-            java.io.File file = fileStorageService.getFile(document.getFileUrl());
+            java.io.File file = storedFile(document);
             return blockchainService.verifyFileIntegrity(file, document.getFileHash());
         } catch (Exception e) {
             org.slf4j.LoggerFactory.getLogger(DocumentManagementService.class)
@@ -218,6 +241,11 @@ public class DocumentManagementService {
         }
     }
 
+    /** Content-store blobs may live in object storage; legacy per-upload files are always on local disk. */
+    private java.io.File storedFile(DocumentEntity document) {
+        return contentStoreService.getStoredFile(document.getFileUrl());
+    }
+
     private DocumentDto convertToDto(DocumentEntity entity) {
         DocumentDto dto = DocumentDto.builder()
                 .id(entity.getId())
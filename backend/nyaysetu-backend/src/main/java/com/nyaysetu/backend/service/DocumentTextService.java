@@ -0,0 +1,342 @@
+package com.nyaysetu.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single entry point for the text of a stored file, cached by its SHA-256.
+ *
+ * The same judgment or FIR is analysed by several features and re-analysed on demand;
+ * extraction runs once per distinct content. A small in-memory tier holds recently used
+ * texts and a gzip-compressed on-disk tier keeps every extracted text, so a restart does
+ * not re-parse PDFs. Each entry remembers how long its extraction took, and every hit adds
+ * that to the {@code document.text.extraction.saved} counter.
+ *
+ * Map-reduce analysis reads a long document's full text page by page through
+ * {@link #getPages}, which has its own entry per hash: the whole-text entry is cut to the
+ * prompt budget and could not serve it.
+ *
+ * Not every cached text belongs to a content-store blob (VakilFriend files, legacy evidence),
+ * so the disk tier is bounded on its own: {@link #evictDiskTier()} drops entries unread for
+ * the configured age and, past the size budget, the least recently read ones.
+ */
+@Service
+@Slf4j
+public class DocumentTextService {
+
+    /** Root of the on-disk tier under file.upload-dir; entries also go with their blob in content-store GC. */
+    static final String CACHE_DIR = "text-cache";
+
+    /** Memory-tier key prefix of page lists, so they never collide with a whole text. */
+    private static final String PAGES_KEY_PREFIX = "pages:";
+
+    /** Starts each page in a cached page list; PDF text never keeps it, see {@link #extractPages}. */
+    private static final char PAGE_START = '\f';
+
+    @FunctionalInterface
+    private interface Extraction {
+        String extract() throws IOException;
+    }
+
+    private record CachedText(String text, long extractionMillis) {
+    }
+
+    private record DiskEntry(Path path, long size, Instant lastRead) {
+    }
+
+    private final PdfTextExtractorService pdfTextExtractorService;
+    private final FileStorageService fileStorageService;
+    private final Cache<String, CachedText> memory;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter savedMillis;
+    private final Timer extractionTimer;
+
+    /** Plain-text files are cut to the same budget as PDFs. */
+    @Value("${pdf.extract.max-chars:30000}")
+    private int maxChars = 30000;
+
+    /** Disk entries not read for this long are evicted. */
+    @Value("${document.text.cache.disk-max-age-days:30}")
+    private long diskMaxAgeDays = 30;
+
+    @Value("${document.text.cache.disk-max-mb:1024}")
+    private long diskMaxMb = 1024;
+
+    public DocumentTextService(PdfTextExtractorService pdfTextExtractorService,
+                               FileStorageService fileStorageService,
+                               MeterRegistry meterRegistry,
+                               @Value("${document.text.cache.memory-max-chars:4000000}") long memoryMaxChars,
+                               @Value("${document.text.cache.memory-expire-minutes:60}") long memoryExpireMinutes) {
+        this.pdfTextExtractorService = pdfTextExtractorService;
+        this.fileStorageService = fileStorageService;
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxChars)
+                .weigher((String key, CachedText cached) -> cached.text().length())
+                .expireAfterAccess(Duration.ofMinutes(memoryExpireMinutes))
+                .build();
+
+        this.memoryHits = Counter.builder("document.text.cache.hits").tag("tier", "memory")
+                .description("Extracted-text lookups served from memory").register(meterRegistry);
+        this.diskHits = Counter.builder("document.text.cache.hits").tag("tier", "disk")
+                .description("Extracted-text lookups served from the compressed disk tier").register(meterRegistry);
+        this.misses = Counter.builder("document.text.cache.misses")
+                .description("Extracted-text lookups that had to parse the file").register(meterRegistry);
+        this.savedMillis = Counter.builder("document.text.extraction.saved").baseUnit("milliseconds")
+                .description("Extraction time avoided by cache hits").register(meterRegistry);
+        this.extractionTimer = Timer.builder("document.text.extraction")
+                .description("Time spent extracting text on cache misses").register(meterRegistry);
+    }
+
+    /**
+     * Text of a stored file: PDFs through the page-parallel extractor, text and JSON read directly.
+     * Empty for formats without extractable text. Without a hash the file is extracted uncached.
+     */
+    public Optional<String> getText(String sha256, File file, String contentType) throws IOException {
+        if (!isExtractable(contentType, file.getName())) {
+            return Optional.empty();
+        }
+        if (sha256 == null) {
+            return Optional.of(extract(file, contentType));
+        }
+
+        return Optional.of(lookup(sha256, cachePath(sha256), () -> extract(file, contentType)));
+    }
+
+    /**
+     * Page texts of a stored PDF, in page order, up to maxChars characters in all. Unlike
+     * {@link #getText} this is not cut to the prompt budget. Cached per hash: maxChars is
+     * expected to be the same deployment-wide setting on every call.
+     */
+    public List<String> getPages(String sha256, File file, long maxChars) throws IOException {
+        if (sha256 == null) {
+            return extractPages(file, maxChars);
+        }
+        String joined = lookup(PAGES_KEY_PREFIX + sha256, pagesCachePath(sha256),
+                () -> joinPages(extractPages(file, maxChars)));
+        return joined.isEmpty() ? List.of() : List.of(joined.substring(1).split(String.valueOf(PAGE_START), -1));
+    }
+
+    private String lookup(String key, String diskPath, Extraction extraction) throws IOException {
+        CachedText cached = memory.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.increment();
+            savedMillis.increment(cached.extractionMillis());
+            return cached.text();
+        }
+        cached = readDisk(diskPath);
+        if (cached != null) {
+            diskHits.increment();
+            savedMillis.increment(cached.extractionMillis());
+            memory.put(key, cached);
+            return cached.text();
+        }
+
+        misses.increment();
+        long started = System.nanoTime();
+        String text = extraction.extract();
+        long elapsed = System.nanoTime() - started;
+        extractionTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        cached = new CachedText(text, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        memory.put(key, cached);
+        writeDisk(diskPath, cached);
+        return text;
+    }
+
+    /**
+     * Bounds the disk tier: removes entries not read within the age limit, then the least
+     * recently read ones until the tier fits its size budget. A read refreshes an entry's
+     * modification time, so that time is its last use.
+     */
+    @Scheduled(fixedDelayString = "${document.text.cache.eviction-interval-ms:3600000}",
+            initialDelayString = "${document.text.cache.eviction-interval-ms:3600000}")
+    public int evictDiskTier() {
+        Path root = fileStorageService.resolve(CACHE_DIR);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<DiskEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    entries.add(new DiskEntry(path, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                } catch (IOException e) {
+                    // Removed concurrently
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not scan text cache for eviction: {}", e.getMessage());
+            return 0;
+        }
+        entries.sort(Comparator.comparing(DiskEntry::lastRead));
+
+        Instant cutoff = Instant.now().minus(Duration.ofDays(diskMaxAgeDays));
+        long budget = diskMaxMb * 1024 * 1024;
+        long total = entries.stream().mapToLong(DiskEntry::size).sum();
+        int removed = 0;
+        for (DiskEntry entry : entries) {
+            if (total <= budget && entry.lastRead().isAfter(cutoff)) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+                removed++;
+            } catch (IOException e) {
+                log.warn("Could not evict text cache entry {}: {}", entry.path().getFileName(), e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            log.info("Evicted {} text cache entries, {} KB remain on disk", removed, total / 1024);
+        }
+        return removed;
+    }
+
+    /** PDFs, plain text and JSON; anything else (images, audio, video) has no text to extract here. */
+    public static boolean isExtractable(String contentType, String fileName) {
+        return isPdf(contentType, fileName)
+                || (contentType != null && (contentType.contains("text") || contentType.contains("json")));
+    }
+
+    /** Disk-tier location of a hash's text: {@code text-cache/ab/<sha256>.txt.gz}. */
+    static String cachePath(String sha256) {
+        return CACHE_DIR + "/" + sha256.substring(0, 2) + "/" + sha256 + ".txt.gz";
+    }
+
+    /** Disk-tier location of a hash's page list: {@code text-cache/ab/<sha256>.pages.txt.gz}. */
+    static String pagesCachePath(String sha256) {
+        return CACHE_DIR + "/" + sha256.substring(0, 2) + "/" + sha256 + ".pages.txt.gz";
+    }
+
+    private static boolean isPdf(String contentType, String fileName) {
+        return "application/pdf".equalsIgnoreCase(contentType)
+                || (fileName != null && fileName.toLowerCase().endsWith(".pdf"));
+    }
+
+    private String extract(File file, String contentType) throws IOException {
+        if (isPdf(contentType, file.getName())) {
+            return pdfTextExtractorService.extractText(file);
+        }
+        char[] buffer = new char[maxChars];
+        int filled = 0;
+        // Malformed bytes become replacement characters rather than failing the whole read
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            int read;
+            while (filled < buffer.length && (read = reader.read(buffer, filled, buffer.length - filled)) != -1) {
+                filled += read;
+            }
+        }
+        return new String(buffer, 0, filled);
+    }
+
+    /** Form feeds in page text become line breaks so the separator stays unambiguous. */
+    private List<String> extractPages(File file, long maxChars) throws IOException {
+        List<String> pages = new ArrayList<>();
+        pdfTextExtractorService.extractPages(file, maxChars, (pageNumber, text) -> {
+            pages.add(text.replace(PAGE_START, '\n'));
+            return true;
+        });
+        return pages;
+    }
+
+    private static String joinPages(List<String> pages) {
+        StringBuilder joined = new StringBuilder();
+        for (String page : pages) {
+            joined.append(PAGE_START).append(page);
+        }
+        return joined.toString();
+    }
+
+    /** First line holds the extraction time in milliseconds, the rest is the text. */
+    private CachedText readDisk(String diskPath) {
+        Path path = fileStorageService.resolve(diskPath);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            long extractionMillis = Long.parseLong(reader.readLine());
+            StringBuilder text = new StringBuilder();
+            char[] chunk = new char[8192];
+            int read;
+            while ((read = reader.read(chunk)) != -1) {
+                text.append(chunk, 0, read);
+            }
+            touch(path);
+            return new CachedText(text.toString(), extractionMillis);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable text cache entry {}: {}", path.getFileName(), e.getMessage());
+            fileStorageService.deleteFile(diskPath);
+            return null;
+        }
+    }
+
+    /** Marks a disk entry as just read, for {@link #evictDiskTier()}. */
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // Best effort: the entry is at worst evicted a little early
+        }
+    }
+
+    /** Written to a temp file and moved into place, so a concurrent reader never sees half an entry. */
+    private void writeDisk(String diskPath, CachedText cached) {
+        Path target = fileStorageService.resolve(diskPath);
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (Writer writer = new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+                writer.write(Long.toString(cached.extractionMillis()));
+                writer.write('\n');
+                writer.write(cached.text());
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The memory tier still has the text; the next miss after eviction simply extracts again
+            log.warn("Could not write text cache entry {}: {}", target.getFileName(), e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+}
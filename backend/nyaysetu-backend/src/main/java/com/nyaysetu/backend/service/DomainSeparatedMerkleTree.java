@@ -0,0 +1,108 @@
+package com.nyaysetu.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * RFC 6962-style Merkle tree used by the global audit root.
+ *
+ * Leaves are sha256(0x00 || data) and parents sha256(0x01 || left || right) over the raw
+ * 32-byte digests, so a leaf can never be passed off as an internal node. An odd node at
+ * the end of a level is promoted unchanged instead of being paired with itself, which
+ * closes the duplicate-subtree second preimage (CVE-2012-2459) that {@link MerkleTree}
+ * keeps for compatibility with existing evidence proofs.
+ */
+public final class DomainSeparatedMerkleTree {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private DomainSeparatedMerkleTree() {
+    }
+
+    /** Leaf hash of a UTF-8 string, hex encoded. */
+    public static String leafHash(String data) {
+        return hash(LEAF_PREFIX, data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Parent hash of two hex-encoded child hashes. */
+    public static String combine(String left, String right) {
+        byte[] leftBytes = HEX.parseHex(left);
+        byte[] rightBytes = HEX.parseHex(right);
+        byte[] children = new byte[leftBytes.length + rightBytes.length];
+        System.arraycopy(leftBytes, 0, children, 0, leftBytes.length);
+        System.arraycopy(rightBytes, 0, children, leftBytes.length, rightBytes.length);
+        return hash(NODE_PREFIX, children);
+    }
+
+    /** Computes the root over the given leaf hashes; returns "" for an empty list. */
+    public static String root(List<String> leaves) {
+        if (leaves == null || leaves.isEmpty()) {
+            return "";
+        }
+        List<String> level = new ArrayList<>(leaves);
+        while (level.size() > 1) {
+            level = nextLevel(level);
+        }
+        return level.get(0);
+    }
+
+    /**
+     * Returns the sibling path from leaves[index] to the root, bottom level first.
+     * Levels where the node is promoted without a sibling contribute no step.
+     */
+    public static List<MerkleTree.ProofStep> proof(List<String> leaves, int index) {
+        if (index < 0 || index >= leaves.size()) {
+            throw new IllegalArgumentException("Leaf index " + index + " out of range for " + leaves.size() + " leaves");
+        }
+        List<MerkleTree.ProofStep> path = new ArrayList<>();
+        List<String> level = new ArrayList<>(leaves);
+        int position = index;
+        while (level.size() > 1) {
+            boolean isRight = position % 2 == 1;
+            if (isRight) {
+                path.add(new MerkleTree.ProofStep(level.get(position - 1), true));
+            } else if (position + 1 < level.size()) {
+                path.add(new MerkleTree.ProofStep(level.get(position + 1), false));
+            }
+            level = nextLevel(level);
+            position /= 2;
+        }
+        return path;
+    }
+
+    /** Folds the proof path over the leaf hash and checks the result against the expected root. */
+    public static boolean verify(String leaf, List<MerkleTree.ProofStep> path, String expectedRoot) {
+        if (leaf == null || expectedRoot == null) {
+            return false;
+        }
+        String current = leaf;
+        for (MerkleTree.ProofStep step : path) {
+            current = step.left() ? combine(step.hash(), current) : combine(current, step.hash());
+        }
+        return current.equals(expectedRoot);
+    }
+
+    private static List<String> nextLevel(List<String> level) {
+        List<String> next = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            next.add(i + 1 < level.size() ? combine(level.get(i), level.get(i + 1)) : level.get(i));
+        }
+        return next;
+    }
+
+    private static String hash(byte prefix, byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(prefix);
+            return HEX.formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available on this JVM", e);
+        }
+    }
+}
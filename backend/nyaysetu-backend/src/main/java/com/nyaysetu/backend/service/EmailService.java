@@ -36,7 +36,7 @@ public class EmailService {
     @Value("${app.password-reset.token-validity:1800000}")
     private Long tokenValidityMs;
 
-    @Async
+    @Async("mailExecutor")
     @Transactional
     public void sendPasswordResetEmail(String email) {
         var userOptional = userRepository.findByEmail(email);
@@ -166,7 +166,7 @@ public class EmailService {
         log.info("Cleaned up expired password reset tokens");
     }
 
-    @Async
+    @Async("mailExecutor")
     public void sendRespondentSummons(String recipientEmail, String respondentName, String caseNumber, String hearingDate) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -241,7 +241,7 @@ public class EmailService {
                 """, respondentName, caseNumber, hearingDate);
     }
 
-    @Async
+    @Async("mailExecutor")
     public void sendWelcomeEmail(String email, String name) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -0,0 +1,154 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.EvidenceAnchorBatch;
+import com.nyaysetu.backend.entity.EvidenceMerkleRoot;
+import com.nyaysetu.backend.repository.EvidenceAnchorBatchRepository;
+import com.nyaysetu.backend.repository.EvidenceMerkleRootRepository;
+import com.nyaysetu.backend.repository.EvidenceRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Anchors evidence Merkle roots in time-windowed batches.
+ *
+ * Uploads leave their new case root pending. Every window the scheduler builds a
+ * super-Merkle tree over all pending roots, timestamps the super-root with one
+ * TSA call and stores each root's sibling path, so a single external round trip
+ * covers every exhibit uploaded in the window across all cases.
+ *
+ * A window runs in three steps so no connection or row lock is held across the TSA
+ * round trip: pending roots are claimed (SKIP LOCKED, so nodes never claim the same
+ * root) in a short transaction, the super-root is timestamped outside any transaction,
+ * and the result is recorded in a second short transaction.
+ */
+@Service
+@Slf4j
+public class EvidenceAnchorBatchService {
+
+    private final EvidenceMerkleRootRepository rootRepository;
+    private final EvidenceAnchorBatchRepository batchRepository;
+    private final EvidenceRecordRepository evidenceRepository;
+    private final EvidenceAnchoringService anchoringService;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Upper bound on roots per batch; a backlog drains over consecutive windows. */
+    @Value("${evidence.anchor.max-batch-size:10000}")
+    private int maxBatchSize;
+
+    /** A claim older than this belongs to a node that stopped mid-batch; its roots are claimed again. */
+    @Value("${evidence.anchor.claim-timeout-ms:600000}")
+    private long claimTimeoutMs = 600000;
+
+    public EvidenceAnchorBatchService(EvidenceMerkleRootRepository rootRepository,
+                                      EvidenceAnchorBatchRepository batchRepository,
+                                      EvidenceRecordRepository evidenceRepository,
+                                      EvidenceAnchoringService anchoringService,
+                                      PlatformTransactionManager transactionManager) {
+        this.rootRepository = rootRepository;
+        this.batchRepository = batchRepository;
+        this.evidenceRepository = evidenceRepository;
+        this.anchoringService = anchoringService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${evidence.anchor.batch-window-ms:60000}",
+            initialDelayString = "${evidence.anchor.batch-window-ms:60000}")
+    public EvidenceAnchorBatch anchorPendingRoots() {
+        // Millisecond precision so the claim compares equal after a round trip through the database
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<EvidenceMerkleRoot> pending = transactionTemplate.execute(status -> {
+            List<EvidenceMerkleRoot> claimed = rootRepository.claimPending(
+                    claimedAt.minus(claimTimeoutMs, ChronoUnit.MILLIS), Math.max(1, maxBatchSize));
+            claimed.forEach(root -> root.setAnchorClaimedAt(claimedAt));
+            return rootRepository.saveAll(claimed);
+        });
+        if (pending == null || pending.isEmpty()) {
+            return null;
+        }
+
+        List<String> leaves = new ArrayList<>(pending.size());
+        for (EvidenceMerkleRoot root : pending) {
+            leaves.add(batchLeaf(root));
+        }
+        String superRoot = MerkleTree.root(leaves);
+        List<List<MerkleTree.ProofStep>> paths = MerkleTree.proofs(leaves);
+        List<UUID> ids = pending.stream().map(EvidenceMerkleRoot::getId).toList();
+
+        String anchorProof;
+        try {
+            anchorProof = anchoringService.anchorMerkleRoot(superRoot);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> rootRepository.releaseClaims(ids, claimedAt));
+            throw e;
+        }
+        String anchorService = anchoringService.anchorServiceName();
+        LocalDateTime anchoredAt = LocalDateTime.now();
+
+        return transactionTemplate.execute(status ->
+                recordBatch(pending, ids, paths, superRoot, anchorProof, anchorService, claimedAt, anchoredAt));
+    }
+
+    private EvidenceAnchorBatch recordBatch(List<EvidenceMerkleRoot> pending, List<UUID> ids,
+                                            List<List<MerkleTree.ProofStep>> paths, String superRoot,
+                                            String anchorProof, String anchorService,
+                                            LocalDateTime claimedAt, LocalDateTime anchoredAt) {
+        EvidenceAnchorBatch batch = batchRepository.save(EvidenceAnchorBatch.builder()
+                .superRoot(superRoot)
+                .leafCount(pending.size())
+                .anchorProof(anchorProof)
+                .anchorService(anchorService)
+                .anchoredAt(anchoredAt)
+                .build());
+
+        // Re-read the roots: one whose claim expired and was anchored by another node keeps that anchor
+        Map<UUID, EvidenceMerkleRoot> current = rootRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(EvidenceMerkleRoot::getId, Function.identity()));
+        List<EvidenceMerkleRoot> anchored = new ArrayList<>(pending.size());
+        List<String> rootHashes = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            EvidenceMerkleRoot root = current.get(pending.get(i).getId());
+            if (root == null || root.getAnchoredAt() != null || !claimedAt.equals(root.getAnchorClaimedAt())) {
+                continue;
+            }
+            root.setBatchId(batch.getId());
+            root.setBatchLeafIndex(i);
+            root.setBatchPath(MerkleTree.encodePath(paths.get(i)));
+            root.setExternalAnchorProof(anchorProof);
+            root.setAnchoredAt(anchoredAt);
+            anchored.add(root);
+            rootHashes.add(root.getRootHash());
+        }
+        rootRepository.saveAll(anchored);
+        int records = rootHashes.isEmpty() ? 0
+                : evidenceRepository.markAnchored(rootHashes, anchorProof, anchoredAt, anchorService);
+
+        if (anchored.size() < pending.size()) {
+            log.warn("{} of {} evidence roots were anchored by another node after their claim expired",
+                    pending.size() - anchored.size(), pending.size());
+        }
+        log.info("Anchored {} evidence roots ({} records) under super-root {}...",
+                anchored.size(), records, superRoot.substring(0, 16));
+        return batch;
+    }
+
+    /**
+     * Leaf of a case root in the batch tree. Binding the case and version means a
+     * path proves "case X had root R after N exhibits", not just that R was seen.
+     */
+    static String batchLeaf(EvidenceMerkleRoot root) {
+        return MerkleTree.sha256(root.getCaseId() + "|" + root.getLeafCount() + "|" + root.getRootHash());
+    }
+}
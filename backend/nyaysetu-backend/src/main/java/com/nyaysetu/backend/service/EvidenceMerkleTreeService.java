@@ -0,0 +1,207 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.EvidenceMerkleNode;
+import com.nyaysetu.backend.entity.EvidenceMerkleRoot;
+import com.nyaysetu.backend.repository.EvidenceMerkleNodeRepository;
+import com.nyaysetu.backend.repository.EvidenceMerkleRootRepository;
+import com.nyaysetu.backend.repository.EvidenceRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains a persisted, incrementally updated Merkle tree over each case's evidence.
+ *
+ * The tree has the same shape as {@link MerkleTree#root} (odd nodes paired with
+ * themselves), so roots match what EvidenceAnchoringService has always produced.
+ * Appending leaf n only recomputes the rightmost node of each level: the left
+ * siblings it needs are complete and never change, so one findAllById loads the
+ * whole path and one saveAll writes it back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EvidenceMerkleTreeService {
+
+    private final EvidenceMerkleNodeRepository nodeRepository;
+    private final EvidenceMerkleRootRepository rootRepository;
+    private final EvidenceRecordRepository evidenceRepository;
+
+    /**
+     * Adds a leaf at leafIndex (the evidence blockIndex) and stores the new root as version leafIndex + 1.
+     * Cases created before the tree was persisted are rebuilt once from their block hashes.
+     */
+    @Transactional
+    public EvidenceMerkleRoot appendLeaf(UUID caseId, long leafIndex, String leafHash) {
+        Map<String, EvidenceMerkleNode> nodes = loadAppendPath(caseId, leafIndex);
+        if (leafIndex > 0 && !nodes.containsKey(EvidenceMerkleNode.idOf(caseId, 0, leafIndex - 1))) {
+            log.info("Evidence Merkle tree for case {} not persisted yet, rebuilding from {} existing leaves",
+                    caseId, leafIndex);
+            List<String> leaves = evidenceRepository.findBlockHashesByCaseId(caseId);
+            rebuild(caseId, leaves.subList(0, (int) Math.min(leafIndex, leaves.size())));
+            nodes = loadAppendPath(caseId, leafIndex);
+        }
+
+        List<EvidenceMerkleNode> changed = new ArrayList<>();
+        String current = leafHash;
+        long index = leafIndex;
+        int level = 0;
+        changed.add(upsert(nodes, caseId, level, index, current));
+
+        while (index > 0) {
+            if (index % 2 == 1) {
+                EvidenceMerkleNode left = nodes.get(EvidenceMerkleNode.idOf(caseId, level, index - 1));
+                if (left == null) {
+                    throw new IllegalStateException("Evidence Merkle tree for case " + caseId
+                            + " is missing node " + level + ":" + (index - 1));
+                }
+                current = MerkleTree.combine(left.getHash(), current);
+            } else {
+                current = MerkleTree.combine(current, current);
+            }
+            index /= 2;
+            level++;
+            changed.add(upsert(nodes, caseId, level, index, current));
+        }
+        nodeRepository.saveAll(changed);
+
+        return rootRepository.save(EvidenceMerkleRoot.builder()
+                .caseId(caseId)
+                .leafCount(leafIndex + 1)
+                .rootHash(current)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Sibling path from leaf leafIndex to the root of the case's tree at version leafCount,
+     * read from the persisted nodes with one findAllById: O(log n) hashes instead of the whole case.
+     * Only the latest version can be proven this way, since earlier rightmost nodes are overwritten.
+     * Callers read leafCount and its root in the same REPEATABLE_READ transaction, so an append
+     * committed in between cannot change the nodes under them.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<MerkleTree.ProofStep> proof(UUID caseId, long leafIndex, long leafCount) {
+        if (leafIndex < 0 || leafIndex >= leafCount) {
+            throw new IllegalArgumentException("Leaf index " + leafIndex + " out of range for " + leafCount + " leaves");
+        }
+        List<String> siblingIds = new ArrayList<>();
+        List<Boolean> sides = new ArrayList<>();
+        long index = leafIndex;
+        long size = leafCount;
+        int level = 0;
+        while (size > 1) {
+            boolean isRight = index % 2 == 1;
+            long sibling = isRight ? index - 1 : Math.min(index + 1, size - 1);
+            siblingIds.add(EvidenceMerkleNode.idOf(caseId, level, sibling));
+            sides.add(isRight);
+            index /= 2;
+            size = (size + 1) / 2;
+            level++;
+        }
+
+        Map<String, EvidenceMerkleNode> nodes = new HashMap<>();
+        for (EvidenceMerkleNode node : nodeRepository.findAllById(siblingIds)) {
+            nodes.put(node.getId(), node);
+        }
+        List<MerkleTree.ProofStep> path = new ArrayList<>(siblingIds.size());
+        for (int i = 0; i < siblingIds.size(); i++) {
+            EvidenceMerkleNode node = nodes.get(siblingIds.get(i));
+            if (node == null) {
+                throw new IllegalStateException("Evidence Merkle tree for case " + caseId
+                        + " is missing node " + siblingIds.get(i));
+            }
+            path.add(new MerkleTree.ProofStep(node.getHash(), sides.get(i)));
+        }
+        return path;
+    }
+
+    /**
+     * Rewrites every node of a case's tree from its leaves — used once for legacy cases.
+     */
+    @Transactional
+    public void rebuild(UUID caseId, List<String> leaves) {
+        List<EvidenceMerkleNode> all = new ArrayList<>();
+        List<String> level = new ArrayList<>(leaves);
+        int depth = 0;
+        while (!level.isEmpty()) {
+            for (int i = 0; i < level.size(); i++) {
+                all.add(node(caseId, depth, i, level.get(i)));
+            }
+            if (level.size() == 1) {
+                break;
+            }
+            List<String> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                String left = level.get(i);
+                String right = (i + 1 < level.size()) ? level.get(i + 1) : left;
+                next.add(MerkleTree.combine(left, right));
+            }
+            level = next;
+            depth++;
+        }
+        nodeRepository.saveAll(all);
+    }
+
+    /**
+     * The rightmost node of every level plus each odd node's left sibling — everything an append touches —
+     * and the previous leaf, whose absence marks a tree that has never been persisted.
+     */
+    private Map<String, EvidenceMerkleNode> loadAppendPath(UUID caseId, long leafIndex) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (leafIndex > 0) {
+            ids.add(EvidenceMerkleNode.idOf(caseId, 0, leafIndex - 1));
+        }
+        long index = leafIndex;
+        int level = 0;
+        while (true) {
+            ids.add(EvidenceMerkleNode.idOf(caseId, level, index));
+            if (index % 2 == 1) {
+                ids.add(EvidenceMerkleNode.idOf(caseId, level, index - 1));
+            }
+            if (index == 0) {
+                break;
+            }
+            index /= 2;
+            level++;
+        }
+        Map<String, EvidenceMerkleNode> nodes = new HashMap<>();
+        for (EvidenceMerkleNode node : nodeRepository.findAllById(ids)) {
+            nodes.put(node.getId(), node);
+        }
+        return nodes;
+    }
+
+    private EvidenceMerkleNode upsert(Map<String, EvidenceMerkleNode> nodes, UUID caseId,
+                                      int level, long index, String hash) {
+        EvidenceMerkleNode node = nodes.get(EvidenceMerkleNode.idOf(caseId, level, index));
+        if (node == null) {
+            node = node(caseId, level, index, hash);
+            nodes.put(node.getId(), node);
+        } else {
+            node.setHash(hash);
+        }
+        return node;
+    }
+
+    private EvidenceMerkleNode node(UUID caseId, int level, long index, String hash) {
+        return EvidenceMerkleNode.builder()
+                .id(EvidenceMerkleNode.idOf(caseId, level, index))
+                .caseId(caseId)
+                .level(level)
+                .nodeIndex(index)
+                .hash(hash)
+                .build();
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +25,8 @@ public class EvidenceService {
     private final CaseTimelineService timelineService;
 
     private final GroqDocumentVerificationService groqService;
+    private final DocumentTextService documentTextService;
+    private final FileStorageService fileStorageService;
 
     @Value("${app.upload.evidence-path:backend/uploads/evidence/}")
     private String uploadDir;
@@ -45,15 +46,20 @@ String safeName = new File(rawName).getName(); // strips all path separators, no
 String filename = System.currentTimeMillis() + "_" + safeName;
 File savedFile = new File(folder, filename);
 
-        try (FileOutputStream fos = new FileOutputStream(savedFile)) {
-            fos.write(file.getBytes());
+        // Hashed on its way to disk, so the text cache lookup below does not read the upload again
+        String fileHash;
+        try {
+            fileHash = fileStorageService.writeWithHash(file.getInputStream(), savedFile.toPath(),
+                    file.getContentType()).sha256();
         } catch (Exception e) {
             throw new RuntimeException("File upload failed");
         }
 
         // Groq Validation
         try {
-            String content = new String(file.getBytes()); // simplistic text extraction
+            // PDFs and text go through the shared extracted-text cache; other formats keep the raw bytes
+            java.util.Optional<String> text = documentTextService.getText(fileHash, savedFile, file.getContentType());
+            String content = text.isPresent() ? text.get() : new String(file.getBytes());
             // Limit content size for API
             if (content.length() > 5000) content = content.substring(0, 5000);
             
@@ -1,26 +1,39 @@
 package com.nyaysetu.backend.service;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
 public class FileStorageService {
 
+    /** Directory uploads are staged in until they are hashed and moved into the content-addressable store. */
+    static final String CAS_STAGING = "cas-staging";
+
     private final Path fileStorageLocation;
 
-    public FileStorageService(@Value("${file.upload-dir:backend/uploads/documents}") String uploadDir) {
+    /** Size of the heap buffer each copy allocates and drops; nothing is pinned per thread. */
+    private final int ioBufferSize;
+
+    public FileStorageService(@Value("${file.upload-dir:backend/uploads/documents}") String uploadDir,
+                              @Value("${file.storage.io-buffer-size:65536}") int ioBufferSize) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.ioBufferSize = Math.max(4096, ioBufferSize);
         try {
             Files.createDirectories(this.fileStorageLocation);
         } catch (Exception ex) {
@@ -29,6 +42,14 @@ public class FileStorageService {
     }
 
     public String storeFile(MultipartFile file, String category) {
+        return storeFileWithHash(file, category).path();
+    }
+
+    /**
+     * Stores an upload and computes its SHA-256, size and sniffed MIME type in the
+     * same pass, so callers never re-read the file just to fingerprint it.
+     */
+    public StoredFile storeFileWithHash(MultipartFile file, String category) {
         // Generate unique filename
         String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
@@ -42,27 +63,145 @@ public class FileStorageService {
             Path categoryPath = this.fileStorageLocation.resolve(category);
             Files.createDirectories(categoryPath);
 
-            // Copy file to the target location
+            // Copy file to the target location, hashing as it is written
             Path targetLocation = categoryPath.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            StoredFile written = writeWithHash(file.getInputStream(), targetLocation, file.getContentType());
 
-            return category + "/" + fileName;
+            return new StoredFile(category + "/" + fileName, written.sha256(), written.size(), written.contentType());
         } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + fileName, ex);
+            throw new UncheckedIOException("Could not store file " + fileName, ex);
+        }
+    }
+
+    /**
+     * Streams the input to target through a per-call heap buffer, feeding every chunk to a
+     * SHA-256 digest on its way to disk. A partially written file is removed on failure.
+     */
+    public StoredFile writeWithHash(InputStream input, Path target, String declaredContentType) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[ioBufferSize];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        long size = 0;
+        String contentType = null;
+
+        try (InputStream in = input;
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.clear().limit(read);
+                if (contentType == null && read > 0) {
+                    contentType = sniffContentType(buffer, declaredContentType);
+                }
+                digest.update(chunk, 0, read);
+                while (buffer.hasRemaining()) {
+                    size += out.write(buffer);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+
+        return new StoredFile(target.toString(), HexFormat.of().formatHex(digest.digest()), size,
+                contentType != null ? contentType : declaredContentType);
+    }
+
+    /**
+     * SHA-256 of a stream without storing it, e.g. to compare a re-submitted copy against a stored hash.
+     */
+    public String hash(InputStream input) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[ioBufferSize];
+        try (InputStream in = input) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                digest.update(chunk, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Recognises the formats courts actually receive from their magic numbers; anything
+     * else keeps the client-declared type.
+     */
+    static String sniffContentType(ByteBuffer head, String declaredContentType) {
+        byte[] magic = new byte[Math.min(12, head.remaining())];
+        head.duplicate().get(magic);
+        if (startsWith(magic, 0, '%', 'P', 'D', 'F')) {
+            return "application/pdf";
+        }
+        if (startsWith(magic, 0, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (startsWith(magic, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(magic, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(magic, 4, 'f', 't', 'y', 'p')) {
+            return "video/mp4";
+        }
+        if (startsWith(magic, 0, 'R', 'I', 'F', 'F') && startsWith(magic, 8, 'W', 'A', 'V', 'E')) {
+            return "audio/wav";
+        }
+        if (startsWith(magic, 0, 'P', 'K', 0x03, 0x04)) {
+            // docx/xlsx are zip containers; trust a declared OOXML type over plain zip
+            return declaredContentType != null && declaredContentType.contains("openxmlformats")
+                    ? declaredContentType : "application/zip";
+        }
+        return declaredContentType;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
         }
+        return true;
     }
 
-    public Resource loadFileAsResource(String filePath) {
+    private static MessageDigest sha256() {
         try {
-            Path file = this.fileStorageLocation.resolve(filePath).normalize();
-            Resource resource = new UrlResource(file.toUri());
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found: " + filePath);
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available on this JVM", e);
+        }
+    }
+
+    /** Content-addressable location of a blob: {@code cas/ab/cd/<sha256>}, fanned out to keep directories small. */
+    public static String casPath(String sha256) {
+        return "cas/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    /** Absolute location of a storage path, whether or not the file exists yet. */
+    public Path resolve(String filePath) {
+        return this.fileStorageLocation.resolve(filePath).normalize();
+    }
+
+    public boolean exists(String filePath) {
+        return Files.exists(this.fileStorageLocation.resolve(filePath).normalize());
+    }
+
+    /** Moves a stored file to another storage path, atomically where the filesystem allows. */
+    public void move(String fromPath, String toPath) {
+        Path source = this.fileStorageLocation.resolve(fromPath).normalize();
+        Path target = this.fileStorageLocation.resolve(toPath).normalize();
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (java.nio.file.AtomicMoveNotSupportedException ex) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
             }
-        } catch (MalformedURLException ex) {
-            throw new RuntimeException("File not found: " + filePath, ex);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not move file " + fromPath + " to " + toPath, ex);
         }
     }
 
@@ -4,25 +4,24 @@ import com.nyaysetu.backend.dto.ClientFirRequest;
 import com.nyaysetu.backend.dto.FirUploadRequest;
 import com.nyaysetu.backend.dto.FirUploadResponse;
 import com.nyaysetu.backend.entity.CaseEntity;
+import com.nyaysetu.backend.entity.FirEvidence;
 import com.nyaysetu.backend.entity.FirRecord;
 import com.nyaysetu.backend.entity.User;
 import com.nyaysetu.backend.entity.CaseStatus;
+import com.nyaysetu.backend.repository.FirEvidenceRepository;
 import com.nyaysetu.backend.repository.FirRecordRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,70 +30,54 @@ import java.util.stream.Collectors;
 public class FirService {
 
     private final FirRecordRepository firRecordRepository;
-    private final BlockchainService blockchainService;
     private final com.nyaysetu.backend.repository.CaseRepository caseRepository;
     private final GroqDocumentVerificationService groqService;
     private final com.nyaysetu.backend.notification.service.NotificationService notificationService;
-
-    @Value("${app.upload.fir-path:backend/uploads/fir}")
-    private String firUploadPath;
-
-    @Value("${app.upload.evidence-path:backend/uploads/evidence}")
-    private String evidenceUploadPath;
+    private final FileStorageService fileStorageService;
+    private final ContentStoreService contentStoreService;
+    private final FirEvidenceRepository firEvidenceRepository;
 
     /**
-     * Upload FIR document, calculate SHA-256 hash, and store record
+     * Upload FIR document, calculate SHA-256 hash, and store record. The file is stored
+     * before the transaction opens; the record and its blob reference commit together.
      */
     public FirUploadResponse uploadFir(MultipartFile file, FirUploadRequest request, User uploadedBy) {
         try {
-            // Create upload directory if not exists
-            Path uploadDir = Paths.get(firUploadPath).toAbsolutePath().normalize();
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-
-            // Generate unique filename
             String originalFilename = file.getOriginalFilename() != null
     ? Paths.get(file.getOriginalFilename()).getFileName().toString()
     : "file";
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : "";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
-            Path filePath = uploadDir.resolve(uniqueFilename);
-
-            // Save file to disk
-            file.transferTo(filePath.toFile());
-
-            // Calculate SHA-256 hash of the file
-            String fileHash = blockchainService.calculateFileHash(filePath.toFile());
-            log.info("FIR Digital Fingerprint (SHA-256): {}", fileHash);
-
-            // Generate unique FIR number
-            String firNumber = generateFirNumber();
-
-            // Create FIR record
-            FirRecord firRecord = FirRecord.builder()
-                    .firNumber(firNumber)
-                    .title(request.getTitle())
-                    .description(request.getDescription())
-                    .fileHash(fileHash)
-                    .filePath(filePath.toString())
-                    .fileName(originalFilename)
-                    .fileType(file.getContentType())
-                    .fileSize(file.getSize())
-                    .uploadedBy(uploadedBy)
-                    .uploadedAt(LocalDateTime.now())
-                    .caseId(request.getCaseId())
-                    .status(request.getCaseId() != null ? "LINKED_TO_CASE" : "SEALED")
-                    .build();
 
-            FirRecord saved = firRecordRepository.save(firRecord);
-            log.info("FIR {} sealed with hash {} by officer {}", firNumber, fileHash.substring(0, 16) + "...", uploadedBy.getName());
-
-            return mapToResponse(saved);
-
-        } catch (IOException e) {
+            // Store by content (deduplicated), calculating its SHA-256 hash on the way
+            return contentStoreService.store(file, stored -> {
+                String fileHash = stored.sha256();
+                log.info("FIR Digital Fingerprint (SHA-256): {}", fileHash);
+
+                // Generate unique FIR number
+                String firNumber = generateFirNumber();
+
+                // Create FIR record
+                FirRecord firRecord = FirRecord.builder()
+                        .firNumber(firNumber)
+                        .title(request.getTitle())
+                        .description(request.getDescription())
+                        .fileHash(fileHash)
+                        .filePath(stored.path())
+                        .fileName(originalFilename)
+                        .fileType(file.getContentType())
+                        .fileSize(file.getSize())
+                        .uploadedBy(uploadedBy)
+                        .uploadedAt(LocalDateTime.now())
+                        .caseId(request.getCaseId())
+                        .status(request.getCaseId() != null ? "LINKED_TO_CASE" : "SEALED")
+                        .build();
+
+                FirRecord saved = firRecordRepository.save(firRecord);
+                log.info("FIR {} sealed with hash {} by officer {}", firNumber, fileHash.substring(0, 16) + "...", uploadedBy.getName());
+
+                return mapToResponse(saved);
+            });
+
+        } catch (UncheckedIOException e) {
             log.error("Failed to upload FIR", e);
             throw new RuntimeException("Failed to upload FIR: " + e.getMessage(), e);
         }
@@ -127,15 +110,8 @@ public class FirService {
                 .orElseThrow(() -> new RuntimeException("FIR not found with ID: " + firId));
 
         try {
-            // Save temp file
-            Path tempFile = Files.createTempFile("fir-verify-", ".tmp");
-            file.transferTo(tempFile.toFile());
-
-            // Calculate hash of uploaded file
-            String currentHash = blockchainService.calculateFileHash(tempFile.toFile());
-
-            // Clean up temp file
-            Files.deleteIfExists(tempFile);
+            // Hash the submitted copy straight from the request stream; nothing is written to disk
+            String currentHash = fileStorageService.hash(file.getInputStream());
 
             // Compare hashes
             boolean isVerified = fir.getFileHash().equals(currentHash);
@@ -185,73 +161,58 @@ public class FirService {
     // ==================== CLIENT FIR METHODS ====================
 
     /**
-     * Client files an FIR (with optional evidence file)
+     * Client files an FIR (with optional evidence file). An evidence file is stored before
+     * the transaction opens; the record and its blob reference commit together.
      */
     public FirUploadResponse fileClientFir(ClientFirRequest request, MultipartFile file, User filedBy) {
         try {
-            String fileHash = null;
-            String filePath = null;
-            String fileName = null;
-            String fileType = null;
-            Long fileSize = null;
-
             // Handle optional file upload
             if (file != null && !file.isEmpty()) {
-                Path uploadDir = Paths.get(firUploadPath).toAbsolutePath().normalize();
-                if (!Files.exists(uploadDir)) {
-                    Files.createDirectories(uploadDir);
-                }
-
                 String originalFilename = file.getOriginalFilename() != null
     ? Paths.get(file.getOriginalFilename()).getFileName().toString()
     : "file";
-                String extension = originalFilename != null && originalFilename.contains(".") 
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                    : "";
-                String uniqueFilename = UUID.randomUUID().toString() + extension;
-                Path savedPath = uploadDir.resolve(uniqueFilename);
-                file.transferTo(savedPath.toFile());
-
-                fileHash = blockchainService.calculateFileHash(savedPath.toFile());
-                filePath = savedPath.toString();
-                fileName = originalFilename;
-                fileType = file.getContentType();
-                fileSize = file.getSize();
-                log.info("Client FIR evidence hashed: {}", fileHash.substring(0, 16) + "...");
+                return contentStoreService.store(file, stored -> {
+                    log.info("Client FIR evidence hashed: {}", stored.sha256().substring(0, 16) + "...");
+                    return saveClientFir(request, filedBy, stored, originalFilename, file.getContentType(), file.getSize());
+                });
             }
+            return saveClientFir(request, filedBy, null, null, null, null);
 
-            String firNumber = generateFirNumber();
-
-            FirRecord firRecord = FirRecord.builder()
-                    .firNumber(firNumber)
-                    .title(request.getTitle())
-                    .description(request.getDescription())
-                    .incidentDate(request.getIncidentDate())
-                    .incidentLocation(request.getIncidentLocation())
-                    .aiGenerated(Boolean.TRUE.equals(request.getAiGenerated()))
-                    .aiSessionId(request.getAiSessionId())
-                    .fileHash(fileHash)
-                    .filePath(filePath)
-                    .fileName(fileName)
-                    .fileType(fileType)
-                    .fileSize(fileSize)
-                    .filedBy(filedBy)
-                    .uploadedAt(LocalDateTime.now())
-                    .caseId(request.getCaseId())
-                    .status("PENDING_POLICE_REVIEW")
-                    .build();
-
-            FirRecord saved = firRecordRepository.save(firRecord);
-            log.info("Client FIR {} filed by {} - Status: PENDING_POLICE_REVIEW", firNumber, filedBy.getName());
-
-            return mapToResponse(saved);
-
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             log.error("Failed to file client FIR", e);
             throw new RuntimeException("Failed to file FIR: " + e.getMessage(), e);
         }
     }
 
+    private FirUploadResponse saveClientFir(ClientFirRequest request, User filedBy, StoredFile stored,
+                                            String fileName, String fileType, Long fileSize) {
+        String firNumber = generateFirNumber();
+
+        FirRecord firRecord = FirRecord.builder()
+                .firNumber(firNumber)
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .incidentDate(request.getIncidentDate())
+                .incidentLocation(request.getIncidentLocation())
+                .aiGenerated(Boolean.TRUE.equals(request.getAiGenerated()))
+                .aiSessionId(request.getAiSessionId())
+                .fileHash(stored != null ? stored.sha256() : null)
+                .filePath(stored != null ? stored.path() : null)
+                .fileName(fileName)
+                .fileType(fileType)
+                .fileSize(fileSize)
+                .filedBy(filedBy)
+                .uploadedAt(LocalDateTime.now())
+                .caseId(request.getCaseId())
+                .status("PENDING_POLICE_REVIEW")
+                .build();
+
+        FirRecord saved = firRecordRepository.save(firRecord);
+        log.info("Client FIR {} filed by {} - Status: PENDING_POLICE_REVIEW", firNumber, filedBy.getName());
+
+        return mapToResponse(saved);
+    }
+
     /**
      * Get all FIRs filed by a specific client
      */
@@ -360,57 +321,61 @@ public class FirService {
     }
     
     /**
-     * Add additional evidence to an FIR under investigation
+     * Add additional evidence to an FIR under investigation. The file is kept as a
+     * FirEvidence row, which holds its blob reference, and noted in the case diary.
      */
     public FirUploadResponse addEvidence(Long firId, MultipartFile file, String description, User uploadedBy) {
         try {
-            FirRecord fir = firRecordRepository.findById(firId)
-                    .orElseThrow(() -> new RuntimeException("FIR not found with ID: " + firId));
-
-            // Validate status
-            if (!"UNDER_INVESTIGATION".equals(fir.getStatus())) {
-                throw new RuntimeException("Can only add evidence to cases under investigation");
-            }
+            // Validate status before uploading anything
+            requireUnderInvestigation(firRecordRepository.findById(firId)
+                    .orElseThrow(() -> new RuntimeException("FIR not found with ID: " + firId)));
 
-            // Create upload directory if not exists
-            Path uploadDir = Paths.get(evidenceUploadPath).toAbsolutePath().normalize();
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-
-            // Generate unique filename
             String originalFilename = file.getOriginalFilename() != null
     ? Paths.get(file.getOriginalFilename()).getFileName().toString()
     : "file";
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : "";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
-            Path filePath = uploadDir.resolve(uniqueFilename);
-
-            // Save file
-            file.transferTo(filePath.toFile());
-
-            // Hash
-            String fileHash = blockchainService.calculateFileHash(filePath.toFile());
-
-            // Append evidence info to investigation notes (Case Diary)
-            // Since we can't create formal EvidenceRecord without a CaseID, we log it here.
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            String evidenceEntry = String.format("\n\n[%s] EVIDENCE ADDED\nFile: %s\nHash: %s\nDescription: %s\n-----------------------------------", 
-                timestamp, originalFilename, fileHash, description);
-            
-            String currentDetails = fir.getInvestigationDetails() != null ? fir.getInvestigationDetails() : "";
-            fir.setInvestigationDetails(currentDetails + evidenceEntry);
-            
-            FirRecord saved = firRecordRepository.save(fir);
-            return mapToResponse(saved);
 
-        } catch (IOException e) {
+            // Store by content and hash in one pass; the evidence row and diary entry commit with its reference
+            return contentStoreService.store(file, stored -> {
+                FirRecord fir = firRecordRepository.findById(firId)
+                        .orElseThrow(() -> new RuntimeException("FIR not found with ID: " + firId));
+                requireUnderInvestigation(fir);
+
+                LocalDateTime now = LocalDateTime.now();
+                firEvidenceRepository.save(FirEvidence.builder()
+                        .firId(firId)
+                        .fileName(originalFilename)
+                        .filePath(stored.path())
+                        .fileHash(stored.sha256())
+                        .fileType(stored.contentType())
+                        .fileSize(stored.size())
+                        .description(description)
+                        .uploadedBy(uploadedBy)
+                        .uploadedAt(now)
+                        .build());
+
+                // Append evidence info to investigation notes (Case Diary)
+                String timestamp = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+                String evidenceEntry = String.format("\n\n[%s] EVIDENCE ADDED\nFile: %s\nHash: %s\nDescription: %s\n-----------------------------------", 
+                    timestamp, originalFilename, stored.sha256(), description);
+
+                String currentDetails = fir.getInvestigationDetails() != null ? fir.getInvestigationDetails() : "";
+                fir.setInvestigationDetails(currentDetails + evidenceEntry);
+
+                FirRecord saved = firRecordRepository.save(fir);
+                return mapToResponse(saved);
+            });
+
+        } catch (UncheckedIOException e) {
             throw new RuntimeException("Failed to upload evidence: " + e.getMessage(), e);
         }
     }
 
+    private static void requireUnderInvestigation(FirRecord fir) {
+        if (!"UNDER_INVESTIGATION".equals(fir.getStatus())) {
+            throw new RuntimeException("Can only add evidence to cases under investigation");
+        }
+    }
+
     /**
      * Get FIRs under active investigation
      */
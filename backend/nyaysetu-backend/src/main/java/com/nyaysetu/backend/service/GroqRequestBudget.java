@@ -0,0 +1,76 @@
+package com.nyaysetu.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Request budget shared by every Groq call made through {@link AiService}.
+ *
+ * Caps both concurrent requests and the request rate, so the per-chunk calls of a long
+ * document's analysis queue up behind the account's limits instead of tripping 429s for
+ * interactive chat. Requests are spaced evenly at the configured rate; a caller that
+ * would have to wait longer than the maximum wait is refused rather than blocked.
+ */
+@Component
+public class GroqRequestBudget {
+
+    private final Semaphore concurrent;
+    private final long intervalNanos;
+    private final long maxWaitNanos;
+
+    /** Earliest time the next request may start. */
+    private long nextStartNanos = System.nanoTime();
+
+    public GroqRequestBudget(@Value("${groq.budget.max-concurrent:4}") int maxConcurrent,
+                             @Value("${groq.budget.requests-per-minute:30}") int requestsPerMinute,
+                             @Value("${groq.budget.max-wait-ms:120000}") long maxWaitMs) {
+        this.concurrent = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, requestsPerMinute);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    /**
+     * Runs the call once a slot is free and its turn in the rate schedule has come.
+     *
+     * @throws IllegalStateException when the budget cannot admit the call within the maximum wait
+     */
+    public <T> T call(Supplier<T> request) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        long wait = reserve(maxWaitNanos);
+        if (wait < 0) {
+            throw new IllegalStateException("Groq request budget exhausted");
+        }
+        try {
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (!concurrent.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Groq request budget exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for Groq request budget", e);
+        }
+        try {
+            return request.get();
+        } finally {
+            concurrent.release();
+        }
+    }
+
+    /** Books the next start slot; returns how long to wait for it, or -1 if that exceeds maxWait. */
+    synchronized long reserve(long maxWait) {
+        long now = System.nanoTime();
+        long start = Math.max(nextStartNanos, now);
+        long wait = start - now;
+        if (wait > maxWait) {
+            return -1;
+        }
+        nextStartNanos = start + intervalNanos;
+        return wait;
+    }
+}
@@ -2,6 +2,8 @@ package com.nyaysetu.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.entity.Role;
+import com.nyaysetu.backend.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
@@ -12,6 +14,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -21,6 +24,21 @@ public class JwtService {
     private static final long ACCESS_TOKEN_EXPIRY = 1000 * 60 * 15;
     private static final long REFRESH_TOKEN_EXPIRY = 1000 * 60 * 60 * 24 * 7;
 
+    /** Signed claims that identify the user without a database lookup */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
+    /**
+     * Identity of a verified access token. userId and role are null for tokens issued
+     * without identity claims, e.g. refresh tokens and tokens from before they existed.
+     */
+    public record AccessClaims(String email, Long userId, Role role, Date expiresAt) {
+
+        public boolean hasIdentity() {
+            return userId != null && role != null;
+        }
+    }
+
     private final JwtSigningKeyService jwtSigningKeyService;
     private final ObjectMapper objectMapper;
 
@@ -29,6 +47,46 @@ public class JwtService {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Identity claims for an access token; the user's id and role become part of the
+     * signed token, so WebSocket authentication can trust them without a lookup
+     */
+    public static Map<String, Object> identityClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        if (user != null && user.getId() != null && user.getRole() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies the token once, signature and expiry, and returns who it identifies
+     *
+     * @throws JwtException when the token is invalid or expired
+     */
+    public AccessClaims parseAccessClaims(String token) {
+        Claims claims = extractAllClaims(token);
+
+        Object userId = claims.get(CLAIM_USER_ID);
+        Role role = null;
+        Object roleName = claims.get(CLAIM_ROLE);
+        if (roleName instanceof String name) {
+            try {
+                role = Role.valueOf(name);
+            } catch (IllegalArgumentException ignored) {
+                // Unknown role: treated like a token without identity claims
+            }
+        }
+
+        return new AccessClaims(
+                claims.getSubject(),
+                userId instanceof Number number ? number.longValue() : null,
+                role,
+                claims.getExpiration()
+        );
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -0,0 +1,105 @@
+package com.nyaysetu.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a long legal document into chunks for map-reduce analysis.
+ *
+ * Lines that open a section of an Indian court document — CHAPTER / PART headings, FACTS,
+ * GROUNDS, PRAYER, charges, witness statements, numbered or roman-numbered paragraphs,
+ * "Section 302" style headings and all-caps titles — start a new section. Whole sections
+ * are packed into chunks up to the size limit, so a chunk boundary falls between sections
+ * unless a single section is longer than a chunk; such a section is split at line breaks.
+ * Everything here is pure and static.
+ */
+public final class LegalTextChunker {
+
+    private static final Pattern SECTION_START = Pattern.compile(
+            "^\\s*(?:"
+                    + "(?:CHAPTER|PART|SCHEDULE|ANNEXURE|ORDER|JUDG(?:E)?MENT|PRAYER|(?:BRIEF )?FACTS|GROUNDS|"
+                    + "CHARGES?|STATEMENT|WITNESS|EVIDENCE|FINDINGS?|CONCLUSION|ARGUMENTS?)\\b.*"
+                    + "|(?:Section|Sec\\.|Article|Rule)\\s+\\d+[A-Z]?\\b.*"
+                    + "|\\d{1,3}\\.\\s+\\S.*"
+                    + "|[IVXLC]{1,6}\\.\\s+\\S.*"
+                    + "|[A-Z][A-Z0-9 ,.&'()/-]{3,80}"
+                    + ")$");
+
+    private LegalTextChunker() {
+    }
+
+    /** One chunk: 1-based index and the pages it spans. */
+    public record Chunk(int index, int firstPage, int lastPage, String text) {
+    }
+
+    private record Section(int firstPage, int lastPage, String text) {
+    }
+
+    /**
+     * @param pages   page texts in order, page 1 first
+     * @param maxChars upper bound on a chunk's length
+     */
+    public static List<Chunk> chunk(List<String> pages, int maxChars) {
+        List<Chunk> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int firstPage = 0;
+        int lastPage = 0;
+
+        for (Section section : sections(pages, maxChars)) {
+            if (current.length() > 0 && current.length() + section.text().length() > maxChars) {
+                chunks.add(new Chunk(chunks.size() + 1, firstPage, lastPage, current.toString()));
+                current.setLength(0);
+            }
+            if (current.length() == 0) {
+                firstPage = section.firstPage();
+            }
+            current.append(section.text());
+            lastPage = section.lastPage();
+        }
+        if (!current.toString().isBlank()) {
+            chunks.add(new Chunk(chunks.size() + 1, firstPage, lastPage, current.toString()));
+        }
+        return chunks;
+    }
+
+    static boolean isSectionStart(String line) {
+        return SECTION_START.matcher(line).matches();
+    }
+
+    /** Sections no longer than maxChars, in document order. */
+    private static List<Section> sections(List<String> pages, int maxChars) {
+        List<Section> sections = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int firstPage = 1;
+        int lastPage = 1;
+        boolean blank = true;
+
+        for (int p = 0; p < pages.size(); p++) {
+            int page = p + 1;
+            for (String line : pages.get(p).split("\\R", -1)) {
+                boolean boundary = !blank && isSectionStart(line);
+                if (text.length() > 0 && (boundary || text.length() + line.length() + 1 > maxChars)) {
+                    sections.add(new Section(firstPage, lastPage, text.toString()));
+                    text.setLength(0);
+                    blank = true;
+                }
+                // A single line longer than a chunk is cut where it must be
+                while (line.length() + 1 > maxChars) {
+                    sections.add(new Section(page, page, line.substring(0, maxChars - 1) + "\n"));
+                    line = line.substring(maxChars - 1);
+                }
+                if (text.length() == 0) {
+                    firstPage = page;
+                }
+                text.append(line).append('\n');
+                lastPage = page;
+                blank &= line.isBlank();
+            }
+        }
+        if (text.length() > 0) {
+            sections.add(new Section(firstPage, lastPage, text.toString()));
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,72 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.DocumentStorageType;
+import com.nyaysetu.backend.exception.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+
+/**
+ * Blobs on the node's own disk under {@code file.upload-dir}. The default backend;
+ * downloads are streamed by FileDownloadService with sendfile.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalBlobStorage implements BlobStorage {
+
+    private final FileStorageService fileStorageService;
+
+    @Override
+    public DocumentStorageType type() {
+        return DocumentStorageType.LOCAL;
+    }
+
+    @Override
+    public void put(String stagingPath, String key, String contentType) {
+        fileStorageService.move(stagingPath, key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return fileStorageService.exists(key);
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return Files.newInputStream(fileStorageService.resolve(key));
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Stored file not found: " + key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        fileStorageService.deleteFile(key);
+    }
+
+    @Override
+    public File localFile(String key) {
+        if (!fileStorageService.exists(key)) {
+            throw new NotFoundException("Stored file not found: " + key);
+        }
+        return fileStorageService.getFile(key);
+    }
+
+    @Override
+    public Optional<URI> presignedDownloadUrl(String key, String fileName, String contentType, boolean inline) {
+        return Optional.empty();
+    }
+}
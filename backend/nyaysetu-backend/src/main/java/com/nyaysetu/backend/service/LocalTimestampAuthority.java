@@ -0,0 +1,34 @@
+package com.nyaysetu.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * In-process stand-in for a timestamp authority, used until a real TSA is
+ * configured and in tests. Tokens keep the format anchored evidence has always
+ * carried, so proofs issued before batching still verify.
+ */
+@Component
+@Slf4j
+public class LocalTimestampAuthority implements TimestampAuthority {
+
+    static final String NAME = "NyaySetu-Internal-Timestamp";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String timestamp(String hash) {
+        return NAME + "|" + Instant.now() + "|" + UUID.randomUUID() + "|" + hash;
+    }
+
+    @Override
+    public boolean verify(String hash, String token) {
+        return token != null && hash != null && token.contains(hash) && token.contains(NAME);
+    }
+}
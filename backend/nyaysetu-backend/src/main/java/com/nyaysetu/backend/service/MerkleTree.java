@@ -0,0 +1,156 @@
+package com.nyaysetu.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bitcoin-style Merkle tree helpers shared by evidence anchoring and the audit chain.
+ *
+ * Parent nodes are sha256(sha256(leftHex + rightHex)); an odd node at the end of a
+ * level is paired with itself. A single leaf is its own root. Everything here is
+ * pure and static so proofs can be re-checked offline with the same code.
+ */
+public final class MerkleTree {
+
+    private MerkleTree() {
+    }
+
+    /** One step of an inclusion proof: the sibling hash and which side it sits on. */
+    public record ProofStep(String hash, boolean left) {
+    }
+
+    /** Computes the root over the given leaf hashes; returns "" for an empty list. */
+    public static String root(List<String> leaves) {
+        if (leaves == null || leaves.isEmpty()) {
+            return "";
+        }
+        List<String> level = new ArrayList<>(leaves);
+        while (level.size() > 1) {
+            level = nextLevel(level);
+        }
+        return level.get(0);
+    }
+
+    /** Returns the sibling path from leaves[index] to the root, bottom level first. */
+    public static List<ProofStep> proof(List<String> leaves, int index) {
+        if (index < 0 || index >= leaves.size()) {
+            throw new IllegalArgumentException("Leaf index " + index + " out of range for " + leaves.size() + " leaves");
+        }
+        List<ProofStep> path = new ArrayList<>();
+        List<String> level = new ArrayList<>(leaves);
+        int position = index;
+        while (level.size() > 1) {
+            boolean isRight = position % 2 == 1;
+            int siblingIndex = isRight ? position - 1 : Math.min(position + 1, level.size() - 1);
+            path.add(new ProofStep(level.get(siblingIndex), isRight));
+            level = nextLevel(level);
+            position /= 2;
+        }
+        return path;
+    }
+
+    /**
+     * Sibling paths for every leaf at once, in O(n log n) rather than n separate {@link #proof} calls.
+     * Used when a whole batch of leaves is anchored under one root.
+     */
+    public static List<List<ProofStep>> proofs(List<String> leaves) {
+        List<List<ProofStep>> paths = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            paths.add(new ArrayList<>());
+        }
+        List<String> level = new ArrayList<>(leaves);
+        int[] positions = new int[leaves.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        while (level.size() > 1) {
+            for (int i = 0; i < positions.length; i++) {
+                int position = positions[i];
+                boolean isRight = position % 2 == 1;
+                int siblingIndex = isRight ? position - 1 : Math.min(position + 1, level.size() - 1);
+                paths.get(i).add(new ProofStep(level.get(siblingIndex), isRight));
+                positions[i] = position / 2;
+            }
+            level = nextLevel(level);
+        }
+        return paths;
+    }
+
+    /** Serialises a path as comma-separated {@code L:hash} / {@code R:hash} steps for storage. */
+    public static String encodePath(List<ProofStep> path) {
+        StringBuilder encoded = new StringBuilder();
+        for (ProofStep step : path) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(step.left() ? "L:" : "R:").append(step.hash());
+        }
+        return encoded.toString();
+    }
+
+    /** Inverse of {@link #encodePath}. */
+    public static List<ProofStep> decodePath(String encoded) {
+        List<ProofStep> path = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return path;
+        }
+        for (String step : encoded.split(",")) {
+            path.add(new ProofStep(step.substring(2), step.startsWith("L:")));
+        }
+        return path;
+    }
+
+    /** Folds the proof path over the leaf and checks the result against the expected root. */
+    public static boolean verify(String leaf, List<ProofStep> path, String expectedRoot) {
+        if (leaf == null || expectedRoot == null) {
+            return false;
+        }
+        String current = leaf;
+        for (ProofStep step : path) {
+            current = step.left() ? combine(step.hash(), current) : combine(current, step.hash());
+        }
+        return current.equals(expectedRoot);
+    }
+
+    /** Parent hash of two child nodes: double SHA-256 over the concatenated hex strings. */
+    public static String combine(String left, String right) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] firstHash = digest.digest((left + right).getBytes(StandardCharsets.UTF_8));
+            return toHex(digest.digest(firstHash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available on this JVM", e);
+        }
+    }
+
+    /** Plain SHA-256 of a UTF-8 string, hex encoded — used to derive leaf hashes. */
+    public static String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available on this JVM", e);
+        }
+    }
+
+    private static List<String> nextLevel(List<String> level) {
+        List<String> next = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            String left = level.get(i);
+            String right = (i + 1 < level.size()) ? level.get(i + 1) : left;
+            next.add(combine(left, right));
+        }
+        return next;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
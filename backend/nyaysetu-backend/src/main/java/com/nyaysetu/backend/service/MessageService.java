@@ -2,12 +2,12 @@ package com.nyaysetu.backend.service;
 
 import com.nyaysetu.backend.dto.SendMessageRequest;
 import com.nyaysetu.backend.entity.CaseMessage;
-import com.nyaysetu.backend.entity.CaseEntity;
 import com.nyaysetu.backend.exception.NotFoundException;
 import com.nyaysetu.backend.repository.CaseMessageRepository;
 import com.nyaysetu.backend.repository.CaseRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,10 +21,13 @@ public class MessageService {
     private final CaseMessageRepository messageRepository;
     private final CaseTimelineService timelineService;
 
+    @Transactional
     public CaseMessage sendMessage(UUID caseId, SendMessageRequest dto) {
 
-        CaseEntity caseEntity = caseRepository.findById(caseId)
-                .orElseThrow(() -> new NotFoundException("Case not found: " + caseId));
+        // Update case timestamp so it bubbles up in chat list
+        if (caseRepository.touchUpdatedAt(caseId, LocalDateTime.now()) == 0) {
+            throw new NotFoundException("Case not found: " + caseId);
+        }
 
         CaseMessage msg = CaseMessage.builder()
                 .legalCaseId(caseId)
@@ -39,10 +42,6 @@ public class MessageService {
 
         timelineService.addEvent(caseId, "Message sent");
 
-        // Update case timestamp so it bubbles up in chat list
-        caseEntity.setUpdatedAt(LocalDateTime.now());
-        caseRepository.save(caseEntity);
-
         return msg;
     }
 
@@ -1,44 +1,233 @@
 package com.nyaysetu.backend.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Extracts text from PDFs without holding the whole document in heap.
+ *
+ * Documents are opened with a small main-memory budget backed by temp files, and
+ * pages are stripped in fixed-size ranges on a bounded pool, several ranges at a
+ * time, each worker reusing its own PDDocument. Page text is handed to the caller
+ * in page order as soon as it is available, and extraction stops once the character
+ * budget is met — a 2,000-page scanned bundle no longer has to be parsed end to end
+ * to produce the first 30,000 characters.
+ */
 @Service
 @Slf4j
 public class PdfTextExtractorService {
-    
+
+    /** Receives page text in page order; return false to stop extraction early. */
+    @FunctionalInterface
+    public interface PageTextConsumer {
+        boolean accept(int pageNumber, String text);
+    }
+
+    private record PageText(int pageNumber, String text) {
+    }
+
+    /** Characters kept for AI analysis, to stay within model token limits. */
+    @Value("${pdf.extract.max-chars:30000}")
+    private int maxChars = 30000;
+
+    /** Pages stripped per task; small enough that early stop wastes little work. */
+    @Value("${pdf.extract.pages-per-task:8}")
+    private int pagesPerTask = 8;
+
+    /** Heap each open document may use before PDFBox spills to temp files. */
+    @Value("${pdf.extract.max-main-memory-bytes:16777216}")
+    private long maxMainMemoryBytes = 16L * 1024 * 1024;
+
+    private final int parallelism;
+    private final ExecutorService extractionPool;
+
+    public PdfTextExtractorService(@Value("${pdf.extract.parallelism:4}") int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        // Shared by all extractions, so concurrent uploads cannot multiply the number of open documents
+        this.extractionPool = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-extract");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        extractionPool.shutdownNow();
+    }
+
     /**
      * Extract text from PDF file
      * @param pdfFile PDF file to extract text from
-     * @return Extracted text content (limited to 30,000 characters)
+     * @return Extracted text content (limited to pdf.extract.max-chars, 30,000 by default)
      * @throws IOException if file reading fails
      */
     public String extractText(File pdfFile) throws IOException {
         log.info("Extracting text from PDF: {}", pdfFile.getName());
-        
-        try (PDDocument document = PDDocument.load(pdfFile)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            
-            // Limit to first 30,000 characters to stay within Gemini API token limits
-            if (text.length() > 30000) {
-                log.warn("PDF text exceeds 30,000 characters, truncating");
-                text = text.substring(0, 30000);
-            }
-            
-            log.info("Successfully extracted {} characters from PDF", text.length());
-            return text;
+
+        StringBuilder text = new StringBuilder();
+        extractPages(pdfFile, maxChars, (page, pageText) -> {
+            text.append(pageText);
+            return true;
+        });
+
+        // Limit to the budget to stay within AI API token limits
+        if (text.length() > maxChars) {
+            log.warn("PDF text exceeds {} characters, truncating", maxChars);
+            text.setLength(maxChars);
+        }
+
+        log.info("Successfully extracted {} characters from PDF", text.length());
+        return text.toString();
+    }
+
+    /**
+     * Streams page text to the consumer in page order until charBudget characters have been
+     * delivered, the consumer returns false, or the document ends.
+     *
+     * @return number of characters delivered
+     */
+    public long extractPages(File pdfFile, long charBudget, PageTextConsumer consumer) throws IOException {
+        int pageCount;
+        BlockingQueue<PDDocument> documents = new ArrayBlockingQueue<>(parallelism);
+        List<PDDocument> opened = new ArrayList<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Deque<CompletableFuture<List<PageText>>> inFlight = new ArrayDeque<>();
+
+        try {
+            PDDocument first = open(pdfFile);
+            opened.add(first);
+            documents.add(first);
+            pageCount = first.getNumberOfPages();
+
+            int rangeCount = (pageCount + pagesPerTask - 1) / pagesPerTask;
+            int nextRange = 0;
+            long delivered = 0;
+            while (nextRange < rangeCount && inFlight.size() < parallelism) {
+                inFlight.add(submitRange(pdfFile, nextRange++, pageCount, documents, opened, stopped));
+            }
+
+            while (!inFlight.isEmpty()) {
+                List<PageText> pages = inFlight.poll().join();
+                for (PageText page : pages) {
+                    delivered += page.text().length();
+                    if (!consumer.accept(page.pageNumber(), page.text()) || delivered >= charBudget) {
+                        stopped.set(true);
+                        log.debug("Stopped PDF extraction of {} at page {} of {}", pdfFile.getName(),
+                                page.pageNumber(), pageCount);
+                        return delivered;
+                    }
+                }
+                if (nextRange < rangeCount) {
+                    inFlight.add(submitRange(pdfFile, nextRange++, pageCount, documents, opened, stopped));
+                }
+            }
+            return delivered;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                log.error("Failed to extract text from PDF: {}", pdfFile.getName(), io.getCause());
+                throw io.getCause();
+            }
+            throw e;
         } catch (IOException e) {
             log.error("Failed to extract text from PDF: {}", pdfFile.getName(), e);
             throw e;
+        } finally {
+            stopped.set(true);
+            // Ranges still running hold documents; let them finish before the documents are closed
+            for (CompletableFuture<List<PageText>> pending : inFlight) {
+                try {
+                    pending.join();
+                } catch (CompletionException ignored) {
+                    // Already stopping; the first failure has been reported
+                }
+            }
+            synchronized (opened) {
+                for (PDDocument document : opened) {
+                    try {
+                        document.close();
+                    } catch (IOException e) {
+                        log.warn("Could not close PDF {}: {}", pdfFile.getName(), e.getMessage());
+                    }
+                }
+            }
         }
     }
-    
+
+    private CompletableFuture<List<PageText>> submitRange(File pdfFile, int range, int pageCount,
+                                                          BlockingQueue<PDDocument> documents,
+                                                          List<PDDocument> opened, AtomicBoolean stopped) {
+        int startPage = range * pagesPerTask + 1;
+        int endPage = Math.min(startPage + pagesPerTask - 1, pageCount);
+        return CompletableFuture.supplyAsync(() -> {
+            if (stopped.get()) {
+                return List.of();
+            }
+            try {
+                // Each document is used by one worker at a time; PDDocument is not thread-safe
+                PDDocument document = documents.poll();
+                if (document == null) {
+                    document = open(pdfFile);
+                    synchronized (opened) {
+                        opened.add(document);
+                    }
+                }
+                try {
+                    return stripRange(document, startPage, endPage);
+                } finally {
+                    documents.offer(document);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, extractionPool);
+    }
+
+    private List<PageText> stripRange(PDDocument document, int startPage, int endPage) throws IOException {
+        List<PageText> pages = new ArrayList<>(endPage - startPage + 1);
+        // Not named "output": inside the stripper that would resolve to its own Writer field
+        StringWriter pageBuffer = new StringWriter();
+        PDFTextStripper stripper = new PDFTextStripper() {
+            @Override
+            protected void endPage(PDPage page) throws IOException {
+                super.endPage(page);
+                // Everything written since the previous page end belongs to this page
+                pages.add(new PageText(getCurrentPageNo(), pageBuffer.toString()));
+                pageBuffer.getBuffer().setLength(0);
+            }
+        };
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        stripper.writeText(document, pageBuffer);
+        return pages;
+    }
+
+    private PDDocument open(File pdfFile) throws IOException {
+        return PDDocument.load(pdfFile, MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
+    }
+
     /**
      * Check if file is a valid PDF
      */
@@ -0,0 +1,448 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.DocumentStorageType;
+import com.nyaysetu.backend.exception.NotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Blobs in an S3-compatible object store (AWS S3, MinIO, Ceph RGW), so every node sees
+ * the same files and disk is no longer tied to one machine.
+ *
+ * Files above the part size are sent as a multipart upload whose parts are read from
+ * the staging file with positional reads and uploaded in parallel; large blobs are
+ * fetched back with parallel ranged GETs into a node-local cache. Browsers download
+ * through presigned URLs and never touch the JVM. Requests are signed with SigV4
+ * over the JDK HTTP client, so no SDK is pulled in for the six calls used here.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+@Slf4j
+public class S3BlobStorage implements BlobStorage {
+
+    static final String CACHE_DIR = "s3-cache";
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    private final FileStorageService fileStorageService;
+    private final S3RequestSigner signer;
+    private final HttpClient http;
+    private final ExecutorService transfers;
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final long partSize;
+    private final long presignTtlSeconds;
+
+    /** Cached copies of remote blobs not read for this long are evicted. */
+    @Value("${file.storage.s3.cache-max-age-hours:24}")
+    private long cacheMaxAgeHours = 24;
+
+    public S3BlobStorage(FileStorageService fileStorageService,
+                         @Value("${file.storage.s3.endpoint}") String endpoint,
+                         @Value("${file.storage.s3.region:us-east-1}") String region,
+                         @Value("${file.storage.s3.bucket}") String bucket,
+                         @Value("${file.storage.s3.access-key}") String accessKey,
+                         @Value("${file.storage.s3.secret-key}") String secretKey,
+                         @Value("${file.storage.s3.path-style:true}") boolean pathStyle,
+                         @Value("${file.storage.s3.part-size:16777216}") long partSize,
+                         @Value("${file.storage.s3.transfer-parallelism:4}") int transferParallelism,
+                         @Value("${file.storage.s3.presign-ttl-seconds:900}") long presignTtlSeconds) {
+        this.fileStorageService = fileStorageService;
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.partSize = partSize;
+        this.presignTtlSeconds = presignTtlSeconds;
+        // One bounded pool for all transfers, so concurrent uploads share the parallelism instead of multiplying it
+        this.transfers = Executors.newFixedThreadPool(Math.max(1, transferParallelism), runnable -> {
+            Thread thread = new Thread(runnable, "s3-transfer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The client keeps its own executor: transfer threads block in send() and must not starve it.
+        // S3 speaks HTTP/1.1 only, so skip the h2c upgrade attempt on plain-http endpoints such as MinIO
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        transfers.shutdownNow();
+    }
+
+    @Override
+    public DocumentStorageType type() {
+        return DocumentStorageType.S3;
+    }
+
+    @Override
+    public void put(String stagingPath, String key, String contentType) {
+        Path source = fileStorageService.resolve(stagingPath);
+        try {
+            long size = Files.size(source);
+            if (size <= partSize) {
+                send("PUT", key, new TreeMap<>(), contentTypeHeader(contentType),
+                        HttpRequest.BodyPublishers.ofFile(source), HttpResponse.BodyHandlers.discarding());
+            } else {
+                putMultipart(source, size, key, contentType);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not upload " + key + " to object storage", e);
+        }
+        fileStorageService.deleteFile(stagingPath);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key) >= 0;
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return exchange("GET", key, new TreeMap<>(), Map.of(), HttpRequest.BodyPublishers.noBody(),
+                HttpResponse.BodyHandlers.ofInputStream()).body();
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            send("DELETE", key, new TreeMap<>(), Map.of(), HttpRequest.BodyPublishers.noBody(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (NotFoundException alreadyGone) {
+            // Deleting a missing key is idempotent in S3; some compatible stores answer 404
+        }
+        fileStorageService.deleteFile(CACHE_DIR + "/" + key);
+    }
+
+    @Override
+    public File localFile(String key) {
+        Path cached = fileStorageService.resolve(CACHE_DIR + "/" + key);
+        try {
+            if (Files.exists(cached)) {
+                Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+                return cached.toFile();
+            }
+            long size = head(key);
+            if (size < 0) {
+                throw new NotFoundException("Stored file not found: " + key);
+            }
+            Files.createDirectories(cached.getParent());
+            Path partial = cached.resolveSibling(cached.getFileName() + "." + UUID.randomUUID() + ".part");
+            try {
+                download(key, size, partial);
+                Files.move(partial, cached, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+            return cached.toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not fetch " + key + " from object storage", e);
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedDownloadUrl(String key, String fileName, String contentType, boolean inline) {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("response-content-disposition", (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(fileName, StandardCharsets.UTF_8).build().toString());
+        if (contentType != null) {
+            query.put("response-content-type", contentType);
+        }
+        String signedQuery = signer.presign("GET", host(), objectPath(key), query, presignTtlSeconds, Instant.now());
+        return Optional.of(URI.create(baseUrl() + S3RequestSigner.encodePath(objectPath(key)) + "?" + signedQuery));
+    }
+
+    /**
+     * Evicts cached copies that have not been read within the maximum age; the object store keeps the original.
+     */
+    @Scheduled(fixedDelayString = "${file.cas.gc-interval-ms:3600000}",
+            initialDelayString = "${file.cas.gc-interval-ms:3600000}")
+    public int evictCache() {
+        Path root = fileStorageService.resolve(CACHE_DIR);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofHours(cacheMaxAgeHours)));
+        int evicted = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                    evicted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Object storage cache eviction stopped early: {}", e.getMessage());
+        }
+        if (evicted > 0) {
+            log.info("Evicted {} cached object storage blobs", evicted);
+        }
+        return evicted;
+    }
+
+    private void putMultipart(Path source, long size, String key, String contentType) throws IOException {
+        SortedMap<String, String> initiate = new TreeMap<>();
+        initiate.put("uploads", "");
+        String initiated = send("POST", key, initiate, contentTypeHeader(contentType),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = UPLOAD_ID.matcher(initiated);
+        if (!matcher.find()) {
+            throw new IOException("Object storage did not return an upload id for " + key);
+        }
+        String uploadId = matcher.group(1);
+
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        List<CompletableFuture<String>> parts = new ArrayList<>(partCount);
+        for (int part = 1; part <= partCount; part++) {
+            long offset = (part - 1) * partSize;
+            long length = Math.min(partSize, size - offset);
+            SortedMap<String, String> query = new TreeMap<>();
+            query.put("partNumber", String.valueOf(part));
+            query.put("uploadId", uploadId);
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                HttpResponse<Void> response = exchange("PUT", key, query, Map.of(),
+                        HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(
+                                () -> new FileSliceInputStream(source, offset, length)), length),
+                        HttpResponse.BodyHandlers.discarding());
+                return response.headers().firstValue("ETag")
+                        .orElseThrow(() -> new IllegalStateException("Object storage returned no ETag for part of " + key));
+            }, transfers));
+        }
+
+        try {
+            StringBuilder manifest = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < partCount; i++) {
+                manifest.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(parts.get(i).join()).append("</ETag></Part>");
+            }
+            manifest.append("</CompleteMultipartUpload>");
+
+            SortedMap<String, String> complete = new TreeMap<>();
+            complete.put("uploadId", uploadId);
+            String result = send("POST", key, complete, Map.of("Content-Type", "application/xml"),
+                    HttpRequest.BodyPublishers.ofString(manifest.toString()), HttpResponse.BodyHandlers.ofString());
+            // S3 reports some completion failures as 200 with an error document
+            if (result.contains("<Error>")) {
+                throw new IOException("Object storage rejected multipart upload of " + key + ": " + result);
+            }
+            log.info("Uploaded {} to object storage in {} parts", key, partCount);
+        } catch (RuntimeException | IOException e) {
+            parts.forEach(part -> part.cancel(true));
+            abortMultipart(key, uploadId);
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void abortMultipart(String key, String uploadId) {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("uploadId", uploadId);
+        try {
+            send("DELETE", key, query, Map.of(), HttpRequest.BodyPublishers.noBody(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            log.warn("Could not abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    /** Fetches a blob into target, in parallel ranged GETs written at their offsets when it spans several parts. */
+    private void download(String key, long size, Path target) throws IOException {
+        if (size <= partSize) {
+            exchange("GET", key, new TreeMap<>(), Map.of(), HttpRequest.BodyPublishers.noBody(),
+                    HttpResponse.BodyHandlers.ofFile(target));
+            return;
+        }
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            List<CompletableFuture<Void>> ranges = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                long start = offset;
+                long end = Math.min(offset + partSize, size) - 1;
+                ranges.add(CompletableFuture.runAsync(() -> {
+                    HttpResponse<InputStream> response = exchange("GET", key, new TreeMap<>(),
+                            Map.of("Range", "bytes=" + start + "-" + end), HttpRequest.BodyPublishers.noBody(),
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream in = response.body()) {
+                        byte[] chunk = new byte[64 * 1024];
+                        long position = start;
+                        int read;
+                        while ((read = in.read(chunk)) != -1) {
+                            ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, read);
+                            while (buffer.hasRemaining()) {
+                                position += out.write(buffer, position);
+                            }
+                        }
+                        if (position != end + 1) {
+                            throw new IOException("Short read of " + key + " at byte " + position);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, transfers));
+            }
+            try {
+                CompletableFuture.allOf(ranges.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                ranges.forEach(range -> range.cancel(true));
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /** Object size from a HEAD request, or -1 when the key does not exist. */
+    private long head(String key) {
+        try {
+            HttpResponse<Void> response = exchange("HEAD", key, new TreeMap<>(), Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+            return response.headers().firstValueAsLong("Content-Length").orElse(0);
+        } catch (NotFoundException e) {
+            return -1;
+        }
+    }
+
+    private <T> T send(String method, String key, SortedMap<String, String> query, Map<String, String> headers,
+                       HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) {
+        return exchange(method, key, query, headers, body, handler).body();
+    }
+
+    /** Signs and sends one request; 404 becomes NotFoundException and any other non-2xx an UncheckedIOException. */
+    private <T> HttpResponse<T> exchange(String method, String key, SortedMap<String, String> query,
+                                         Map<String, String> headers, HttpRequest.BodyPublisher body,
+                                         HttpResponse.BodyHandler<T> handler) {
+        String path = objectPath(key);
+        String queryString = S3RequestSigner.canonicalQuery(query);
+        URI uri = URI.create(baseUrl() + S3RequestSigner.encodePath(path)
+                + (queryString.isEmpty() ? "" : "?" + queryString));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMinutes(5))
+                .method(method, body);
+        headers.forEach(request::header);
+        signer.sign(method, host(), path, query, headers, S3RequestSigner.UNSIGNED_PAYLOAD, Instant.now())
+                .forEach(request::header);
+
+        HttpResponse<T> response;
+        try {
+            response = http.send(request.build(), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(method + " " + key + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(method + " " + key + " interrupted", e);
+        }
+        int status = response.statusCode();
+        if (status == 404) {
+            throw new NotFoundException("Object not found in storage: " + key);
+        }
+        if (status / 100 != 2) {
+            throw new UncheckedIOException(new IOException(
+                    "Object storage answered " + status + " to " + method + " " + key));
+        }
+        return response;
+    }
+
+    private String objectPath(String key) {
+        return pathStyle ? "/" + bucket + "/" + key : "/" + key;
+    }
+
+    private String host() {
+        String host = pathStyle ? endpoint.getHost() : bucket + "." + endpoint.getHost();
+        return endpoint.getPort() == -1 ? host : host + ":" + endpoint.getPort();
+    }
+
+    private String baseUrl() {
+        return endpoint.getScheme() + "://" + host();
+    }
+
+    private static Map<String, String> contentTypeHeader(String contentType) {
+        return contentType == null ? Collections.emptyMap() : Map.of("Content-Type", contentType);
+    }
+
+    /** One part of the staging file, read with positional reads so parts can be streamed concurrently. */
+    private static final class FileSliceInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        FileSliceInputStream(Path file, long offset, long length) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, off, (int) Math.min(len, end - position)), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.nyaysetu.backend.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * AWS Signature Version 4 for the handful of S3 calls {@link S3BlobStorage} makes.
+ *
+ * Works with any S3-compatible endpoint (AWS, MinIO, Ceph RGW). Requests are signed
+ * with headers; downloads handed to browsers are presigned in the query string.
+ */
+final class S3RequestSigner {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static final String EMPTY_PAYLOAD = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * Headers to add to a request: x-amz-date, x-amz-content-sha256 and Authorization.
+     * headers must hold every other header to be signed (lower-case names); host is always signed.
+     */
+    Map<String, String> sign(String method, String host, String path, SortedMap<String, String> query,
+                             Map<String, String> headers, String payloadHash, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String date = amzDate.substring(0, 8);
+
+        SortedMap<String, String> signed = new TreeMap<>();
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(), value.trim()));
+        signed.put("host", host);
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", amzDate);
+
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value).append('\n'));
+        String signedHeaders = String.join(";", signed.keySet());
+
+        String canonicalRequest = method + "\n" + encodePath(path) + "\n" + canonicalQuery(query) + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+        String scope = date + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("x-amz-date", amzDate);
+        result.put("x-amz-content-sha256", payloadHash);
+        result.put("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ",SignedHeaders=" + signedHeaders
+                + ",Signature=" + signature(date, amzDate, scope, canonicalRequest));
+        return result;
+    }
+
+    /**
+     * Query string (without the leading '?') that authorises a plain GET of path for expiresSeconds.
+     * query carries any extra parameters such as response-content-disposition; they are signed too.
+     */
+    String presign(String method, String host, String path, SortedMap<String, String> query,
+                   long expiresSeconds, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/s3/aws4_request";
+
+        SortedMap<String, String> params = new TreeMap<>(query);
+        params.put("X-Amz-Algorithm", ALGORITHM);
+        params.put("X-Amz-Credential", accessKey + "/" + scope);
+        params.put("X-Amz-Date", amzDate);
+        params.put("X-Amz-Expires", String.valueOf(expiresSeconds));
+        params.put("X-Amz-SignedHeaders", "host");
+
+        String canonicalRequest = method + "\n" + encodePath(path) + "\n" + canonicalQuery(params) + "\n"
+                + "host:" + host + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        return canonicalQuery(params) + "&X-Amz-Signature=" + signature(date, amzDate, scope, canonicalRequest);
+    }
+
+    /** Sorted, URI-encoded query string as it appears both in the canonical request and on the wire. */
+    static String canonicalQuery(SortedMap<String, String> query) {
+        StringBuilder canonical = new StringBuilder();
+        query.forEach((name, value) -> {
+            if (canonical.length() > 0) {
+                canonical.append('&');
+            }
+            canonical.append(encode(name, true)).append('=').append(encode(value == null ? "" : value, true));
+        });
+        return canonical.toString();
+    }
+
+    /** Object path with every segment URI-encoded and the slashes kept. */
+    static String encodePath(String path) {
+        return encode(path, false);
+    }
+
+    static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available on this JVM", e);
+        }
+    }
+
+    private String signature(String date, String amzDate, String scope, String canonicalRequest) {
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available on this JVM", e);
+        }
+    }
+
+    /** RFC 3986 encoding as SigV4 defines it: only unreserved characters are left as-is. */
+    private static String encode(String value, boolean encodeSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+}
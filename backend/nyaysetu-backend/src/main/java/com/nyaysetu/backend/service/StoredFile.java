@@ -0,0 +1,13 @@
+package com.nyaysetu.backend.service;
+
+/**
+ * Result of writing an upload to storage: where it went, and what was learned
+ * about its bytes on the way there.
+ *
+ * @param path        storage path (relative to the upload root for storeFile, absolute otherwise)
+ * @param sha256      hex SHA-256 of the stored bytes
+ * @param size        number of bytes written
+ * @param contentType MIME type sniffed from the leading bytes, or the client-declared type if unrecognised
+ */
+public record StoredFile(String path, String sha256, long size, String contentType) {
+}
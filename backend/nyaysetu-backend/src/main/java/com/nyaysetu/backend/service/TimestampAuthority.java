@@ -0,0 +1,20 @@
+package com.nyaysetu.backend.service;
+
+/**
+ * External timestamping service that evidence Merkle roots are anchored to —
+ * an RFC 3161 TSA or OpenTimestamps calendar in production.
+ *
+ * Every call is assumed to be a network round trip, so callers batch hashes
+ * into one super-root before timestamping (see EvidenceAnchorBatchService).
+ */
+public interface TimestampAuthority {
+
+    /** Name recorded on anchored evidence as its anchor service. */
+    String name();
+
+    /** Obtains a timestamp token over the given hex hash. */
+    String timestamp(String hash);
+
+    /** Checks that the token was issued by this authority for the given hash. */
+    boolean verify(String hash, String token);
+}
@@ -0,0 +1,373 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.UploadSession;
+import com.nyaysetu.backend.entity.UploadSessionChunk;
+import com.nyaysetu.backend.entity.UploadSessionStatus;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.exception.AccessDeniedException;
+import com.nyaysetu.backend.exception.NotFoundException;
+import com.nyaysetu.backend.exception.UploadOffsetConflictException;
+import com.nyaysetu.backend.repository.UploadSessionChunkRepository;
+import com.nyaysetu.backend.repository.UploadSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Resumable chunked uploads for large evidence and documents.
+ *
+ * A client creates a session, PUTs chunks at increasing byte offsets and then completes
+ * it. Each chunk is stored as its own object in {@link BlobStorage}, so a dropped
+ * connection costs only the chunk in flight and any node can take the next chunk or
+ * complete the session; no sticky routing is needed. No row lock is held while a chunk
+ * streams in: the writer leases the session's next offset in a short transaction, and
+ * only the lease holder may advance it. The owner's next request at that offset takes
+ * the lease over, so a writer that stalled mid-chunk never blocks the retry.
+ *
+ * Completion streams the chunks back in order, hashing them into one staging file,
+ * uploads that to the content store and only then opens its transaction. The JDK
+ * cannot save a SHA-256 midway and resume it in a later request, so a running digest
+ * would only be valid on a node that had seen every chunk.
+ */
+@Service
+@Slf4j
+public class UploadSessionService {
+
+    private static final String CHUNK_STAGING = FileStorageService.CAS_STAGING + "/chunks";
+    private static final String CHUNK_KEY_PREFIX = "upload-chunks/";
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadSessionChunkRepository chunkRepository;
+    private final FileStorageService fileStorageService;
+    private final BlobStorage blobStorage;
+    private final ContentStoreService contentStoreService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${upload.chunk.max-size:16777216}")
+    private long maxChunkSize = 16L * 1024 * 1024;
+
+    @Value("${upload.session.max-file-size:10737418240}")
+    private long maxFileSize = 10L * 1024 * 1024 * 1024;
+
+    @Value("${upload.session.ttl-hours:24}")
+    private long sessionTtlHours = 24;
+
+    public UploadSessionService(UploadSessionRepository sessionRepository,
+                                UploadSessionChunkRepository chunkRepository,
+                                FileStorageService fileStorageService,
+                                BlobStorage blobStorage,
+                                ContentStoreService contentStoreService,
+                                PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.chunkRepository = chunkRepository;
+        this.fileStorageService = fileStorageService;
+        this.blobStorage = blobStorage;
+        this.contentStoreService = contentStoreService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public UploadSession createSession(String fileName, String contentType, long totalSize, User user) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        if (totalSize <= 0 || totalSize > maxFileSize) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxFileSize + " bytes");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+                .userId(user.getId())
+                .fileName(fileName)
+                .contentType(contentType)
+                .totalSize(totalSize)
+                .receivedBytes(0L)
+                .status(UploadSessionStatus.OPEN)
+                .createdAt(now)
+                .updatedAt(now)
+                .expiresAt(now.plusHours(sessionTtlHours))
+                .build());
+        log.info("Opened upload session {} for '{}' ({} bytes)", session.getId(), fileName, totalSize);
+        return session;
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSession getSession(UUID id, User user) {
+        UploadSession session = sessionRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Upload session not found: " + id));
+        requireOwner(session, user);
+        return session;
+    }
+
+    /**
+     * Writes one chunk at offset. The offset must equal the bytes received so far; the
+     * returned session carries the new offset to continue from.
+     *
+     * The body is staged locally and put into blob storage with no transaction open: one
+     * short transaction leases the offset and a second records the chunk and advances the
+     * offset, so a slow client never holds the session row lock. Unless that second
+     * transaction commits, the lease is released and the chunk discarded, whatever failed.
+     */
+    public UploadSession writeChunk(UUID id, long offset, InputStream body, User user) {
+        UUID lease = UUID.randomUUID();
+        UploadSession session = transactionTemplate.execute(status -> leaseOffset(id, offset, lease, user));
+        long limit = Math.min(maxChunkSize, session.getTotalSize() - offset);
+
+        // Keyed by lease, so a superseded writer can never overwrite the chunk that replaced it
+        String stagingPath = CHUNK_STAGING + "/" + lease + ".part";
+        String chunkKey = CHUNK_KEY_PREFIX + id + "/" + lease;
+        boolean stored = false;
+        boolean committed = false;
+        try {
+            long written = stageChunk(body, stagingPath, offset, limit);
+            blobStorage.put(stagingPath, chunkKey, null);
+            stored = true;
+
+            UploadSession advanced = transactionTemplate.execute(status -> {
+                UploadSession locked = lockOpenSession(id, user);
+                if (!lease.equals(locked.getChunkLeaseId()) || locked.getReceivedBytes() != offset) {
+                    // A retry from the client took the offset over; that chunk wins
+                    throw new UploadOffsetConflictException(locked.getReceivedBytes(), offset);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                chunkRepository.save(UploadSessionChunk.builder()
+                        .sessionId(id)
+                        .chunkOffset(offset)
+                        .length(written)
+                        .blobKey(chunkKey)
+                        .createdAt(now)
+                        .build());
+                locked.setReceivedBytes(offset + written);
+                locked.setChunkLeaseId(null);
+                locked.setUpdatedAt(now);
+                locked.setExpiresAt(now.plusHours(sessionTtlHours));
+                return sessionRepository.save(locked);
+            });
+            committed = true;
+            return advanced;
+        } finally {
+            if (!committed) {
+                // The client resumes from the last committed offset
+                abandonChunk(id, lease, stagingPath, stored ? chunkKey : null);
+            }
+        }
+    }
+
+    /**
+     * Completes a fully received upload: assembles the chunks into the content store, then
+     * creates the document or evidence record that references it and closes the session in
+     * one short transaction. The assembly and upload run before that transaction and
+     * without the session row lock. If creating the record fails, the blob reference rolls
+     * back with it and the session and its chunks stay for the client to retry.
+     */
+    public <T> T complete(UUID id, User user, Function<StoredFile, T> createRecord) {
+        UploadSession session = getSession(id, user);
+        requireComplete(session);
+
+        List<UploadSessionChunk> chunks = chunkRepository.findBySessionIdOrderByChunkOffsetAsc(id);
+        StoredFile staged = assemble(session, chunks);
+        StoredFile blob;
+        try {
+            blob = contentStoreService.upload(staged);
+        } finally {
+            // Already consumed when the upload succeeded
+            fileStorageService.deleteFile(staged.path());
+        }
+
+        T record = transactionTemplate.execute(status -> {
+            UploadSession locked = lockOpenSession(id, user);
+            requireComplete(locked);
+            contentStoreService.reference(blob);
+            T created = createRecord.apply(blob);
+
+            locked.setSha256(blob.sha256());
+            locked.setStatus(UploadSessionStatus.COMPLETED);
+            locked.setUpdatedAt(LocalDateTime.now());
+            sessionRepository.save(locked);
+            chunkRepository.deleteBySessionIdIn(List.of(id));
+            log.info("Completed upload session {} as blob {}...", id, blob.sha256().substring(0, 16));
+            return created;
+        });
+        deleteChunkObjects(chunks);
+        return record;
+    }
+
+    /**
+     * Removes expired sessions and the chunks of those never completed.
+     */
+    @Scheduled(fixedDelayString = "${upload.session.cleanup-interval-ms:3600000}",
+            initialDelayString = "${upload.session.cleanup-interval-ms:3600000}")
+    public int purgeExpiredSessions() {
+        List<UploadSessionChunk> chunks = new ArrayList<>();
+        Integer purged = transactionTemplate.execute(status -> {
+            List<UploadSession> expired = sessionRepository.findByExpiresAtBefore(LocalDateTime.now());
+            if (expired.isEmpty()) {
+                return 0;
+            }
+            List<UUID> ids = expired.stream().map(UploadSession::getId).toList();
+            chunks.addAll(chunkRepository.findBySessionIdIn(ids));
+            chunkRepository.deleteBySessionIdIn(ids);
+            sessionRepository.deleteAll(expired);
+            return expired.size();
+        });
+        deleteChunkObjects(chunks);
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired upload sessions", purged);
+        }
+        return purged == null ? 0 : purged;
+    }
+
+    /** Copies the request body to a local staging file, refusing more than limit bytes. */
+    private long stageChunk(InputStream body, String stagingPath, long offset, long limit) {
+        Path staged = fileStorageService.resolve(stagingPath);
+        long written = 0;
+        try {
+            Files.createDirectories(staged.getParent());
+            byte[] buffer = new byte[(int) Math.min(64 * 1024, Math.max(1, limit + 1))];
+            try (InputStream in = body; OutputStream out = Files.newOutputStream(staged)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (written + read > limit) {
+                        throw new IllegalArgumentException("Chunk exceeds the " + limit + " bytes allowed at offset " + offset);
+                    }
+                    out.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Chunk upload interrupted at offset " + (offset + written), e);
+        }
+        if (written == 0) {
+            throw new IllegalArgumentException("Chunk at offset " + offset + " is empty");
+        }
+        return written;
+    }
+
+    /**
+     * Streams the chunks from blob storage into one local staging file, hashing it on the way.
+     */
+    private StoredFile assemble(UploadSession session, List<UploadSessionChunk> chunks) {
+        long expected = 0;
+        for (UploadSessionChunk chunk : chunks) {
+            if (chunk.getChunkOffset() != expected) {
+                throw new IllegalStateException("Upload session " + session.getId() + " is missing bytes at offset " + expected);
+            }
+            expected += chunk.getLength();
+        }
+        if (expected != session.getTotalSize()) {
+            throw new IllegalStateException("Upload session " + session.getId() + " has chunks for " + expected
+                    + " of " + session.getTotalSize() + " bytes");
+        }
+
+        String stagingPath = FileStorageService.CAS_STAGING + "/" + UUID.randomUUID() + ".upload";
+        Iterator<UploadSessionChunk> remaining = chunks.iterator();
+        // Each chunk is opened only when the previous one is exhausted
+        InputStream joined = new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return remaining.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return blobStorage.open(remaining.next().getBlobKey());
+            }
+        });
+        try {
+            Path staged = fileStorageService.resolve(stagingPath);
+            Files.createDirectories(staged.getParent());
+            StoredFile written = fileStorageService.writeWithHash(joined, staged, session.getContentType());
+            if (written.size() != session.getTotalSize()) {
+                fileStorageService.deleteFile(stagingPath);
+                throw new IllegalStateException("Assembled " + written.size() + " of " + session.getTotalSize()
+                        + " bytes for upload session " + session.getId());
+            }
+            return new StoredFile(stagingPath, written.sha256(), written.size(), written.contentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not assemble upload " + session.getId(), e);
+        }
+    }
+
+    private void abandonChunk(UUID id, UUID lease, String stagingPath, String chunkKey) {
+        try {
+            fileStorageService.deleteFile(stagingPath);
+            if (chunkKey != null) {
+                blobStorage.delete(chunkKey);
+            }
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.findForUpdate(id)
+                    .filter(session -> lease.equals(session.getChunkLeaseId()))
+                    .ifPresent(session -> {
+                        session.setChunkLeaseId(null);
+                        sessionRepository.save(session);
+                    }));
+        } catch (RuntimeException e) {
+            // The failure that got us here is the one to report; a stale lease is taken over anyway
+            log.warn("Could not clean up abandoned chunk of upload session {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void deleteChunkObjects(List<UploadSessionChunk> chunks) {
+        for (UploadSessionChunk chunk : chunks) {
+            try {
+                blobStorage.delete(chunk.getBlobKey());
+            } catch (RuntimeException e) {
+                log.warn("Could not delete upload chunk {}: {}", chunk.getBlobKey(), e.getMessage());
+            }
+        }
+    }
+
+    private UploadSession leaseOffset(UUID id, long offset, UUID lease, User user) {
+        UploadSession session = lockOpenSession(id, user);
+        if (offset != session.getReceivedBytes()) {
+            throw new UploadOffsetConflictException(session.getReceivedBytes(), offset);
+        }
+        // Supersedes any writer still streaming this offset; its commit will find the lease gone
+        session.setChunkLeaseId(lease);
+        return sessionRepository.save(session);
+    }
+
+    private UploadSession lockOpenSession(UUID id, User user) {
+        UploadSession session = sessionRepository.findForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Upload session not found: " + id));
+        requireOwner(session, user);
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalArgumentException("Upload session " + id + " is already completed");
+        }
+        return session;
+    }
+
+    private static void requireComplete(UploadSession session) {
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalArgumentException("Upload session " + session.getId() + " is already completed");
+        }
+        if (!session.getReceivedBytes().equals(session.getTotalSize())) {
+            throw new IllegalArgumentException("Upload incomplete: received " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes");
+        }
+    }
+
+    private static void requireOwner(UploadSession session, User user) {
+        if (!session.getUserId().equals(user.getId())) {
+            throw new AccessDeniedException("Upload session belongs to another user");
+        }
+    }
+}
@@ -18,7 +18,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -54,7 +53,7 @@ public class VakilFriendDocumentService {
     
     // Robust helper services from fix branch
     private final FileStorageService fileStorageService;
-    private final PdfTextExtractorService pdfTextExtractorService;
+    private final DocumentTextService documentTextService;
     private final PiiSanitizer piiSanitizer;
 
     private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
@@ -82,7 +81,7 @@ public class VakilFriendDocumentService {
             File storedFile = fileStorageService.getFile(savedFilePath);
             
             // 3. Extract content using PdfTextExtractorService or local logic
-            String documentContent = extractDocumentText(storedFile, file.getContentType());
+            String documentContent = extractDocumentText(sha256Hash, storedFile, file.getContentType());
 
             // 4. Get AI analysis
             Map<String, Object> aiAnalysis = callAIForDocumentAnalysis(
@@ -206,22 +205,13 @@ public class VakilFriendDocumentService {
     }
 
     /**
-     * Robust text extraction using PDF library or direct reading
+     * Text of a PDF, text or JSON upload through the shared extracted-text cache
      */
-    private String extractDocumentText(File storedFile, String contentType) {
+    private String extractDocumentText(String sha256Hash, File storedFile, String contentType) {
         try {
-            // 1. PDF Handling
-            if (contentType != null && contentType.equalsIgnoreCase("application/pdf")) {
-                return pdfTextExtractorService.extractText(storedFile);
-            }
-
-            // 2. Text/JSON Handling
-            if (contentType != null && (contentType.contains("text") || contentType.contains("json"))) {
-                return new String(Files.readAllBytes(storedFile.toPath()), StandardCharsets.UTF_8);
-            }
-
-            // 3. Fallback for others
-            return "[Non-text document: " + contentType + "]";
+            // PDF, text and JSON are extracted once per content hash; others fall back to a marker
+            return documentTextService.getText(sha256Hash, storedFile, contentType)
+                    .orElse("[Non-text document: " + contentType + "]");
         } catch (Exception e) {
             log.warn("Text extraction failed for {}: {}", storedFile.getName(), e.getMessage());
             return "[Text extraction failed]";
@@ -0,0 +1,30 @@
+-- Group-commit audit appender: entries get a monotonic sequence number and the
+-- chain tip lives in a single locked row instead of a JVM-wide synchronized method.
+ALTER TABLE audit_log ADD COLUMN IF NOT EXISTS sequence_no BIGINT;
+
+-- Backfill existing rows in their historical (timestamp) order.
+UPDATE audit_log a
+SET sequence_no = ordered.rn
+FROM (
+    SELECT id, ROW_NUMBER() OVER (ORDER BY timestamp, id) AS rn
+    FROM audit_log
+) ordered
+WHERE a.id = ordered.id
+  AND a.sequence_no IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_audit_log_sequence_no ON audit_log(sequence_no);
+
+CREATE TABLE IF NOT EXISTS audit_chain_head (
+    chain_id VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL,
+    last_hash VARCHAR(64) NOT NULL
+);
+
+-- Seed the global head from the current tip so the first batch chains onto existing history.
+INSERT INTO audit_chain_head (chain_id, last_sequence, last_hash)
+SELECT 'global',
+       COALESCE((SELECT MAX(sequence_no) FROM audit_log), 0),
+       COALESCE(
+           (SELECT entry_hash FROM audit_log WHERE entry_hash IS NOT NULL ORDER BY sequence_no DESC LIMIT 1),
+           REPEAT('0', 64))
+ON CONFLICT (chain_id) DO NOTHING;
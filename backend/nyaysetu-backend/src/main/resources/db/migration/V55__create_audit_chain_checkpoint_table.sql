@@ -0,0 +1,11 @@
+-- Signed audit chain checkpoints: lets verification run as parallel segments
+-- and lets incremental verification start from the latest trusted checkpoint.
+CREATE TABLE IF NOT EXISTS audit_chain_checkpoint (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    chain_id VARCHAR(64) NOT NULL,
+    sequence_no BIGINT NOT NULL,
+    entry_hash VARCHAR(64) NOT NULL,
+    signature VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_audit_checkpoint_chain_seq UNIQUE (chain_id, sequence_no)
+);
@@ -0,0 +1,29 @@
+-- Per-case audit chains: new case actions chain under their case id, everything
+-- else (and all history written before this migration) stays on the 'global' chain.
+ALTER TABLE audit_log ADD COLUMN IF NOT EXISTS chain_id VARCHAR(64);
+UPDATE audit_log SET chain_id = 'global' WHERE chain_id IS NULL;
+
+-- Sequence numbers are now unique per chain, not table-wide.
+DROP INDEX IF EXISTS uk_audit_log_sequence_no;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_audit_log_chain_sequence ON audit_log(chain_id, sequence_no);
+
+-- Periodic Merkle commitment over all chain heads.
+CREATE TABLE IF NOT EXISTS audit_merkle_root (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    root_hash VARCHAR(64) NOT NULL,
+    leaf_count INTEGER NOT NULL,
+    computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_audit_merkle_root_computed_at ON audit_merkle_root(computed_at);
+
+CREATE TABLE IF NOT EXISTS audit_merkle_leaf (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    root_id UUID NOT NULL REFERENCES audit_merkle_root(id) ON DELETE CASCADE,
+    leaf_index INTEGER NOT NULL,
+    chain_id VARCHAR(64) NOT NULL,
+    last_sequence BIGINT NOT NULL,
+    last_hash VARCHAR(64) NOT NULL,
+    leaf_hash VARCHAR(64) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_audit_merkle_leaf_root_index ON audit_merkle_leaf(root_id, leaf_index);
+CREATE INDEX IF NOT EXISTS idx_audit_merkle_leaf_root_chain ON audit_merkle_leaf(root_id, chain_id);
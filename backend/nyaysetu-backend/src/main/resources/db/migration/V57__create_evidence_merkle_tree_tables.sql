@@ -0,0 +1,22 @@
+-- Persisted per-case evidence Merkle tree: uploads update the O(log n) rightmost
+-- nodes instead of recomputing the tree and rewriting every evidence_records row.
+CREATE TABLE IF NOT EXISTS evidence_merkle_node (
+    id VARCHAR(80) PRIMARY KEY,
+    case_id UUID NOT NULL REFERENCES case_entity(id) ON DELETE CASCADE,
+    level INTEGER NOT NULL,
+    node_index BIGINT NOT NULL,
+    hash VARCHAR(64) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_evidence_merkle_node_case ON evidence_merkle_node(case_id);
+
+-- One root per case version (version = number of evidence leaves covered).
+CREATE TABLE IF NOT EXISTS evidence_merkle_root (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    case_id UUID NOT NULL REFERENCES case_entity(id) ON DELETE CASCADE,
+    leaf_count BIGINT NOT NULL,
+    root_hash VARCHAR(64) NOT NULL,
+    external_anchor_proof TEXT,
+    anchored_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_evidence_merkle_root_case_version UNIQUE (case_id, leaf_count)
+);
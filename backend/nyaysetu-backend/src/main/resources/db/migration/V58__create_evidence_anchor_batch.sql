@@ -0,0 +1,20 @@
+-- Case roots are anchored in time-windowed batches: one TSA call per window
+-- over a super-Merkle tree, with each root keeping its path to the super-root.
+CREATE TABLE IF NOT EXISTS evidence_anchor_batch (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    super_root VARCHAR(64) NOT NULL,
+    leaf_count INTEGER NOT NULL,
+    anchor_proof TEXT NOT NULL,
+    anchor_service VARCHAR(100),
+    anchored_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE evidence_merkle_root ADD COLUMN IF NOT EXISTS batch_id UUID REFERENCES evidence_anchor_batch(id);
+ALTER TABLE evidence_merkle_root ADD COLUMN IF NOT EXISTS batch_leaf_index INTEGER;
+ALTER TABLE evidence_merkle_root ADD COLUMN IF NOT EXISTS batch_path TEXT;
+-- Set while a node is timestamping the root, so other nodes skip it until the claim expires.
+ALTER TABLE evidence_merkle_root ADD COLUMN IF NOT EXISTS anchor_claimed_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_evidence_merkle_root_pending
+    ON evidence_merkle_root(created_at) WHERE anchored_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_evidence_records_merkle_root ON evidence_records(merkle_root);
@@ -0,0 +1,17 @@
+-- Content-addressable store: one file per distinct SHA-256, shared by every
+-- document, evidence record and FIR that uploads the same bytes.
+CREATE TABLE IF NOT EXISTS storage_blob (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    path VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    released_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_storage_blob_unreferenced
+    ON storage_blob(released_at) WHERE ref_count <= 0;
+
+-- Analysis results are reused across documents with identical content
+CREATE INDEX IF NOT EXISTS idx_document_file_hash ON document(file_hash);
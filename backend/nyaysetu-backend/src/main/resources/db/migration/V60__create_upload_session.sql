@@ -0,0 +1,20 @@
+-- Resumable chunked uploads: chunks land in a staging part file at their offset,
+-- and the assembled file is handed to the content store on completion.
+CREATE TABLE IF NOT EXISTS upload_session (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id BIGINT NOT NULL REFERENCES ny_user(id) ON DELETE CASCADE,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    total_size BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    staging_path VARCHAR(255) NOT NULL,
+    chunk_lease_id UUID,
+    chunk_lease_until TIMESTAMP,
+    sha256 VARCHAR(64),
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_session_expires ON upload_session(expires_at);
@@ -0,0 +1,25 @@
+-- Persistent queue for document AI analysis: claimed by priority with SKIP LOCKED,
+-- retried with backoff, and resumed after a restart.
+CREATE TABLE IF NOT EXISTS analysis_job (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    document_id UUID NOT NULL REFERENCES document(id) ON DELETE CASCADE,
+    priority INTEGER NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    heartbeat_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_analysis_job_queue
+    ON analysis_job(priority DESC, created_at) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS idx_analysis_job_document ON analysis_job(document_id);
+CREATE INDEX IF NOT EXISTS idx_analysis_job_running ON analysis_job(heartbeat_at) WHERE status = 'RUNNING';
+
+-- At most one pending job per document, even when two nodes enqueue it at once
+CREATE UNIQUE INDEX IF NOT EXISTS uq_analysis_job_pending_document
+    ON analysis_job(document_id) WHERE status IN ('QUEUED', 'RUNNING');
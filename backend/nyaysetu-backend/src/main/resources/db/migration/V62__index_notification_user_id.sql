@@ -0,0 +1,2 @@
+-- Keyset reads of a user's notifications (reconnect replay): WHERE user_id = ? AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_notification_user_id_id ON notification (user_id, id);
@@ -0,0 +1,11 @@
+-- Unread notifications per user, maintained alongside notification inserts and read updates
+CREATE TABLE notification_unread_count (
+    user_id BIGINT PRIMARY KEY,
+    unread BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO notification_unread_count (user_id, unread)
+SELECT user_id, COUNT(*)
+FROM notification
+WHERE user_id IS NOT NULL AND read_flag = FALSE
+GROUP BY user_id;
@@ -0,0 +1,8 @@
+-- WebSocket messages for case events, written in the event's transaction and relayed after commit
+CREATE TABLE case_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    case_id UUID NOT NULL,
+    destination VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
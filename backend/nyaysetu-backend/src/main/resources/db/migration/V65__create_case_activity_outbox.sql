@@ -0,0 +1,17 @@
+-- Case activity written in the acting transaction; CaseActivityProjector turns each row into its timeline
+-- row and audit chain entry and deletes it in one transaction
+CREATE TABLE case_activity_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    case_id UUID,
+    event VARCHAR(500),
+    event_type VARCHAR(100),
+    description TEXT,
+    actor_user_id BIGINT,
+    actor_role VARCHAR(50),
+    actor_name VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL,
+    timeline BOOLEAN NOT NULL,
+    audited BOOLEAN NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT
+);
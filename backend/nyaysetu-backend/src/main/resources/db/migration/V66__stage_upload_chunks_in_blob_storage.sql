@@ -0,0 +1,15 @@
+-- Chunked uploads keep each chunk as its own object in blob storage instead of a part file on one
+-- node's disk, so any node can take the next chunk or complete the session.
+CREATE TABLE IF NOT EXISTS upload_session_chunk (
+    id BIGSERIAL PRIMARY KEY,
+    session_id UUID NOT NULL REFERENCES upload_session(id) ON DELETE CASCADE,
+    chunk_offset BIGINT NOT NULL,
+    length BIGINT NOT NULL,
+    blob_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_upload_session_chunk_offset UNIQUE (session_id, chunk_offset)
+);
+
+-- The lease is now a fencing token the owner's next request takes over, not a timed lock
+ALTER TABLE upload_session DROP COLUMN IF EXISTS staging_path;
+ALTER TABLE upload_session DROP COLUMN IF EXISTS chunk_lease_until;
@@ -0,0 +1,15 @@
+-- Evidence added to an FIR under investigation; each row holds one content-store reference on its file
+CREATE TABLE IF NOT EXISTS fir_evidence (
+    id BIGSERIAL PRIMARY KEY,
+    fir_id BIGINT NOT NULL REFERENCES fir_records(id),
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    file_hash VARCHAR(64) NOT NULL,
+    file_type VARCHAR(255),
+    file_size BIGINT,
+    description TEXT,
+    uploaded_by BIGINT REFERENCES ny_user(id),
+    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_fir_evidence_fir_id ON fir_evidence(fir_id);
@@ -0,0 +1,4 @@
+-- A case event message whose send failed stays in the outbox and is retried; after
+-- case-event.outbox.max-attempts it is left for an operator with its last error
+ALTER TABLE case_event_outbox ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE case_event_outbox ADD COLUMN last_error TEXT;
@@ -0,0 +1,116 @@
+package com.nyaysetu.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StompClusterBridgeTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private MessageChannel brokerChannel;
+    private StompClusterBridge bridge;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        brokerChannel = mock(MessageChannel.class);
+        bridge = new StompClusterBridge(rabbitTemplate, brokerChannel,
+                new FanoutExchange("nyaysetu.stomp"), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void topicMessagesFromThisNodeArePublished() {
+        Message<byte[]> message = topicMessage("/topic/case/7/events", "{\"type\":\"HEARING_SCHEDULED\"}");
+
+        assertSame(message, bridge.preSend(message, brokerChannel));
+
+        ArgumentCaptor<org.springframework.amqp.core.Message> sent =
+                ArgumentCaptor.forClass(org.springframework.amqp.core.Message.class);
+        verify(rabbitTemplate).send(eq("nyaysetu.stomp"), eq(""), sent.capture());
+        MessageProperties properties = sent.getValue().getMessageProperties();
+        assertEquals("/topic/case/7/events", properties.getHeaders().get(StompClusterBridge.DESTINATION_HEADER));
+        assertEquals("application/json", properties.getContentType());
+        assertEquals("{\"type\":\"HEARING_SCHEDULED\"}", new String(sent.getValue().getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void applicationDestinationsAndForwardedMessagesStayLocal() {
+        bridge.preSend(topicMessage("/app/signal", "{}"), brokerChannel);
+
+        SimpMessageHeaderAccessor forwarded = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        forwarded.setDestination("/topic/courtroom/room-1");
+        forwarded.setHeader(StompClusterBridge.CLUSTER_ORIGIN_HEADER, "other-node");
+        bridge.preSend(MessageBuilder.createMessage(new byte[0], forwarded.getMessageHeaders()), brokerChannel);
+
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setDestination("/topic/courtroom/room-1");
+        bridge.preSend(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), brokerChannel);
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void brokerOutageStillDeliversLocally() {
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(org.springframework.amqp.core.Message.class));
+        Message<byte[]> message = topicMessage("/topic/judge/unassigned", "{}");
+
+        assertSame(message, bridge.preSend(message, brokerChannel));
+    }
+
+    @Test
+    void messagesFromOtherNodesGoToTheLocalBroker() {
+        MessageProperties properties = new MessageProperties();
+        properties.setAppId("other-node");
+        properties.setContentType("application/json");
+        properties.setHeader(StompClusterBridge.DESTINATION_HEADER, "/topic/courtroom/room-1");
+
+        bridge.onClusterMessage(new org.springframework.amqp.core.Message("{\"sdp\":\"x\"}".getBytes(), properties));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> injected = ArgumentCaptor.forClass(Message.class);
+        verify(brokerChannel).send(injected.capture());
+        assertEquals("/topic/courtroom/room-1", SimpMessageHeaderAccessor.getDestination(injected.getValue().getHeaders()));
+        assertTrue(injected.getValue().getHeaders().containsKey(StompClusterBridge.CLUSTER_ORIGIN_HEADER));
+        // Passing through this node's broker channel must not publish it again
+        bridge.preSend(injected.getValue(), brokerChannel);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void ownMessagesAreNotDeliveredTwice() {
+        bridge.preSend(topicMessage("/topic/case/7/status", "{}"), brokerChannel);
+        ArgumentCaptor<org.springframework.amqp.core.Message> sent =
+                ArgumentCaptor.forClass(org.springframework.amqp.core.Message.class);
+        verify(rabbitTemplate).send(anyString(), anyString(), sent.capture());
+
+        bridge.onClusterMessage(sent.getValue());
+
+        verifyNoInteractions(brokerChannel);
+    }
+
+    private static Message<byte[]> topicMessage(String destination, String json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,69 @@
+package com.nyaysetu.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitWebConfig(StompWebSocketConfigTest.Config.class)
+class StompWebSocketConfigTest {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void templateSendsReachTheClusterBridge() {
+        messagingTemplate.convertAndSend("/topic/case/7/events", (Object) Map.of("type", "HEARING_SCHEDULED"));
+
+        ArgumentCaptor<org.springframework.amqp.core.Message> sent =
+                ArgumentCaptor.forClass(org.springframework.amqp.core.Message.class);
+        verify(rabbitTemplate, timeout(2000)).send(eq("nyaysetu.stomp"), eq(""), sent.capture());
+        assertEquals("/topic/case/7/events",
+                sent.getValue().getMessageProperties().getHeaders().get(StompClusterBridge.DESTINATION_HEADER));
+        assertTrue(new String(sent.getValue().getBody(), StandardCharsets.UTF_8).contains("HEARING_SCHEDULED"));
+    }
+
+    @Configuration
+    @Import(StompWebSocketConfig.class)
+    static class Config {
+
+        @Bean
+        RabbitTemplate rabbitTemplate() {
+            return mock(RabbitTemplate.class);
+        }
+
+        @Bean
+        StompClusterBridge stompClusterBridge(RabbitTemplate rabbitTemplate) {
+            return new StompClusterBridge(rabbitTemplate, mock(MessageChannel.class),
+                    new FanoutExchange("nyaysetu.stomp"), new SimpleMeterRegistry());
+        }
+
+        @Bean
+        WebSocketSecurityInterceptor webSocketSecurityInterceptor() {
+            return mock(WebSocketSecurityInterceptor.class);
+        }
+
+        @Bean
+        StompChannelMetrics stompChannelMetrics() {
+            return mock(StompChannelMetrics.class);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.nyaysetu.backend.repository.HearingParticipantRepository;
 import com.nyaysetu.backend.repository.HearingRepository;
 import com.nyaysetu.backend.repository.UserRepository;
 import com.nyaysetu.backend.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,12 +20,13 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.security.Principal;
+import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,9 +37,6 @@ class WebSocketSecurityInterceptorTest {
     @Mock
     private JwtService jwtService;
 
-    @Mock
-    private UserDetailsService userDetailsService;
-
     @Mock
     private UserRepository userRepository;
 
@@ -56,7 +55,6 @@ class WebSocketSecurityInterceptorTest {
     void setUp() {
         interceptor = new WebSocketSecurityInterceptor(
                 jwtService,
-                userDetailsService,
                 userRepository,
                 hearingRepository,
                 hearingParticipantRepository
@@ -70,13 +68,8 @@ class WebSocketSecurityInterceptorTest {
         accessor.setLeaveMutable(true);
         Message<?> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.getUsername()).thenReturn("test@example.com");
-        when(userDetails.getAuthorities()).thenReturn(null);
-
-        when(jwtService.extractUsername("valid-token")).thenReturn("test@example.com");
-        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("valid-token", userDetails)).thenReturn(true);
+        when(jwtService.parseAccessClaims("valid-token")).thenReturn(new JwtService.AccessClaims(
+                "test@example.com", 3L, Role.LAWYER, new Date(System.currentTimeMillis() + 60_000)));
 
         Message<?> result = interceptor.preSend(message, messageChannel);
 
@@ -84,6 +77,31 @@ class WebSocketSecurityInterceptorTest {
         StompHeaderAccessor resultAccessor = StompHeaderAccessor.wrap(result);
         assertNotNull(resultAccessor.getUser());
         assertEquals("test@example.com", resultAccessor.getUser().getName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void connectWithLegacyTokenLooksUpIdentityOnce() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer old-token");
+        accessor.setLeaveMutable(true);
+        Message<?> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        User user = new User();
+        user.setId(4L);
+        user.setEmail("test@example.com");
+        user.setRole(Role.JUDGE);
+        when(jwtService.parseAccessClaims("old-token")).thenReturn(new JwtService.AccessClaims(
+                "test@example.com", null, null, new Date(System.currentTimeMillis() + 60_000)));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        Message<?> result = interceptor.preSend(message, messageChannel);
+
+        UsernamePasswordAuthenticationToken authentication =
+                (UsernamePasswordAuthenticationToken) StompHeaderAccessor.wrap(result).getUser();
+        JwtService.AccessClaims claims = (JwtService.AccessClaims) authentication.getDetails();
+        assertEquals(4L, claims.userId());
+        assertEquals(Role.JUDGE, claims.role());
     }
 
     @Test
@@ -92,10 +110,7 @@ class WebSocketSecurityInterceptorTest {
         accessor.addNativeHeader("Authorization", "Bearer invalid-token");
         Message<?> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(jwtService.extractUsername("invalid-token")).thenReturn("test@example.com");
-        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("invalid-token", userDetails)).thenReturn(false);
+        when(jwtService.parseAccessClaims("invalid-token")).thenThrow(new JwtException("JWT expired"));
 
         assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(message, messageChannel));
     }
@@ -108,6 +123,32 @@ class WebSocketSecurityInterceptorTest {
         assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(message, messageChannel));
     }
 
+    @Test
+    void subscribeUsesConnectClaimsAndCachesTheRoomDecision() {
+        UUID hearingId = UUID.randomUUID();
+        UsernamePasswordAuthenticationToken principal =
+                new UsernamePasswordAuthenticationToken("litigant@example.com", null);
+        principal.setDetails(new JwtService.AccessClaims("litigant@example.com", 1L, Role.LITIGANT, null));
+        Map<String, Object> sessionAttributes = new ConcurrentHashMap<>();
+
+        Hearing hearing = new Hearing();
+        hearing.setId(hearingId);
+        when(hearingRepository.findById(hearingId)).thenReturn(Optional.of(hearing));
+        when(hearingParticipantRepository.existsByHearingIdAndUserId(hearingId, 1L)).thenReturn(true);
+
+        for (StompCommand command : new StompCommand[]{StompCommand.SUBSCRIBE, StompCommand.SEND, StompCommand.SEND}) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+            accessor.setDestination("/topic/courtroom/" + hearingId);
+            accessor.setUser(principal);
+            accessor.setSessionAttributes(sessionAttributes);
+            assertNotNull(interceptor.preSend(
+                    MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), messageChannel));
+        }
+
+        verifyNoInteractions(userRepository);
+        verify(hearingParticipantRepository, times(1)).existsByHearingIdAndUserId(hearingId, 1L);
+    }
+
     @Test
     void subscribeByJudgeSucceeds() {
         StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
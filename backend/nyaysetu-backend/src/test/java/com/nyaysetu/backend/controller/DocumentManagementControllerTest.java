@@ -48,6 +48,9 @@ class DocumentManagementControllerTest {
     @Mock
     private com.nyaysetu.backend.service.CertificateService certificateService;
 
+    @Mock
+    private com.nyaysetu.backend.service.FileDownloadService fileDownloadService;
+
     private DocumentManagementController controller;
 
     @BeforeEach
@@ -58,7 +61,8 @@ class DocumentManagementControllerTest {
                 authService,
                 caseAccessService,
                 documentAnalysisService,
-                certificateService
+                certificateService,
+                fileDownloadService
         );
     }
 
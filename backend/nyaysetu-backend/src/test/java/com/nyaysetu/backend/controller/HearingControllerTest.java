@@ -99,7 +99,7 @@ class HearingControllerTest {
 
     private static class FakeNotificationService extends NotificationService {
         FakeNotificationService() {
-            super(null, null);
+            super(null, null, null);
         }
     }
 
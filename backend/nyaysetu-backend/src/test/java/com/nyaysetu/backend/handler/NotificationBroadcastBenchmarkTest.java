@@ -0,0 +1,105 @@
+package com.nyaysetu.backend.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.notification.service.NotificationService;
+import com.nyaysetu.backend.repository.UserRepository;
+import com.nyaysetu.backend.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Fan-out throughput of broadcastNotification against serializing per session, as it did before.
+ * Drains run inline into stub sessions, so the figures cover encoding, queueing and dispatch.
+ *
+ * Run with: mvn test -Dtest=NotificationBroadcastBenchmarkTest -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NotificationBroadcastBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000})
+    void broadcastFanOut(int sessionCount) throws Exception {
+        SessionOutboundQueues outboundQueues = new SessionOutboundQueues(Runnable::run, new SimpleMeterRegistry(),
+                16, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 10_000, 32);
+        NotificationWebSocketHandler handler = new NotificationWebSocketHandler(mock(JwtService.class),
+                mock(UserRepository.class), outboundQueues,
+                mock(ApplicationEventPublisher.class), mock(NotificationService.class), mock(ObjectProvider.class));
+
+        List<WebSocketSession> sessions = new ArrayList<>(sessionCount);
+        Map<Long, List<WebSocketSession>> sessionsByUserId = new LinkedHashMap<>();
+        for (int i = 0; i < sessionCount; i++) {
+            WebSocketSession session = mock(WebSocketSession.class, withSettings().stubOnly());
+            when(session.getId()).thenReturn("s" + i);
+            when(session.isOpen()).thenReturn(true);
+            outboundQueues.register(session);
+            sessions.add(session);
+            sessionsByUserId.computeIfAbsent((long) i, k -> new CopyOnWriteArrayList<>()).add(session);
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, List<WebSocketSession>> handlerSessions =
+                (Map<Long, List<WebSocketSession>>) ReflectionTestUtils.getField(handler, "sessionsByUserId");
+        handlerSessions.putAll(sessionsByUserId);
+
+        Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("id", 42L);
+        notification.put("title", "Registry notice");
+        notification.put("message", "The e-filing portal will be unavailable on Saturday from 10:00 to 14:00. ".repeat(4));
+        notification.put("timestamp", "2026-10-19T09:30:00Z");
+        notification.put("read", false);
+
+        // Warm up both paths before timing
+        perSessionEncoding(sessions, notification);
+        handler.broadcastNotification(notification);
+
+        long perSession = Long.MAX_VALUE;
+        long once = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            perSessionEncoding(sessions, notification);
+            perSession = Math.min(perSession, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            handler.broadcastNotification(notification);
+            once = Math.min(once, System.nanoTime() - start);
+        }
+
+        System.out.printf("broadcast to %,d sessions: per-session encoding %,.1f ms (%,.0f msg/s), "
+                        + "encode once %,.1f ms (%,.0f msg/s)%n",
+                sessionCount, perSession / 1e6, sessionCount / (perSession / 1e9),
+                once / 1e6, sessionCount / (once / 1e9));
+    }
+
+    /** The previous behaviour: one writeValueAsString per session. */
+    private void perSessionEncoding(List<WebSocketSession> sessions, Map<String, Object> notification)
+            throws Exception {
+        for (WebSocketSession session : sessions) {
+            if (session.isOpen()) {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
+                        "type", "NOTIFICATION",
+                        "payload", notification
+                ))));
+            }
+        }
+    }
+}
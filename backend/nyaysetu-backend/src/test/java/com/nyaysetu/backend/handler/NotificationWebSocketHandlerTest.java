@@ -1,20 +1,32 @@
 package com.nyaysetu.backend.handler;
 
+import com.nyaysetu.backend.entity.Role;
 import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.notification.delivery.NotificationFanout;
+import com.nyaysetu.backend.notification.entity.Notification;
+import com.nyaysetu.backend.notification.event.UserPresenceChangedEvent;
+import com.nyaysetu.backend.notification.service.NotificationService;
 import com.nyaysetu.backend.repository.UserRepository;
 import com.nyaysetu.backend.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -28,22 +40,28 @@ class NotificationWebSocketHandlerTest {
     private JwtService jwtService;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private UserRepository userRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private NotificationService notificationService;
 
     @Mock
     private User user;
 
     @Mock
-    private UserDetails userDetails;
+    private ObjectProvider<NotificationFanout> notificationFanout;
 
     private NotificationWebSocketHandler handler;
 
     @BeforeEach
     void setUp() {
-        handler = new NotificationWebSocketHandler(jwtService, userDetailsService, userRepository);
+        SessionOutboundQueues outboundQueues = new SessionOutboundQueues(Runnable::run, new SimpleMeterRegistry(),
+                16, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 10_000, 32);
+        handler = new NotificationWebSocketHandler(jwtService, userRepository, outboundQueues,
+                eventPublisher, notificationService, notificationFanout);
     }
 
     @Test
@@ -142,19 +160,176 @@ class NotificationWebSocketHandlerTest {
         verify(session, times(1)).sendMessage(any(TextMessage.class));
     }
 
+    @Test
+    void broadcastEncodesThePayloadOnceForAllSessions() throws Exception {
+        WebSocketSession sessionA = mock(WebSocketSession.class);
+        WebSocketSession sessionB = mock(WebSocketSession.class);
+
+        when(sessionA.isOpen()).thenReturn(true);
+        when(sessionB.isOpen()).thenReturn(true);
+
+        authenticateSession(sessionA, "A", "token-1", 1L);
+        authenticateSession(sessionB, "B", "token-2", 2L);
+        clearInvocations(sessionA, sessionB);
+
+        handler.broadcastNotification(Map.of("message", "Court closed on Friday"));
+
+        ArgumentCaptor<TextMessage> toA = ArgumentCaptor.forClass(TextMessage.class);
+        ArgumentCaptor<TextMessage> toB = ArgumentCaptor.forClass(TextMessage.class);
+        verify(sessionA).sendMessage(toA.capture());
+        verify(sessionB).sendMessage(toB.capture());
+        assertSame(toA.getValue(), toB.getValue());
+        assertTrue(toA.getValue().getPayload().contains("Court closed on Friday"));
+    }
+
+    @Test
+    void presenceIsPublishedOnceOnlineAndOnceOfflineInOrder() throws Exception {
+        WebSocketSession sessionA = mock(WebSocketSession.class);
+        WebSocketSession sessionB = mock(WebSocketSession.class);
+        when(sessionA.isOpen()).thenReturn(true);
+        when(sessionB.isOpen()).thenReturn(true);
+
+        authenticateSession(sessionA, "A", "token-1", 1L);
+        authenticateSession(sessionB, "B", "token-1", 1L);
+        handler.afterConnectionClosed(sessionA, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(sessionB, CloseStatus.NORMAL);
+
+        ArgumentCaptor<UserPresenceChangedEvent> events = ArgumentCaptor.forClass(UserPresenceChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(new UserPresenceChangedEvent(1L, true), new UserPresenceChangedEvent(1L, false)),
+                events.getAllValues());
+        assertFalse(handler.hasSessions(1L));
+    }
+
+    @Test
+    void replayWaitsForRoutesToThisNode() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        NotificationFanout fanout = mock(NotificationFanout.class);
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            inv.<java.util.function.Consumer<NotificationFanout>>getArgument(0).accept(fanout);
+            return null;
+        }).when(notificationFanout).ifAvailable(any());
+
+        authenticateSession(session, "A", "token-1", 1L, ",\"lastNotificationId\":41");
+
+        InOrder inOrder = inOrder(fanout, notificationService);
+        inOrder.verify(fanout).awaitRoutes(1L);
+        inOrder.verify(notificationService).findSince(1L, 41L, 101);
+    }
+
+    @Test
+    void reconnectReplaysNotificationsAfterLastSeenId() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        when(notificationService.findSince(1L, 41L, 101)).thenReturn(List.of(
+                Notification.builder().id(42L).userId(1L).title("Hearing moved").build(),
+                Notification.builder().id(43L).userId(1L).title("Order uploaded").build()));
+
+        authenticateSession(session, "A", "token-1", 1L, ",\"lastNotificationId\":41");
+
+        List<String> sent = sentPayloads(session);
+        assertTrue(sent.get(0).contains("AUTH_SUCCESS"));
+        assertTrue(sent.get(1).contains("Hearing moved"));
+        assertTrue(sent.get(2).contains("Order uploaded"));
+        assertTrue(sent.get(3).contains("Connected"));
+    }
+
+    @Test
+    void replayLongerThanTheLimitEndsWithTruncationMarker() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        ReflectionTestUtils.setField(handler, "replayLimit", 2);
+        when(notificationService.findSince(1L, 0L, 3)).thenReturn(List.of(
+                Notification.builder().id(1L).title("one").build(),
+                Notification.builder().id(2L).title("two").build(),
+                Notification.builder().id(3L).title("three").build()));
+
+        authenticateSession(session, "A", "token-1", 1L, ",\"lastNotificationId\":0");
+
+        List<String> sent = sentPayloads(session);
+        assertEquals(5, sent.size());
+        assertFalse(sent.stream().anyMatch(p -> p.contains("three")));
+        assertTrue(sent.get(3).contains("REPLAY_TRUNCATED"));
+        assertTrue(sent.get(3).contains("\"lastReplayedId\":2"));
+    }
+
+    @Test
+    void firstConnectWithoutLastSeenIdSkipsReplay() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+
+        authenticateSession(session, "A", "token-1", 1L);
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void authenticationTrustsSignedClaimsWithoutDatabaseLookups() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+
+        authenticateSession(session, "A", "token-1", 1L);
+
+        verifyNoInteractions(userRepository);
+        verify(jwtService, times(1)).parseAccessClaims("token-1");
+        assertTrue(sentPayloads(session).get(0).contains("AUTH_SUCCESS"));
+    }
+
+    @Test
+    void tokenWithoutIdentityClaimsFallsBackToUserLookup() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("A");
+        when(session.isOpen()).thenReturn(true);
+        when(jwtService.parseAccessClaims("old-token")).thenReturn(new JwtService.AccessClaims(
+                "user@example.com", null, null, new Date(System.currentTimeMillis() + 60_000)));
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(user.getId()).thenReturn(4L);
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTH\",\"token\":\"old-token\"}"));
+
+        assertTrue(handler.hasSessions(4L));
+    }
+
+    @Test
+    void invalidTokenIsRejected() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("A");
+        when(jwtService.parseAccessClaims("forged")).thenThrow(new JwtException("bad signature"));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTH\",\"token\":\"forged\"}"));
+
+        assertTrue(sentPayloads(session).get(0).contains("Invalid token"));
+        verify(session).close(any(CloseStatus.class));
+        assertFalse(handler.hasSessions(1L));
+    }
+
+    private List<String> sentPayloads(WebSocketSession session) throws Exception {
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(messages.capture());
+        return messages.getAllValues().stream().map(TextMessage::getPayload).toList();
+    }
+
     private void authenticateSession(WebSocketSession session,
                                      String sessionId,
                                      String token,
                                      long userId) throws Exception {
+        authenticateSession(session, sessionId, token, userId, "");
+    }
+
+    private void authenticateSession(WebSocketSession session,
+                                     String sessionId,
+                                     String token,
+                                     long userId,
+                                     String extraAuthFields) throws Exception {
         when(session.getId()).thenReturn(sessionId);
-        when(jwtService.extractUsername(token)).thenReturn("user@example.com");
-        when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(userDetails);
-        when(jwtService.isTokenValid(token, userDetails)).thenReturn(true);
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(user.getId()).thenReturn(userId);
+        when(jwtService.parseAccessClaims(token)).thenReturn(new JwtService.AccessClaims(
+                "user@example.com", userId, Role.LAWYER, new Date(System.currentTimeMillis() + 60_000)));
 
         handler.afterConnectionEstablished(session);
-        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTH\",\"token\":\"" + token + "\"}"));
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"AUTH\",\"token\":\"" + token + "\"" + extraAuthFields + "}"));
     }
 
     @SuppressWarnings("unchecked")
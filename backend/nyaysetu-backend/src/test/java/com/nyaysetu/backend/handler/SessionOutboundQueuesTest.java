@@ -0,0 +1,232 @@
+package com.nyaysetu.backend.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SessionOutboundQueuesTest {
+
+    private final Queue<Runnable> drainTasks = new ArrayDeque<>();
+    private SimpleMeterRegistry meterRegistry;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("S1");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void send_returnsBeforeTheFrameIsWrittenAndDrainsInOrder() throws Exception {
+        SessionOutboundQueues queues = queues(8, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 32);
+        queues.register(session);
+
+        assertTrue(queues.send(session, text("1"), null));
+        assertTrue(queues.send(session, text("2"), null));
+
+        verify(session, never()).sendMessage(any());
+        assertEquals(1, drainTasks.size(), "one drain task per session");
+        assertEquals(2, queues.queued(session));
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.queue.size").gauge().value());
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.queue.max").gauge().value());
+
+        runDrains();
+        assertEquals(List.of("1", "2"), sent());
+        assertEquals(0, queues.queued(session));
+    }
+
+    @Test
+    void dropOldest_keepsTheNewestMessages() throws Exception {
+        SessionOutboundQueues queues = queues(2, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 32);
+        queues.register(session);
+
+        for (String payload : List.of("1", "2", "3", "4")) {
+            queues.send(session, text(payload), null);
+        }
+        runDrains();
+
+        assertEquals(List.of("3", "4"), sent());
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.dropped").counter().count());
+    }
+
+    @Test
+    void coalesce_replacesQueuedMessageWithSameKey() throws Exception {
+        SessionOutboundQueues queues = queues(2, SessionOutboundQueues.OverflowPolicy.COALESCE, 32);
+        queues.register(session);
+
+        queues.send(session, text("doc1:10%"), "doc1");
+        queues.send(session, text("hello"), null);
+        queues.send(session, text("doc1:50%"), "doc1");
+        queues.send(session, text("doc1:90%"), "doc1");
+        runDrains();
+
+        assertEquals(List.of("hello", "doc1:90%"), sent());
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.coalesced").counter().count());
+        assertEquals(0.0, meterRegistry.get("websocket.outbound.dropped").counter().count());
+    }
+
+    @Test
+    void disconnect_closesTheSessionWhenItsQueueOverflows() throws Exception {
+        SessionOutboundQueues queues = queues(2, SessionOutboundQueues.OverflowPolicy.DISCONNECT, 32);
+        queues.register(session);
+
+        assertTrue(queues.send(session, text("1"), null));
+        assertTrue(queues.send(session, text("2"), null));
+        assertFalse(queues.send(session, text("3"), null));
+        assertFalse(queues.send(session, text("4"), null));
+        runDrains();
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(session, never()).sendMessage(any());
+        assertEquals(1.0, meterRegistry.get("websocket.outbound.disconnected").counter().count());
+    }
+
+    @Test
+    void drain_yieldsTheThreadAfterABatch() throws Exception {
+        SessionOutboundQueues queues = queues(8, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 2);
+        queues.register(session);
+        for (String payload : List.of("1", "2", "3")) {
+            queues.send(session, text(payload), null);
+        }
+
+        drainTasks.poll().run();
+        assertEquals(List.of("1", "2"), sent());
+        assertEquals(1, drainTasks.size(), "rest of the queue is rescheduled");
+
+        runDrains();
+        verify(session, times(3)).sendMessage(any());
+    }
+
+    @Test
+    void failedSendDiscardsTheBacklogAndUnregisterDropsTheQueue() throws Exception {
+        SessionOutboundQueues queues = queues(8, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 32);
+        queues.register(session);
+        doThrow(new IOException("broken pipe")).when(session).sendMessage(any());
+
+        queues.send(session, text("1"), null);
+        queues.send(session, text("2"), null);
+        runDrains();
+
+        verify(session, times(1)).sendMessage(any());
+        assertEquals(0, queues.queued(session));
+
+        queues.unregister(session);
+        assertFalse(queues.send(session, text("3"), null));
+        assertEquals(0.0, meterRegistry.get("websocket.outbound.sessions").gauge().value());
+    }
+
+    @Test
+    void gauges_areAggregatedRatherThanTaggedPerSession() {
+        SessionOutboundQueues queues = queues(8, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 32);
+        WebSocketSession other = mock(WebSocketSession.class);
+        when(other.getId()).thenReturn("S2");
+        queues.register(session);
+        queues.register(other);
+
+        queues.send(session, text("1"), null);
+        queues.send(other, text("1"), null);
+        queues.send(other, text("2"), null);
+
+        assertEquals(1, meterRegistry.find("websocket.outbound.queue.size").gauges().size());
+        assertEquals(3.0, meterRegistry.get("websocket.outbound.queue.size").gauge().value());
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.queue.max").gauge().value());
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.sessions").gauge().value());
+    }
+
+    @Test
+    void nativeSession_isWrittenAsynchronouslyWithoutHoldingTheDrainThread() throws Exception {
+        SessionOutboundQueues queues = queues(8, SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 32);
+        NativeWebSocketSession nativeBacked = mock(NativeWebSocketSession.class);
+        Session container = mock(Session.class);
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        when(nativeBacked.getId()).thenReturn("S3");
+        when(nativeBacked.isOpen()).thenReturn(true);
+        when(nativeBacked.getNativeSession(Session.class)).thenReturn(container);
+        when(container.getAsyncRemote()).thenReturn(remote);
+        queues.register(nativeBacked);
+
+        queues.send(nativeBacked, text("1"), null);
+        queues.send(nativeBacked, text("2"), null);
+        runDrains();
+
+        ArgumentCaptor<SendHandler> completion = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(eq("1"), completion.capture());
+        verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+        verify(nativeBacked, never()).sendMessage(any());
+        assertTrue(drainTasks.isEmpty(), "drain thread released while the frame is in flight");
+
+        completion.getValue().onResult(new SendResult());
+        runDrains();
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+        assertEquals(0, queues.queued(nativeBacked));
+    }
+
+    @Test
+    void stalledSession_isDisconnectedAndCountedOnce() throws Exception {
+        SessionOutboundQueues queues = new SessionOutboundQueues(drainTasks::add, meterRegistry, 8,
+                SessionOutboundQueues.OverflowPolicy.DROP_OLDEST, 0, 32);
+        NativeWebSocketSession nativeBacked = mock(NativeWebSocketSession.class);
+        Session container = mock(Session.class);
+        when(nativeBacked.getId()).thenReturn("S4");
+        when(nativeBacked.isOpen()).thenReturn(true);
+        when(nativeBacked.getNativeSession(Session.class)).thenReturn(container);
+        when(container.getAsyncRemote()).thenReturn(mock(RemoteEndpoint.Async.class));
+        queues.register(nativeBacked);
+
+        queues.send(nativeBacked, text("1"), null);
+        runDrains();
+        Thread.sleep(2);
+
+        // The frame never completes; later passes must not close or count the session again
+        queues.disconnectStalledSessions();
+        queues.disconnectStalledSessions();
+        queues.disconnectStalledSessions();
+
+        verify(nativeBacked, times(1)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.get("websocket.outbound.disconnected").counter().count());
+        assertEquals(0.0, meterRegistry.get("websocket.outbound.sessions").gauge().value());
+        assertFalse(queues.send(nativeBacked, text("2"), null));
+    }
+
+    private SessionOutboundQueues queues(int capacity, SessionOutboundQueues.OverflowPolicy policy, int batch) {
+        return new SessionOutboundQueues(drainTasks::add, meterRegistry, capacity, policy, 10_000, batch);
+    }
+
+    private void runDrains() {
+        Runnable task;
+        while ((task = drainTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private List<String> sent() throws IOException {
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeast(0)).sendMessage(messages.capture());
+        return messages.getAllValues().stream().map(TextMessage::getPayload).toList();
+    }
+
+    private static TextMessage text(String payload) {
+        return new TextMessage(payload);
+    }
+}
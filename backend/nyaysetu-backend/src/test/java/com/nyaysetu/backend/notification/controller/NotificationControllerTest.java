@@ -0,0 +1,65 @@
+package com.nyaysetu.backend.notification.controller;
+
+import com.nyaysetu.backend.dto.MarkNotificationsReadRequest;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.exception.AccessDeniedException;
+import com.nyaysetu.backend.notification.service.NotificationService;
+import com.nyaysetu.backend.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationControllerTest {
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private AuthService authService;
+
+    private NotificationController controller;
+    private final Authentication caller = new TestingAuthenticationToken("litigant@example.com", null);
+
+    @BeforeEach
+    void setUp() {
+        controller = new NotificationController(notificationService, authService);
+        User user = new User();
+        user.setId(42L);
+        when(authService.findByEmail("litigant@example.com")).thenReturn(user);
+    }
+
+    @Test
+    void ownUnreadCountIsReturned() {
+        when(notificationService.unreadCount(42L)).thenReturn(3L);
+
+        ResponseEntity<Map<String, Long>> response = controller.unreadCount(42L, caller);
+
+        assertEquals(3L, response.getBody().get("unreadCount"));
+    }
+
+    @Test
+    void anotherUsersNotificationsAreForbidden() {
+        MarkNotificationsReadRequest request = new MarkNotificationsReadRequest();
+        request.setIds(List.of(1L));
+
+        assertThrows(AccessDeniedException.class, () -> controller.inbox(7L, null, 20, caller));
+        assertThrows(AccessDeniedException.class, () -> controller.unreadCount(7L, caller));
+        assertThrows(AccessDeniedException.class, () -> controller.markRead(7L, request, caller));
+        assertThrows(AccessDeniedException.class, () -> controller.markAllRead(7L, null, caller));
+        assertThrows(AccessDeniedException.class, () -> controller.forUser(7L, caller));
+
+        verifyNoInteractions(notificationService);
+    }
+}
@@ -0,0 +1,134 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.handler.NotificationWebSocketHandler;
+import com.nyaysetu.backend.notification.event.UserPresenceChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AmqpNotificationFanoutTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private RabbitOperations operations;
+    private RabbitAdmin rabbitAdmin;
+    private NotificationWebSocketHandler webSocketHandler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnonymousQueue nodeQueue = new AnonymousQueue();
+    private AmqpNotificationFanout fanout;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        operations = mock(RabbitOperations.class);
+        rabbitAdmin = mock(RabbitAdmin.class);
+        webSocketHandler = mock(NotificationWebSocketHandler.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(inv ->
+                ((RabbitOperations.OperationsCallback<Object>) inv.getArgument(0)).doInRabbit(operations));
+
+        fanout = new AmqpNotificationFanout(rabbitTemplate, mock(ConnectionFactory.class), rabbitAdmin,
+                webSocketHandler, objectMapper,
+                new TopicExchange("nyaysetu.notifications"), nodeQueue, new SimpleMeterRegistry(),
+                10, 50, 1000, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        fanout.shutdown();
+    }
+
+    @Test
+    void sendToUser_publishesWithUserRoutingAndWaitsForConfirms() throws Exception {
+        fanout.sendNotification(7L, Map.of("title", "Hearing moved"));
+        fanout.broadcastNotification(Map.of("title", "Registry closed"));
+
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(operations, timeout(2000)).send(eq("nyaysetu.notifications"), eq("user.7"), messages.capture());
+        verify(operations, timeout(2000)).send(eq("nyaysetu.notifications"), eq("broadcast"), any(Message.class));
+        verify(operations, timeout(2000).atLeastOnce()).waitForConfirmsOrDie(1000);
+
+        AmqpNotificationFanout.ClusterMessage sent =
+                objectMapper.readValue(messages.getValue().getBody(), AmqpNotificationFanout.ClusterMessage.class);
+        assertEquals(7L, sent.userId());
+        assertEquals("NOTIFICATION", sent.type());
+        assertEquals("Hearing moved", sent.payload().get("title"));
+        verifyNoInteractions(webSocketHandler);
+    }
+
+    @Test
+    void unsentMessagesAreDeliveredOnThisNode() {
+        doThrow(new AmqpIOException(new IOException("connection refused")))
+                .when(operations).send(anyString(), anyString(), any(Message.class));
+
+        fanout.sendToUser(7L, "DOCUMENT_ANALYSIS", Map.of("status", "PARTIAL"), "DOCUMENT_ANALYSIS:1");
+
+        verify(webSocketHandler, timeout(2000)).sendToUser(eq(7L), eq("DOCUMENT_ANALYSIS"), anyMap(),
+                eq("DOCUMENT_ANALYSIS:1"));
+    }
+
+    @Test
+    void sentButUnconfirmedMessagesAreNotDeliveredAgainLocally() {
+        doThrow(new AmqpIOException(new IOException("channel closed"))).when(operations).waitForConfirmsOrDie(anyLong());
+
+        fanout.sendToUser(7L, "NOTIFICATION", Map.of("title", "Hearing moved"), null);
+
+        verify(operations, timeout(2000)).waitForConfirmsOrDie(1000);
+        verify(webSocketHandler, after(200).never()).sendToUser(anyLong(), anyString(), anyMap(), any());
+    }
+
+    @Test
+    void awaitRoutes_returnsOnceTheUserBindingIsDeclared() {
+        when(webSocketHandler.hasSessions(5L)).thenReturn(true);
+
+        fanout.onPresenceChanged(new UserPresenceChangedEvent(5L, true));
+        fanout.awaitRoutes(5L);
+
+        verify(rabbitAdmin, atLeastOnce()).declareBinding(argThat(binding -> "user.5".equals(binding.getRoutingKey())));
+    }
+
+    @Test
+    void consumedMessagesGoToLocalSessions() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(
+                new AmqpNotificationFanout.ClusterMessage(9L, "NOTIFICATION", Map.of("title", "Order uploaded"), null));
+
+        fanout.onClusterMessage(new Message(body, new MessageProperties()));
+        fanout.onClusterMessage(new Message("not json".getBytes(), new MessageProperties()));
+
+        verify(webSocketHandler).sendToUser(9L, "NOTIFICATION", Map.of("title", "Order uploaded"), null);
+        verifyNoMoreInteractions(webSocketHandler);
+    }
+
+    @Test
+    void presenceChangesBindAndUnbindTheUserRoutingKey() {
+        when(webSocketHandler.hasSessions(5L)).thenReturn(true, false);
+
+        fanout.onPresenceChanged(new UserPresenceChangedEvent(5L, true));
+        fanout.onPresenceChanged(new UserPresenceChangedEvent(5L, false));
+
+        ArgumentCaptor<Binding> bound = ArgumentCaptor.forClass(Binding.class);
+        verify(rabbitAdmin, timeout(2000)).declareBinding(bound.capture());
+        verify(rabbitAdmin, timeout(2000)).removeBinding(any(Binding.class));
+        assertEquals("user.5", bound.getValue().getRoutingKey());
+        assertEquals(nodeQueue.getName(), bound.getValue().getDestination());
+    }
+}
@@ -0,0 +1,79 @@
+package com.nyaysetu.backend.notification.delivery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationCoalescerTest {
+
+    private NotificationFanout fanout;
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        fanout = mock(NotificationFanout.class);
+        coalescer = new NotificationCoalescer(fanout, 60_000, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void burstToOneUserBecomesOneBatchFrame() {
+        coalescer.add(7L, Map.of("id", 1L));
+        coalescer.add(7L, Map.of("id", 2L));
+        coalescer.add(8L, Map.of("id", 3L));
+        verifyNoInteractions(fanout);
+
+        coalescer.flush(7L);
+        coalescer.flush(8L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(fanout).sendToUser(eq(7L), eq("NOTIFICATION_BATCH"), batch.capture(), isNull());
+        assertEquals(2, batch.getValue().get("count"));
+        assertEquals(List.of(Map.of("id", 1L), Map.of("id", 2L)), batch.getValue().get("notifications"));
+        verify(fanout).sendNotification(8L, Map.of("id", 3L));
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() {
+        coalescer.add(7L, Map.of("id", 1L));
+        coalescer.add(7L, Map.of("id", 2L));
+        coalescer.add(7L, Map.of("id", 3L));
+
+        verify(fanout).sendToUser(eq(7L), eq("NOTIFICATION_BATCH"), anyMap(), isNull());
+
+        coalescer.flush(7L);
+        verifyNoMoreInteractions(fanout);
+    }
+
+    @Test
+    void windowClosesOnItsOwn() {
+        NotificationCoalescer shortWindow = new NotificationCoalescer(fanout, 20, 50);
+        try {
+            shortWindow.add(7L, Map.of("id", 1L));
+            verify(fanout, timeout(2000)).sendNotification(7L, Map.of("id", 1L));
+        } finally {
+            shortWindow.shutdown();
+        }
+    }
+
+    @Test
+    void zeroWindowSendsImmediately() {
+        NotificationCoalescer direct = new NotificationCoalescer(fanout, 0, 50);
+        direct.add(7L, Map.of("id", 1L));
+        verify(fanout).sendNotification(7L, Map.of("id", 1L));
+        direct.shutdown();
+    }
+}
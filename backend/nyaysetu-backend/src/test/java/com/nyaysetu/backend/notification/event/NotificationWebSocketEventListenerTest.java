@@ -0,0 +1,48 @@
+package com.nyaysetu.backend.notification.event;
+
+import com.nyaysetu.backend.notification.delivery.NotificationCoalescer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationWebSocketEventListenerTest {
+
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
+    @InjectMocks
+    private NotificationWebSocketEventListener listener;
+
+    @Test
+    void handleNotificationCreatedShouldQueueThePayloadFromTheEvent() {
+        Map<String, Object> payload = Map.of("id", 1L, "title", "Case Update");
+
+        listener.handleNotificationCreated(new NotificationCreatedEvent(1L, 10L, payload));
+
+        verify(notificationCoalescer).add(10L, payload);
+    }
+
+    @Test
+    void handleNotificationCreatedShouldNotSendWhenEventIdIsNull() {
+        listener.handleNotificationCreated(new NotificationCreatedEvent(null, 10L, Map.of()));
+
+        verify(notificationCoalescer, never()).add(anyLong(), anyMap());
+    }
+
+    @Test
+    void handleNotificationCreatedShouldNotSendWhenUserIdIsNull() {
+        listener.handleNotificationCreated(new NotificationCreatedEvent(1L, null, Map.of()));
+
+        verify(notificationCoalescer, never()).add(anyLong(), anyMap());
+    }
+}
@@ -1,8 +1,11 @@
 package com.nyaysetu.backend.notification.service;
 
+import com.nyaysetu.backend.dto.NotificationPageResponse;
 import com.nyaysetu.backend.notification.entity.Notification;
+import com.nyaysetu.backend.notification.entity.NotificationUnreadCount;
 import com.nyaysetu.backend.notification.event.NotificationCreatedEvent;
 import com.nyaysetu.backend.notification.repository.NotificationRepository;
+import com.nyaysetu.backend.notification.repository.NotificationUnreadCountRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -10,9 +13,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,6 +33,9 @@ class NotificationServiceTest {
     @Mock
     private NotificationRepository repository;
 
+    @Mock
+    private NotificationUnreadCountRepository unreadCountRepository;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
@@ -33,6 +47,8 @@ class NotificationServiceTest {
         Notification notification = new Notification();
         Notification savedNotification = new Notification();
         savedNotification.setId(1L);
+        savedNotification.setUserId(10L);
+        savedNotification.setTitle("Case Update");
 
         when(repository.save(notification)).thenReturn(savedNotification);
 
@@ -45,5 +61,70 @@ class NotificationServiceTest {
 
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         assertEquals(1L, eventCaptor.getValue().notificationId());
+        assertEquals(10L, eventCaptor.getValue().userId());
+        assertEquals("Case Update", eventCaptor.getValue().payload().get("title"));
+        verify(unreadCountRepository).add(10L, 1);
+    }
+
+    @Test
+    void findSinceShouldReadOnePageAfterTheGivenId() {
+        Notification missed = new Notification();
+        missed.setId(8L);
+        when(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(3L, 7L, PageRequest.of(0, 50)))
+                .thenReturn(List.of(missed));
+
+        assertEquals(List.of(missed), notificationService.findSince(3L, 7L, 50));
+    }
+
+    @Test
+    void inboxShouldReturnAPageAndACursorToTheNextOne() {
+        when(repository.findByUserIdAndIdLessThanOrderByIdDesc(3L, 100L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(notification(99L), notification(98L), notification(97L)));
+        when(unreadCountRepository.findById(3L))
+                .thenReturn(Optional.of(NotificationUnreadCount.builder().userId(3L).unread(12).build()));
+
+        NotificationPageResponse page = notificationService.inbox(3L, 100L, 2);
+
+        assertEquals(List.of(99L, 98L), page.getItems().stream().map(Notification::getId).toList());
+        assertEquals(98L, page.getNextCursor());
+        assertEquals(12L, page.getUnreadCount());
+    }
+
+    @Test
+    void inboxShouldEndWithoutCursorOnTheLastPage() {
+        when(repository.findByUserIdOrderByIdDesc(3L, PageRequest.of(0, 21))).thenReturn(List.of(notification(5L)));
+        when(unreadCountRepository.findById(3L)).thenReturn(Optional.empty());
+
+        NotificationPageResponse page = notificationService.inbox(3L, null, 20);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertEquals(0L, page.getUnreadCount());
+    }
+
+    @Test
+    void markReadShouldUpdateInBulkAndLowerTheCounterByRowsChanged() {
+        when(repository.markRead(3L, List.of(1L, 2L, 3L))).thenReturn(2);
+
+        assertEquals(2, notificationService.markRead(3L, List.of(1L, 2L, 3L)));
+
+        verify(unreadCountRepository).add(3L, -2);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void markAllReadShouldLeaveTheCounterAloneWhenNothingWasUnread() {
+        when(repository.markAllRead(3L, Long.MAX_VALUE)).thenReturn(0);
+
+        assertEquals(0, notificationService.markAllRead(3L, null));
+
+        verify(unreadCountRepository, never()).add(anyLong(), anyLong());
+    }
+
+    private static Notification notification(long id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUserId(3L);
+        return notification;
     }
-}
\ No newline at end of file
+}
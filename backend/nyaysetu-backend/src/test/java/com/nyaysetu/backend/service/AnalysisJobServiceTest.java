@@ -0,0 +1,190 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AnalysisJob;
+import com.nyaysetu.backend.entity.AnalysisJobStatus;
+import com.nyaysetu.backend.entity.DocumentEntity;
+import com.nyaysetu.backend.entity.VisibilityLevel;
+import com.nyaysetu.backend.repository.AnalysisJobRepository;
+import com.nyaysetu.backend.repository.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalysisJobServiceTest {
+
+    private AnalysisJobRepository jobRepository;
+    private DocumentRepository documentRepository;
+    private DocumentAnalysisService documentAnalysisService;
+    private ContentStoreService contentStoreService;
+    private DocumentEntity document;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = Mockito.mock(AnalysisJobRepository.class);
+        documentRepository = Mockito.mock(DocumentRepository.class);
+        documentAnalysisService = Mockito.mock(DocumentAnalysisService.class);
+        contentStoreService = Mockito.mock(ContentStoreService.class);
+
+        document = DocumentEntity.builder()
+                .id(UUID.randomUUID())
+                .fileName("chargesheet.pdf")
+                .fileUrl("cas/ab/cd/abcd")
+                .visibilityLevel(VisibilityLevel.RESTRICTED)
+                .build();
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+        when(contentStoreService.getStoredFile("cas/ab/cd/abcd")).thenReturn(new File("abcd"));
+        when(jobRepository.save(any(AnalysisJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(jobRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private AnalysisJobService service(TaskExecutor executor) {
+        AnalysisJobService service = new AnalysisJobService(jobRepository, documentRepository,
+                documentAnalysisService, contentStoreService, executor,
+                Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 2);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 1000L);
+        return service;
+    }
+
+    private AnalysisJob queuedJob(int attempts) {
+        return AnalysisJob.builder()
+                .id(UUID.randomUUID())
+                .documentId(document.getId())
+                .priority(0)
+                .status(AnalysisJobStatus.QUEUED)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now().minusSeconds(5))
+                .build();
+    }
+
+    @Test
+    void priorityOf_ranksJudgeRequestsAndSealedDocumentsFirst() {
+        DocumentEntity sealed = DocumentEntity.builder().visibilityLevel(VisibilityLevel.SEALED).build();
+
+        assertEquals(0, AnalysisJobService.priorityOf(document, false));
+        assertEquals(AnalysisJobService.PRIORITY_SEALED, AnalysisJobService.priorityOf(sealed, false));
+        assertEquals(AnalysisJobService.PRIORITY_JUDGE_REQUESTED + AnalysisJobService.PRIORITY_SEALED,
+                AnalysisJobService.priorityOf(sealed, true));
+    }
+
+    @Test
+    void enqueue_raisesPriorityOfAlreadyQueuedDocument() {
+        AnalysisJob existing = queuedJob(0);
+        when(jobRepository.findFirstByDocumentIdAndStatusIn(eq(document.getId()), anyCollection()))
+                .thenReturn(Optional.of(existing));
+        when(jobRepository.raisePriority(existing.getId(), AnalysisJobService.PRIORITY_JUDGE_REQUESTED))
+                .thenReturn(1);
+
+        AnalysisJob job = service(new SyncTaskExecutor()).enqueue(document, true);
+
+        assertSame(existing, job);
+        assertEquals(AnalysisJobService.PRIORITY_JUDGE_REQUESTED, job.getPriority());
+        verify(jobRepository, never()).save(any(AnalysisJob.class));
+    }
+
+    @Test
+    void enqueue_insertsThroughThePendingJobUniqueIndex() {
+        when(jobRepository.insertIfNotPending(any(UUID.class), eq(document.getId()), eq(0), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(jobRepository.findById(any(UUID.class))).thenAnswer(inv -> Optional.of(queuedJob(0)));
+
+        assertNotNull(service(new SyncTaskExecutor()).enqueue(document, false));
+        verify(jobRepository, never()).findFirstByDocumentIdAndStatusIn(any(), anyCollection());
+    }
+
+    @Test
+    void heartbeat_refreshesJobsRunningOnThisNode() {
+        AnalysisJob job = queuedJob(0);
+        when(jobRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(job));
+        List<Runnable> running = new ArrayList<>();
+        AnalysisJobService service = service(running::add);
+
+        service.dispatch();
+        service.heartbeat();
+        verify(jobRepository).heartbeat(eq(List.of(job.getId())), any(LocalDateTime.class));
+
+        running.forEach(Runnable::run);
+        service.heartbeat();
+        verifyNoMoreInteractions(ignoreStubs(jobRepository));
+    }
+
+    @Test
+    void dispatch_discardsOutcomeOfJobRequeuedWhileItRan() throws Exception {
+        AnalysisJob job = queuedJob(0);
+        when(jobRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(job));
+        when(jobRepository.save(job)).thenThrow(new ObjectOptimisticLockingFailureException(AnalysisJob.class, job.getId()));
+        doThrow(new IllegalStateException("Groq timeout"))
+                .when(documentAnalysisService).analyzeDocument(any(), any());
+        job.setAttempts(2);
+
+        service(new SyncTaskExecutor()).dispatch();
+
+        verify(documentAnalysisService, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void dispatch_claimsOnlyIdleWorkersAndMarksSuccess() throws Exception {
+        AnalysisJob job = queuedJob(0);
+        when(jobRepository.claimDue(any(LocalDateTime.class), eq(2))).thenReturn(List.of(job));
+
+        assertEquals(1, service(new SyncTaskExecutor()).dispatch());
+
+        verify(documentAnalysisService).analyzeDocument(eq(document), any(File.class));
+        assertEquals(AnalysisJobStatus.SUCCEEDED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void dispatch_retriesWithBackoffThenRecordsFailure() throws Exception {
+        doThrow(new IllegalStateException("Groq timeout"))
+                .when(documentAnalysisService).analyzeDocument(any(), any());
+        AnalysisJobService service = service(new SyncTaskExecutor());
+
+        AnalysisJob job = queuedJob(0);
+        when(jobRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(job));
+        service.dispatch();
+        assertEquals(AnalysisJobStatus.QUEUED, job.getStatus());
+        assertTrue(job.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals("Groq timeout", job.getLastError());
+        verify(documentAnalysisService, never()).recordFailure(any(), any());
+
+        job.setAttempts(2);
+        service.dispatch();
+        assertEquals(AnalysisJobStatus.FAILED, job.getStatus());
+        verify(documentAnalysisService).recordFailure(document, "Groq timeout");
+    }
+
+    @Test
+    void dispatch_requeuesJobRejectedByExecutor() {
+        AnalysisJob job = queuedJob(0);
+        when(jobRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(job));
+
+        int started = service(task -> {
+            throw new TaskRejectedException("full");
+        }).dispatch();
+
+        assertEquals(0, started);
+        assertEquals(AnalysisJobStatus.QUEUED, job.getStatus());
+        assertEquals(0, job.getAttempts());
+    }
+}
@@ -1,12 +1,21 @@
 package com.nyaysetu.backend.service;
 
+import com.nyaysetu.backend.entity.AuditChainCheckpoint;
+import com.nyaysetu.backend.entity.AuditChainHead;
 import com.nyaysetu.backend.entity.AuditLog;
+import com.nyaysetu.backend.repository.AuditChainCheckpointRepository;
+import com.nyaysetu.backend.repository.AuditChainHeadRepository;
 import com.nyaysetu.backend.repository.AuditLogRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -14,17 +23,84 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class AuditChainServiceTest {
 
     private AuditChainService chainService;
     private AuditLogRepository repository;
+    private AuditChainHeadRepository headRepository;
+    private AuditChainCheckpointRepository checkpointRepository;
 
     @BeforeEach
     void setUp() {
         repository = Mockito.mock(AuditLogRepository.class);
-        chainService = new AuditChainService(repository);
+        headRepository = Mockito.mock(AuditChainHeadRepository.class);
+        checkpointRepository = Mockito.mock(AuditChainCheckpointRepository.class);
+        chainService = new AuditChainService(repository, headRepository, checkpointRepository,
+                Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(chainService, "checkpointSecret", "test-checkpoint-secret");
+    }
+
+    /** Numbers the entries 1..n and stubs the head and keyset-paged reads over them. */
+    private void stubChain(AuditLog... entries) {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i].setSequenceNo(i + 1L);
+        }
+        stubChain(entries.length, entries[entries.length - 1].getEntryHash(), entries);
+    }
+
+    /** Stubs a head at headSequence/headHash over the given (already numbered) stored entries. */
+    private void stubChain(long headSequence, String headHash, AuditLog... entries) {
+        List<AuditLog> all = Arrays.asList(entries);
+        AuditChainHead head = AuditChainHead.builder().chainId(AuditChainService.GLOBAL_CHAIN_ID)
+                .lastSequence(headSequence).lastHash(headHash).build();
+        when(headRepository.findAll()).thenReturn(List.of(head));
+        when(headRepository.findById(AuditChainService.GLOBAL_CHAIN_ID)).thenReturn(Optional.of(head));
+        when(repository.findByChainIdAndSequenceNoGreaterThanAndSequenceNoLessThanEqualOrderBySequenceNoAsc(
+                eq(AuditChainService.GLOBAL_CHAIN_ID), anyLong(), anyLong(), any(Pageable.class))).thenAnswer(inv -> {
+            long after = inv.getArgument(1);
+            long upTo = inv.getArgument(2);
+            int size = inv.<Pageable>getArgument(3).getPageSize();
+            return all.stream()
+                    .filter(e -> e.getSequenceNo() > after && e.getSequenceNo() <= upTo)
+                    .limit(size)
+                    .toList();
+        });
+        when(repository.findByChainIdAndSequenceNo(eq(AuditChainService.GLOBAL_CHAIN_ID), anyLong())).thenAnswer(inv -> {
+            long seq = inv.getArgument(1);
+            return all.stream().filter(e -> e.getSequenceNo() == seq).findFirst();
+        });
+    }
+
+    /** A chain with no head row yet: the first lock finds nothing, the lock after insertIfAbsent finds the new head. */
+    private void stubNewChain(String chainId) {
+        when(headRepository.findForUpdate(chainId)).thenReturn(Optional.empty()).thenAnswer(inv -> Optional.of(
+                AuditChainHead.builder().chainId(chainId).lastSequence(0L).lastHash(AuditChainService.GENESIS_HASH).build()));
+    }
+
+    /** Builds n correctly chained entries. */
+    private AuditLog[] intactChain(int n) {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
+        AuditLog[] entries = new AuditLog[n];
+        String previous = AuditChainService.GENESIS_HASH;
+        for (int i = 0; i < n; i++) {
+            AuditLog e = new AuditLog();
+            e.setId(UUID.randomUUID());
+            e.setAction("ACTION_" + i);
+            e.setUserId(1L);
+            e.setDescription("entry " + i);
+            e.setTimestamp(base.plusMinutes(i));
+            e.setPreviousHash(previous);
+            e.setEntryHash(chainService.computeHash(e, previous));
+            previous = e.getEntryHash();
+            entries[i] = e;
+        }
+        return entries;
     }
 
     /**
@@ -66,7 +142,7 @@ class AuditChainServiceTest {
         entry3.setPreviousHash(entry2.getEntryHash());
         entry3.setEntryHash(chainService.computeHash(entry3, entry2.getEntryHash()));
 
-        when(repository.findAllByOrderByTimestampAsc()).thenReturn(List.of(entry1, entry2, entry3));
+        stubChain(entry1, entry2, entry3);
 
         List<Map<String, Object>> broken = chainService.verifyChain();
 
@@ -106,15 +182,15 @@ class AuditChainServiceTest {
         e3.setPreviousHash(e2.getEntryHash());
         e3.setEntryHash(chainService.computeHash(e3, e2.getEntryHash()));
 
-        when(repository.findAllByOrderByTimestampAsc()).thenReturn(List.of(e1, e2, e3));
+        stubChain(e1, e2, e3);
 
         assertTrue(chainService.verifyChain().isEmpty(), "Intact chain must return no broken links");
     }
 
     @Test
     void appendEntry_setsGenesisHashWhenChainIsEmpty() {
-        when(repository.findTopByOrderByTimestampDesc()).thenReturn(Optional.empty());
-        when(repository.save(any(AuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
+        stubNewChain(AuditChainService.GLOBAL_CHAIN_ID);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
 
         AuditLog log = new AuditLog();
         log.setAction("LOGIN");
@@ -127,5 +203,225 @@ class AuditChainServiceTest {
         assertEquals(AuditChainService.GENESIS_HASH, saved.getPreviousHash());
         assertNotNull(saved.getEntryHash());
         assertEquals(64, saved.getEntryHash().length());
+        assertEquals(1L, saved.getSequenceNo());
+        verify(headRepository).insertIfAbsent(AuditChainService.GLOBAL_CHAIN_ID, AuditChainService.GENESIS_HASH);
+    }
+
+    @Test
+    void appendEntry_chainsOntoHeadCreatedByAnotherNode() {
+        // Another node inserted the head between our first lookup and our insert; ours is a no-op
+        AuditChainHead theirs = AuditChainHead.builder()
+                .chainId(AuditChainService.GLOBAL_CHAIN_ID).lastSequence(1L).lastHash("ef".repeat(32)).build();
+        when(headRepository.findForUpdate(AuditChainService.GLOBAL_CHAIN_ID))
+                .thenReturn(Optional.empty()).thenReturn(Optional.of(theirs));
+        when(headRepository.insertIfAbsent(anyString(), anyString())).thenReturn(0);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        AuditLog saved = chainService.appendEntry(AuditLog.builder()
+                .action("LOGIN").userId(1L).description("second node").timestamp(LocalDateTime.now()).build());
+
+        assertEquals(2L, saved.getSequenceNo());
+        assertEquals("ef".repeat(32), saved.getPreviousHash());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendEntry_dropsTheQueueOfAnIdleChain() {
+        stubNewChain(AuditChainService.GLOBAL_CHAIN_ID);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        chainService.appendEntry(AuditLog.builder()
+                .action("LOGIN").userId(1L).description("one").timestamp(LocalDateTime.now()).build());
+
+        Map<String, ?> queues = (Map<String, ?>) ReflectionTestUtils.getField(chainService, "queues");
+        assertTrue(queues.isEmpty());
+    }
+
+    @Test
+    void appendEntry_chainsOntoLockedHeadAndAdvancesIt() {
+        AuditChainHead head = AuditChainHead.builder()
+                .chainId(AuditChainService.GLOBAL_CHAIN_ID)
+                .lastSequence(41L)
+                .lastHash("ab".repeat(32))
+                .build();
+        when(headRepository.findForUpdate(AuditChainService.GLOBAL_CHAIN_ID)).thenReturn(Optional.of(head));
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        AuditLog first = chainService.appendEntry(AuditLog.builder()
+                .action("LOGIN").userId(1L).description("one").timestamp(LocalDateTime.now()).build());
+        AuditLog second = chainService.appendEntry(AuditLog.builder()
+                .action("LOGOUT").userId(1L).description("two").timestamp(LocalDateTime.now()).build());
+
+        assertEquals(42L, first.getSequenceNo());
+        assertEquals("ab".repeat(32), first.getPreviousHash());
+        assertEquals(43L, second.getSequenceNo());
+        assertEquals(first.getEntryHash(), second.getPreviousHash());
+        assertEquals(43L, head.getLastSequence());
+        assertEquals(second.getEntryHash(), head.getLastHash());
+        verify(headRepository, times(2)).save(head);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void verifyChain_parallelSegmentsDetectTamperAcrossBoundaries() {
+        ReflectionTestUtils.setField(chainService, "checkpointInterval", 2L);
+        ReflectionTestUtils.setField(chainService, "verifyPageSize", 1);
+        AuditLog[] entries = intactChain(5);
+        entries[3].setDescription("rewritten after the fact");
+        stubChain(entries);
+
+        List<Map<String, Object>> broken = chainService.verifyChain();
+
+        assertEquals(1, broken.size());
+        assertEquals(entries[3].getId().toString(), broken.get(0).get("id"));
+        verify(checkpointRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void verifyAndSignMissingCheckpoints_signsMissingCheckpointsWhenIntact() {
+        ReflectionTestUtils.setField(chainService, "checkpointInterval", 2L);
+        AuditLog[] entries = intactChain(5);
+        stubChain(entries);
+
+        assertTrue(chainService.verifyAndSignMissingCheckpoints().isEmpty());
+
+        ArgumentCaptor<List<AuditChainCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(checkpointRepository).saveAll(captor.capture());
+        List<AuditChainCheckpoint> created = captor.getValue();
+        assertEquals(List.of(2L, 4L), created.stream().map(AuditChainCheckpoint::getSequenceNo).toList());
+        assertEquals(entries[1].getEntryHash(), created.get(0).getEntryHash());
+        assertTrue(created.stream().allMatch(chainService::isSignatureValid));
+    }
+
+    @Test
+    void verifyChain_neverWritesCheckpoints() {
+        ReflectionTestUtils.setField(chainService, "checkpointInterval", 2L);
+        stubChain(intactChain(5));
+
+        assertTrue(chainService.verifyChain().isEmpty());
+
+        verify(checkpointRepository, never()).saveAll(anyList());
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    void verifyChain_reportsForgedCheckpoint() {
+        ReflectionTestUtils.setField(chainService, "checkpointInterval", 2L);
+        AuditLog[] entries = intactChain(3);
+        stubChain(entries);
+        AuditChainCheckpoint forged = AuditChainCheckpoint.builder()
+                .id(UUID.randomUUID())
+                .chainId(AuditChainService.GLOBAL_CHAIN_ID)
+                .sequenceNo(2L)
+                .entryHash(entries[1].getEntryHash())
+                .signature("00".repeat(32))
+                .build();
+        when(checkpointRepository.findAll()).thenReturn(List.of(forged));
+
+        List<Map<String, Object>> broken = chainService.verifyChain();
+
+        assertEquals(1, broken.size());
+        assertEquals(forged.getId().toString(), broken.get(0).get("id"));
+    }
+
+    @Test
+    void verifyChain_detectsTruncatedTail() {
+        AuditLog[] entries = intactChain(4);
+        for (int i = 0; i < entries.length; i++) {
+            entries[i].setSequenceNo(i + 1L);
+        }
+        // The last entry was deleted; the head still points at it
+        stubChain(4L, entries[3].getEntryHash(), Arrays.copyOf(entries, 3));
+
+        List<Map<String, Object>> broken = chainService.verifyChain();
+
+        assertEquals(1, broken.size());
+        assertEquals(entries[2].getId().toString(), broken.get(0).get("id"));
+        assertTrue(broken.get(0).get("reason").toString().contains("chain head"));
+        verify(checkpointRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void verifyChain_incrementalWalksOnlyEntriesAfterLatestCheckpoint() {
+        AuditLog[] entries = intactChain(4);
+        stubChain(entries);
+        AuditChainCheckpoint checkpoint = AuditChainCheckpoint.builder()
+                .chainId(AuditChainService.GLOBAL_CHAIN_ID)
+                .sequenceNo(2L)
+                .entryHash(entries[1].getEntryHash())
+                .signature(chainService.signCheckpoint(AuditChainService.GLOBAL_CHAIN_ID, 2L, entries[1].getEntryHash()))
+                .build();
+        when(checkpointRepository.findAll()).thenReturn(List.of(checkpoint));
+
+        assertTrue(chainService.verifyChain(true).isEmpty());
+
+        verify(repository).findByChainIdAndSequenceNoGreaterThanAndSequenceNoLessThanEqualOrderBySequenceNoAsc(
+                eq(AuditChainService.GLOBAL_CHAIN_ID), eq(2L), eq(4L), any(Pageable.class));
+        verify(repository, never()).findByChainIdAndSequenceNoGreaterThanAndSequenceNoLessThanEqualOrderBySequenceNoAsc(
+                anyString(), eq(0L), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void appendEntry_chainsCaseEntriesIndependentlyOfGlobalChain() {
+        UUID caseId = UUID.randomUUID();
+        String caseChain = caseId.toString();
+        AuditChainHead globalHead = AuditChainHead.builder()
+                .chainId(AuditChainService.GLOBAL_CHAIN_ID).lastSequence(7L).lastHash("cd".repeat(32)).build();
+        when(headRepository.findForUpdate(AuditChainService.GLOBAL_CHAIN_ID)).thenReturn(Optional.of(globalHead));
+        stubNewChain(caseChain);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        AuditLog caseEntry = chainService.appendEntry(AuditLog.builder()
+                .caseId(caseId).action("DOC_UPLOADED").userId(2L).description("exhibit A")
+                .timestamp(LocalDateTime.now()).build());
+        AuditLog globalEntry = chainService.appendEntry(AuditLog.builder()
+                .action("LOGIN").userId(2L).description("login").timestamp(LocalDateTime.now()).build());
+
+        assertEquals(caseChain, caseEntry.getChainId());
+        assertEquals(1L, caseEntry.getSequenceNo());
+        assertEquals(AuditChainService.GENESIS_HASH, caseEntry.getPreviousHash());
+        assertEquals(AuditChainService.GLOBAL_CHAIN_ID, globalEntry.getChainId());
+        assertEquals(8L, globalEntry.getSequenceNo());
+        assertEquals("cd".repeat(32), globalEntry.getPreviousHash());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendInTransaction_writesEachChainInOneBatchInListOrder() {
+        UUID caseId = UUID.randomUUID();
+        stubNewChain(caseId.toString());
+        stubNewChain(AuditChainService.GLOBAL_CHAIN_ID);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        AuditLog first = AuditLog.builder().caseId(caseId).action("STATUS_CHANGE").userId(3L)
+                .description("one").timestamp(LocalDateTime.now()).build();
+        AuditLog second = AuditLog.builder().caseId(caseId).action("STAGE_CHANGE").userId(3L)
+                .description("two").timestamp(LocalDateTime.now()).build();
+        AuditLog global = AuditLog.builder().action("LOGIN").userId(3L)
+                .description("login").timestamp(LocalDateTime.now()).build();
+
+        chainService.appendInTransaction(List.of(first, global, second));
+
+        ArgumentCaptor<List<AuditLog>> batches = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(batches.capture());
+        assertEquals(List.of(first, second), batches.getAllValues().get(0));
+        assertEquals(List.of(global), batches.getAllValues().get(1));
+        assertEquals(1L, first.getSequenceNo());
+        assertEquals(2L, second.getSequenceNo());
+        assertEquals(first.getEntryHash(), second.getPreviousHash());
+    }
+
+    @Test
+    void checkpointSecret_mustBeSetAndDifferFromJwtSecret() {
+        ReflectionTestUtils.setField(chainService, "jwtSecret", "shared-secret");
+        ReflectionTestUtils.setField(chainService, "checkpointSecret", "shared-secret");
+        assertThrows(IllegalStateException.class, chainService::validateCheckpointSecret);
+
+        ReflectionTestUtils.setField(chainService, "checkpointSecret", " ");
+        assertThrows(IllegalStateException.class, chainService::validateCheckpointSecret);
+
+        ReflectionTestUtils.setField(chainService, "checkpointSecret", "test-checkpoint-secret");
+        assertDoesNotThrow(chainService::validateCheckpointSecret);
     }
-}
\ No newline at end of file
+}
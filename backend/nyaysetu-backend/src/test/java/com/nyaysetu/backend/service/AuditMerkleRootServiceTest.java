@@ -0,0 +1,93 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AuditChainHead;
+import com.nyaysetu.backend.entity.AuditMerkleLeaf;
+import com.nyaysetu.backend.entity.AuditMerkleRoot;
+import com.nyaysetu.backend.repository.AuditChainHeadRepository;
+import com.nyaysetu.backend.repository.AuditMerkleLeafRepository;
+import com.nyaysetu.backend.repository.AuditMerkleRootRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AuditMerkleRootServiceTest {
+
+    private AuditChainHeadRepository headRepository;
+    private AuditMerkleRootRepository rootRepository;
+    private AuditMerkleLeafRepository leafRepository;
+    private AuditMerkleRootService service;
+
+    @BeforeEach
+    void setUp() {
+        headRepository = mock(AuditChainHeadRepository.class);
+        rootRepository = mock(AuditMerkleRootRepository.class);
+        leafRepository = mock(AuditMerkleLeafRepository.class);
+        service = new AuditMerkleRootService(headRepository, rootRepository, leafRepository);
+    }
+
+    @Test
+    void commitGlobalRoot_skipsWhileAnotherNodeHoldsTheLock() {
+        AuditMerkleRoot latest = AuditMerkleRoot.builder().id(UUID.randomUUID()).rootHash("ab").build();
+        when(rootRepository.tryCommitLock(AuditMerkleRootService.COMMIT_LOCK_KEY)).thenReturn(false);
+        when(rootRepository.findTopByOrderByComputedAtDesc()).thenReturn(Optional.of(latest));
+
+        assertSame(latest, service.commitGlobalRoot());
+
+        verifyNoInteractions(headRepository, leafRepository);
+        verify(rootRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commitGlobalRoot_proofsVerifyAgainstTheDomainSeparatedRoot() {
+        List<AuditChainHead> heads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            heads.add(AuditChainHead.builder().chainId("chain-" + i).lastSequence(i + 1L)
+                    .lastHash(MerkleTree.sha256("head-" + i)).build());
+        }
+        when(rootRepository.tryCommitLock(anyLong())).thenReturn(true);
+        when(headRepository.findAll(any(Sort.class))).thenReturn(heads);
+        when(rootRepository.findTopByOrderByComputedAtDesc()).thenReturn(Optional.empty());
+        when(rootRepository.save(any())).thenAnswer(inv -> {
+            AuditMerkleRoot root = inv.getArgument(0);
+            root.setId(UUID.randomUUID());
+            return root;
+        });
+
+        AuditMerkleRoot root = service.commitGlobalRoot();
+
+        ArgumentCaptor<List<AuditMerkleLeaf>> leaves = ArgumentCaptor.forClass(List.class);
+        verify(leafRepository).saveAll(leaves.capture());
+        List<String> leafHashes = leaves.getValue().stream().map(AuditMerkleLeaf::getLeafHash).toList();
+        for (int i = 0; i < leafHashes.size(); i++) {
+            assertTrue(DomainSeparatedMerkleTree.verify(leafHashes.get(i),
+                    DomainSeparatedMerkleTree.proof(leafHashes, i), root.getRootHash()));
+        }
+        // The odd last leaf is promoted, not paired with a copy of itself
+        assertNotEquals(DomainSeparatedMerkleTree.root(leafHashes),
+                DomainSeparatedMerkleTree.root(List.of(leafHashes.get(0), leafHashes.get(1), leafHashes.get(2),
+                        leafHashes.get(3), leafHashes.get(4), leafHashes.get(4))));
+    }
+
+    @Test
+    void leavesAreNotInterchangeableWithInternalNodes() {
+        String a = DomainSeparatedMerkleTree.leafHash("a");
+        String b = DomainSeparatedMerkleTree.leafHash("b");
+        String parent = DomainSeparatedMerkleTree.combine(a, b);
+
+        assertNotEquals(parent, MerkleTree.combine(a, b));
+        assertNotEquals(parent, DomainSeparatedMerkleTree.leafHash(a + b));
+        assertFalse(DomainSeparatedMerkleTree.verify(parent, List.of(), DomainSeparatedMerkleTree.root(List.of(a, b, parent))));
+    }
+}
@@ -0,0 +1,125 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.AuditLog;
+import com.nyaysetu.backend.entity.CaseActivityOutbox;
+import com.nyaysetu.backend.entity.CaseTimeline;
+import com.nyaysetu.backend.event.CaseActivityEvent;
+import com.nyaysetu.backend.repository.CaseActivityOutboxRepository;
+import com.nyaysetu.backend.repository.CaseTimelineRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CaseActivityProjectorTest {
+
+    private static final UUID CASE_ID = UUID.randomUUID();
+
+    private CaseActivityOutboxRepository outboxRepository;
+    private CaseTimelineRepository timelineRepository;
+    private AuditChainService auditChainService;
+    private CaseActivityProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(CaseActivityOutboxRepository.class);
+        timelineRepository = mock(CaseTimelineRepository.class);
+        auditChainService = mock(AuditChainService.class);
+        when(outboxRepository.claimBatch(anyInt(), anyInt())).thenReturn(List.of());
+        projector = new CaseActivityProjector(outboxRepository, timelineRepository, auditChainService,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 10, 3, Runnable::run);
+    }
+
+    @Test
+    void activityIsWrittenToTheOutboxAndProjectedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            projector.onActivity(CaseActivityEvent.auditEntry(CASE_ID, 7L, "LAWYER", "DOCUMENT_VIEWED", "Viewed affidavit"));
+
+            ArgumentCaptor<CaseActivityOutbox> saved = ArgumentCaptor.forClass(CaseActivityOutbox.class);
+            verify(outboxRepository).save(saved.capture());
+            assertEquals("DOCUMENT_VIEWED", saved.getValue().getEventType());
+            assertEquals(7L, saved.getValue().getActorUserId());
+            assertTrue(saved.getValue().isAudited());
+            assertFalse(saved.getValue().isTimeline());
+            verify(outboxRepository, never()).claimBatch(anyInt(), anyInt());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(outboxRepository).claimBatch(3, 10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchWritesTimelineAndAuditThenDeletesItsRows() {
+        when(outboxRepository.claimBatch(3, 10)).thenReturn(List.of(
+                row(1L, "Message sent", "MESSAGE", true, false),
+                row(2L, "DOCUMENT_VIEWED", "DOCUMENT_VIEWED", false, true)));
+
+        projector.projectAll();
+
+        InOrder inOrder = inOrder(timelineRepository, auditChainService, outboxRepository);
+        ArgumentCaptor<List<CaseTimeline>> timeline = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(timelineRepository).saveAll(timeline.capture());
+        ArgumentCaptor<List<AuditLog>> audit = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(auditChainService).appendInTransaction(audit.capture());
+        inOrder.verify(outboxRepository).deleteByIdIn(List.of(1L, 2L));
+
+        assertEquals("Message sent", timeline.getValue().get(0).getEvent());
+        assertEquals(1, audit.getValue().size());
+        assertEquals("DOCUMENT_VIEWED", audit.getValue().get(0).getAction());
+        assertEquals(7L, audit.getValue().get(0).getUserId());
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndTheBadRowKeepsItsError() {
+        CaseActivityOutbox good = row(1L, "Hearing scheduled", "HEARING", true, false);
+        CaseActivityOutbox bad = row(2L, "Case filed", "FILING", true, false);
+        when(outboxRepository.claimBatch(3, 10)).thenReturn(List.of(good, bad));
+        when(outboxRepository.claim(1L)).thenReturn(List.of(good));
+        when(outboxRepository.claim(2L)).thenReturn(List.of(bad));
+        when(timelineRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<CaseTimeline> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(t -> "Case filed".equals(t.getEvent()))) {
+                throw new IllegalStateException("value too long");
+            }
+            return rows;
+        });
+
+        projector.projectAll();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+        verify(outboxRepository, never()).deleteByIdIn(List.of(2L));
+        verify(outboxRepository).recordFailure(eq(2L), contains("value too long"));
+        verify(outboxRepository, times(1)).claimBatch(anyInt(), anyInt());
+    }
+
+    private static CaseActivityOutbox row(Long id, String event, String eventType, boolean timeline, boolean audited) {
+        return CaseActivityOutbox.builder()
+                .id(id)
+                .caseId(CASE_ID)
+                .event(event)
+                .eventType(eventType)
+                .actorUserId(7L)
+                .actorRole("LAWYER")
+                .occurredAt(LocalDateTime.now())
+                .timeline(timeline)
+                .audited(audited)
+                .build();
+    }
+}
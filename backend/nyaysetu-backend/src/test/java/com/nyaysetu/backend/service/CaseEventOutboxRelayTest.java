@@ -0,0 +1,151 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.CaseEventOutbox;
+import com.nyaysetu.backend.repository.CaseEventOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CaseEventOutboxRelayTest {
+
+    private static final UUID CASE_ID = UUID.randomUUID();
+    private static final UUID OTHER_CASE_ID = UUID.randomUUID();
+
+    private CaseEventOutboxRepository outboxRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private CaseEventOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(CaseEventOutboxRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        when(outboxRepository.tryRelayLock(CaseEventOutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        relay = new CaseEventOutboxRelay(outboxRepository, messagingTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 2, 3, Runnable::run);
+    }
+
+    @Test
+    void batchesAreSentInOrderAndDeleted() {
+        when(outboxRepository.findByAttemptsLessThanOrderByIdAsc(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "/events", "{\"n\":1}"), row(2L, "/status", "{\"n\":2}")))
+                .thenReturn(List.of(row(3L, "/events", "{\"n\":3}")));
+
+        relay.relayAll();
+
+        InOrder inOrder = inOrder(messagingTemplate);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> sent = ArgumentCaptor.forClass(Message.class);
+        inOrder.verify(messagingTemplate).send(eq("/events"), sent.capture());
+        inOrder.verify(messagingTemplate).send(eq("/status"), any(Message.class));
+        inOrder.verify(messagingTemplate).send(eq("/events"), any(Message.class));
+        assertEquals("{\"n\":1}", new String(sent.getAllValues().get(0).getPayload(), StandardCharsets.UTF_8));
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, sent.getAllValues().get(0).getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertEquals("1", SimpMessageHeaderAccessor.wrap(sent.getAllValues().get(0))
+                .getFirstNativeHeader(CaseEventOutboxRelay.MESSAGE_ID_HEADER));
+        verify(outboxRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(outboxRepository).deleteByIdIn(List.of(3L));
+    }
+
+    @Test
+    void anotherNodeHoldingTheLockRelaysInstead() {
+        when(outboxRepository.tryRelayLock(CaseEventOutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        relay.relayAll();
+
+        verify(outboxRepository, never()).findByAttemptsLessThanOrderByIdAsc(anyInt(), any(Pageable.class));
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void nothingIsRelayedBeforeCommit() {
+        when(outboxRepository.findByAttemptsLessThanOrderByIdAsc(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "/events", "{}")), List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            relay.relayAfterCommit();
+            verifyNoInteractions(messagingTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(messagingTemplate).send(eq("/events"), any(Message.class));
+    }
+
+    @Test
+    void failedSendKeepsItsRowAndHoldsBackLaterMessagesOfTheSameCaseOnly() {
+        relay = new CaseEventOutboxRelay(outboxRepository, messagingTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 10, 3, Runnable::run);
+        when(outboxRepository.findByAttemptsLessThanOrderByIdAsc(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "/a", "{}"), row(2L, OTHER_CASE_ID, "/other", "{}"),
+                        row(3L, "/b", "{}")));
+        doThrow(new IllegalStateException("broker stopped")).when(messagingTemplate).send(eq("/a"), any(Message.class));
+
+        relay.relayAll();
+
+        verify(outboxRepository).recordFailure(eq(1L), contains("broker stopped"));
+        verify(messagingTemplate).send(eq("/other"), any(Message.class));
+        verify(messagingTemplate, never()).send(eq("/b"), any(Message.class));
+        verify(outboxRepository).deleteByIdIn(List.of(2L));
+        // The failed row is retried by the next sweep, not in a tight loop
+        verify(outboxRepository, times(1)).findByAttemptsLessThanOrderByIdAsc(anyInt(), any(Pageable.class));
+    }
+
+    @Test
+    void messagesAreSentAgainWithTheSameIdWhenTheDeleteDoesNotCommit() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+        relay = new CaseEventOutboxRelay(outboxRepository, messagingTemplate, transactionManager,
+                new SimpleMeterRegistry(), 2, 3, Runnable::run);
+        when(outboxRepository.findByAttemptsLessThanOrderByIdAsc(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(row(5L, "/events", "{}")), List.of(row(5L, "/events", "{}")), List.of());
+
+        relay.relayAll();
+        relay.relayAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(2)).send(eq("/events"), sent.capture());
+        for (Message<byte[]> message : sent.getAllValues()) {
+            assertEquals("5", SimpMessageHeaderAccessor.wrap(message)
+                    .getFirstNativeHeader(CaseEventOutboxRelay.MESSAGE_ID_HEADER));
+        }
+    }
+
+    private static CaseEventOutbox row(Long id, String destination, String payload) {
+        return row(id, CASE_ID, destination, payload);
+    }
+
+    private static CaseEventOutbox row(Long id, UUID caseId, String destination, String payload) {
+        return CaseEventOutbox.builder()
+                .id(id)
+                .caseId(caseId)
+                .destination(destination)
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
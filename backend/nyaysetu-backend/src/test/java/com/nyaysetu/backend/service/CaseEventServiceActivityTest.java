@@ -0,0 +1,107 @@
+package com.nyaysetu.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.entity.CaseEvent;
+import com.nyaysetu.backend.entity.CaseStatus;
+import com.nyaysetu.backend.event.CaseActivityEvent;
+import com.nyaysetu.backend.repository.CaseEventOutboxRepository;
+import com.nyaysetu.backend.repository.CaseEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Every case event, whichever CaseStateTransitionService path logs it, also records one
+ * activity event carrying its timeline row and audit entry.
+ */
+class CaseEventServiceActivityTest {
+
+    private static final UUID CASE_ID = UUID.randomUUID();
+
+    private CaseEventOutboxRepository outboxRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private CaseEventService caseEventService;
+
+    @BeforeEach
+    void setUp() {
+        CaseEventRepository caseEventRepository = mock(CaseEventRepository.class);
+        when(caseEventRepository.save(any(CaseEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        outboxRepository = mock(CaseEventOutboxRepository.class);
+        caseEventService = new CaseEventService(caseEventRepository, outboxRepository,
+                mock(CaseEventOutboxRelay.class), new SimpMessagingTemplate((message, timeout) -> true),
+                eventPublisher, new ObjectMapper());
+    }
+
+    @Test
+    void statusChangeRecordsATimelineRowAndAnAuditEntry() {
+        caseEventService.logStatusChange(CASE_ID, "12", CaseEventService.ROLE_JUDGE, "Judge Rao",
+                CaseStatus.values()[0], CaseStatus.values()[1], "Admitted");
+
+        CaseActivityEvent activity = publishedActivity();
+        assertEquals(CASE_ID, activity.caseId());
+        assertEquals(CaseEventService.EVENT_STATUS_CHANGE, activity.eventType());
+        assertEquals(12L, activity.actorUserId());
+        assertEquals("Judge Rao", activity.actorName());
+        assertTrue(activity.timeline());
+        assertTrue(activity.audited());
+    }
+
+    @Test
+    void outboxRowsAreInsertedUnderTheCaseLock() {
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        MessageConverter converter = mock(MessageConverter.class);
+        doReturn(MessageBuilder.withPayload("{}".getBytes(StandardCharsets.UTF_8)).build())
+                .when(converter).toMessage(any(), any());
+        messagingTemplate.setMessageConverter(converter);
+        CaseEventRepository caseEventRepository = mock(CaseEventRepository.class);
+        when(caseEventRepository.save(any(CaseEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        caseEventService = new CaseEventService(caseEventRepository, outboxRepository,
+                mock(CaseEventOutboxRelay.class), messagingTemplate, eventPublisher, new ObjectMapper());
+
+        caseEventService.logStageChange(CASE_ID, "12", "Judge Rao", 1, 2, "Framing of issues");
+
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).lockCase(CaseEventOutboxRelay.CASE_LOCK_NAMESPACE, CASE_ID);
+        inOrder.verify(outboxRepository).saveAll(anyList());
+    }
+
+    @Test
+    void systemActorsAreAuditedWithoutAUserId() {
+        caseEventService.logSimpleEvent(CASE_ID, CaseEventService.EVENT_SUMMONS_SERVED, "SYSTEM",
+                CaseEventService.ROLE_SYSTEM, "System", "Summons served");
+
+        CaseActivityEvent activity = publishedActivity();
+        assertNull(activity.actorUserId());
+        assertEquals(CaseEventService.ROLE_SYSTEM, activity.actorRole());
+        assertEquals("Summons served", activity.description());
+    }
+
+    @Test
+    void stageChangeRecordsItsActivityOnce() {
+        caseEventService.logStageChange(CASE_ID, "12", "Judge Rao", 1, 2, "Framing of issues");
+
+        CaseActivityEvent activity = publishedActivity();
+        assertEquals(CaseEventService.EVENT_STAGE_CHANGE, activity.eventType());
+        assertEquals(CaseEventService.ROLE_JUDGE, activity.actorRole());
+    }
+
+    private CaseActivityEvent publishedActivity() {
+        ArgumentCaptor<CaseActivityEvent> activity = ArgumentCaptor.forClass(CaseActivityEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(activity.capture());
+        return activity.getValue();
+    }
+}
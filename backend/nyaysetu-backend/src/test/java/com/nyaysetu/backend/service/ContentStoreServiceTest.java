@@ -0,0 +1,219 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.StorageBlob;
+import com.nyaysetu.backend.repository.StorageBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+class ContentStoreServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ContentStoreService contentStore;
+    private StorageBlobRepository blobRepository;
+    private PlatformTransactionManager transactionManager;
+    private LocalBlobStorage blobStorage;
+    private final Map<String, StorageBlob> blobs = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        blobRepository = Mockito.mock(StorageBlobRepository.class);
+        when(blobRepository.findForUpdate(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(blobs.get(inv.<String>getArgument(0))));
+        when(blobRepository.saveAndFlush(any(StorageBlob.class))).thenAnswer(inv -> {
+            StorageBlob blob = inv.getArgument(0);
+            blobs.put(blob.getSha256(), blob);
+            return blob;
+        });
+        when(blobRepository.incrementRefCount(anyString())).thenAnswer(inv -> {
+            StorageBlob blob = blobs.get(inv.<String>getArgument(0));
+            if (blob == null || blob.getRefCount() < 0) {
+                return 0;
+            }
+            blob.setRefCount(blob.getRefCount() + 1);
+            blob.setReleasedAt(null);
+            return 1;
+        });
+        when(blobRepository.decrementRefCount(anyString(), any(LocalDateTime.class))).thenAnswer(inv -> {
+            StorageBlob blob = blobs.get(inv.<String>getArgument(0));
+            if (blob == null || blob.getRefCount() <= 0) {
+                return 0;
+            }
+            blob.setRefCount(blob.getRefCount() - 1);
+            blob.setReleasedAt(inv.getArgument(1));
+            return 1;
+        });
+        when(blobRepository.touchUnreferenced(anyCollection(), any(LocalDateTime.class))).thenAnswer(inv -> {
+            int touched = 0;
+            for (String sha256 : inv.<Collection<String>>getArgument(0)) {
+                StorageBlob blob = blobs.get(sha256);
+                if (blob != null && blob.getRefCount() == 0) {
+                    blob.setReleasedAt(inv.getArgument(1));
+                    touched++;
+                }
+            }
+            return touched;
+        });
+        when(blobRepository.findByRefCountLessThanEqualAndReleasedAtBefore(anyInt(), any(LocalDateTime.class),
+                any(Pageable.class))).thenAnswer(inv -> blobs.values().stream()
+                .filter(b -> b.getRefCount() <= 0 && b.getReleasedAt().isBefore(inv.getArgument(1)))
+                .toList());
+        Mockito.doAnswer(inv -> blobs.remove(inv.<StorageBlob>getArgument(0).getSha256()))
+                .when(blobRepository).delete(any(StorageBlob.class));
+
+        FileStorageService fileStorage = new FileStorageService(uploadDir.toString(), 4096);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        blobStorage = Mockito.spy(new LocalBlobStorage(fileStorage));
+        contentStore = new ContentStoreService(fileStorage, blobStorage, blobRepository, transactionManager);
+    }
+
+    private static MockMultipartFile upload(String name, String content) {
+        return new MockMultipartFile("file", name, "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void store_identicalContentSharesOneBlob() throws Exception {
+        StoredFile police = contentStore.store(upload("fir-police.pdf", "FIR 112/2026"), blob -> blob);
+        StoredFile lawyer = contentStore.store(upload("fir-copy.pdf", "FIR 112/2026"), blob -> blob);
+        StoredFile other = contentStore.store(upload("judgment.pdf", "Judgment"), blob -> blob);
+
+        assertEquals(police.path(), lawyer.path());
+        assertNotEquals(police.path(), other.path());
+        assertEquals(2, blobs.get(police.sha256()).getRefCount());
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count(), "staged duplicates are discarded");
+        }
+    }
+
+    @Test
+    void collectGarbage_removesOnlyUnreferencedBlobsPastGracePeriod() {
+        StoredFile kept = contentStore.store(upload("a.pdf", "kept"), blob -> blob);
+        contentStore.store(upload("a-copy.pdf", "kept"), blob -> blob);
+        StoredFile dropped = contentStore.store(upload("b.pdf", "dropped"), blob -> blob);
+
+        contentStore.release(kept.sha256());
+        contentStore.release(dropped.sha256());
+        blobs.get(dropped.sha256()).setReleasedAt(LocalDateTime.now().minusDays(1));
+
+        assertEquals(1, contentStore.collectGarbage());
+        assertTrue(Files.exists(uploadDir.resolve(kept.path())));
+        assertFalse(Files.exists(uploadDir.resolve(dropped.path())));
+        assertEquals(List.of(kept.sha256()), List.copyOf(blobs.keySet()));
+    }
+
+    @Test
+    void store_takesTheReferenceAfterThePlacementCommits() {
+        StoredFile stored = contentStore.store(upload("fir.pdf", "FIR 113/2026"), blob -> blob);
+
+        InOrder order = Mockito.inOrder(blobRepository, transactionManager);
+        order.verify(blobRepository).saveAndFlush(any(StorageBlob.class));
+        order.verify(transactionManager).commit(any());
+        order.verify(blobRepository).incrementRefCount(stored.sha256());
+        assertEquals(1, blobs.get(stored.sha256()).getRefCount());
+    }
+
+    @Test
+    void store_uploadsOnlyAfterTheRowLockIsReleased() {
+        StoredFile stored = contentStore.store(upload("cctv.mp4", "frames"), blob -> blob);
+
+        InOrder order = Mockito.inOrder(blobRepository, transactionManager, blobStorage);
+        order.verify(blobRepository).findForUpdate(stored.sha256());
+        order.verify(transactionManager).commit(any());
+        order.verify(blobStorage).put(anyString(), eq(stored.path()), anyString());
+        order.verify(blobRepository).incrementRefCount(stored.sha256());
+    }
+
+    @Test
+    void store_recordRollsBackWithItsReference() {
+        assertThrows(IllegalStateException.class, () -> contentStore.store(upload("fir.pdf", "FIR 115/2026"), blob -> {
+            throw new IllegalStateException("case closed");
+        }));
+
+        StorageBlob row = blobs.values().iterator().next();
+        InOrder order = Mockito.inOrder(blobRepository, transactionManager);
+        order.verify(blobRepository).incrementRefCount(row.getSha256());
+        order.verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void upload_refusesToRunInsideATransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(IllegalStateException.class, () -> contentStore.upload(upload("fir.pdf", "FIR 116/2026")));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        Mockito.verifyNoInteractions(blobRepository);
+    }
+
+    @Test
+    void upload_heartbeatsKeepASlowUploadFromBeingCollected() {
+        Mockito.doAnswer(inv -> {
+            // The upload outlasts the grace period while collection runs on another node
+            blobs.values().forEach(blob -> blob.setReleasedAt(LocalDateTime.now().minusDays(1)));
+            contentStore.heartbeatUploads();
+            assertEquals(0, contentStore.collectGarbage());
+            return inv.callRealMethod();
+        }).when(blobStorage).put(anyString(), anyString(), anyString());
+
+        StoredFile stored = contentStore.store(upload("cctv.mp4", "six hours of frames"), blob -> blob);
+
+        assertEquals(1, blobs.get(stored.sha256()).getRefCount());
+        assertTrue(Files.exists(uploadDir.resolve(stored.path())));
+    }
+
+    @Test
+    void store_revivesBlobWhoseCollectionWasInterrupted() throws Exception {
+        StoredFile first = contentStore.store(upload("a.pdf", "evidence"), blob -> blob);
+        Files.delete(uploadDir.resolve(first.path()));
+        blobs.get(first.sha256()).setRefCount(StorageBlob.TOMBSTONE);
+
+        StoredFile again = contentStore.store(upload("a-again.pdf", "evidence"), blob -> blob);
+
+        assertEquals(first.path(), again.path());
+        assertTrue(Files.exists(uploadDir.resolve(again.path())));
+        assertEquals(1, blobs.get(again.sha256()).getRefCount());
+    }
+
+    @Test
+    void collectGarbage_tombstonesTheRowBeforeDeletingTheFile() {
+        StoredFile dropped = contentStore.store(upload("b.pdf", "dropped"), blob -> blob);
+        contentStore.release(dropped.sha256());
+        StorageBlob row = blobs.get(dropped.sha256());
+        row.setReleasedAt(LocalDateTime.now().minusDays(1));
+        Mockito.doAnswer(inv -> {
+            assertEquals(StorageBlob.TOMBSTONE, row.getRefCount(), "row is tombstoned before its file goes");
+            return inv.callRealMethod();
+        }).when(blobStorage).delete(dropped.path());
+
+        assertEquals(1, contentStore.collectGarbage());
+        InOrder order = Mockito.inOrder(transactionManager, blobStorage, blobRepository);
+        order.verify(transactionManager).commit(any());
+        order.verify(blobStorage).delete(dropped.path());
+        order.verify(blobRepository).delete(row);
+        assertFalse(blobs.containsKey(dropped.sha256()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.nyaysetu.backend.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.nyaysetu.backend.entity.DocumentEntity;
+import com.nyaysetu.backend.notification.event.DocumentAnalysisProgressEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DocumentChunkAnalysisServiceTest {
+
+    private DocumentTextService documentTextService;
+    private AiService aiService;
+    private ApplicationEventPublisher eventPublisher;
+    private DocumentChunkAnalysisService service;
+    private DocumentEntity document;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        documentTextService = Mockito.mock(DocumentTextService.class);
+        aiService = Mockito.mock(AiService.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        service = new DocumentChunkAnalysisService(documentTextService, aiService, new SyncTaskExecutor(), eventPublisher);
+        ReflectionTestUtils.setField(service, "chunkChars", 200);
+
+        document = DocumentEntity.builder().id(UUID.randomUUID()).fileName("chargesheet.pdf").fileHash("ab12")
+                .uploadedBy(7L).build();
+
+        List<String> pages = List.of(
+                "FACTS\n" + "The complainant Ramesh reported the theft.\n".repeat(3),
+                "CHARGES\n" + "The accused Suresh is charged under Section 379 IPC.\n".repeat(3),
+                "WITNESS STATEMENTS\n" + "PW-1 Ramesh identified the accused.\n".repeat(3));
+        when(documentTextService.getPages(eq("ab12"), any(File.class), anyLong())).thenReturn(pages);
+    }
+
+    @Test
+    void analyze_mergesChunkFactsAndStreamsProgress() throws Exception {
+        when(aiService.extractDocumentFacts(anyString(), eq("chargesheet.pdf"), anyInt(), eq(3)))
+                .thenReturn("{\"summary\":\"Theft reported\",\"partiesInvolved\":[\"Ramesh (complainant)\"],"
+                        + "\"relevantLaws\":[]}")
+                .thenReturn("```json\n{\"summary\":\"Charge framed\",\"partiesInvolved\":[\"Suresh (accused)\"],"
+                        + "\"relevantLaws\":[\"Section 379 IPC\"]}\n```")
+                .thenReturn("{\"summary\":\"PW-1 deposed\",\"partiesInvolved\":[\"ramesh  (Complainant)\"],"
+                        + "\"relevantLaws\":[\"section 379 IPC.\"]}");
+        when(aiService.assessDocument(contains("Pages 2-2: Charge framed"), eq("chargesheet.pdf"), eq(3)))
+                .thenReturn("{\"summary\":\"Theft case\",\"suggestedCategory\":\"CRIMINAL\",\"score\":70,"
+                        + "\"partiesInvolved\":[\"only one\"]}");
+
+        JsonObject analysis = new Gson().fromJson(service.analyze(document, new File("chargesheet.pdf")),
+                JsonObject.class);
+
+        assertEquals("Theft case", analysis.get("summary").getAsString());
+        assertEquals("CRIMINAL", analysis.get("suggestedCategory").getAsString());
+        assertEquals(List.of("Ramesh (complainant)", "Suresh (accused)"),
+                new Gson().fromJson(analysis.get("partiesInvolved"), List.class));
+        assertEquals(List.of("Section 379 IPC"), new Gson().fromJson(analysis.get("relevantLaws"), List.class));
+        assertEquals(3, analysis.getAsJsonObject("coverage").get("analysedChunks").getAsInt());
+
+        ArgumentCaptor<DocumentAnalysisProgressEvent> events =
+                ArgumentCaptor.forClass(DocumentAnalysisProgressEvent.class);
+        verify(eventPublisher, times(5)).publishEvent(events.capture());
+        List<String> statuses = events.getAllValues().stream().map(DocumentAnalysisProgressEvent::status).toList();
+        assertEquals(List.of("STARTED", "PARTIAL", "PARTIAL", "PARTIAL", "COMPLETE"), statuses);
+        assertEquals(7L, events.getAllValues().get(1).userId());
+        assertEquals("Theft reported", events.getAllValues().get(1).result().get("summary"));
+    }
+
+    @Test
+    void analyze_failsSoTheJobRetriesWhenTooFewChunksWereAnalysed() throws Exception {
+        when(aiService.extractDocumentFacts(anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn("{\"summary\":\"Theft reported\"}")
+                .thenThrow(new IllegalStateException("Groq request budget exhausted"))
+                .thenReturn("{\"summary\":\"PW-1 deposed\",\"legalPoints\":[\"Identification by PW-1\"]}");
+
+        // 2 of 3 is under the default 0.8: nothing is returned to be saved against the hash
+        assertThrows(IllegalStateException.class, () -> service.analyze(document, new File("chargesheet.pdf")));
+        ArgumentCaptor<DocumentAnalysisProgressEvent> events =
+                ArgumentCaptor.forClass(DocumentAnalysisProgressEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        assertEquals("FAILED", events.getValue().status());
+        verify(aiService, never()).assessDocument(anyString(), anyString(), anyInt());
+
+        ReflectionTestUtils.setField(service, "minAnalysedRatio", 0.5);
+        reset(aiService);
+        when(aiService.extractDocumentFacts(anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(AiService.FALLBACK_MESSAGE)
+                .thenReturn("{\"summary\":\"Charge framed\"}")
+                .thenReturn("{\"summary\":\"PW-1 deposed\",\"legalPoints\":[\"Identification by PW-1\"]}");
+        when(aiService.assessDocument(anyString(), anyString(), anyInt())).thenReturn("not json");
+
+        JsonObject analysis = new Gson().fromJson(service.analyze(document, new File("chargesheet.pdf")),
+                JsonObject.class);
+        assertEquals(2, analysis.getAsJsonObject("coverage").get("analysedChunks").getAsInt());
+        assertTrue(analysis.get("summary").getAsString().contains("PW-1 deposed"));
+
+        reset(aiService);
+        when(aiService.extractDocumentFacts(anyString(), anyString(), anyInt(), anyInt())).thenReturn("not json");
+        assertThrows(IllegalStateException.class, () -> service.analyze(document, new File("chargesheet.pdf")));
+    }
+
+    @Test
+    void analyze_condensesSummariesThatDoNotFitOneReducePrompt() throws Exception {
+        ReflectionTestUtils.setField(service, "reduceMaxChars", 60);
+        when(aiService.extractDocumentFacts(anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn("{\"summary\":\"Complainant Ramesh reported the theft of his motorcycle\"}")
+                .thenReturn("{\"summary\":\"Accused Suresh charged under Section 379 IPC\"}")
+                .thenReturn("{\"summary\":\"PW-1 Ramesh identified the accused in court\"}");
+        when(aiService.condenseSummaries(anyString(), anyString())).thenReturn("Theft trial");
+        when(aiService.assessDocument(anyString(), anyString(), anyInt()))
+                .thenReturn(AiService.FALLBACK_MESSAGE);
+
+        JsonObject analysis = new Gson().fromJson(service.analyze(document, new File("chargesheet.pdf")),
+                JsonObject.class);
+
+        verify(aiService, never()).analyzeDocument(anyString(), anyString());
+        verify(aiService, atLeastOnce()).condenseSummaries(anyString(), eq("chargesheet.pdf"));
+        ArgumentCaptor<String> outline = ArgumentCaptor.forClass(String.class);
+        verify(aiService).assessDocument(outline.capture(), eq("chargesheet.pdf"), eq(3));
+        assertTrue(outline.getValue().length() <= 60, outline.getValue());
+        assertTrue(outline.getValue().startsWith("Pages 1-"), outline.getValue());
+        // The unavailable assessment is not taken as an answer
+        assertEquals(outline.getValue(), analysis.get("summary").getAsString());
+    }
+}
@@ -34,9 +34,11 @@ class DocumentManagementServiceTest {
     @Mock
     private FileStorageService fileStorageService;
     @Mock
-    private DocumentAnalysisService documentAnalysisService;
+    private AnalysisJobService analysisJobService;
     @Mock
     private BlockchainService blockchainService;
+    @Mock
+    private ContentStoreService contentStoreService;
 
     private DocumentManagementService documentManagementService;
 
@@ -47,8 +49,9 @@ class DocumentManagementServiceTest {
                 caseRepository,
                 userRepository,
                 fileStorageService,
-                documentAnalysisService,
-                blockchainService
+                analysisJobService,
+                blockchainService,
+                contentStoreService
         );
     }
 
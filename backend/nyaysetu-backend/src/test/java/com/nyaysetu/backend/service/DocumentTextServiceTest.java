@@ -0,0 +1,134 @@
+package com.nyaysetu.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DocumentTextServiceTest {
+
+    private static final String SHA = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path uploadDir;
+
+    private PdfTextExtractorService pdfExtractor;
+    private FileStorageService fileStorage;
+    private MeterRegistry meters;
+    private File pdf;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfExtractor = Mockito.mock(PdfTextExtractorService.class);
+        when(pdfExtractor.extractText(any(File.class))).thenReturn("IN THE HIGH COURT OF DELHI");
+        fileStorage = new FileStorageService(uploadDir.toString(), 4096);
+        meters = new SimpleMeterRegistry();
+        pdf = Files.writeString(uploadDir.resolve("judgment.pdf"), "%PDF-1.4").toFile();
+    }
+
+    private DocumentTextService newService() {
+        return new DocumentTextService(pdfExtractor, fileStorage, meters, 1_000_000, 60);
+    }
+
+    private double count(String name, String... tags) {
+        return meters.counter(name, tags).count();
+    }
+
+    @Test
+    void getText_extractsOncePerHashAcrossTiers() throws Exception {
+        DocumentTextService service = newService();
+
+        assertEquals(Optional.of("IN THE HIGH COURT OF DELHI"), service.getText(SHA, pdf, "application/pdf"));
+        assertEquals(Optional.of("IN THE HIGH COURT OF DELHI"), service.getText(SHA, pdf, "application/pdf"));
+        assertTrue(Files.exists(fileStorage.resolve(DocumentTextService.cachePath(SHA))));
+
+        // A fresh instance has an empty memory tier, as after a restart
+        assertEquals(Optional.of("IN THE HIGH COURT OF DELHI"), newService().getText(SHA, pdf, "application/pdf"));
+
+        verify(pdfExtractor, times(1)).extractText(any(File.class));
+        assertEquals(1, count("document.text.cache.misses"));
+        assertEquals(1, count("document.text.cache.hits", "tier", "memory"));
+        assertEquals(1, count("document.text.cache.hits", "tier", "disk"));
+    }
+
+    @Test
+    void getText_readsPlainTextDirectlyAndSkipsBinaryFormats() throws Exception {
+        File notes = Files.writeString(uploadDir.resolve("notes.txt"), "Hearing adjourned to 12.11.2026",
+                StandardCharsets.UTF_8).toFile();
+        DocumentTextService service = newService();
+
+        assertEquals(Optional.of("Hearing adjourned to 12.11.2026"), service.getText(null, notes, "text/plain"));
+        assertEquals(Optional.empty(), service.getText(SHA, notes, "video/mp4"));
+        verifyNoInteractions(pdfExtractor);
+    }
+
+    @Test
+    void getPages_cachesTheUncappedPageListApartFromTheWholeText() throws Exception {
+        doAnswer(inv -> {
+            PdfTextExtractorService.PageTextConsumer consumer = inv.getArgument(2);
+            consumer.accept(1, "IN THE HIGH COURT OF DELHI");
+            consumer.accept(2, "");
+            consumer.accept(3, "ORDER\fDismissed");
+            return 0L;
+        }).when(pdfExtractor).extractPages(any(File.class), anyLong(), any());
+        List<String> pages = List.of("IN THE HIGH COURT OF DELHI", "", "ORDER\nDismissed");
+        DocumentTextService service = newService();
+
+        assertEquals(pages, service.getPages(SHA, pdf, 1_500_000));
+        assertEquals(pages, service.getPages(SHA, pdf, 1_500_000));
+        assertEquals(pages, newService().getPages(SHA, pdf, 1_500_000));
+        assertTrue(Files.exists(fileStorage.resolve(DocumentTextService.pagesCachePath(SHA))));
+        verify(pdfExtractor, times(1)).extractPages(any(File.class), eq(1_500_000L), any());
+
+        // The capped whole text is a separate entry
+        assertEquals(Optional.of("IN THE HIGH COURT OF DELHI"), service.getText(SHA, pdf, "application/pdf"));
+        verify(pdfExtractor, times(1)).extractText(any(File.class));
+    }
+
+    @Test
+    void getText_discardsCorruptDiskEntry() throws Exception {
+        Path entry = fileStorage.resolve(DocumentTextService.cachePath(SHA));
+        Files.createDirectories(entry.getParent());
+        Files.writeString(entry, "not gzip");
+
+        assertEquals(Optional.of("IN THE HIGH COURT OF DELHI"), newService().getText(SHA, pdf, "application/pdf"));
+        verify(pdfExtractor, times(1)).extractText(any(File.class));
+    }
+
+    @Test
+    void evictDiskTier_dropsEntriesUnreadPastTheAgeLimitThenOverTheBudget() throws Exception {
+        String stale = "cd" + "1".repeat(62);
+        DocumentTextService service = newService();
+        service.getText(SHA, pdf, "application/pdf");
+        service.getText(stale, pdf, "application/pdf");
+        Path staleEntry = fileStorage.resolve(DocumentTextService.cachePath(stale));
+        Files.setLastModifiedTime(staleEntry, FileTime.from(Instant.now().minus(Duration.ofDays(40))));
+
+        assertEquals(1, service.evictDiskTier());
+        assertFalse(Files.exists(staleEntry));
+        assertTrue(Files.exists(fileStorage.resolve(DocumentTextService.cachePath(SHA))));
+
+        ReflectionTestUtils.setField(service, "diskMaxMb", 0L);
+        assertEquals(1, service.evictDiskTier());
+        assertFalse(Files.exists(fileStorage.resolve(DocumentTextService.cachePath(SHA))));
+    }
+}
@@ -0,0 +1,203 @@
+package com.nyaysetu.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory, path-style S3 stand-in for tests: PUT/GET (with Range)/HEAD/DELETE objects
+ * and multipart uploads. Every request's SigV4 signature, header or presigned, is
+ * recomputed from what actually arrived on the wire and rejected with 403 on mismatch.
+ */
+class EmbeddedS3Server implements AutoCloseable {
+
+    static final String ACCESS_KEY = "test-access";
+    static final String SECRET_KEY = "test-secret";
+    static final String REGION = "ap-south-1";
+
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final Pattern PART = Pattern.compile("<PartNumber>(\\d+)</PartNumber><ETag>([^<]+)</ETag>");
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final AtomicInteger partUploads = new AtomicInteger();
+    final AtomicInteger rangedGets = new AtomicInteger();
+
+    private final Map<String, Map<Integer, byte[]>> multipart = new ConcurrentHashMap<>();
+    private final S3RequestSigner signer = new S3RequestSigner(ACCESS_KEY, SECRET_KEY, REGION);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final HttpServer server;
+
+    EmbeddedS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            SortedMap<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if (!authorised(exchange, method, path, query)) {
+                respond(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                return;
+            }
+            String key = path.substring(path.indexOf('/', 1) + 1);
+
+            if ("POST".equals(method) && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                multipart.put(uploadId, new ConcurrentHashMap<>());
+                respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && query.containsKey("partNumber")) {
+                int part = Integer.parseInt(query.get("partNumber"));
+                multipart.get(query.get("uploadId")).put(part, body);
+                partUploads.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", "\"part-" + part + "\"");
+                respond(exchange, 200, "");
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                Map<Integer, byte[]> parts = multipart.remove(query.get("uploadId"));
+                ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                Matcher matcher = PART.matcher(new String(body, StandardCharsets.UTF_8));
+                while (matcher.find()) {
+                    assembled.write(parts.get(Integer.parseInt(matcher.group(1))));
+                }
+                objects.put(key, assembled.toByteArray());
+                respond(exchange, 200, "<CompleteMultipartUploadResult/>");
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                multipart.remove(query.get("uploadId"));
+                respond(exchange, 204, null);
+            } else if ("PUT".equals(method)) {
+                objects.put(key, body);
+                respond(exchange, 200, "");
+            } else if ("DELETE".equals(method)) {
+                objects.remove(key);
+                respond(exchange, 204, null);
+            } else if ("HEAD".equals(method) || "GET".equals(method)) {
+                byte[] object = objects.get(key);
+                if (object == null) {
+                    respond(exchange, 404, "HEAD".equals(method) ? null : "<Error><Code>NoSuchKey</Code></Error>");
+                    return;
+                }
+                if ("HEAD".equals(method)) {
+                    exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+                if (query.containsKey("response-content-disposition")) {
+                    exchange.getResponseHeaders().add("Content-Disposition", query.get("response-content-disposition"));
+                }
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if (range != null) {
+                    rangedGets.incrementAndGet();
+                    String[] bounds = range.substring("bytes=".length()).split("-");
+                    int start = Integer.parseInt(bounds[0]);
+                    int end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                    byte[] slice = new byte[end - start + 1];
+                    System.arraycopy(object, start, slice, 0, slice.length);
+                    exchange.sendResponseHeaders(206, slice.length);
+                    exchange.getResponseBody().write(slice);
+                } else {
+                    exchange.sendResponseHeaders(200, object.length);
+                    exchange.getResponseBody().write(object);
+                }
+            } else {
+                respond(exchange, 405, "");
+            }
+        }
+    }
+
+    private boolean authorised(HttpExchange exchange, String method, String path, SortedMap<String, String> query) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (query.containsKey("X-Amz-Signature")) {
+            SortedMap<String, String> params = new TreeMap<>(query);
+            String signature = params.remove("X-Amz-Signature");
+            Instant signedAt = AMZ_DATE.parse(params.remove("X-Amz-Date"), Instant::from);
+            long expires = Long.parseLong(params.remove("X-Amz-Expires"));
+            params.remove("X-Amz-Algorithm");
+            params.remove("X-Amz-Credential");
+            params.remove("X-Amz-SignedHeaders");
+            if (signedAt.plusSeconds(expires).isBefore(Instant.now())) {
+                return false;
+            }
+            String expected = signer.presign(method, host, path, params, expires, signedAt);
+            return expected.endsWith("X-Amz-Signature=" + signature);
+        }
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null) {
+            return false;
+        }
+        String signedHeaders = authorization.replaceAll(".*SignedHeaders=([^,]+),.*", "$1");
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : signedHeaders.split(";")) {
+            if (!name.equals("host") && !name.startsWith("x-amz-")) {
+                headers.put(name, exchange.getRequestHeaders().getFirst(name));
+            }
+        }
+        Instant signedAt = AMZ_DATE.parse(exchange.getRequestHeaders().getFirst("x-amz-date"), Instant::from);
+        Map<String, String> expected = signer.sign(method, host, path, query, headers,
+                exchange.getRequestHeaders().getFirst("x-amz-content-sha256"), signedAt);
+        return authorization.equals(expected.get("Authorization"));
+    }
+
+    private static SortedMap<String, String> parseQuery(String rawQuery) {
+        SortedMap<String, String> query = new TreeMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null || body.isEmpty()) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.EvidenceAnchorBatch;
+import com.nyaysetu.backend.entity.EvidenceMerkleRoot;
+import com.nyaysetu.backend.repository.EvidenceAnchorBatchRepository;
+import com.nyaysetu.backend.repository.EvidenceMerkleRootRepository;
+import com.nyaysetu.backend.repository.EvidenceRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EvidenceAnchorBatchServiceTest {
+
+    private EvidenceAnchorBatchService batchService;
+    private EvidenceMerkleRootRepository rootRepository;
+    private EvidenceRecordRepository evidenceRepository;
+    private LocalTimestampAuthority timestampAuthority;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        rootRepository = Mockito.mock(EvidenceMerkleRootRepository.class);
+        evidenceRepository = Mockito.mock(EvidenceRecordRepository.class);
+        EvidenceAnchorBatchRepository batchRepository = Mockito.mock(EvidenceAnchorBatchRepository.class);
+        timestampAuthority = Mockito.spy(new LocalTimestampAuthority());
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+
+        when(batchRepository.save(any(EvidenceAnchorBatch.class))).thenAnswer(inv -> {
+            EvidenceAnchorBatch batch = inv.getArgument(0);
+            batch.setId(UUID.randomUUID());
+            return batch;
+        });
+
+        batchService = new EvidenceAnchorBatchService(rootRepository, batchRepository, evidenceRepository,
+                new EvidenceAnchoringService(timestampAuthority), transactionManager);
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", 10000);
+    }
+
+    /** Claiming hands back the given roots; the record step re-reads the same instances. */
+    private void stubPending(List<EvidenceMerkleRoot> pending) {
+        when(rootRepository.claimPending(any(LocalDateTime.class), anyInt())).thenReturn(pending);
+        when(rootRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(rootRepository.findAllById(anyIterable())).thenReturn(pending);
+    }
+
+    private static EvidenceMerkleRoot pendingRoot(UUID caseId, long leafCount) {
+        return EvidenceMerkleRoot.builder()
+                .id(UUID.randomUUID())
+                .caseId(caseId)
+                .leafCount(leafCount)
+                .rootHash(MerkleTree.sha256(caseId + "-" + leafCount))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void anchorPendingRoots_usesOneTimestampForAllCasesInWindow() {
+        List<EvidenceMerkleRoot> pending = new ArrayList<>();
+        for (int c = 0; c < 3; c++) {
+            UUID caseId = UUID.randomUUID();
+            for (long v = 1; v <= 3; v++) {
+                pending.add(pendingRoot(caseId, v));
+            }
+        }
+        stubPending(pending);
+
+        EvidenceAnchorBatch batch = batchService.anchorPendingRoots();
+
+        verify(timestampAuthority, times(1)).timestamp(batch.getSuperRoot());
+        assertEquals(9, batch.getLeafCount());
+        assertTrue(timestampAuthority.verify(batch.getSuperRoot(), batch.getAnchorProof()));
+        for (EvidenceMerkleRoot root : pending) {
+            assertEquals(batch.getId(), root.getBatchId());
+            assertNotNull(root.getAnchoredAt());
+            assertTrue(MerkleTree.verify(EvidenceAnchorBatchService.batchLeaf(root),
+                    MerkleTree.decodePath(root.getBatchPath()), batch.getSuperRoot()));
+        }
+        verify(evidenceRepository).markAnchored(anyCollection(), eq(batch.getAnchorProof()),
+                any(LocalDateTime.class), eq(LocalTimestampAuthority.NAME));
+    }
+
+    @Test
+    void anchorPendingRoots_pathDoesNotProveAnotherCaseRoot() {
+        EvidenceMerkleRoot first = pendingRoot(UUID.randomUUID(), 1);
+        EvidenceMerkleRoot second = pendingRoot(UUID.randomUUID(), 1);
+        stubPending(List.of(first, second));
+
+        EvidenceAnchorBatch batch = batchService.anchorPendingRoots();
+
+        EvidenceMerkleRoot forged = pendingRoot(first.getCaseId(), 1);
+        forged.setRootHash(MerkleTree.sha256("forged"));
+        assertFalse(MerkleTree.verify(EvidenceAnchorBatchService.batchLeaf(forged),
+                MerkleTree.decodePath(first.getBatchPath()), batch.getSuperRoot()));
+    }
+
+    @Test
+    void anchorPendingRoots_nothingPendingSkipsTimestampAuthority() {
+        stubPending(List.of());
+
+        assertNull(batchService.anchorPendingRoots());
+        verify(timestampAuthority, never()).timestamp(anyString());
+    }
+
+    @Test
+    void anchorPendingRoots_callsTimestampAuthorityBetweenTransactions() {
+        stubPending(List.of(pendingRoot(UUID.randomUUID(), 1)));
+
+        batchService.anchorPendingRoots();
+
+        InOrder inOrder = inOrder(transactionManager, rootRepository, timestampAuthority, evidenceRepository);
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(rootRepository).claimPending(any(LocalDateTime.class), anyInt());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(timestampAuthority).timestamp(anyString());
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(evidenceRepository).markAnchored(anyCollection(), anyString(), any(LocalDateTime.class), anyString());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void anchorPendingRoots_releasesClaimsWhenTimestampAuthorityFails() {
+        EvidenceMerkleRoot root = pendingRoot(UUID.randomUUID(), 1);
+        stubPending(List.of(root));
+        doThrow(new IllegalStateException("TSA unreachable")).when(timestampAuthority).timestamp(anyString());
+
+        assertThrows(IllegalStateException.class, () -> batchService.anchorPendingRoots());
+
+        verify(rootRepository).releaseClaims(eq(List.of(root.getId())), eq(root.getAnchorClaimedAt()));
+        verify(evidenceRepository, never()).markAnchored(anyCollection(), anyString(), any(LocalDateTime.class), anyString());
+        assertNull(root.getAnchoredAt());
+    }
+
+    @Test
+    void anchorPendingRoots_keepsAnchorOfRootReclaimedByAnotherNode() {
+        EvidenceMerkleRoot ours = pendingRoot(UUID.randomUUID(), 1);
+        EvidenceMerkleRoot lost = pendingRoot(UUID.randomUUID(), 1);
+        stubPending(List.of(ours, lost));
+        // By the time the result is recorded, another node has re-claimed and anchored one root
+        EvidenceMerkleRoot lostNow = pendingRoot(lost.getCaseId(), 1);
+        lostNow.setId(lost.getId());
+        lostNow.setAnchoredAt(LocalDateTime.now());
+        lostNow.setExternalAnchorProof("their-proof");
+        when(rootRepository.findAllById(anyIterable())).thenReturn(List.of(ours, lostNow));
+
+        EvidenceAnchorBatch batch = batchService.anchorPendingRoots();
+
+        assertEquals(batch.getId(), ours.getBatchId());
+        assertNull(lostNow.getBatchId());
+        assertEquals("their-proof", lostNow.getExternalAnchorProof());
+    }
+}
@@ -0,0 +1,111 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.EvidenceMerkleNode;
+import com.nyaysetu.backend.entity.EvidenceMerkleRoot;
+import com.nyaysetu.backend.repository.EvidenceMerkleNodeRepository;
+import com.nyaysetu.backend.repository.EvidenceMerkleRootRepository;
+import com.nyaysetu.backend.repository.EvidenceRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class EvidenceMerkleTreeServiceTest {
+
+    private EvidenceMerkleTreeService treeService;
+    private EvidenceRecordRepository evidenceRepository;
+    private final Map<String, EvidenceMerkleNode> store = new HashMap<>();
+    private int lastWriteSize;
+
+    @BeforeEach
+    void setUp() {
+        EvidenceMerkleNodeRepository nodeRepository = Mockito.mock(EvidenceMerkleNodeRepository.class);
+        EvidenceMerkleRootRepository rootRepository = Mockito.mock(EvidenceMerkleRootRepository.class);
+        evidenceRepository = Mockito.mock(EvidenceRecordRepository.class);
+
+        when(nodeRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<EvidenceMerkleNode> found = new ArrayList<>();
+            for (Object id : inv.<Iterable<?>>getArgument(0)) {
+                if (store.containsKey(id)) {
+                    found.add(store.get(id));
+                }
+            }
+            return found;
+        });
+        when(nodeRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            List<EvidenceMerkleNode> saved = new ArrayList<>();
+            inv.<Iterable<EvidenceMerkleNode>>getArgument(0).forEach(n -> {
+                store.put(n.getId(), n);
+                saved.add(n);
+            });
+            lastWriteSize = saved.size();
+            return saved;
+        });
+        when(rootRepository.save(any(EvidenceMerkleRoot.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        treeService = new EvidenceMerkleTreeService(nodeRepository, rootRepository, evidenceRepository);
+    }
+
+    private static List<String> leaves(int n) {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            leaves.add(MerkleTree.sha256("block-" + i));
+        }
+        return leaves;
+    }
+
+    @Test
+    void appendLeaf_matchesFullRecomputationAtEveryVersion() {
+        UUID caseId = UUID.randomUUID();
+        List<String> leaves = leaves(33);
+
+        for (int i = 0; i < leaves.size(); i++) {
+            EvidenceMerkleRoot root = treeService.appendLeaf(caseId, i, leaves.get(i));
+
+            assertEquals(MerkleTree.root(leaves.subList(0, i + 1)), root.getRootHash(), "version " + (i + 1));
+            assertEquals(i + 1L, root.getLeafCount());
+            int depth = 64 - Long.numberOfLeadingZeros(i);
+            assertEquals(depth + 1, lastWriteSize, "only the rightmost path is rewritten");
+        }
+    }
+
+    @Test
+    void appendLeaf_rebuildsLegacyCaseOnce() {
+        UUID caseId = UUID.randomUUID();
+        List<String> leaves = leaves(7);
+        when(evidenceRepository.findBlockHashesByCaseId(caseId)).thenReturn(leaves.subList(0, 6));
+
+        EvidenceMerkleRoot root = treeService.appendLeaf(caseId, 6, leaves.get(6));
+
+        assertEquals(MerkleTree.root(leaves), root.getRootHash());
+        verify(evidenceRepository, times(1)).findBlockHashesByCaseId(caseId);
+    }
+
+    @Test
+    void proof_fromPersistedNodesVerifiesEveryLeaf() {
+        UUID caseId = UUID.randomUUID();
+        List<String> leaves = leaves(13);
+        String root = null;
+        for (int i = 0; i < leaves.size(); i++) {
+            root = treeService.appendLeaf(caseId, i, leaves.get(i)).getRootHash();
+        }
+
+        for (int i = 0; i < leaves.size(); i++) {
+            List<MerkleTree.ProofStep> path = treeService.proof(caseId, i, leaves.size());
+
+            assertEquals(MerkleTree.proof(leaves, i), path);
+            assertTrue(MerkleTree.verify(leaves.get(i), path, root));
+            assertFalse(MerkleTree.verify(MerkleTree.sha256("forged"), path, root));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.nyaysetu.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ContentDisposition;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDownloadServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @TempDir
+    Path dir;
+
+    private final FileDownloadService downloadService = new FileDownloadService();
+    private File file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(dir.resolve("clip.mp4"), content).toFile();
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadService.serve(request, response, file, HASH, "video/mp4", "clip.mp4", true);
+        return response;
+    }
+
+    @Test
+    void serve_fullBodyWithHashEtag() throws Exception {
+        MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + HASH + "\"", response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void serve_rangeReturnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=100-199");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void serve_suffixAndOpenEndedRanges() {
+        assertEquals(new FileDownloadService.ByteRange(900, 999), FileDownloadService.parseRange("bytes=-100", 1000));
+        assertEquals(new FileDownloadService.ByteRange(990, 999), FileDownloadService.parseRange("bytes=990-", 1000));
+        assertEquals(new FileDownloadService.ByteRange(0, 999), FileDownloadService.parseRange("bytes=0-5000", 1000));
+        assertNull(FileDownloadService.parseRange("bytes=0-1,5-6", 1000));
+    }
+
+    @Test
+    void serve_matchingIfNoneMatchReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"" + HASH + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_staleIfRangeFallsBackToFullBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=100-199");
+        request.addHeader("If-Range", "\"" + "b".repeat(64) + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(content.length, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_unsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=5000-6000");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_handsRegionToSendfileWhenContainerSupportsIt() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-19");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_escapesQuotesAndEncodesNonAsciiFileNames() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadService.serve(new MockHttpServletRequest("GET", "/"), response, file, HASH, "application/pdf",
+                "आदेश \"final\".pdf", false);
+
+        String disposition = response.getHeader("Content-Disposition");
+        ContentDisposition parsed = ContentDisposition.parse(disposition);
+        assertTrue(parsed.isAttachment());
+        assertEquals("आदेश \"final\".pdf", parsed.getFilename());
+        assertTrue(disposition.contains("filename*=UTF-8''"), disposition);
+    }
+}
@@ -0,0 +1,54 @@
+package com.nyaysetu.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService fileStorageService;
+    private final BlockchainService blockchainService = new BlockchainService();
+
+    @BeforeEach
+    void setUp() {
+        // Small buffer so a modest file spans many read/digest/write rounds
+        fileStorageService = new FileStorageService(uploadDir.toString(), 4096);
+    }
+
+    @Test
+    void storeFileWithHash_matchesHashOfStoredBytes() throws Exception {
+        byte[] content = new byte[1_000_003];
+        new Random(42).nextBytes(content);
+        MockMultipartFile file = new MockMultipartFile("file", "clip.bin", "application/octet-stream", content);
+
+        StoredFile stored = fileStorageService.storeFileWithHash(file, "EVIDENCE");
+
+        Path written = uploadDir.resolve(stored.path());
+        assertArrayEquals(content, Files.readAllBytes(written));
+        assertEquals(content.length, stored.size());
+        assertEquals(blockchainService.calculateFileHash(written.toFile()), stored.sha256());
+        assertEquals(stored.sha256(), fileStorageService.hash(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    void storeFileWithHash_sniffsContentTypeFromLeadingBytes() {
+        byte[] pdf = "%PDF-1.7\n...".getBytes(StandardCharsets.US_ASCII);
+        MockMultipartFile file = new MockMultipartFile("file", "judgment.txt", "text/plain", pdf);
+
+        StoredFile stored = fileStorageService.storeFileWithHash(file, "OTHER");
+
+        assertEquals("application/pdf", stored.contentType());
+    }
+}
@@ -0,0 +1,74 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.FirEvidence;
+import com.nyaysetu.backend.entity.FirRecord;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.notification.service.NotificationService;
+import com.nyaysetu.backend.repository.CaseRepository;
+import com.nyaysetu.backend.repository.FirEvidenceRepository;
+import com.nyaysetu.backend.repository.FirRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FirServiceTest {
+
+    private static final StoredFile BLOB = new StoredFile("cas/ab/cd/abcd", "abcd".repeat(16), 12L, "image/jpeg");
+
+    private FirRecordRepository firRecordRepository;
+    private FirEvidenceRepository firEvidenceRepository;
+    private ContentStoreService contentStoreService;
+    private FirService firService;
+    private final User officer = User.builder().id(5L).name("SI Rao").build();
+    private final MockMultipartFile photo = new MockMultipartFile("file", "scene.jpg", "image/jpeg",
+            "scene photo".getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        firRecordRepository = mock(FirRecordRepository.class);
+        firEvidenceRepository = mock(FirEvidenceRepository.class);
+        contentStoreService = mock(ContentStoreService.class);
+        when(contentStoreService.store(any(), any())).thenAnswer(inv ->
+                inv.<Function<StoredFile, Object>>getArgument(1).apply(BLOB));
+        when(firRecordRepository.save(any(FirRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        firService = new FirService(firRecordRepository, mock(CaseRepository.class),
+                mock(GroqDocumentVerificationService.class), mock(NotificationService.class),
+                mock(FileStorageService.class), contentStoreService, firEvidenceRepository);
+    }
+
+    @Test
+    void addEvidence_recordsTheBlobOnAnEvidenceRowInTheStoreTransaction() {
+        FirRecord fir = FirRecord.builder().id(9L).firNumber("FIR-1").status("UNDER_INVESTIGATION").build();
+        when(firRecordRepository.findById(9L)).thenReturn(Optional.of(fir));
+
+        firService.addEvidence(9L, photo, "Photo of the scene", officer);
+
+        ArgumentCaptor<FirEvidence> evidence = ArgumentCaptor.forClass(FirEvidence.class);
+        verify(firEvidenceRepository).save(evidence.capture());
+        assertEquals(9L, evidence.getValue().getFirId());
+        assertEquals(BLOB.path(), evidence.getValue().getFilePath());
+        assertEquals(BLOB.sha256(), evidence.getValue().getFileHash());
+        assertTrue(fir.getInvestigationDetails().contains(BLOB.sha256()));
+        verify(contentStoreService, never()).reference(any());
+    }
+
+    @Test
+    void addEvidence_rejectsBeforeUploadingWhenNotUnderInvestigation() {
+        FirRecord fir = FirRecord.builder().id(9L).firNumber("FIR-1").status("SEALED").build();
+        when(firRecordRepository.findById(9L)).thenReturn(Optional.of(fir));
+
+        assertThrows(RuntimeException.class, () -> firService.addEvidence(9L, photo, "Photo", officer));
+
+        verifyNoInteractions(contentStoreService, firEvidenceRepository);
+    }
+}
@@ -2,6 +2,7 @@ package com.nyaysetu.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nyaysetu.backend.entity.Role;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
@@ -130,6 +131,31 @@ class JwtServiceTest {
         assertTrue(jwtService.isTokenValid(refreshToken, userDetails));
     }
 
+    @Test
+    void accessTokenCarriesSignedIdentityClaims() {
+        com.nyaysetu.backend.entity.User user = new com.nyaysetu.backend.entity.User();
+        user.setId(42L);
+        user.setRole(Role.JUDGE);
+
+        String token = jwtService.generateToken(JwtService.identityClaims(user), userDetails);
+        JwtService.AccessClaims claims = jwtService.parseAccessClaims(token);
+
+        assertEquals("test@example.com", claims.email());
+        assertEquals(42L, claims.userId());
+        assertEquals(Role.JUDGE, claims.role());
+        assertTrue(claims.hasIdentity());
+    }
+
+    @Test
+    void tokenWithoutIdentityClaimsParsesWithoutIdentity() {
+        String token = jwtService.generateRefreshToken(userDetails);
+
+        JwtService.AccessClaims claims = jwtService.parseAccessClaims(token);
+
+        assertEquals("test@example.com", claims.email());
+        assertFalse(claims.hasIdentity());
+    }
+
     private String createToken(
             String subject,
             String keyId,
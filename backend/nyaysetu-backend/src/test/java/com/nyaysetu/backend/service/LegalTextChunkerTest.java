@@ -0,0 +1,58 @@
+package com.nyaysetu.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegalTextChunkerTest {
+
+    @Test
+    void isSectionStart_recognisesCourtDocumentHeadings() {
+        assertTrue(LegalTextChunker.isSectionStart("BRIEF FACTS OF THE CASE"));
+        assertTrue(LegalTextChunker.isSectionStart("12. The accused was arrested on 04.03.2026"));
+        assertTrue(LegalTextChunker.isSectionStart("IV. Statement of PW-3"));
+        assertTrue(LegalTextChunker.isSectionStart("Section 302 IPC"));
+        assertFalse(LegalTextChunker.isSectionStart("the complainant stated that he saw the accused"));
+        assertFalse(LegalTextChunker.isSectionStart(""));
+    }
+
+    @Test
+    void chunk_breaksBetweenSectionsAndTracksPages() {
+        String facts = "FACTS\n" + "The complainant reached the police station at 9 pm.\n".repeat(10);
+        String charges = "CHARGES\n" + "The accused is charged under Section 420 IPC.\n".repeat(10);
+        String prayer = "PRAYER\n" + "It is prayed that cognizance be taken.\n".repeat(10);
+
+        List<LegalTextChunker.Chunk> chunks =
+                LegalTextChunker.chunk(List.of(facts, charges, prayer), facts.length() + charges.length() + 10);
+
+        assertEquals(2, chunks.size());
+        assertTrue(chunks.get(0).text().startsWith("FACTS"));
+        assertTrue(chunks.get(0).text().contains("CHARGES"));
+        assertEquals(1, chunks.get(0).firstPage());
+        assertEquals(2, chunks.get(0).lastPage());
+        assertTrue(chunks.get(1).text().startsWith("PRAYER"));
+        assertEquals(3, chunks.get(1).firstPage());
+        assertEquals(2, chunks.get(1).index());
+    }
+
+    @Test
+    void chunk_splitsOversizedSectionsWithoutLosingText() {
+        List<String> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add("witness deposition line " + i + " " + "x".repeat(200) + "\n" + "y".repeat(1500));
+        }
+
+        List<LegalTextChunker.Chunk> chunks = LegalTextChunker.chunk(pages, 1000);
+
+        StringBuilder joined = new StringBuilder();
+        for (LegalTextChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.text().length() <= 1000, "chunk " + chunk.index() + " is too long");
+            joined.append(chunk.text());
+        }
+        assertEquals(String.join("", pages).replace("\n", ""), joined.toString().replace("\n", ""));
+        assertEquals(20, chunks.get(chunks.size() - 1).lastPage());
+    }
+}
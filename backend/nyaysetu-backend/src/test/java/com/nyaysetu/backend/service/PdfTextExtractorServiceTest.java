@@ -0,0 +1,95 @@
+package com.nyaysetu.backend.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfTextExtractorServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PdfTextExtractorService extractor;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new PdfTextExtractorService(3);
+        ReflectionTestUtils.setField(extractor, "pagesPerTask", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        extractor.shutdown();
+    }
+
+    private File pdf(int pages) throws Exception {
+        File file = tempDir.resolve("bundle-" + pages + ".pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText("Exhibit page " + i);
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+
+    @Test
+    void extractPages_deliversEveryPageInOrder() throws Exception {
+        List<Integer> order = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+
+        extractor.extractPages(pdf(11), Long.MAX_VALUE, (page, text) -> {
+            order.add(page);
+            texts.add(text);
+            return true;
+        });
+
+        assertEquals(11, order.size());
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i + 1, order.get(i));
+            assertTrue(texts.get(i).contains("Exhibit page " + (i + 1)), texts.get(i));
+        }
+    }
+
+    @Test
+    void extractPages_stopsOnceBudgetIsMet() throws Exception {
+        List<Integer> seen = new ArrayList<>();
+
+        long delivered = extractor.extractPages(pdf(40), 30, (page, text) -> seen.add(page));
+
+        assertTrue(delivered >= 30);
+        assertTrue(seen.size() < 40, "stopped after " + seen.size() + " pages");
+        assertEquals(1, seen.get(0));
+    }
+
+    @Test
+    void extractText_truncatesToMaxChars() throws Exception {
+        ReflectionTestUtils.setField(extractor, "maxChars", 20);
+
+        String text = extractor.extractText(pdf(5));
+
+        assertEquals(20, text.length());
+        assertTrue(text.startsWith("Exhibit page 1"));
+    }
+}
@@ -0,0 +1,295 @@
+package com.nyaysetu.backend.service;
+
+import com.nyaysetu.backend.entity.UploadSession;
+import com.nyaysetu.backend.entity.UploadSessionChunk;
+import com.nyaysetu.backend.entity.UploadSessionStatus;
+import com.nyaysetu.backend.entity.User;
+import com.nyaysetu.backend.exception.AccessDeniedException;
+import com.nyaysetu.backend.exception.UploadOffsetConflictException;
+import com.nyaysetu.backend.repository.UploadSessionChunkRepository;
+import com.nyaysetu.backend.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @TempDir
+    Path otherNodeDir;
+
+    private UploadSessionService service;
+    private UploadSessionRepository repository;
+    private UploadSessionChunkRepository chunkRepository;
+    private FileStorageService fileStorage;
+    private LocalBlobStorage blobStorage;
+    private ContentStoreService contentStore;
+    private PlatformTransactionManager transactionManager;
+    private final Map<UUID, UploadSession> sessions = new HashMap<>();
+    private final List<UploadSessionChunk> chunks = new ArrayList<>();
+    private final User owner = User.builder().id(1L).email("lawyer@example.com").build();
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(UploadSessionRepository.class);
+        when(repository.save(any(UploadSession.class))).thenAnswer(inv -> {
+            UploadSession session = inv.getArgument(0);
+            if (session.getId() == null) {
+                session.setId(UUID.randomUUID());
+            }
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(repository.findForUpdate(any(UUID.class)))
+                .thenAnswer(inv -> Optional.ofNullable(sessions.get(inv.<UUID>getArgument(0))));
+        when(repository.findById(any(UUID.class)))
+                .thenAnswer(inv -> Optional.ofNullable(sessions.get(inv.<UUID>getArgument(0))));
+
+        chunkRepository = Mockito.mock(UploadSessionChunkRepository.class);
+        when(chunkRepository.save(any(UploadSessionChunk.class))).thenAnswer(inv -> {
+            chunks.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(chunkRepository.findBySessionIdOrderByChunkOffsetAsc(any(UUID.class))).thenAnswer(inv -> chunks.stream()
+                .filter(c -> c.getSessionId().equals(inv.getArgument(0)))
+                .sorted(Comparator.comparing(UploadSessionChunk::getChunkOffset))
+                .toList());
+        when(chunkRepository.deleteBySessionIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            int before = chunks.size();
+            chunks.removeIf(c -> ids.contains(c.getSessionId()));
+            return before - chunks.size();
+        });
+
+        fileStorage = new FileStorageService(uploadDir.toString(), 4096);
+        blobStorage = Mockito.spy(new LocalBlobStorage(fileStorage));
+        contentStore = Mockito.mock(ContentStoreService.class);
+        when(contentStore.upload(any(StoredFile.class))).thenAnswer(inv -> {
+            StoredFile staged = inv.getArgument(0);
+            String blobPath = FileStorageService.casPath(staged.sha256());
+            fileStorage.move(staged.path(), blobPath);
+            return new StoredFile(blobPath, staged.sha256(), staged.size(), staged.contentType());
+        });
+
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        service = node(fileStorage, blobStorage);
+    }
+
+    /** A service instance as on one node: its own local disk, sharing the blob storage and database. */
+    private UploadSessionService node(FileStorageService localDisk, BlobStorage storage) {
+        UploadSessionService node = new UploadSessionService(repository, chunkRepository, localDisk, storage,
+                contentStore, transactionManager);
+        ReflectionTestUtils.setField(node, "maxChunkSize", 8L);
+        return node;
+    }
+
+    private static ByteArrayInputStream chunk(byte[] data, int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(data, from, to));
+    }
+
+    private long filesUnder(String dir) throws IOException {
+        Path root = uploadDir.resolve(dir);
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void chunksInOrder_completeWithMatchingHash() throws Exception {
+        byte[] data = "Chargesheet annexure, 20 bytes".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("annexure.pdf", "application/pdf", data.length, owner);
+
+        long offset = 0;
+        while (offset < data.length) {
+            int end = (int) Math.min(offset + 8, data.length);
+            offset = service.writeChunk(session.getId(), offset, chunk(data, (int) offset, end), owner)
+                    .getReceivedBytes();
+        }
+        assertEquals(4, filesUnder("upload-chunks"), "each chunk is its own blob storage object");
+
+        StoredFile stored = service.complete(session.getId(), owner, blob -> blob);
+
+        assertEquals(fileStorage.hash(new ByteArrayInputStream(data)), stored.sha256());
+        assertEquals(data.length, stored.size());
+        assertArrayEquals(data, Files.readAllBytes(fileStorage.resolve(stored.path())));
+        assertEquals(UploadSessionStatus.COMPLETED, sessions.get(session.getId()).getStatus());
+        assertEquals(stored.sha256(), sessions.get(session.getId()).getSha256());
+        assertEquals(0, filesUnder("upload-chunks"));
+        assertEquals(0, filesUnder(FileStorageService.CAS_STAGING));
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    void chunksWrittenOnOneNodeCompleteOnAnother() throws Exception {
+        byte[] data = "Seizure memo scan".getBytes(StandardCharsets.UTF_8);
+        try (EmbeddedS3Server s3 = new EmbeddedS3Server()) {
+            FileStorageService diskA = new FileStorageService(uploadDir.toString(), 4096);
+            FileStorageService diskB = new FileStorageService(otherNodeDir.toString(), 4096);
+            S3BlobStorage storageA = new S3BlobStorage(diskA, s3.endpoint(), EmbeddedS3Server.REGION, "nyaysetu-files",
+                    EmbeddedS3Server.ACCESS_KEY, EmbeddedS3Server.SECRET_KEY, true, 1024, 2, 300);
+            S3BlobStorage storageB = new S3BlobStorage(diskB, s3.endpoint(), EmbeddedS3Server.REGION, "nyaysetu-files",
+                    EmbeddedS3Server.ACCESS_KEY, EmbeddedS3Server.SECRET_KEY, true, 1024, 2, 300);
+            try {
+                UploadSessionService nodeA = node(diskA, storageA);
+                UploadSessionService nodeB = node(diskB, storageB);
+                UploadSession session = nodeA.createSession("memo.pdf", "application/pdf", data.length, owner);
+
+                nodeA.writeChunk(session.getId(), 0, chunk(data, 0, 8), owner);
+                nodeB.writeChunk(session.getId(), 8, chunk(data, 8, 16), owner);
+                nodeA.writeChunk(session.getId(), 16, chunk(data, 16, data.length), owner);
+
+                List<byte[]> assembled = new ArrayList<>();
+                when(contentStore.upload(any(StoredFile.class))).thenAnswer(inv -> {
+                    StoredFile staged = inv.getArgument(0);
+                    assembled.add(Files.readAllBytes(diskB.resolve(staged.path())));
+                    return staged;
+                });
+                StoredFile stored = nodeB.complete(session.getId(), owner, blob -> blob);
+
+                assertEquals(fileStorage.hash(new ByteArrayInputStream(data)), stored.sha256());
+                assertArrayEquals(data, assembled.get(0));
+                assertTrue(s3.objects.keySet().stream().noneMatch(key -> key.startsWith("upload-chunks/")),
+                        "chunk objects are deleted once the session completes");
+            } finally {
+                storageA.shutdown();
+                storageB.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void complete_uploadsBeforeTheRecordTransactionOpens() {
+        byte[] data = "CCTV".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("cctv.mp4", "video/mp4", data.length, owner);
+        service.writeChunk(session.getId(), 0, chunk(data, 0, data.length), owner);
+        Mockito.clearInvocations(transactionManager);
+
+        StoredFile stored = service.complete(session.getId(), owner, blob -> blob);
+
+        InOrder order = Mockito.inOrder(contentStore, transactionManager);
+        order.verify(contentStore).upload(any(StoredFile.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(contentStore).reference(stored);
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void writeChunk_wrongOffsetReportsExpectedOffset() {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("video.mp4", "video/mp4", data.length, owner);
+        service.writeChunk(session.getId(), 0, chunk(data, 0, 4), owner);
+
+        UploadOffsetConflictException conflict = assertThrows(UploadOffsetConflictException.class,
+                () -> service.writeChunk(session.getId(), 8, chunk(data, 8, 10), owner));
+        assertEquals(4, conflict.getExpectedOffset());
+    }
+
+    @Test
+    void complete_keepsSessionAndChunksWhenRecordCreationFails() throws Exception {
+        byte[] data = "FIR 114/2026".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("fir.pdf", "application/pdf", data.length, owner);
+        service.writeChunk(session.getId(), 0, chunk(data, 0, 8), owner);
+        service.writeChunk(session.getId(), 8, chunk(data, 8, data.length), owner);
+
+        assertThrows(IllegalStateException.class, () -> service.complete(session.getId(), owner, blob -> {
+            throw new IllegalStateException("case closed");
+        }));
+        assertEquals(UploadSessionStatus.OPEN, sessions.get(session.getId()).getStatus());
+        assertEquals(2, filesUnder("upload-chunks"));
+
+        assertEquals("evidence-1", service.complete(session.getId(), owner, blob -> "evidence-1"));
+        assertEquals(UploadSessionStatus.COMPLETED, sessions.get(session.getId()).getStatus());
+    }
+
+    @Test
+    void writeChunk_retryTakesOverFromAStalledWriter() throws Exception {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("video.mp4", "video/mp4", data.length, owner);
+        InputStream stalled = new InputStream() {
+            private boolean retried;
+
+            @Override
+            public int read() {
+                if (!retried) {
+                    retried = true;
+                    // The client gave up on this connection and resent the chunk
+                    assertEquals(4L, service.writeChunk(session.getId(), 0, chunk(data, 0, 4), owner)
+                            .getReceivedBytes());
+                    return 'x';
+                }
+                return -1;
+            }
+        };
+
+        assertThrows(UploadOffsetConflictException.class,
+                () -> service.writeChunk(session.getId(), 0, stalled, owner));
+
+        assertEquals(4L, sessions.get(session.getId()).getReceivedBytes());
+        assertEquals(1, chunks.size());
+        assertEquals(1, filesUnder("upload-chunks"), "the superseded writer's chunk is discarded");
+        assertNull(sessions.get(session.getId()).getChunkLeaseId());
+    }
+
+    @Test
+    void writeChunk_releasesItsLeaseWhenBlobStorageFails() throws Exception {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("audio.mp3", "audio/mpeg", data.length, owner);
+        Mockito.doThrow(new UncheckedIOException(new IOException("object store unavailable")))
+                .when(blobStorage).put(anyString(), anyString(), any());
+
+        assertThrows(UncheckedIOException.class,
+                () -> service.writeChunk(session.getId(), 0, chunk(data, 0, 4), owner));
+
+        assertNull(sessions.get(session.getId()).getChunkLeaseId());
+        assertEquals(0L, sessions.get(session.getId()).getReceivedBytes());
+        assertEquals(0, filesUnder(FileStorageService.CAS_STAGING));
+    }
+
+    @Test
+    void writeChunk_rejectsOversizedChunkAndOtherUsers() throws Exception {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.createSession("audio.mp3", "audio/mpeg", data.length, owner);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(session.getId(), 0, chunk(data, 0, 10), owner));
+        assertEquals(0L, sessions.get(session.getId()).getReceivedBytes());
+        assertNull(sessions.get(session.getId()).getChunkLeaseId(), "a rejected chunk releases its lease");
+        assertEquals(0, filesUnder(FileStorageService.CAS_STAGING));
+
+        User stranger = User.builder().id(2L).build();
+        assertThrows(AccessDeniedException.class,
+                () -> service.writeChunk(session.getId(), 0, chunk(data, 0, 4), stranger));
+        assertThrows(IllegalArgumentException.class, () -> service.complete(session.getId(), owner, blob -> blob));
+    }
+}